@@ -15,49 +15,105 @@
  */
 package org.alfresco.mockeventgenerator;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.alfresco.mockeventgenerator.compression.PayloadCompressor;
 import org.alfresco.mockeventgenerator.config.CamelRouteProperties;
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+import org.alfresco.mockeventgenerator.serialization.BodyType;
+import org.alfresco.mockeventgenerator.serialization.EncodedBody;
+import org.alfresco.mockeventgenerator.serialization.EventSerializer;
+import org.alfresco.mockeventgenerator.serialization.WireFormat;
+import org.apache.camel.AsyncProcessor;
 import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.Producer;
 import org.apache.camel.ProducerTemplate;
+import org.apache.camel.util.AsyncProcessorConverterHelper;
+import org.apache.camel.util.ServiceHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * @author Jamal Kaabi-Mofrad
  */
 @Component
-public class CamelMessageProducer
+public class CamelMessageProducer implements RunReport
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(CamelMessageProducer.class);
+    /** After the first one, only every n-th asynchronous send failure is logged */
+    private static final int FAILURE_LOG_INTERVAL = 1000;
+    /** How long to wait for the in-flight messages to complete before reporting or shutting down */
+    private static final long DRAIN_TIMEOUT_SECONDS = 30L;
 
+    private final CamelContext camelContext;
     private final ProducerTemplate producer;
     private final String endpoint;
     private final ExecutorService executor;
     private final AtomicInteger totalMessageCounter;
+    private final AtomicInteger totalFailureCounter;
     private final AtomicBoolean aggregated;
-    private ObjectMapper objectMapper;
+    private final int maxInFlight;
+    private final Semaphore inFlightWindow;
+    private final LongAdder windowStalls;
+    private final LongAdder windowStallNanos;
+    private volatile AsyncProcessor asyncProcessor;
+    private final BodyType bodyType;
+    private final PayloadCompressor compressor;
+    private EventSerializer serializer;
 
     @Autowired
-    public CamelMessageProducer(CamelContext camelContext, CamelRouteProperties routeProperties, ObjectMapper objectMapper)
+    public CamelMessageProducer(CamelContext camelContext, CamelRouteProperties routeProperties, ObjectMapper objectMapper,
+                @Value("${generator.producer.async.enabled:false}") boolean asyncEnabled,
+                @Value("${generator.producer.async.maxInFlight:1000}") int maxInFlight,
+                @Value("${generator.producer.bodyType:STRING}") String bodyType,
+                WireFormat wireFormat, ObjectProvider<PayloadCompressor> compressor)
     {
+        this(camelContext, routeProperties, objectMapper, asyncEnabled, maxInFlight, bodyType, wireFormat, compressor.getIfAvailable());
+    }
+
+    /**
+     * @param compressor compresses the message bodies, or null to send them uncompressed
+     */
+    public CamelMessageProducer(CamelContext camelContext, CamelRouteProperties routeProperties, ObjectMapper objectMapper,
+                boolean asyncEnabled, int maxInFlight, String bodyType, WireFormat wireFormat, PayloadCompressor compressor)
+    {
+        this.camelContext = camelContext;
         this.producer = camelContext.createProducerTemplate();
         this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() + 1);
         this.producer.setExecutorService(executor);
         this.endpoint = routeProperties.getToRoute();
         this.totalMessageCounter = new AtomicInteger(0);
+        this.totalFailureCounter = new AtomicInteger(0);
         this.aggregated = new AtomicBoolean(false);
-        this.objectMapper = objectMapper;
+        this.serializer = new EventSerializer(objectMapper, wireFormat);
+        this.bodyType = BodyType.valueOf(bodyType.trim().toUpperCase());
+        this.compressor = compressor;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlightWindow = asyncEnabled ? new Semaphore(this.maxInFlight) : null;
+        this.windowStalls = new LongAdder();
+        this.windowStallNanos = new LongAdder();
     }
 
     public void send(Object message) throws Exception
@@ -66,6 +122,19 @@ public class CamelMessageProducer
     }
 
     public void send(Object message, Map<String, Object> headers) throws Exception
+    {
+        send(message, headers, inFlightWindow != null);
+    }
+
+    /**
+     * Sends the message and waits for the broker to acknowledge it, even when the async mode is enabled.
+     */
+    public void sendAndWait(Object message) throws Exception
+    {
+        send(message, Collections.emptyMap(), false);
+    }
+
+    private void send(Object message, Map<String, Object> headers, boolean async) throws Exception
     {
         if (message instanceof Collection)
         {
@@ -73,36 +142,206 @@ public class CamelMessageProducer
             Collection<?> msgs = (Collection<?>) message;
             for (Object obj : msgs)
             {
-                sendImpl(obj, headers);
+                sendImpl(obj, headers, async);
             }
         }
         else
         {
-            if (message instanceof String && ((String) message).startsWith("["))
+            if ((message instanceof String && ((String) message).startsWith("["))
+                        || (message instanceof byte[] && ((byte[]) message).length > 0 && ((byte[]) message)[0] == '['))
             {
                 aggregated.set(true);
             }
-            sendImpl(message, headers);
+            sendImpl(message, headers, async);
         }
     }
 
-    private void sendImpl(Object message, Map<String, Object> headers) throws Exception
+    /**
+     * Serializes the message the way it would be sent, so it can be sent later without further work.
+     *
+     * @return the body of the message, or a list of bodies if the message is a collection
+     */
+    public Object serialize(Object message) throws JsonProcessingException
+    {
+        if (message instanceof Collection)
+        {
+            Collection<?> msgs = (Collection<?>) message;
+            List<Object> serialized = new ArrayList<>(msgs.size());
+            for (Object obj : msgs)
+            {
+                serialized.add(serializeOne(obj));
+            }
+            return serialized;
+        }
+        return serializeOne(message);
+    }
+
+    private Object serializeOne(Object message) throws JsonProcessingException
+    {
+        return (message instanceof EncodedBody) ? message : bodyType.toBody(serializer, message);
+    }
+
+    private void sendImpl(Object message, Map<String, Object> headers, boolean async) throws Exception
     {
-        if (!(message instanceof String))
+        message = serializeOne(message);
+        WireFormat format = serializer.getFormat();
+        if (message instanceof EncodedBody)
         {
-            message = objectMapper.writeValueAsString(message);
+            format = ((EncodedBody) message).getFormat();
+            message = ((EncodedBody) message).getBody();
         }
         if (LOGGER.isDebugEnabled())
         {
-            LOGGER.debug("Sending message:" + message.toString() + " \nTo endpoint:" + endpoint);
+            final String body = !(message instanceof byte[]) ? message.toString()
+                        : format.isBinary() ? ((byte[]) message).length + " bytes of " + format
+                        : new String((byte[]) message, StandardCharsets.UTF_8);
+            LOGGER.debug("Sending message:" + body + " \nTo endpoint:" + endpoint);
+        }
+        final byte[] compressed = (compressor == null) ? null : compressor.compress(message);
+        if (compressed == null)
+        {
+            headers = format.withContentType(headers);
+        }
+        else
+        {
+            message = compressed;
+            headers = compressor.withContentEncoding(format, headers);
+        }
+        if (async)
+        {
+            sendAsync(message, headers);
+            return;
         }
         producer.sendBodyAndHeaders(endpoint, message, headers);
         totalMessageCounter.incrementAndGet();
     }
 
+    /**
+     * Hands the message to the endpoint's asynchronous producer without waiting for the broker.
+     * If {@code maxInFlight} messages are already awaiting their completion, the caller stalls
+     * until one of them completes.
+     */
+    private void sendAsync(Object message, Map<String, Object> headers) throws Exception
+    {
+        if (!inFlightWindow.tryAcquire())
+        {
+            final long stallStart = System.nanoTime();
+            inFlightWindow.acquire();
+            windowStalls.increment();
+            windowStallNanos.add(System.nanoTime() - stallStart);
+        }
+        try
+        {
+            final AsyncProcessor processor = getAsyncProcessor();
+            final Exchange exchange = camelContext.getEndpoint(endpoint).createExchange(ExchangePattern.InOnly);
+            exchange.getIn().setBody(message);
+            exchange.getIn().getHeaders().putAll(headers);
+            processor.process(exchange, doneSync -> onAsyncSendComplete(exchange));
+        }
+        catch (Exception ex)
+        {
+            inFlightWindow.release();
+            throw ex;
+        }
+    }
+
+    private void onAsyncSendComplete(Exchange exchange)
+    {
+        try
+        {
+            if (exchange.getException() == null)
+            {
+                totalMessageCounter.incrementAndGet();
+            }
+            else
+            {
+                int failures = totalFailureCounter.incrementAndGet();
+                if (failures == 1 || failures % FAILURE_LOG_INTERVAL == 0)
+                {
+                    LOGGER.error("Error occurred while sending the message (" + failures + " failure(s) so far).", exchange.getException());
+                }
+            }
+        }
+        finally
+        {
+            inFlightWindow.release();
+        }
+    }
+
+    private AsyncProcessor getAsyncProcessor() throws Exception
+    {
+        AsyncProcessor processor = asyncProcessor;
+        if (processor == null)
+        {
+            synchronized (this)
+            {
+                processor = asyncProcessor;
+                if (processor == null)
+                {
+                    Endpoint camelEndpoint = camelContext.getEndpoint(endpoint);
+                    Producer camelProducer = camelEndpoint.createProducer();
+                    ServiceHelper.startService(camelProducer);
+                    processor = AsyncProcessorConverterHelper.convert(camelProducer);
+                    asyncProcessor = processor;
+                }
+            }
+        }
+        return processor;
+    }
+
+    /**
+     * Waits for the asynchronously sent messages still in flight to complete.
+     *
+     * @return true if there are no more messages in flight, false if the timeout elapsed first
+     */
+    public boolean awaitInFlight(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        if (inFlightWindow == null)
+        {
+            return true;
+        }
+        if (inFlightWindow.tryAcquire(maxInFlight, timeout, unit))
+        {
+            inFlightWindow.release(maxInFlight);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Waits, for a bounded time, for the asynchronously sent messages still in flight to complete,
+     * so the sent and failed counters are final.
+     */
+    public void flush()
+    {
+        try
+        {
+            if (!awaitInFlight(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+            {
+                LOGGER.warn(getInFlight() + " message(s) still in flight after " + DRAIN_TIMEOUT_SECONDS + " seconds.");
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     public void shutdown()
     {
+        flush();
         executor.shutdown();
+        if (asyncProcessor != null)
+        {
+            try
+            {
+                ServiceHelper.stopService(asyncProcessor);
+            }
+            catch (Exception ex)
+            {
+                LOGGER.warn("Couldn't stop the async producer.", ex);
+            }
+        }
     }
 
     public int getTotalMessagesSent()
@@ -110,6 +349,34 @@ public class CamelMessageProducer
         return totalMessageCounter.get();
     }
 
+    public int getTotalMessagesFailed()
+    {
+        return totalFailureCounter.get();
+    }
+
+    public int getInFlight()
+    {
+        return (inFlightWindow == null) ? 0 : maxInFlight - inFlightWindow.availablePermits();
+    }
+
+    @Override
+    public StringBuilder appendReport(StringBuilder sb)
+    {
+        if (inFlightWindow != null)
+        {
+            sb.append("\n\tAsync sends succeeded: ").append(getTotalMessagesSent())
+                        .append("\n\tAsync sends failed: ").append(getTotalMessagesFailed())
+                        .append("\n\tAsync sends still in flight: ").append(getInFlight())
+                        .append("\n\tIn-flight window (max ").append(maxInFlight).append(") stalls: ").append(windowStalls.sum())
+                        .append(", total stall time in ms: ").append(TimeUnit.NANOSECONDS.toMillis(windowStallNanos.sum()));
+        }
+        if (compressor != null)
+        {
+            compressor.appendReport(sb);
+        }
+        return sb;
+    }
+
     public boolean isAggregated()
     {
         return aggregated.get();
@@ -120,7 +387,7 @@ public class CamelMessageProducer
      */
     public void setObjectMapper(ObjectMapper objectMapper)
     {
-        this.objectMapper = objectMapper;
+        this.serializer = new EventSerializer(objectMapper, serializer.getFormat());
     }
 
     /**
@@ -128,6 +395,6 @@ public class CamelMessageProducer
      */
     public ObjectMapper getObjectMapper()
     {
-        return this.objectMapper;
+        return this.serializer.getMapper();
     }
 }
@@ -15,15 +15,25 @@
  */
 package org.alfresco.mockeventgenerator;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.alfresco.mockeventgenerator.EventMaker.CloudConnectorEventInstance;
+import org.alfresco.mockeventgenerator.config.LoadProfileProperties;
+import org.alfresco.mockeventgenerator.job.JobManager;
+import org.alfresco.mockeventgenerator.job.SendJob;
+import org.alfresco.mockeventgenerator.metrics.RunReport;
 import org.alfresco.mockeventgenerator.model.CloudConnectorIntegrationRequest;
+import org.alfresco.mockeventgenerator.rate.LoadProfile;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -40,18 +50,36 @@ public class EventController
     @Value("${generator.fixed.pauseTimeInMillis:1000}")
     private long pauseTimeInMillis;
 
+    @Value("${generator.fixed.workers:1}")
+    private int workers;
+
     private final EventSender messageSender;
+    private final JobManager jobManager;
 
     @Autowired
-    public EventController(EventSender messageSender)
+    public EventController(EventSender messageSender, JobManager jobManager)
     {
         this.messageSender = messageSender;
+        this.jobManager = jobManager;
     }
 
     @RequestMapping(path = "/events" , method = RequestMethod.POST, consumes = { MediaType.APPLICATION_JSON_VALUE })
     @ResponseBody
     public ResponseEntity sendEvents(@RequestBody EventRequestPayload payload)
     {
+        double weight = 1.0;
+        if (payload.getWeight() != null)
+        {
+            if (payload.getWeight() <= 0.0)
+            {
+                return new ResponseEntity<>("The weight must be greater than zero.", HttpStatus.BAD_REQUEST);
+            }
+            weight = payload.getWeight();
+        }
+        if (payload.getLoadProfile() != null)
+        {
+            return sendEventsWithProfile(payload.getLoadProfile(), payload.getRunForInSeconds(), weight);
+        }
         if (payload.getNumOfEvents() == null || payload.getNumOfEvents() <= 0)
         {
             return new ResponseEntity(HttpStatus.BAD_REQUEST);
@@ -61,8 +89,71 @@ public class EventController
         {
             pauseTime = payload.getPauseTimeInMillis();
         }
-        messageSender.sendRandomEvent(payload.getNumOfEvents(), pauseTime);
-        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        int numOfWorkers = workers;
+        if (payload.getWorkers() != null && payload.getWorkers() > 0)
+        {
+            numOfWorkers = payload.getWorkers();
+        }
+        final int numOfEvents = payload.getNumOfEvents();
+        final long jobPauseTime = pauseTime;
+        final int jobWorkers = numOfWorkers;
+        return submitJob(numOfEvents + " events, " + jobPauseTime + "ms pause, " + jobWorkers + " worker(s)", weight,
+                    job -> messageSender.sendRandomEvent(numOfEvents, jobPauseTime, jobWorkers, job));
+    }
+
+    private ResponseEntity sendEventsWithProfile(LoadProfileProperties loadProfileProperties, Integer runForInSeconds, double weight)
+    {
+        if (runForInSeconds == null || runForInSeconds <= 0)
+        {
+            return new ResponseEntity(HttpStatus.BAD_REQUEST);
+        }
+        LoadProfile loadProfile;
+        try
+        {
+            loadProfile = loadProfileProperties.createLoadProfile(TimeUnit.SECONDS.toNanos(runForInSeconds));
+        }
+        catch (IllegalArgumentException ex)
+        {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        final LoadProfile jobLoadProfile = loadProfile;
+        return submitJob(loadProfileProperties + " for " + runForInSeconds + "s", weight,
+                    job -> messageSender.sendRandomEventWithProfile(jobLoadProfile, runForInSeconds, job));
+    }
+
+    private ResponseEntity submitJob(String description, double weight, Function<SendJob, ? extends RunReport> run)
+    {
+        try
+        {
+            return new ResponseEntity<>(jobManager.submit(description, weight, run), HttpStatus.ACCEPTED);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            return new ResponseEntity<>("Too many send jobs are running or queued, try again later.", HttpStatus.TOO_MANY_REQUESTS);
+        }
+    }
+
+    @RequestMapping(path = "/events", method = RequestMethod.GET)
+    @ResponseBody
+    public ResponseEntity<List<SendJob>> getJobs()
+    {
+        return new ResponseEntity<>(jobManager.getJobs(), HttpStatus.OK);
+    }
+
+    @RequestMapping(path = "/events/{jobId}", method = RequestMethod.GET)
+    @ResponseBody
+    public ResponseEntity<SendJob> getJob(@PathVariable("jobId") String jobId)
+    {
+        SendJob job = jobManager.getJob(jobId);
+        return (job == null) ? new ResponseEntity<>(HttpStatus.NOT_FOUND) : new ResponseEntity<>(job, HttpStatus.OK);
+    }
+
+    @RequestMapping(path = "/events/{jobId}", method = RequestMethod.DELETE)
+    @ResponseBody
+    public ResponseEntity<SendJob> cancelJob(@PathVariable("jobId") String jobId)
+    {
+        SendJob job = jobManager.cancel(jobId);
+        return (job == null) ? new ResponseEntity<>(HttpStatus.NOT_FOUND) : new ResponseEntity<>(job, HttpStatus.OK);
     }
 
     @RequestMapping(path = "/connector-event", method = RequestMethod.POST, consumes = { MediaType.APPLICATION_JSON_VALUE })
@@ -96,6 +187,10 @@ public class EventController
     {
         private Integer numOfEvents;
         private Long pauseTimeInMillis;
+        private Integer workers;
+        private Integer runForInSeconds;
+        private LoadProfileProperties loadProfile;
+        private Double weight;
 
         public Integer getNumOfEvents()
         {
@@ -116,6 +211,46 @@ public class EventController
         {
             this.pauseTimeInMillis = pauseTimeInMillis;
         }
+
+        public Integer getWorkers()
+        {
+            return workers;
+        }
+
+        public void setWorkers(Integer workers)
+        {
+            this.workers = workers;
+        }
+
+        public Integer getRunForInSeconds()
+        {
+            return runForInSeconds;
+        }
+
+        public void setRunForInSeconds(Integer runForInSeconds)
+        {
+            this.runForInSeconds = runForInSeconds;
+        }
+
+        public Double getWeight()
+        {
+            return weight;
+        }
+
+        public void setWeight(Double weight)
+        {
+            this.weight = weight;
+        }
+
+        public LoadProfileProperties getLoadProfile()
+        {
+            return loadProfile;
+        }
+
+        public void setLoadProfile(LoadProfileProperties loadProfile)
+        {
+            this.loadProfile = loadProfile;
+        }
     }
 
     public static class CloudConnectorPayload
@@ -15,21 +15,19 @@
  */
 package org.alfresco.mockeventgenerator;
 
-import static java.lang.System.currentTimeMillis;
-
-import java.time.LocalTime;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import java.util.UUID;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -47,8 +45,25 @@ import org.alfresco.event.model.activiti.SequenceFlowResourceV1;
 import org.alfresco.event.model.activiti.TaskCandidateResourceV1;
 import org.alfresco.event.model.activiti.TaskResourceV1;
 import org.alfresco.event.model.activiti.VariableResourceV1;
+import org.alfresco.mockeventgenerator.lifecycle.NodeChange;
+import org.alfresco.mockeventgenerator.lifecycle.NodeLifecycleSimulator;
+import org.alfresco.mockeventgenerator.lifecycle.NodeOperation;
 import org.alfresco.mockeventgenerator.model.CloudConnectorIntegrationRequest;
 import org.alfresco.mockeventgenerator.model.CloudConnectorIntegrationRequest.IntegrationContext;
+import org.alfresco.mockeventgenerator.payload.PayloadShaper;
+import org.alfresco.mockeventgenerator.population.SyntheticPopulation;
+import org.alfresco.mockeventgenerator.process.ProcessInstanceSimulator;
+import org.alfresco.mockeventgenerator.process.ProcessStage;
+import org.alfresco.mockeventgenerator.process.ProcessStep;
+import org.alfresco.mockeventgenerator.repository.RepositoryTree;
+import org.alfresco.mockeventgenerator.skeleton.EventInputs;
+import org.alfresco.mockeventgenerator.skeleton.EventSkeleton;
+import org.alfresco.mockeventgenerator.template.CompiledTemplate;
+import org.alfresco.mockeventgenerator.template.TemplateDirectory;
+import org.alfresco.mockeventgenerator.util.AliasSampler;
+import org.alfresco.mockeventgenerator.util.EventClock;
+import org.alfresco.mockeventgenerator.util.IdGenerator;
+import org.alfresco.mockeventgenerator.util.RandomStreams;
 import org.alfresco.mockeventgenerator.util.ResourceUtil;
 import org.alfresco.mockeventgenerator.util.UserInfo;
 import org.alfresco.sync.events.types.NodeAddedEvent;
@@ -59,16 +74,155 @@ import org.alfresco.sync.events.types.permission.LocalPermissionGrantedEvent;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * @author Jamal Kaabi-Mofrad
  */
 public class EventMaker
 {
-    private static final Random RANDOM = new Random();
     private static final List<UserInfo> USER_LIST = new ArrayList<>();
     private static final List<String> GROUP_LIST = new ArrayList<>();
     private static final List<String> PERMISSIONS = new ArrayList<>();
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    private static volatile IdGenerator idGenerator = IdGenerator.FAST_RANDOM;
+    private static volatile EventClock clock = EventClock.system();
+    /** The large population of users, groups and sites, if any, which replaces the built-in ones */
+    private static volatile SyntheticPopulation population;
+    /** The simulation of the nodes' lifecycle, if any, which replaces the stateless public ACS events */
+    private static volatile NodeLifecycleSimulator nodeLifecycle;
+    /** The user's raw Activiti event templates, if set, instead of the built-in ones */
+    private static volatile TemplateDirectory templateDirectory;
+    /** Runs the process instances the public Activiti events belong to, if set, instead of inventing them */
+    private static volatile ProcessInstanceSimulator processSimulator;
+    /** The repository the ACS events take their ancestry and paths from, if any, instead of random ones */
+    private static volatile RepositoryTree repositoryTree;
+    /** Pads the events' properties to a target size, if set */
+    private static volatile PayloadShaper payloadShaper;
+    private static volatile AliasSampler<RawAcsEventInstance> rawAcsEventMix = AliasSampler.uniform(RawAcsEventInstance.values());
+    private static volatile AliasSampler<PublicAcsEventInstance> publicAcsEventMix = AliasSampler.uniform(PublicAcsEventInstance.values());
+    private static volatile AliasSampler<RawActivitiEventInstance> rawActivitiEventMix = AliasSampler.uniform(RawActivitiEventInstance.values());
+    private static volatile AliasSampler<PublicActivitiEventInstance> publicActivitiEventMix = AliasSampler.uniform(
+                PublicActivitiEventInstance.values());
+    private static final AliasSampler<CloudConnectorEventInstance> CLOUD_CONNECTOR_EVENT_MIX = AliasSampler.uniform(
+                CloudConnectorEventInstance.values());
+    /** The serialize-once skeletons of the public events, if set, which replace building and serializing them */
+    private static volatile Map<PublicAcsEventInstance, EventSkeleton> publicAcsSkeletons;
+    private static volatile Map<PublicActivitiEventInstance, EventSkeleton> publicActivitiSkeletons;
+
+    /**
+     * The per-event values, as generated for the events sent
+     */
+    private static final EventInputs LIVE_INPUTS = new EventInputs()
+    {
+        @Override
+        public String uuid()
+        {
+            return idGenerator.newId();
+        }
+
+        @Override
+        public String userName()
+        {
+            final SyntheticPopulation currentPopulation = population;
+            if (currentPopulation != null)
+            {
+                return currentPopulation.getUserName(currentPopulation.nextUser());
+            }
+            return getUser().getUserName();
+        }
+
+        @Override
+        public String group()
+        {
+            final SyntheticPopulation currentPopulation = population;
+            if (currentPopulation != null)
+            {
+                return currentPopulation.getGroupName(currentPopulation.nextGroup());
+            }
+            int index = RandomStreams.nextInt(GROUP_LIST.size());
+            return GROUP_LIST.get(index);
+        }
+
+        @Override
+        public String permission()
+        {
+            int index = RandomStreams.nextInt(PERMISSIONS.size());
+            return PERMISSIONS.get(index);
+        }
+
+        @Override
+        public long currentTimeMillis()
+        {
+            return clock.currentTimeMillis();
+        }
+
+        @Override
+        public Date currentDate()
+        {
+            return clock.currentDate();
+        }
+
+        @Override
+        public List<HierarchyEntry> nodeHierarchy()
+        {
+            final RepositoryTree tree = repositoryTree;
+            if (tree != null)
+            {
+                return tree.getHierarchy(tree.nextFolder());
+            }
+            return getHierarchyEntries(5, "Node");
+        }
+    };
+    /** Fixed per-event values, for the sample events that mustn't draw from the live ones */
+    private static final EventInputs SAMPLE_INPUTS = new EventInputs()
+    {
+        private final String id = IdGenerator.derive(0x30L, 0);
+        private final long millis = 1_514_764_800_000L;
+
+        @Override
+        public String uuid()
+        {
+            return id;
+        }
+
+        @Override
+        public String userName()
+        {
+            return USER_LIST.get(0).getUserName();
+        }
+
+        @Override
+        public String group()
+        {
+            return GROUP_LIST.get(0);
+        }
+
+        @Override
+        public String permission()
+        {
+            return PERMISSIONS.get(0);
+        }
+
+        @Override
+        public long currentTimeMillis()
+        {
+            return millis;
+        }
+
+        @Override
+        public Date currentDate()
+        {
+            return new Date(millis);
+        }
+
+        @Override
+        public List<HierarchyEntry> nodeHierarchy()
+        {
+            return Collections.singletonList(new HierarchyEntry(id, "Node"));
+        }
+    };
+    /** Where the calling thread takes the per-event values from: the live ones, unless {@link #withInputs(EventInputs, Supplier) replaced} */
+    private static final ThreadLocal<EventInputs> INPUTS = ThreadLocal.withInitial(() -> LIVE_INPUTS);
 
     static
     {
@@ -97,7 +251,9 @@ public class EventMaker
             @Override
             public NodeAddedEvent getEvent()
             {
-                final String siteId = "testsite" + getMilliSecondPart();
+                final RepositoryTree tree = isLive() ? repositoryTree : null;
+                final int folder = (tree == null) ? -1 : tree.nextFolder();
+                final String siteId = (tree == null) ? getSiteId() : tree.getSiteId(folder);
                 final String docName = "testDoc" + getMilliSecondPart() + ".txt";
                 return new NodeAddedEvent(0,
                             docName,
@@ -107,13 +263,14 @@ public class EventMaker
                             siteId,
                             getUUID(),
                             "cm:content",
-                            Stream.of("/Company Home/Sites/" + siteId + "/documentLibrary/Docs/" + docName).collect(Collectors.toList()),
-                            Stream.of(getUUID(6)).collect(Collectors.toList()),
+                            (tree == null) ? Stream.of("/Company Home/Sites/" + siteId + "/documentLibrary/Docs/" + docName).collect(Collectors.toList())
+                                        : Collections.singletonList(tree.getContentPathPrefix(folder) + docName),
+                            (tree == null) ? Stream.of(getUUID(6)).collect(Collectors.toList()) : tree.getContentParentIds(folder),
                             getUserName(),
                             currentTimeMillis(),
                             null,
-                            Stream.of("sys:localized", "sys:referenceable", "cm:auditable").collect(Collectors.toSet()),
-                            new HashMap<>());
+                            getAspects("sys:localized", "sys:referenceable", "cm:auditable"),
+                            getNodeProperties());
             }
         },
         AUTHORITY_ADDED_TO_GROUP_EVENT()
@@ -137,24 +294,27 @@ public class EventMaker
             @Override
             public LocalPermissionGrantedEvent getEvent()
             {
-                final String siteId = "testsite" + getMilliSecondPart();
+                final RepositoryTree tree = isLive() ? repositoryTree : null;
+                final int folder = (tree == null) ? -1 : tree.nextFolder();
+                final String siteId = (tree == null) ? getSiteId() : tree.getSiteId(folder);
                 return LocalPermissionGrantedEvent.builder()
                             .authority(getGroup())
                             .permission(getPermission())
                             .seqNumber(2)
-                            .name("Docs")
+                            .name((tree == null) ? "Docs" : tree.getFolderName(folder))
                             .txnId(getUUID())
                             .timestamp(currentTimeMillis())
                             .networkId("")
                             .siteId(siteId)
-                            .nodeId(getUUID())
+                            .nodeId((tree == null) ? getUUID() : tree.getFolderId(folder))
                             .nodeType("cm:folder")
-                            .paths(Stream.of("/Company Home/Sites/" + siteId + "/documentLibrary/Docs").collect(Collectors.toList()))
-                            .parentNodeIds(Stream.of(getUUID(5)).collect(Collectors.toList()))
+                            .paths((tree == null) ? Stream.of("/Company Home/Sites/" + siteId + "/documentLibrary/Docs").collect(Collectors.toList())
+                                        : tree.getFolderPaths(folder))
+                            .parentNodeIds((tree == null) ? Stream.of(getUUID(5)).collect(Collectors.toList()) : tree.getFolderParentIds(folder))
                             .username(getUserName())
                             .nodeModificationTime(currentTimeMillis())
-                            .aspects(Stream.of("sys:localized", "cm:titled", "sys:referenceable", "cm:auditable").collect(Collectors.toSet()))
-                            .nodeProperties(new HashMap<>())
+                            .aspects(getAspects("sys:localized", "cm:titled", "sys:referenceable", "cm:auditable"))
+                            .nodeProperties(getNodeProperties())
                             .build();
             }
         },
@@ -163,7 +323,7 @@ public class EventMaker
             @Override
             public TransactionCommittedEvent getEvent()
             {
-                return new TransactionCommittedEvent(RANDOM.nextInt(3),
+                return new TransactionCommittedEvent(isLive() ? RandomStreams.nextInt(3) : 0,
                             getUUID(),
                             "",
                             currentTimeMillis(),
@@ -183,9 +343,9 @@ public class EventMaker
             public EventV1<NodeResourceV1> getEvent()
             {
                 List<HierarchyEntry> hierarchyEntries = getNodeHierarchyEntries();
-                NodeResourceV1 contentResource = new NodeResourceV1(getUUID(), hierarchyEntries, "cm:content");
+                NodeResourceV1 contentResource = newNodeResource(getUUID(), hierarchyEntries);
 
-                return new EventV1<>("NODEADDED", getUserName(), contentResource);
+                return newEvent("NODEADDED", getUserName(), contentResource);
             }
         },
         AUTHORITY_ADDED_TO_GROUP_EVENT()
@@ -196,7 +356,7 @@ public class EventMaker
                 AuthorityResourceV1 resource = new AuthorityResourceV1(getUUID(), new ArrayList<>(), getUserName());
                 resource.setParentGroup(getGroup());
 
-                return new EventV1<>("AUTHADDEDTOGROUP", "admin", resource);
+                return newEvent("AUTHADDEDTOGROUP", "admin", resource);
             }
         },
         LOCAL_PERMISSION_GRANTED_EVENT()
@@ -210,7 +370,7 @@ public class EventMaker
                 resource.setAuthority(getGroup());
                 resource.setPermission(getPermission());
 
-                return new EventV1<>("LOCALPERMISSIONGRANTED", getUserName(), resource);
+                return newEvent("LOCALPERMISSIONGRANTED", getUserName(), resource);
             }
         },
         TRANSACTION_COMMITTED_EVENT()
@@ -220,7 +380,7 @@ public class EventMaker
             {
                 ResourceV1 resource = new ResourceV1(getUUID(), new ArrayList<>());
 
-                return new EventV1<>("TRANSACTION_COMMITTED", getUserName(), resource);
+                return newEvent("TRANSACTION_COMMITTED", getUserName(), resource);
             }
         };
 
@@ -254,44 +414,51 @@ public class EventMaker
             }
         };
 
-        private static final ConcurrentMap<String, JSONArray> CACHE = new ConcurrentHashMap<>();
+        private static final ConcurrentMap<String, CompiledTemplate> CACHE = new ConcurrentHashMap<>();
+        private static final String ID_SLOT = "id";
+        private static final String TIMESTAMP_SLOT = "timestamp";
+        private static final String DATE_SLOT = "date";
+        private static final Map<String, CompiledTemplate.Slot> SLOTS = new HashMap<>();
+        static
+        {
+            SLOTS.put(ID_SLOT, sb -> (isLive() ? idGenerator.appendTo(sb.append('"')) : sb.append('"').append(getUUID())).append('"'));
+            SLOTS.put(TIMESTAMP_SLOT, sb -> sb.append(currentTimeMillis()));
+            SLOTS.put(DATE_SLOT, sb -> sb.append('"').append(getJacksonFormatDateTime()).append('"'));
+        }
 
-        private static JSONArray getEventResource(String eventFileName)
+        private static CompiledTemplate getEventTemplate(String eventFileName)
         {
-            JSONArray eventArray = CACHE.get(eventFileName);
-            if (eventArray == null)
-            {
-                String eventStr = ResourceUtil.getResourceFileAsString("events/activiti/" + eventFileName);
-                eventArray = new JSONArray(eventStr);
-                CACHE.putIfAbsent(eventFileName, eventArray);
-            }
-            return eventArray;
+            return CACHE.computeIfAbsent(eventFileName, RawActivitiEventInstance::compileEventTemplate);
         }
 
-        private static String getDecoratedEvent(String eventFileName)
+        /**
+         * Compiles the event resource once, with its per-event values (the ids, timestamps and dates) as slots.
+         */
+        private static CompiledTemplate compileEventTemplate(String eventFileName)
         {
-            JSONArray jsonArray = getEventResource(eventFileName);
+            String eventStr = ResourceUtil.getResourceFileAsString("events/activiti/" + eventFileName);
+            JSONArray jsonArray = new JSONArray(eventStr);
             for (Object obj : jsonArray)
             {
                 JSONObject eventJson = (JSONObject) obj;
-                eventJson.put("id", getUUID());
-                eventJson.put("timestamp", currentTimeMillis());
+                eventJson.put("id", CompiledTemplate.sentinel(ID_SLOT));
+                eventJson.put("timestamp", CompiledTemplate.sentinel(TIMESTAMP_SLOT));
 
                 JSONObject entity = eventJson.getJSONObject("entity");
-                if(entity.has("startDate"))
-                {
-                    entity.put("startDate",  getJacksonFormatDateTime());
-                }
-                if(entity.has("claimedDate"))
+                for (String dateField : new String[] { "startDate", "claimedDate", "createdDate" })
                 {
-                    entity.put("claimedDate",  getJacksonFormatDateTime());
-                }
-                if(entity.has("createdDate"))
-                {
-                    entity.put("createdDate",  getJacksonFormatDateTime());
+                    if (entity.has(dateField))
+                    {
+                        entity.put(dateField, CompiledTemplate.sentinel(DATE_SLOT));
+                    }
                 }
             }
-            return jsonArray.toString();
+            return CompiledTemplate.compile(jsonArray.toString(), SLOTS);
+        }
+
+        private static String getDecoratedEvent(String eventFileName)
+        {
+            return getEventTemplate(eventFileName).render();
         }
 
         public abstract String getEvent();
@@ -304,127 +471,10 @@ public class EventMaker
             @Override
             public List<EventV1<? extends ResourceV1>> getEvents()
             {
+                final ProcessStep step = getRandomProcessStep(ProcessStage.START, null);
                 List<EventV1<? extends ResourceV1>> events = new ArrayList<>();
-
-                // Event 1
-                ProcessResourceV1 processCreatedResource = new ProcessResourceV1(getUUID(), null);
-                setCommonValues(processCreatedResource, getUUID());
-                processCreatedResource.setStatus("RUNNING");
-                processCreatedResource.setProcessDefinitionId("SimpleProcess:1:" + getUUID());
-                processCreatedResource.setProcessDefinitionKey("SimpleProcess");
-                EventV1<ProcessResourceV1> processCreatedEvent = new EventV1<>("PROCESS_CREATED", getUserName(), processCreatedResource);
-                events.add(processCreatedEvent);
-
-                // Event 2
-                VariableResourceV1<String> variableCreatedResource01 = new VariableResourceV1<>(getUUID(), null);
-                setCommonValues(variableCreatedResource01, "firstName");
-                variableCreatedResource01.setName("firstName");
-                variableCreatedResource01.setType("string");
-                variableCreatedResource01.setProcessInstanceId(processCreatedResource.getEntityId());
-                variableCreatedResource01.setTaskVariable(false);
-                variableCreatedResource01.setValue("Paulo");
-                EventV1<VariableResourceV1<String>> variableCreatedEvent01 = new EventV1<>("VARIABLE_CREATED", null, variableCreatedResource01);
-                events.add(variableCreatedEvent01);
-
-                // Event 3
-                VariableResourceV1<String> variableCreatedResource02 = new VariableResourceV1<>(getUUID(), null);
-                setCommonValues(variableCreatedResource02, "lastName");
-                variableCreatedResource02.setName("lastName");
-                variableCreatedResource02.setType("string");
-                variableCreatedResource02.setProcessInstanceId(processCreatedResource.getEntityId());
-                variableCreatedResource02.setTaskVariable(false);
-                variableCreatedResource02.setValue("Silva");
-                EventV1<VariableResourceV1<String>> variableCreatedEvent02 = new EventV1<>("VARIABLE_CREATED", null, variableCreatedResource02);
-                events.add(variableCreatedEvent02);
-
-                // Event 4
-                VariableResourceV1<Integer> variableCreatedResource03 = new VariableResourceV1<>(getUUID(), null);
-                setCommonValues(variableCreatedResource03, "age");
-                variableCreatedResource03.setName("age");
-                variableCreatedResource03.setType("integer");
-                variableCreatedResource03.setProcessInstanceId(processCreatedResource.getEntityId());
-                variableCreatedResource03.setTaskVariable(false);
-                variableCreatedResource03.setValue(25);
-                EventV1<VariableResourceV1<Integer>> variableCreatedEvent03 = new EventV1<>("VARIABLE_CREATED", null, variableCreatedResource03);
-                events.add(variableCreatedEvent03);
-
-                // Event 5
-                ProcessResourceV1 processStartedResource = new ProcessResourceV1(getUUID(), null);
-                setCommonValues(processCreatedResource, processCreatedResource.getEntityId());
-                processStartedResource.setStatus("RUNNING");
-                processStartedResource.setProcessDefinitionId(processCreatedResource.getProcessDefinitionId());
-                processStartedResource.setProcessDefinitionKey(processCreatedResource.getProcessDefinitionKey());
-                EventV1<ProcessResourceV1> processStartedEvent = new EventV1<>("PROCESS_STARTED", processCreatedEvent.getPrincipal(),
-                            processStartedResource);
-                events.add(processStartedEvent);
-
-                // Event 6
-                ActivityResourceV1 activityStartedResource01 = new ActivityResourceV1(getUUID(), null);
-                setCommonValues(activityStartedResource01, processCreatedResource.getEntityId());
-                activityStartedResource01.setActivityType("startEvent");
-                activityStartedResource01.setElementId("startEvent1");
-                activityStartedResource01.setProcessDefinitionId(processCreatedResource.getProcessDefinitionId());
-                activityStartedResource01.setProcessInstanceId(processCreatedResource.getEntityId());
-                EventV1<ActivityResourceV1> activityStartedEvent01 = new EventV1<>("ACTIVITY_STARTED", null, activityStartedResource01);
-                events.add(activityStartedEvent01);
-
-                // Event 7
-                ActivityResourceV1 activityCompletedResource = new ActivityResourceV1(getUUID(), null);
-                setCommonValues(activityCompletedResource, processCreatedResource.getEntityId());
-                activityCompletedResource.setActivityType("startEvent");
-                activityCompletedResource.setElementId("startEvent1");
-                activityCompletedResource.setProcessDefinitionId(processCreatedResource.getProcessDefinitionId());
-                activityCompletedResource.setProcessInstanceId(processCreatedResource.getEntityId());
-                EventV1<ActivityResourceV1> activityCompletedEvent = new EventV1<>("ACTIVITY_COMPLETED", null, activityCompletedResource);
-                events.add(activityCompletedEvent);
-
-                // Event 8
-                SequenceFlowResourceV1 sequenceFlowTakenResource = new SequenceFlowResourceV1(getUUID(), null);
-                setCommonValues(sequenceFlowTakenResource, processCreatedResource.getEntityId());
-                sequenceFlowTakenResource.setProcessInstanceId(processCreatedResource.getEntityId());
-                sequenceFlowTakenResource.setProcessDefinitionId(processCreatedResource.getProcessDefinitionId());
-                sequenceFlowTakenResource.setSourceActivityElementId("startEvent1");
-                sequenceFlowTakenResource.setSourceActivityType("org.activiti.bpmn.model.StartEvent");
-                sequenceFlowTakenResource.setTargetActivityElementId("sid-" + getUUID());
-                sequenceFlowTakenResource.setTargetActivityName("Perform action");
-                sequenceFlowTakenResource.setTargetActivityType("org.activiti.bpmn.model.UserTask");
-                EventV1<SequenceFlowResourceV1> sequenceFlowTakenEvent = new EventV1<>("SEQUENCE_FLOW_TAKEN", null, sequenceFlowTakenResource);
-                events.add(sequenceFlowTakenEvent);
-
-                // Event 9
-                ActivityResourceV1 activityStartedResource02 = new ActivityResourceV1(getUUID(), null);
-                setCommonValues(activityStartedResource02, processCreatedResource.getEntityId());
-                activityStartedResource02.setActivityName("Perform action");
-                activityStartedResource02.setActivityType("userTask");
-                activityStartedResource02.setElementId(sequenceFlowTakenResource.getTargetActivityElementId());
-                activityStartedResource02.setProcessDefinitionId(processCreatedResource.getProcessDefinitionId());
-                activityStartedResource02.setProcessInstanceId(processCreatedResource.getEntityId());
-                EventV1<ActivityResourceV1> activityStartedEvent02 = new EventV1<>("ACTIVITY_STARTED", null, activityStartedResource02);
-                events.add(activityStartedEvent02);
-
-                // Event 10
-                TaskCandidateResourceV1 taskCandidateGroupAddedResource = new TaskCandidateResourceV1(getUUID(), null);
-                setCommonValues(taskCandidateGroupAddedResource, "hr");
-                taskCandidateGroupAddedResource.setTaskId(getUUID());
-                taskCandidateGroupAddedResource.setGroupId("hr");
-                EventV1<TaskCandidateResourceV1> taskCandidateGroupAddedEvent = new EventV1<>("TASK_CANDIDATE_GROUP_ADDED", null,
-                            taskCandidateGroupAddedResource);
-                events.add(taskCandidateGroupAddedEvent);
-
-                // Event 11
-                TaskResourceV1 taskCreatedResource = new TaskResourceV1(getUUID(), null);
-                setCommonValues(taskCreatedResource, taskCandidateGroupAddedResource.getTaskId());
-
-                taskCreatedResource.setName("Perform action");
-                taskCreatedResource.setProcessDefinitionId(processCreatedResource.getProcessDefinitionId());
-                taskCreatedResource.setProcessInstanceId(processCreatedResource.getEntityId());
-                taskCreatedResource.setPriority(50);
-                taskCreatedResource.setStatus("CREATED");
-                taskCreatedResource.setCreatedDate(new Date());
-                taskCreatedResource.setClaimedDate(new Date());
-                EventV1<TaskResourceV1> taskCreatedEvent = new EventV1<>("TASK_CREATED", null, taskCreatedResource);
-                events.add(taskCreatedEvent);
-
+                addProcessStartedEvents(step, events);
+                addTaskCreatedEvents(step, events);
                 return events;
             }
         },
@@ -433,19 +483,7 @@ public class EventMaker
             @Override
             public List<EventV1<? extends ResourceV1>> getEvents()
             {
-                TaskResourceV1 taskAssignedResource = new TaskResourceV1(getUUID(), null);
-                setCommonValues(taskAssignedResource, getUUID());
-                taskAssignedResource.setName("Perform action");
-                taskAssignedResource.setProcessDefinitionId("SimpleProcess:1:" + getUUID());
-                taskAssignedResource.setProcessInstanceId(getUUID());
-                taskAssignedResource.setPriority(50);
-                taskAssignedResource.setStatus("ASSIGNED");
-                taskAssignedResource.setAssignee(getUserName());
-                taskAssignedResource.setCreatedDate(new Date());
-                taskAssignedResource.setClaimedDate(new Date());
-                EventV1<TaskResourceV1> taskAssignedEvent = new EventV1<>("TASK_ASSIGNED", null, taskAssignedResource);
-
-                return Collections.singletonList(taskAssignedEvent);
+                return getEvents(getRandomProcessStep(ProcessStage.TASK_ASSIGNED, getUserName()));
             }
         },
         TASK_COMPLETED()
@@ -453,117 +491,308 @@ public class EventMaker
             @Override
             public List<EventV1<? extends ResourceV1>> getEvents()
             {
+                final ProcessStep step = getRandomProcessStep(ProcessStage.TASK_COMPLETED, getUserName());
                 List<EventV1<? extends ResourceV1>> events = new ArrayList<>();
-
-                // Event 1
-                TaskResourceV1 taskCompletedResource = new TaskResourceV1(getUUID(), null);
-                setCommonValues(taskCompletedResource, getUUID());
-                taskCompletedResource.setName("Perform action");
-                taskCompletedResource.setProcessDefinitionId("SimpleProcess:1:" + getUUID());
-                taskCompletedResource.setProcessInstanceId(getUUID());
-                taskCompletedResource.setPriority(50);
-                taskCompletedResource.setStatus("ASSIGNED");
-                taskCompletedResource.setAssignee(getUserName());
-                taskCompletedResource.setCreatedDate(new Date());
-                taskCompletedResource.setClaimedDate(new Date());
-                EventV1<TaskResourceV1> taskCompletedEvent = new EventV1<>("TASK_COMPLETED", null, taskCompletedResource);
-                events.add(taskCompletedEvent);
-
-                // Event 2
-                TaskCandidateResourceV1 taskCandidateGroupRemovedResource = new TaskCandidateResourceV1(getUUID(), null);
-                setCommonValues(taskCandidateGroupRemovedResource, "hr");
-                taskCandidateGroupRemovedResource.setTaskId(getUUID());
-                taskCandidateGroupRemovedResource.setGroupId("hr");
-                EventV1<TaskCandidateResourceV1> taskCandidateGroupRemovedEvent = new EventV1<>("TASK_CANDIDATE_GROUP_REMOVED", null,
-                            taskCandidateGroupRemovedResource);
-                events.add(taskCandidateGroupRemovedEvent);
-
-                // Event 3
-                ActivityResourceV1 activityCompletedResource01 = new ActivityResourceV1(getUUID(), null);
-                setCommonValues(activityCompletedResource01, taskCompletedResource.getProcessInstanceId());
-                activityCompletedResource01.setActivityName("Perform action");
-                activityCompletedResource01.setActivityType("userTask");
-                activityCompletedResource01.setElementId("sid-" + getUUID());
-                activityCompletedResource01.setProcessDefinitionId(taskCompletedResource.getProcessDefinitionId());
-                activityCompletedResource01.setProcessInstanceId(taskCompletedResource.getProcessInstanceId());
-                EventV1<ActivityResourceV1> activityCompletedEvent01 = new EventV1<>("ACTIVITY_COMPLETED", null, activityCompletedResource01);
-                events.add(activityCompletedEvent01);
-
-                // Event 4
-                SequenceFlowResourceV1 sequenceFlowTakenResource = new SequenceFlowResourceV1(getUUID(), null);
-                setCommonValues(sequenceFlowTakenResource, taskCompletedResource.getProcessInstanceId());
-                sequenceFlowTakenResource.setProcessInstanceId(taskCompletedResource.getProcessInstanceId());
-                sequenceFlowTakenResource.setProcessDefinitionId(taskCompletedResource.getProcessDefinitionId());
-                sequenceFlowTakenResource.setSourceActivityElementId(activityCompletedResource01.getElementId());
-                sequenceFlowTakenResource.setSourceActivityName("Perform action");
-                sequenceFlowTakenResource.setSourceActivityType("org.activiti.bpmn.model.UserTask");
-                sequenceFlowTakenResource.setTargetActivityElementId("sid-" + getUUID());
-                sequenceFlowTakenResource.setTargetActivityType("org.activiti.bpmn.model.EndEvent");
-                EventV1<SequenceFlowResourceV1> sequenceFlowTakenEvent = new EventV1<>("SEQUENCE_FLOW_TAKEN", null, sequenceFlowTakenResource);
-                events.add(sequenceFlowTakenEvent);
-
-                // Event 5
-                ActivityResourceV1 activityStartedResource = new ActivityResourceV1(getUUID(), null);
-                setCommonValues(activityStartedResource, taskCompletedResource.getProcessInstanceId());
-                activityStartedResource.setActivityType("endEvent");
-                activityStartedResource.setElementId(sequenceFlowTakenResource.getTargetActivityElementId());
-                activityStartedResource.setProcessDefinitionId(taskCompletedResource.getProcessDefinitionId());
-                activityStartedResource.setProcessInstanceId(taskCompletedResource.getProcessInstanceId());
-                EventV1<ActivityResourceV1> activityStartedEvent = new EventV1<>("ACTIVITY_STARTED", null, activityStartedResource);
-                events.add(activityStartedEvent);
-
-                // Event 6
-                ActivityResourceV1 activityCompletedResource02 = new ActivityResourceV1(getUUID(), null);
-                setCommonValues(activityCompletedResource02, taskCompletedResource.getProcessInstanceId());
-                activityCompletedResource02.setActivityType("endEvent");
-                activityCompletedResource02.setElementId(sequenceFlowTakenResource.getTargetActivityElementId());
-                activityCompletedResource02.setProcessDefinitionId(taskCompletedResource.getProcessDefinitionId());
-                activityCompletedResource02.setProcessInstanceId(taskCompletedResource.getProcessInstanceId());
-                EventV1<ActivityResourceV1> activityCompletedEvent02 = new EventV1<>("ACTIVITY_COMPLETED", null, activityCompletedResource02);
-                events.add(activityCompletedEvent02);
-
-                // Event 7
-                VariableResourceV1<String> variableDeletedResource01 = new VariableResourceV1<>(getUUID(), null);
-                setCommonValues(variableDeletedResource01, "firstName");
-                variableDeletedResource01.setName("firstName");
-                variableDeletedResource01.setType("string");
-                variableDeletedResource01.setProcessInstanceId(taskCompletedResource.getProcessInstanceId());
-                variableDeletedResource01.setTaskVariable(false);
-                EventV1<VariableResourceV1<String>> variableDeletedEvent01 = new EventV1<>("VARIABLE_DELETED", null, variableDeletedResource01);
-                events.add(variableDeletedEvent01);
-
-                // Event 8
-                VariableResourceV1<String> variableDeletedResource02 = new VariableResourceV1<>(getUUID(), null);
-                setCommonValues(variableDeletedResource02, "lastName");
-                variableDeletedResource02.setName("lastName");
-                variableDeletedResource02.setType("string");
-                variableDeletedResource02.setProcessInstanceId(taskCompletedResource.getProcessInstanceId());
-                variableDeletedResource02.setTaskVariable(false);
-                EventV1<VariableResourceV1<String>> variableDeletedEvent02 = new EventV1<>("VARIABLE_DELETED", null, variableDeletedResource02);
-                events.add(variableDeletedEvent02);
-
-                // Event 9
-                VariableResourceV1<Integer> variableDeletedResource03 = new VariableResourceV1<>(getUUID(), null);
-                setCommonValues(variableDeletedResource03, "age");
-                variableDeletedResource03.setName("age");
-                variableDeletedResource03.setType("integer");
-                variableDeletedResource03.setProcessInstanceId(taskCompletedResource.getProcessInstanceId());
-                variableDeletedResource03.setTaskVariable(false);
-                EventV1<VariableResourceV1<Integer>> variableDeletedEvent03 = new EventV1<>("VARIABLE_DELETED", null, variableDeletedResource03);
-                events.add(variableDeletedEvent03);
-
-                // Event 10
-                ProcessResourceV1 processCompletedResource = new ProcessResourceV1(getUUID(), null);
-                setCommonValues(processCompletedResource, taskCompletedResource.getProcessInstanceId());
-                processCompletedResource.setStatus("COMPLETED");
-                processCompletedResource.setProcessDefinitionId(taskCompletedResource.getProcessDefinitionId());
-                EventV1<ProcessResourceV1> processCompletedEvent = new EventV1<>("PROCESS_COMPLETED", getUserName(), processCompletedResource);
-                events.add(processCompletedEvent);
-
+                addTaskCompletedEvents(step, events);
+                addProcessCompletedEvents(step, events);
                 return events;
             }
         };
 
+        /**
+         * @return the events of the given stage of a process instance
+         */
+        public static List<EventV1<? extends ResourceV1>> getEvents(ProcessStep step)
+        {
+            List<EventV1<? extends ResourceV1>> events = new ArrayList<>();
+            switch (step.getStage())
+            {
+                case START:
+                    addProcessStartedEvents(step, events);
+                    break;
+                case TASK_CREATED:
+                    addTaskCreatedEvents(step, events);
+                    break;
+                case TASK_ASSIGNED:
+                    events.add(newEvent("TASK_ASSIGNED", null, getTaskResource(step, "ASSIGNED")));
+                    break;
+                case TASK_COMPLETED:
+                    addTaskCompletedEvents(step, events);
+                    break;
+                case PROCESS_COMPLETED:
+                    addProcessCompletedEvents(step, events);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown process stage: " + step.getStage());
+            }
+            return events;
+        }
+
+        private static ProcessStep getRandomProcessStep(ProcessStage stage, String assignee)
+        {
+            return new ProcessStep(stage, getUUID(), getUUID(), assignee);
+        }
+
+        private static void addProcessStartedEvents(ProcessStep step, List<EventV1<? extends ResourceV1>> events)
+        {
+            final String processInstanceId = step.getProcessInstanceId();
+
+            // Event 1
+            ProcessResourceV1 processCreatedResource = new ProcessResourceV1(getUUID(), null);
+            setCommonValues(processCreatedResource, processInstanceId);
+            processCreatedResource.setStatus("RUNNING");
+            processCreatedResource.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            processCreatedResource.setProcessDefinitionKey(ProcessStep.PROCESS_DEFINITION_KEY);
+            EventV1<ProcessResourceV1> processCreatedEvent = newEvent("PROCESS_CREATED", getUserName(), processCreatedResource);
+            events.add(processCreatedEvent);
+
+            // Event 2
+            VariableResourceV1<String> variableCreatedResource01 = new VariableResourceV1<>(getUUID(), null);
+            setCommonValues(variableCreatedResource01, "firstName");
+            variableCreatedResource01.setName("firstName");
+            variableCreatedResource01.setType("string");
+            variableCreatedResource01.setProcessInstanceId(processInstanceId);
+            variableCreatedResource01.setTaskVariable(false);
+            variableCreatedResource01.setValue("Paulo");
+            EventV1<VariableResourceV1<String>> variableCreatedEvent01 = newEvent("VARIABLE_CREATED", null, variableCreatedResource01);
+            events.add(variableCreatedEvent01);
+
+            // Event 3
+            VariableResourceV1<String> variableCreatedResource02 = new VariableResourceV1<>(getUUID(), null);
+            setCommonValues(variableCreatedResource02, "lastName");
+            variableCreatedResource02.setName("lastName");
+            variableCreatedResource02.setType("string");
+            variableCreatedResource02.setProcessInstanceId(processInstanceId);
+            variableCreatedResource02.setTaskVariable(false);
+            variableCreatedResource02.setValue("Silva");
+            EventV1<VariableResourceV1<String>> variableCreatedEvent02 = newEvent("VARIABLE_CREATED", null, variableCreatedResource02);
+            events.add(variableCreatedEvent02);
+
+            // Event 4
+            VariableResourceV1<Integer> variableCreatedResource03 = new VariableResourceV1<>(getUUID(), null);
+            setCommonValues(variableCreatedResource03, "age");
+            variableCreatedResource03.setName("age");
+            variableCreatedResource03.setType("integer");
+            variableCreatedResource03.setProcessInstanceId(processInstanceId);
+            variableCreatedResource03.setTaskVariable(false);
+            variableCreatedResource03.setValue(25);
+            EventV1<VariableResourceV1<Integer>> variableCreatedEvent03 = newEvent("VARIABLE_CREATED", null, variableCreatedResource03);
+            events.add(variableCreatedEvent03);
+            addPayloadVariableEvent("VARIABLE_CREATED", processInstanceId, events);
+
+            // Event 5
+            ProcessResourceV1 processStartedResource = new ProcessResourceV1(getUUID(), null);
+            setCommonValues(processStartedResource, processInstanceId);
+            processStartedResource.setStatus("RUNNING");
+            processStartedResource.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            processStartedResource.setProcessDefinitionKey(ProcessStep.PROCESS_DEFINITION_KEY);
+            EventV1<ProcessResourceV1> processStartedEvent = newEvent("PROCESS_STARTED", processCreatedEvent.getPrincipal(),
+                        processStartedResource);
+            events.add(processStartedEvent);
+
+            // Event 6
+            ActivityResourceV1 activityStartedResource01 = new ActivityResourceV1(getUUID(), null);
+            setCommonValues(activityStartedResource01, processInstanceId);
+            activityStartedResource01.setActivityType("startEvent");
+            activityStartedResource01.setElementId("startEvent1");
+            activityStartedResource01.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            activityStartedResource01.setProcessInstanceId(processInstanceId);
+            EventV1<ActivityResourceV1> activityStartedEvent01 = newEvent("ACTIVITY_STARTED", null, activityStartedResource01);
+            events.add(activityStartedEvent01);
+
+            // Event 7
+            ActivityResourceV1 activityCompletedResource = new ActivityResourceV1(getUUID(), null);
+            setCommonValues(activityCompletedResource, processInstanceId);
+            activityCompletedResource.setActivityType("startEvent");
+            activityCompletedResource.setElementId("startEvent1");
+            activityCompletedResource.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            activityCompletedResource.setProcessInstanceId(processInstanceId);
+            EventV1<ActivityResourceV1> activityCompletedEvent = newEvent("ACTIVITY_COMPLETED", null, activityCompletedResource);
+            events.add(activityCompletedEvent);
+
+            // Event 8
+            SequenceFlowResourceV1 sequenceFlowTakenResource = new SequenceFlowResourceV1(getUUID(), null);
+            setCommonValues(sequenceFlowTakenResource, processInstanceId);
+            sequenceFlowTakenResource.setProcessInstanceId(processInstanceId);
+            sequenceFlowTakenResource.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            sequenceFlowTakenResource.setSourceActivityElementId("startEvent1");
+            sequenceFlowTakenResource.setSourceActivityType("org.activiti.bpmn.model.StartEvent");
+            sequenceFlowTakenResource.setTargetActivityElementId(ProcessStep.USER_TASK_ELEMENT_ID);
+            sequenceFlowTakenResource.setTargetActivityName("Perform action");
+            sequenceFlowTakenResource.setTargetActivityType("org.activiti.bpmn.model.UserTask");
+            EventV1<SequenceFlowResourceV1> sequenceFlowTakenEvent = newEvent("SEQUENCE_FLOW_TAKEN", null, sequenceFlowTakenResource);
+            events.add(sequenceFlowTakenEvent);
+
+            // Event 9
+            ActivityResourceV1 activityStartedResource02 = new ActivityResourceV1(getUUID(), null);
+            setCommonValues(activityStartedResource02, processInstanceId);
+            activityStartedResource02.setActivityName("Perform action");
+            activityStartedResource02.setActivityType("userTask");
+            activityStartedResource02.setElementId(ProcessStep.USER_TASK_ELEMENT_ID);
+            activityStartedResource02.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            activityStartedResource02.setProcessInstanceId(processInstanceId);
+            EventV1<ActivityResourceV1> activityStartedEvent02 = newEvent("ACTIVITY_STARTED", null, activityStartedResource02);
+            events.add(activityStartedEvent02);
+        }
+
+        private static void addTaskCreatedEvents(ProcessStep step, List<EventV1<? extends ResourceV1>> events)
+        {
+            // Event 1
+            TaskCandidateResourceV1 taskCandidateGroupAddedResource = new TaskCandidateResourceV1(getUUID(), null);
+            setCommonValues(taskCandidateGroupAddedResource, "hr");
+            taskCandidateGroupAddedResource.setTaskId(step.getTaskId());
+            taskCandidateGroupAddedResource.setGroupId("hr");
+            EventV1<TaskCandidateResourceV1> taskCandidateGroupAddedEvent = newEvent("TASK_CANDIDATE_GROUP_ADDED", null,
+                        taskCandidateGroupAddedResource);
+            events.add(taskCandidateGroupAddedEvent);
+
+            // Event 2
+            EventV1<TaskResourceV1> taskCreatedEvent = newEvent("TASK_CREATED", null, getTaskResource(step, "CREATED"));
+            events.add(taskCreatedEvent);
+        }
+
+        private static void addTaskCompletedEvents(ProcessStep step, List<EventV1<? extends ResourceV1>> events)
+        {
+            // Event 1
+            EventV1<TaskResourceV1> taskCompletedEvent = newEvent("TASK_COMPLETED", null, getTaskResource(step, "ASSIGNED"));
+            events.add(taskCompletedEvent);
+
+            // Event 2
+            TaskCandidateResourceV1 taskCandidateGroupRemovedResource = new TaskCandidateResourceV1(getUUID(), null);
+            setCommonValues(taskCandidateGroupRemovedResource, "hr");
+            taskCandidateGroupRemovedResource.setTaskId(step.getTaskId());
+            taskCandidateGroupRemovedResource.setGroupId("hr");
+            EventV1<TaskCandidateResourceV1> taskCandidateGroupRemovedEvent = newEvent("TASK_CANDIDATE_GROUP_REMOVED", null,
+                        taskCandidateGroupRemovedResource);
+            events.add(taskCandidateGroupRemovedEvent);
+        }
+
+        private static void addProcessCompletedEvents(ProcessStep step, List<EventV1<? extends ResourceV1>> events)
+        {
+            final String processInstanceId = step.getProcessInstanceId();
+
+            // Event 1
+            ActivityResourceV1 activityCompletedResource01 = new ActivityResourceV1(getUUID(), null);
+            setCommonValues(activityCompletedResource01, processInstanceId);
+            activityCompletedResource01.setActivityName("Perform action");
+            activityCompletedResource01.setActivityType("userTask");
+            activityCompletedResource01.setElementId(ProcessStep.USER_TASK_ELEMENT_ID);
+            activityCompletedResource01.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            activityCompletedResource01.setProcessInstanceId(processInstanceId);
+            EventV1<ActivityResourceV1> activityCompletedEvent01 = newEvent("ACTIVITY_COMPLETED", null, activityCompletedResource01);
+            events.add(activityCompletedEvent01);
+
+            // Event 2
+            SequenceFlowResourceV1 sequenceFlowTakenResource = new SequenceFlowResourceV1(getUUID(), null);
+            setCommonValues(sequenceFlowTakenResource, processInstanceId);
+            sequenceFlowTakenResource.setProcessInstanceId(processInstanceId);
+            sequenceFlowTakenResource.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            sequenceFlowTakenResource.setSourceActivityElementId(ProcessStep.USER_TASK_ELEMENT_ID);
+            sequenceFlowTakenResource.setSourceActivityName("Perform action");
+            sequenceFlowTakenResource.setSourceActivityType("org.activiti.bpmn.model.UserTask");
+            sequenceFlowTakenResource.setTargetActivityElementId(ProcessStep.END_EVENT_ELEMENT_ID);
+            sequenceFlowTakenResource.setTargetActivityType("org.activiti.bpmn.model.EndEvent");
+            EventV1<SequenceFlowResourceV1> sequenceFlowTakenEvent = newEvent("SEQUENCE_FLOW_TAKEN", null, sequenceFlowTakenResource);
+            events.add(sequenceFlowTakenEvent);
+
+            // Event 3
+            ActivityResourceV1 activityStartedResource = new ActivityResourceV1(getUUID(), null);
+            setCommonValues(activityStartedResource, processInstanceId);
+            activityStartedResource.setActivityType("endEvent");
+            activityStartedResource.setElementId(ProcessStep.END_EVENT_ELEMENT_ID);
+            activityStartedResource.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            activityStartedResource.setProcessInstanceId(processInstanceId);
+            EventV1<ActivityResourceV1> activityStartedEvent = newEvent("ACTIVITY_STARTED", null, activityStartedResource);
+            events.add(activityStartedEvent);
+
+            // Event 4
+            ActivityResourceV1 activityCompletedResource02 = new ActivityResourceV1(getUUID(), null);
+            setCommonValues(activityCompletedResource02, processInstanceId);
+            activityCompletedResource02.setActivityType("endEvent");
+            activityCompletedResource02.setElementId(ProcessStep.END_EVENT_ELEMENT_ID);
+            activityCompletedResource02.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            activityCompletedResource02.setProcessInstanceId(processInstanceId);
+            EventV1<ActivityResourceV1> activityCompletedEvent02 = newEvent("ACTIVITY_COMPLETED", null, activityCompletedResource02);
+            events.add(activityCompletedEvent02);
+
+            // Event 5
+            VariableResourceV1<String> variableDeletedResource01 = new VariableResourceV1<>(getUUID(), null);
+            setCommonValues(variableDeletedResource01, "firstName");
+            variableDeletedResource01.setName("firstName");
+            variableDeletedResource01.setType("string");
+            variableDeletedResource01.setProcessInstanceId(processInstanceId);
+            variableDeletedResource01.setTaskVariable(false);
+            EventV1<VariableResourceV1<String>> variableDeletedEvent01 = newEvent("VARIABLE_DELETED", null, variableDeletedResource01);
+            events.add(variableDeletedEvent01);
+
+            // Event 6
+            VariableResourceV1<String> variableDeletedResource02 = new VariableResourceV1<>(getUUID(), null);
+            setCommonValues(variableDeletedResource02, "lastName");
+            variableDeletedResource02.setName("lastName");
+            variableDeletedResource02.setType("string");
+            variableDeletedResource02.setProcessInstanceId(processInstanceId);
+            variableDeletedResource02.setTaskVariable(false);
+            EventV1<VariableResourceV1<String>> variableDeletedEvent02 = newEvent("VARIABLE_DELETED", null, variableDeletedResource02);
+            events.add(variableDeletedEvent02);
+
+            // Event 7
+            VariableResourceV1<Integer> variableDeletedResource03 = new VariableResourceV1<>(getUUID(), null);
+            setCommonValues(variableDeletedResource03, "age");
+            variableDeletedResource03.setName("age");
+            variableDeletedResource03.setType("integer");
+            variableDeletedResource03.setProcessInstanceId(processInstanceId);
+            variableDeletedResource03.setTaskVariable(false);
+            EventV1<VariableResourceV1<Integer>> variableDeletedEvent03 = newEvent("VARIABLE_DELETED", null, variableDeletedResource03);
+            events.add(variableDeletedEvent03);
+            addPayloadVariableEvent("VARIABLE_DELETED", processInstanceId, events);
+
+            // Event 8
+            ProcessResourceV1 processCompletedResource = new ProcessResourceV1(getUUID(), null);
+            setCommonValues(processCompletedResource, processInstanceId);
+            processCompletedResource.setStatus("COMPLETED");
+            processCompletedResource.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            EventV1<ProcessResourceV1> processCompletedEvent = newEvent("PROCESS_COMPLETED", getUserName(), processCompletedResource);
+            events.add(processCompletedEvent);
+        }
+
+        private static TaskResourceV1 getTaskResource(ProcessStep step, String status)
+        {
+            TaskResourceV1 taskResource = new TaskResourceV1(getUUID(), null);
+            setCommonValues(taskResource, step.getTaskId());
+            taskResource.setName("Perform action");
+            taskResource.setProcessDefinitionId(ProcessStep.PROCESS_DEFINITION_ID);
+            taskResource.setProcessInstanceId(step.getProcessInstanceId());
+            taskResource.setPriority(50);
+            taskResource.setStatus(status);
+            taskResource.setAssignee(step.getAssignee());
+            taskResource.setCreatedDate(currentDate());
+            taskResource.setClaimedDate(currentDate());
+            return taskResource;
+        }
+
+        /**
+         * Adds the event of the {@code payload} process variable, which holds the padding properties, if the payloads
+         * are shaped. The variable has its value when it is created only.
+         */
+        private static void addPayloadVariableEvent(String eventType, String processInstanceId, List<EventV1<? extends ResourceV1>> events)
+        {
+            if (payloadShaper == null)
+            {
+                return;
+            }
+            VariableResourceV1<Map<String, Serializable>> payloadResource = new VariableResourceV1<>(getUUID(), null);
+            setCommonValues(payloadResource, "payload");
+            payloadResource.setName("payload");
+            payloadResource.setType("json");
+            payloadResource.setProcessInstanceId(processInstanceId);
+            payloadResource.setTaskVariable(false);
+            if ("VARIABLE_CREATED".equals(eventType))
+            {
+                payloadResource.setValue(getNodeProperties());
+            }
+            events.add(newEvent(eventType, null, payloadResource));
+        }
+
         private static void setCommonValues(ActivitiCloudRuntimeResourceV1 resource, String entityId)
         {
             resource.setEntityId(entityId);
@@ -598,6 +827,7 @@ public class EventMaker
                 inBoundVariables.put("firstName", user.getFirstName());
                 inBoundVariables.put("lastName", user.getLastName());
                 inBoundVariables.put("age", user.getAge());
+                inBoundVariables.putAll(getNodeProperties());
                 context.setInBoundVariables(inBoundVariables);
 
                 CloudConnectorIntegrationRequest request = new CloudConnectorIntegrationRequest();
@@ -616,9 +846,176 @@ public class EventMaker
         public abstract CloudConnectorIntegrationRequest getEvent();
     }
 
+    /**
+     * Sets how the ids of the events are generated.
+     */
+    public static void setIdGenerator(IdGenerator generator)
+    {
+        idGenerator = generator;
+    }
+
+    /**
+     * Sets the clock the timestamps and dates of the events, and the time of the time-ordered ids, are read from.
+     */
+    public static void setClock(EventClock eventClock)
+    {
+        clock = eventClock;
+        IdGenerator.setClock(eventClock);
+    }
+
+    public static EventClock getClock()
+    {
+        return clock;
+    }
+
+    /**
+     * Sets the relative weights of the raw ACS event types, by {@link RawAcsEventInstance} name.
+     * The types that aren't given keep a weight of 1, so an empty map picks all the types uniformly.
+     */
+    public static void setRawAcsEventWeights(Map<String, ? extends Number> weights)
+    {
+        rawAcsEventMix = AliasSampler.ofEnum(RawAcsEventInstance.class, weights);
+    }
+
+    /**
+     * As {@link #setRawAcsEventWeights(Map)}, for the {@link PublicAcsEventInstance} types.
+     */
+    public static void setPublicAcsEventWeights(Map<String, ? extends Number> weights)
+    {
+        publicAcsEventMix = AliasSampler.ofEnum(PublicAcsEventInstance.class, weights);
+    }
+
+    /**
+     * As {@link #setRawAcsEventWeights(Map)}, for the {@link RawActivitiEventInstance} types.
+     */
+    public static void setRawActivitiEventWeights(Map<String, ? extends Number> weights)
+    {
+        rawActivitiEventMix = AliasSampler.ofEnum(RawActivitiEventInstance.class, weights);
+    }
+
+    /**
+     * As {@link #setRawAcsEventWeights(Map)}, for the {@link PublicActivitiEventInstance} types.
+     */
+    public static void setPublicActivitiEventWeights(Map<String, ? extends Number> weights)
+    {
+        publicActivitiEventMix = AliasSampler.ofEnum(PublicActivitiEventInstance.class, weights);
+    }
+
+    /**
+     * Sets the population of users, groups and sites the events refer to, or {@code null} for the built-in ones.
+     */
+    public static void setPopulation(SyntheticPopulation syntheticPopulation)
+    {
+        population = syntheticPopulation;
+    }
+
+    /**
+     * Sets the simulation of the nodes' lifecycle the public ACS events report, or {@code null} for stateless events.
+     */
+    public static void setNodeLifecycle(NodeLifecycleSimulator simulator)
+    {
+        nodeLifecycle = simulator;
+    }
+
+    /**
+     * Sets how the events' properties are padded, or {@code null} to leave them as they are.
+     */
+    public static void setPayloadShaper(PayloadShaper shaper)
+    {
+        payloadShaper = shaper;
+    }
+
+    /**
+     * Sets the user's templates of the raw Activiti events, or {@code null} for the built-in ones. The
+     * built-in ones are also used while the directory holds no template.
+     */
+    public static void setTemplateDirectory(TemplateDirectory directory)
+    {
+        templateDirectory = directory;
+    }
+
+    /**
+     * @return the slots of the placeholders the user's event templates can use:
+     * {@code ${uuid}}, {@code ${timestamp}}, {@code ${date}}, {@code ${user}} and {@code ${group}}
+     */
+    public static Map<String, CompiledTemplate.Slot> getTemplatePlaceholders()
+    {
+        Map<String, CompiledTemplate.Slot> placeholders = new HashMap<>();
+        placeholders.put("uuid", sb -> idGenerator.appendTo(sb));
+        placeholders.put("timestamp", sb -> sb.append(currentTimeMillis()));
+        placeholders.put("date", sb -> sb.append(getJacksonFormatDateTime()));
+        placeholders.put("user", sb -> sb.append(getUserName()));
+        placeholders.put("group", sb -> sb.append(getGroup()));
+        return Collections.unmodifiableMap(placeholders);
+    }
+
+    /**
+     * Sets the simulation of the process instances the public Activiti events belong to, or {@code null}
+     * for unrelated random events.
+     */
+    public static void setProcessSimulator(ProcessInstanceSimulator simulator)
+    {
+        processSimulator = simulator;
+    }
+
+    /**
+     * Sets the repository the ACS events take their ancestry and paths from, or {@code null} for random ones.
+     */
+    public static void setRepositoryTree(RepositoryTree tree)
+    {
+        repositoryTree = tree;
+    }
+
+    /**
+     * Compiles the serialize-once skeletons of all the public ACS and Activiti event types with the mappers of their
+     * categories, so that {@link #getRandomPublicAcsMessage()} and {@link #getRandomPublicActivitiMessages()} only
+     * write the per-event values into them, or drops them if the mappers are {@code null}.
+     */
+    public static void setSkeletons(ObjectMapper acsMapper, ObjectMapper activitiMapper)
+    {
+        if (acsMapper == null || activitiMapper == null)
+        {
+            publicAcsSkeletons = null;
+            publicActivitiSkeletons = null;
+            return;
+        }
+        Map<PublicAcsEventInstance, EventSkeleton> acsSkeletons = new EnumMap<>(PublicAcsEventInstance.class);
+        for (PublicAcsEventInstance instance : PublicAcsEventInstance.values())
+        {
+            acsSkeletons.put(instance, EventSkeleton.compile(acsMapper, inputs -> withInputs(inputs, instance::getEvent)));
+        }
+        Map<PublicActivitiEventInstance, EventSkeleton> activitiSkeletons = new EnumMap<>(PublicActivitiEventInstance.class);
+        for (PublicActivitiEventInstance instance : PublicActivitiEventInstance.values())
+        {
+            activitiSkeletons.put(instance, EventSkeleton.compile(activitiMapper, inputs -> withInputs(inputs, instance::getEvents)));
+        }
+        publicAcsSkeletons = acsSkeletons;
+        publicActivitiSkeletons = activitiSkeletons;
+    }
+
+    /**
+     * @return whether the calling thread generates the events to send, which take the live per-event values and move
+     * the simulators, the random streams and the clock on, rather than {@link #withInputs(EventInputs, Supplier) sample
+     * or recorded} ones, which must leave them as they are
+     */
+    private static boolean isLive()
+    {
+        return INPUTS.get() == LIVE_INPUTS;
+    }
+
+    private static long currentTimeMillis()
+    {
+        return INPUTS.get().currentTimeMillis();
+    }
+
+    private static Date currentDate()
+    {
+        return INPUTS.get().currentDate();
+    }
+
     private static String getUUID()
     {
-        return UUID.randomUUID().toString();
+        return INPUTS.get().uuid();
     }
 
     private static List<String> getUUID(int numOfUUIDS)
@@ -628,42 +1025,90 @@ public class EventMaker
                     .collect(Collectors.toList());
     }
 
-    private static String getUserName()
+    public static String getUserName()
     {
-        return getUser().getUserName();
+        return INPUTS.get().userName();
     }
 
     private static UserInfo getUser()
     {
-        int index = RANDOM.nextInt(USER_LIST.size());
+        if (!isLive())
+        {
+            return USER_LIST.get(0);
+        }
+        final SyntheticPopulation currentPopulation = population;
+        if (currentPopulation != null)
+        {
+            return currentPopulation.getUser(currentPopulation.nextUser());
+        }
+        int index = RandomStreams.nextInt(USER_LIST.size());
         return USER_LIST.get(index);
     }
 
     private static String getGroup()
     {
-        int index = RANDOM.nextInt(GROUP_LIST.size());
-        return GROUP_LIST.get(index);
+        return INPUTS.get().group();
+    }
+
+    private static String getSiteId()
+    {
+        final SyntheticPopulation currentPopulation = isLive() ? population : null;
+        if (currentPopulation != null)
+        {
+            return currentPopulation.getSiteId(currentPopulation.nextSite());
+        }
+        return "testsite" + getMilliSecondPart();
     }
 
     private static String getPermission()
     {
-        int index = RANDOM.nextInt(PERMISSIONS.size());
-        return PERMISSIONS.get(index);
+        return INPUTS.get().permission();
     }
 
     private static int getMilliSecondPart()
     {
-        return LocalTime.now().getNano() / 1000000;
+        return (int) Math.floorMod(currentTimeMillis(), 1000L);
     }
 
     private static String getJacksonFormatDateTime()
     {
-        return ZonedDateTime.now().format(DATE_TIME_FORMATTER);
+        return clock.formatDateTime(currentTimeMillis());
+    }
+
+    private static Map<String, Serializable> getNodeProperties()
+    {
+        final PayloadShaper currentPayloadShaper = payloadShaper;
+        if (currentPayloadShaper == null)
+        {
+            return new HashMap<>();
+        }
+        return isLive() ? currentPayloadShaper.nextProperties() : currentPayloadShaper.typicalProperties();
+    }
+
+    private static Set<String> getAspects(String... aspects)
+    {
+        final Set<String> aspectSet = Stream.of(aspects).collect(Collectors.toSet());
+        final PayloadShaper currentPayloadShaper = payloadShaper;
+        return (currentPayloadShaper == null) ? aspectSet : currentPayloadShaper.withExtraAspects(aspectSet);
+    }
+
+    /**
+     * @return a new content node resource, with the padding properties and the extra aspects if the payloads are shaped
+     */
+    private static NodeResourceV1 newNodeResource(String nodeId, List<HierarchyEntry> hierarchyEntries)
+    {
+        NodeResourceV1 resource = new NodeResourceV1(nodeId, hierarchyEntries, "cm:content");
+        if (payloadShaper != null)
+        {
+            resource.setProperties(new HashMap<>(getNodeProperties()));
+            resource.setAspects(getAspects("sys:localized", "sys:referenceable", "cm:auditable"));
+        }
+        return resource;
     }
 
     private static List<HierarchyEntry> getNodeHierarchyEntries()
     {
-        return getHierarchyEntries(5, "Node");
+        return INPUTS.get().nodeHierarchy();
     }
 
     private static List<HierarchyEntry> getHierarchyEntries(int depth, String type)
@@ -676,34 +1121,132 @@ public class EventMaker
         return primaryHierarchy;
     }
 
-    private static <T> T getRandomEventTypeValue(T[] array)
+    /**
+     * @return a new public event, with its id and timestamp taken from the event inputs like all the other values
+     */
+    private static <R extends ResourceV1> EventV1<R> newEvent(String type, String principal, R resource)
     {
-        int i = RANDOM.nextInt(array.length);
-        return array[i];
+        return new EventV1<>(getUUID(), type, principal, currentTimeMillis(), resource);
+    }
+
+    /**
+     * Runs the given generator with the per-event values (ids, users, groups, permissions, timestamps, dates and
+     * node ancestries) taken from the given inputs instead of the live ones, e.g. to compile the skeletons of the
+     * public events, or to build events from known values.
+     */
+    public static <T> T withInputs(EventInputs inputs, Supplier<T> generator)
+    {
+        final EventInputs previous = INPUTS.get();
+        INPUTS.set(inputs);
+        try
+        {
+            return generator.get();
+        }
+        finally
+        {
+            INPUTS.set(previous);
+        }
+    }
+
+    /**
+     * @return one event of each of the given types, built from fixed sample values rather than the live ones, so without
+     * drawing from the population, the repository tree or the clock, nor advancing the simulators, e.g. to check at
+     * startup that the events of every type can be written
+     */
+    public static <E> List<Object> getSampleEvents(E[] instances, Function<E, ?> generator)
+    {
+        List<Object> events = new ArrayList<>(instances.length);
+        for (E instance : instances)
+        {
+            events.add(withInputs(SAMPLE_INPUTS, () -> generator.apply(instance)));
+        }
+        return events;
     }
 
     public static RepositoryEvent getRandomRawAcsEvent()
     {
-        return getRandomEventTypeValue(RawAcsEventInstance.values()).getEvent();
+        return rawAcsEventMix.sample().getEvent();
     }
 
     public static EventV1<? extends ResourceV1> getRandomPublicAcsEvent()
     {
-        return getRandomEventTypeValue(PublicAcsEventInstance.values()).getEvent();
+        final NodeLifecycleSimulator currentNodeLifecycle = nodeLifecycle;
+        if (currentNodeLifecycle != null)
+        {
+            return getNodeLifecycleEvent(currentNodeLifecycle);
+        }
+        return publicAcsEventMix.sample().getEvent();
+    }
+
+    /**
+     * @return the next public ACS event: the serialized event if the
+     * {@link #setSkeletons(ObjectMapper, ObjectMapper) skeletons} are set, the event otherwise, or while the nodes' lifecycle is simulated
+     */
+    public static Object getRandomPublicAcsMessage()
+    {
+        final Map<PublicAcsEventInstance, EventSkeleton> skeletons = publicAcsSkeletons;
+        if (skeletons == null || nodeLifecycle != null)
+        {
+            return getRandomPublicAcsEvent();
+        }
+        return skeletons.get(publicAcsEventMix.sample()).render(LIVE_INPUTS).get(0);
+    }
+
+    private static EventV1<? extends ResourceV1> getNodeLifecycleEvent(NodeLifecycleSimulator simulator)
+    {
+        final NodeChange change = simulator.next();
+        final List<HierarchyEntry> hierarchyEntries = simulator.getFolders().getHierarchy(change.getFolder());
+        final String eventType = change.getOperation().getEventType();
+        if (change.getOperation() == NodeOperation.GRANT_PERMISSION)
+        {
+            PermissionResourceV1 resource = new PermissionResourceV1(change.getNodeId(), hierarchyEntries, "cm:content");
+            resource.setAuthority(getGroup());
+            resource.setPermission(getPermission());
+            return newEvent(eventType, getUserName(), resource);
+        }
+        return newEvent(eventType, getUserName(), newNodeResource(change.getNodeId(), hierarchyEntries));
     }
 
     public static String getRandomRawActivitiEvent()
     {
-        return getRandomEventTypeValue(RawActivitiEventInstance.values()).getEvent();
+        final TemplateDirectory currentTemplateDirectory = templateDirectory;
+        if (currentTemplateDirectory != null)
+        {
+            final CompiledTemplate template = currentTemplateDirectory.next();
+            if (template != null)
+            {
+                return template.render();
+            }
+        }
+        return rawActivitiEventMix.sample().getEvent();
     }
 
     public static List<EventV1<? extends ResourceV1>> getRandomPublicActivitiEvent()
     {
-        return getRandomEventTypeValue(PublicActivitiEventInstance.values()).getEvents();
+        final ProcessInstanceSimulator currentProcessSimulator = processSimulator;
+        if (currentProcessSimulator != null)
+        {
+            return PublicActivitiEventInstance.getEvents(currentProcessSimulator.next());
+        }
+        return publicActivitiEventMix.sample().getEvents();
+    }
+
+    /**
+     * @return the next public Activiti events: the serialized events if the
+     * {@link #setSkeletons(ObjectMapper, ObjectMapper) skeletons} are set, the events otherwise, or while the process instances are simulated
+     */
+    public static List<?> getRandomPublicActivitiMessages()
+    {
+        final Map<PublicActivitiEventInstance, EventSkeleton> skeletons = publicActivitiSkeletons;
+        if (skeletons == null || processSimulator != null)
+        {
+            return getRandomPublicActivitiEvent();
+        }
+        return skeletons.get(publicActivitiEventMix.sample()).render(LIVE_INPUTS);
     }
 
     public static CloudConnectorIntegrationRequest getRandomCloudConnectorEvent()
     {
-        return getRandomEventTypeValue(CloudConnectorEventInstance.values()).getEvent();
+        return CLOUD_CONNECTOR_EVENT_MIX.sample().getEvent();
     }
 }
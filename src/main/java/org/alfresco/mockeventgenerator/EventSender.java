@@ -15,16 +15,31 @@
  */
 package org.alfresco.mockeventgenerator;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.job.SendJob;
+import org.alfresco.mockeventgenerator.metrics.ConcurrencySweep;
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+import org.alfresco.mockeventgenerator.metrics.WorkerRunStats;
+import org.alfresco.mockeventgenerator.mix.CategoryMix;
+import org.alfresco.mockeventgenerator.pool.EventPool;
+import org.alfresco.mockeventgenerator.rate.LoadProfile;
+import org.alfresco.mockeventgenerator.rate.RateController;
+import org.alfresco.mockeventgenerator.rate.ThroughputGovernor;
+import org.alfresco.mockeventgenerator.util.RandomStreams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -34,18 +49,37 @@ import org.springframework.stereotype.Service;
 public class EventSender
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(EventSender.class);
+    /** The maximum number of events the first worker sends on its own to measure the single worker throughput */
+    private static final int MAX_SOLO_EVENTS = 1000;
 
     private final CamelMessageProducer camelMessageProducer;
     private final EventTypeCategory eventTypeCategory;
-    private final ScheduledExecutorService executorService;
+    private final ExecutorService executorService;
+    private final int senderThreads;
+    private final long maxCatchUpMillis;
+    private final int fixedWorkers;
+    private final ThroughputGovernor governor;
+    /** Null unless the events are pre-generated */
+    private final EventPool eventPool;
+    /** Null unless the events of several categories are sent together */
+    private final CategoryMix categoryMix;
 
     @Autowired
-    public EventSender(CamelMessageProducer camelMessageProducer, EventTypeCategory eventTypeCategory)
+    public EventSender(CamelMessageProducer camelMessageProducer, EventTypeCategory eventTypeCategory, ThroughputGovernor governor,
+                ObjectProvider<EventPool> eventPool, ObjectProvider<CategoryMix> categoryMix,
+                @Value("${generator.scheduled.senderThreads:0}") int senderThreads,
+                @Value("${generator.scheduled.maxCatchUpInMillis:1000}") long maxCatchUpMillis,
+                @Value("${generator.fixed.workers:1}") int fixedWorkers)
     {
         this.camelMessageProducer = camelMessageProducer;
         this.eventTypeCategory = eventTypeCategory;
-        this.executorService = Executors.newScheduledThreadPool(Runtime.getRuntime()
-                    .availableProcessors() + 1);
+        this.senderThreads = (senderThreads > 0) ? senderThreads : Runtime.getRuntime().availableProcessors();
+        this.maxCatchUpMillis = maxCatchUpMillis;
+        this.fixedWorkers = Math.max(1, fixedWorkers);
+        this.governor = governor;
+        this.eventPool = eventPool.getIfAvailable();
+        this.categoryMix = categoryMix.getIfAvailable();
+        this.executorService = Executors.newCachedThreadPool();
     }
 
     public void sendRandomEvent(int numOfEvents)
@@ -53,11 +87,151 @@ public class EventSender
         sendRandomEvent(numOfEvents, 1000L);
     }
 
-    public void sendRandomEvent(int numOfEvents, long pauseTimeMillis)
+    public WorkerRunStats sendRandomEvent(int numOfEvents, long pauseTimeMillis)
     {
-        for (int i = 0; i < numOfEvents; i++)
+        return sendRandomEvent(numOfEvents, pauseTimeMillis, fixedWorkers);
+    }
+
+    /**
+     * Sends exactly {@code numOfEvents} events, split as evenly as possible across the given number of
+     * workers. Each worker pauses for {@code pauseTimeMillis} between its own sends. This method blocks
+     * until all the events are sent.
+     *
+     * @return the statistics of the run, including how well it scaled across the workers
+     */
+    public WorkerRunStats sendRandomEvent(int numOfEvents, long pauseTimeMillis, int workers)
+    {
+        return sendRandomEvent(numOfEvents, pauseTimeMillis, workers, null);
+    }
+
+    /**
+     * As {@link #sendRandomEvent(int, long, int)}, on behalf of the given job, which counts the sent events
+     * and stops the run when cancelled.
+     */
+    public WorkerRunStats sendRandomEvent(int numOfEvents, long pauseTimeMillis, int workers, SendJob job)
+    {
+        try (ThroughputGovernor.Share share = registerShare("fixed run", job))
+        {
+            return sendRandomEvent(numOfEvents, pauseTimeMillis, workers, job, share);
+        }
+    }
+
+    private WorkerRunStats sendRandomEvent(int numOfEvents, long pauseTimeMillis, int workers, SendJob job, ThroughputGovernor.Share share)
+    {
+        workers = Math.max(1, Math.min(workers, numOfEvents));
+        final WorkerRunStats stats = new WorkerRunStats(workers);
+        stats.start();
+        if (workers == 1)
+        {
+            RandomStreams.bindWorker(0);
+            sendQuota(0, numOfEvents, pauseTimeMillis, stats, null, job, share);
+            stats.end();
+            return stats;
+        }
+
+        final int soloEvents = Math.min(MAX_SOLO_EVENTS, numOfEvents / (workers * 4));
+        // Too few events to measure the single worker throughput, the workers all start together
+        final CountDownLatch soloPhase = new CountDownLatch((soloEvents > 0) ? 1 : 0);
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++)
+        {
+            final int worker = i;
+            // The first workers take the remainder, so the quotas add up to exactly numOfEvents
+            final int quota = numOfEvents / workers + ((i < numOfEvents % workers) ? 1 : 0);
+            futures.add(executorService.submit(() -> {
+                RandomStreams.bindWorker(worker);
+                if (worker == 0)
+                {
+                    sendQuota(worker, soloEvents, pauseTimeMillis, stats, null, job, share);
+                    if (soloEvents > 0)
+                    {
+                        stats.endSoloPhase(soloEvents);
+                        soloPhase.countDown();
+                    }
+                    sendQuota(worker, quota - soloEvents, pauseTimeMillis, stats, null, job, share);
+                }
+                else
+                {
+                    sendQuota(worker, quota, pauseTimeMillis, stats, soloPhase, job, share);
+                }
+                return null;
+            }));
+        }
+        RuntimeException failure = null;
+        for (Future<?> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                break;
+            }
+            catch (ExecutionException ex)
+            {
+                // Don't leave the other workers waiting for a solo phase that will never end
+                soloPhase.countDown();
+                if (failure == null)
+                {
+                    failure = (ex.getCause() instanceof RuntimeException) ? (RuntimeException) ex.getCause() : new RuntimeException(ex.getCause());
+                }
+            }
+        }
+        stats.end();
+        if (failure != null)
+        {
+            throw failure;
+        }
+        return stats;
+    }
+
+    private void sendQuota(int worker, int quota, long pauseTimeMillis, WorkerRunStats stats, CountDownLatch startSignal, SendJob job,
+                ThroughputGovernor.Share share)
+    {
+        if (startSignal != null)
+        {
+            try
+            {
+                startSignal.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        for (int i = 0; i < quota; i++)
         {
-            sendEvent(eventTypeCategory.getRandomEvent());
+            if (Thread.currentThread().isInterrupted() || (job != null && job.isCancelled()))
+            {
+                LOGGER.info("Worker " + worker + " was stopped after sending " + i + " of its " + quota + " events.");
+                return;
+            }
+            Object event;
+            try
+            {
+                event = nextEvent();
+                share.acquire();
+            }
+            catch (InterruptedException e)
+            {
+                LOGGER.info("Worker " + worker + " was interrupted after sending " + i + " of its " + quota + " events.");
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!sendEvent(event))
+            {
+                LOGGER.info("Worker " + worker + " was interrupted after sending " + i + " of its " + quota + " events.");
+                return;
+            }
+            stats.recordSent(worker);
+            if (job != null)
+            {
+                job.recordSent();
+            }
             if (pauseTimeMillis > 0)
             {
                 try
@@ -66,55 +240,275 @@ public class EventSender
                 }
                 catch (InterruptedException e)
                 {
-                    LOGGER.info(e.getMessage());
+                    LOGGER.info("Worker " + worker + " was interrupted after sending " + (i + 1) + " of its " + quota + " events.");
+                    Thread.currentThread().interrupt();
+                    return;
                 }
             }
         }
     }
 
-    public void sendRandomEventAtFixedRate(int periodInSeconds, int numOfEventsPerSecond, int runForInSeconds)
+    /**
+     * Sends {@code numOfEventsPerPeriod} events every {@code periodInSeconds}, evenly paced, for the
+     * duration of {@code runForInSeconds}. This method blocks until the run is over.
+     *
+     * @return the rate controller that paced the run, holding its rate and drift statistics
+     */
+    public RateController sendRandomEventAtFixedRate(int periodInSeconds, int numOfEventsPerPeriod, int runForInSeconds)
     {
-        final AtomicBoolean cancelled = new AtomicBoolean(false);
-        final ScheduledFuture<?> senderHandler = executorService
-                    .scheduleAtFixedRate(() -> start(cancelled, numOfEventsPerSecond), 0, periodInSeconds, TimeUnit.SECONDS);
+        final double ratePerSecond = (double) numOfEventsPerPeriod / periodInSeconds;
+        return sendRandomEventWithProfile(LoadProfile.constant(ratePerSecond), runForInSeconds);
+    }
 
-        try
+    /**
+     * Sends events at the time-varying rate of the given load profile, for the duration of
+     * {@code runForInSeconds}. This method blocks until the run is over.
+     *
+     * @return the rate controller that paced the run, holding its rate and drift statistics
+     */
+    public RateController sendRandomEventWithProfile(LoadProfile loadProfile, int runForInSeconds)
+    {
+        return sendRandomEventWithProfile(loadProfile, runForInSeconds, null);
+    }
+
+    /**
+     * As {@link #sendRandomEventWithProfile(LoadProfile, int)}, on behalf of the given job, which counts
+     * the sent events and stops the run when cancelled.
+     */
+    public RateController sendRandomEventWithProfile(LoadProfile loadProfile, int runForInSeconds, SendJob job)
+    {
+        final RateController rateController = new RateController(loadProfile, TimeUnit.SECONDS.toNanos(runForInSeconds),
+                    TimeUnit.MILLISECONDS.toNanos(maxCatchUpMillis));
+        try (ThroughputGovernor.Share share = registerShare("paced run", job))
         {
-            executorService.schedule(() -> stop(cancelled, senderHandler), runForInSeconds, TimeUnit.SECONDS);
+            sendPaced(rateController, job, share);
         }
-        catch (Exception ex)
+        return rateController;
+    }
+
+    /**
+     * Measures the throughput ceiling of the broker: at each concurrency level (1, 2, 4, ... up to
+     * {@code maxConcurrency}), that many clients each send the next event as soon as the broker has
+     * acknowledged the previous one, without any pacing, for {@code levelDurationInSeconds}.
+     * This method blocks until all the levels are done.
+     *
+     * @return the throughput and latency of each level
+     */
+    public ConcurrencySweep sendClosedLoop(int maxConcurrency, int levelDurationInSeconds)
+    {
+        final ConcurrencySweep sweep = new ConcurrencySweep();
+        try (ThroughputGovernor.Share share = registerShare("closed-loop run", null))
+        {
+            sendClosedLoop(sweep, maxConcurrency, levelDurationInSeconds, share);
+        }
+        return sweep;
+    }
+
+    private void sendClosedLoop(ConcurrencySweep sweep, int maxConcurrency, int levelDurationInSeconds, ThroughputGovernor.Share share)
+    {
+        for (int concurrency : ConcurrencySweep.levelsUpTo(maxConcurrency))
+        {
+            final ConcurrencySweep.Level level = sweep.startLevel(concurrency);
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(levelDurationInSeconds);
+            List<Future<?>> clients = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++)
+            {
+                final int client = i;
+                clients.add(executorService.submit(() -> {
+                    RandomStreams.bindWorker(client);
+                    sendUntil(deadline, level, share);
+                }));
+            }
+            boolean interrupted = !awaitClients(clients);
+            level.end();
+            LOGGER.info("Closed-loop concurrency " + concurrency + ": " + String.format("%.1f", level.getThroughput()) + " events per second");
+            if (interrupted)
+            {
+                break;
+            }
+        }
+    }
+
+    private void sendUntil(long deadline, ConcurrencySweep.Level level, ThroughputGovernor.Share share)
+    {
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted())
+        {
+            Object event;
+            try
+            {
+                event = nextEvent();
+                share.acquire();
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long sendStart = System.nanoTime();
+            try
+            {
+                camelMessageProducer.sendAndWait(event);
+                level.recordSent(System.nanoTime() - sendStart);
+            }
+            catch (Exception ex)
+            {
+                if (getCause(ex, InterruptedException.class) != null)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                level.recordFailed();
+                if (level.getFailed() == 1L)
+                {
+                    LOGGER.error("Error occurred while sending the message.", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false if interrupted while waiting, in which case the clients are cancelled
+     */
+    private boolean awaitClients(List<Future<?>> clients)
+    {
+        for (Future<?> client : clients)
+        {
+            try
+            {
+                client.get();
+            }
+            catch (InterruptedException ex)
+            {
+                clients.forEach(c -> c.cancel(true));
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            catch (ExecutionException ex)
+            {
+                LOGGER.error("Client thread failed.", ex.getCause());
+            }
+        }
+        return true;
+    }
+
+    private void sendPaced(RateController rateController, SendJob job, ThroughputGovernor.Share share)
+    {
+        rateController.start();
+        List<Future<?>> workers = new ArrayList<>(senderThreads);
+        for (int i = 0; i < senderThreads; i++)
+        {
+            final int worker = i;
+            workers.add(executorService.submit(() -> {
+                RandomStreams.bindWorker(worker);
+                try
+                {
+                    while (rateController.acquire())
+                    {
+                        if (job != null && job.isCancelled())
+                        {
+                            rateController.cancel();
+                            break;
+                        }
+                        Object event = nextEvent();
+                        share.acquire();
+                        if (!sendEvent(event))
+                        {
+                            break;
+                        }
+                        if (job != null)
+                        {
+                            job.recordSent();
+                        }
+                    }
+                }
+                catch (InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                catch (RuntimeException ex)
+                {
+                    // Stop the other senders too, the same way a failed scheduled run used to stop
+                    rateController.cancel();
+                    throw ex;
+                }
+            }));
+        }
+        awaitAll(workers, rateController);
+    }
+
+    private void awaitAll(List<Future<?>> workers, RateController rateController)
+    {
+        for (Future<?> worker : workers)
         {
-            Thread.currentThread().interrupt();
+            try
+            {
+                worker.get();
+            }
+            catch (InterruptedException ex)
+            {
+                rateController.cancel();
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (ExecutionException ex)
+            {
+                LOGGER.error("Sender thread failed.", ex.getCause());
+            }
         }
     }
 
-    private void start(AtomicBoolean cancelled, int numOfEventsPerSecond)
+    /**
+     * @return the next event to send, taken from the pool of pre-generated events if enabled
+     */
+    private Object nextEvent() throws InterruptedException
     {
-        int counter = 0;
-        while (!cancelled.get() && counter < numOfEventsPerSecond)
+        return (eventPool == null) ? generateEvent() : eventPool.take();
+    }
+
+    /**
+     * @return a new event of the configured category, or of a category picked from the mix if set
+     */
+    private Object generateEvent()
+    {
+        return (categoryMix == null) ? eventTypeCategory.getRandomEvent() : categoryMix.nextEvent();
+    }
+
+    /**
+     * Waits for the pool of pre-generated events to hold the given number of events.
+     * It has no effect unless the pool is enabled.
+     */
+    public void awaitEventPoolFill(int numOfEvents) throws InterruptedException
+    {
+        if (eventPool != null && numOfEvents > 0)
         {
-            sendEvent(eventTypeCategory.getRandomEvent());
-            counter++;
+            LOGGER.info("Pre-filling the event pool with " + numOfEvents + " events.");
+            eventPool.awaitFill(numOfEvents);
         }
     }
 
-    private void stop(AtomicBoolean cancelled, ScheduledFuture<?> senderHandler)
+    private ThroughputGovernor.Share registerShare(String name, SendJob job)
     {
-        cancelled.set(true);
-        senderHandler.cancel(true);
+        return (job == null) ? governor.register(name, 1.0) : governor.register("job " + job.getId(), job.getWeight());
     }
 
-    public void sendEvent(Object event)
+    /**
+     * Sends the given event, waiting for it to be acknowledged unless the producer is async.
+     *
+     * @return whether the event was sent, i.e. false if the calling thread was interrupted
+     */
+    public boolean sendEvent(Object event)
     {
         try
         {
             camelMessageProducer.send(event);
+            return true;
         }
         catch (Exception ex)
         {
             if (getCause(ex, InterruptedException.class) != null)
             {
                 Thread.currentThread().interrupt();
+                return false;
             }
             else
             {
@@ -124,6 +518,15 @@ public class EventSender
         }
     }
 
+    /**
+     * Waits for the events sent asynchronously to be acknowledged. It has no effect
+     * unless the producer's async mode is enabled.
+     */
+    public void flush()
+    {
+        camelMessageProducer.flush();
+    }
+
     public void shutdown()
     {
         camelMessageProducer.shutdown();
@@ -135,6 +538,31 @@ public class EventSender
         return camelMessageProducer.getTotalMessagesSent();
     }
 
+    public int getTotalMessagesFailed()
+    {
+        return camelMessageProducer.getTotalMessagesFailed();
+    }
+
+    public RunReport getProducerReport()
+    {
+        return camelMessageProducer;
+    }
+
+    public RunReport getGovernorReport()
+    {
+        return governor;
+    }
+
+    public RunReport getEventPoolReport()
+    {
+        return (eventPool == null) ? sb -> sb : eventPool;
+    }
+
+    public RunReport getCategoryMixReport()
+    {
+        return (categoryMix == null) ? sb -> sb : categoryMix;
+    }
+
     public boolean isAggregatedEvents()
     {
         return camelMessageProducer.isAggregated();
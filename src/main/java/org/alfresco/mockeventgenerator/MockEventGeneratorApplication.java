@@ -17,8 +17,16 @@ package org.alfresco.mockeventgenerator;
 
 import java.util.concurrent.TimeUnit;
 
+import org.alfresco.mockeventgenerator.config.LoadProfileProperties;
+import org.alfresco.mockeventgenerator.config.kafka.KafkaProducerMetrics;
+import org.alfresco.mockeventgenerator.lifecycle.NodeLifecycleSimulator;
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+import org.alfresco.mockeventgenerator.process.ProcessInstanceSimulator;
+import org.alfresco.mockeventgenerator.rate.LoadProfileType;
+import org.alfresco.mockeventgenerator.rate.RateController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
@@ -46,12 +54,24 @@ public class MockEventGeneratorApplication implements ApplicationRunner
     @Value("${generator.scheduled.runForInSeconds:10}")
     private int runForInSeconds;
 
+    @Value("${generator.closedLoop.enabled:false}")
+    private boolean closedLoopEnabled;
+
+    @Value("${generator.closedLoop.maxConcurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${generator.closedLoop.levelDurationInSeconds:10}")
+    private int levelDurationInSeconds;
+
     @Value("${generator.fixed.numOfEvents:10}")
     private int numOfEvents;
 
     @Value("${generator.fixed.pauseTimeInMillis:1000}")
     private long pauseTimeInMillis;
 
+    @Value("${generator.pool.prefill:0}")
+    private int poolPrefill;
+
     @Value("${generator.startSendAtStartup:true}")
     private boolean startSendAtStartup;
 
@@ -62,11 +82,22 @@ public class MockEventGeneratorApplication implements ApplicationRunner
     private int waitBeforeShutdownInSeconds;
 
     private final EventSender messageSender;
+    private final LoadProfileProperties loadProfileProperties;
+    private final NodeLifecycleSimulator nodeLifecycleSimulator;
+    private final ProcessInstanceSimulator processInstanceSimulator;
+    private final KafkaProducerMetrics kafkaProducerMetrics;
 
     @Autowired
-    public MockEventGeneratorApplication(EventSender messageSender)
+    public MockEventGeneratorApplication(EventSender messageSender, LoadProfileProperties loadProfileProperties,
+                ObjectProvider<NodeLifecycleSimulator> nodeLifecycleSimulator,
+                ObjectProvider<ProcessInstanceSimulator> processInstanceSimulator,
+                ObjectProvider<KafkaProducerMetrics> kafkaProducerMetrics)
     {
         this.messageSender = messageSender;
+        this.loadProfileProperties = loadProfileProperties;
+        this.nodeLifecycleSimulator = nodeLifecycleSimulator.getIfAvailable();
+        this.processInstanceSimulator = processInstanceSimulator.getIfAvailable();
+        this.kafkaProducerMetrics = kafkaProducerMetrics.getIfAvailable();
     }
 
     public static void main(String[] args)
@@ -79,17 +110,29 @@ public class MockEventGeneratorApplication implements ApplicationRunner
     {
         if (startSendAtStartup)
         {
-            if (scheduledEnabled)
+            messageSender.awaitEventPoolFill(poolPrefill);
+            if (closedLoopEnabled)
+            {
+                LOGGER.info(buildReport(messageSender.sendClosedLoop(maxConcurrency, levelDurationInSeconds), false));
+            }
+            else if (scheduledEnabled)
             {
-                messageSender.sendRandomEventAtFixedRate(periodInSeconds, numOfEventsPerSecond, runForInSeconds);
-                // Adding 2 seconds to wait for the last run to finish
-                TimeUnit.SECONDS.sleep(runForInSeconds + 2);
-                LOGGER.info(buildReport(true));
+                RateController rateController;
+                if (loadProfileProperties.getType() == LoadProfileType.CONSTANT && loadProfileProperties.getBaseRate() <= 0.0)
+                {
+                    rateController = messageSender.sendRandomEventAtFixedRate(periodInSeconds, numOfEventsPerSecond, runForInSeconds);
+                }
+                else
+                {
+                    LOGGER.info("Sending events with the " + loadProfileProperties);
+                    rateController = messageSender.sendRandomEventWithProfile(
+                                loadProfileProperties.createLoadProfile(TimeUnit.SECONDS.toNanos(runForInSeconds)), runForInSeconds);
+                }
+                LOGGER.info(buildReport(rateController, true));
             }
             else
             {
-                messageSender.sendRandomEvent(numOfEvents, pauseTimeInMillis);
-                LOGGER.info(buildReport(false));
+                LOGGER.info(buildReport(messageSender.sendRandomEvent(numOfEvents, pauseTimeInMillis), false));
             }
 
             if (shutdownAfterSend)
@@ -106,15 +149,34 @@ public class MockEventGeneratorApplication implements ApplicationRunner
         System.exit(0);
     }
 
-    private String buildReport(boolean withAveragePerSecond)
+    private String buildReport(RunReport runReport, boolean withAveragePerSecond)
     {
-        StringBuilder sb = new StringBuilder(180);
+        // Only count the async sends once they have been acknowledged
+        messageSender.flush();
+        StringBuilder sb = new StringBuilder(512);
         sb.append("****************************************")
                     .append("\n\tTotal events sent: ").append(messageSender.getTotalMessagesSent());
         if (withAveragePerSecond)
         {
             sb.append("\n\tAverage per second: ").append(messageSender.getTotalMessagesSent() / runForInSeconds);
         }
+        runReport.appendReport(sb);
+        messageSender.getProducerReport().appendReport(sb);
+        messageSender.getGovernorReport().appendReport(sb);
+        messageSender.getEventPoolReport().appendReport(sb);
+        messageSender.getCategoryMixReport().appendReport(sb);
+        if (nodeLifecycleSimulator != null)
+        {
+            nodeLifecycleSimulator.appendReport(sb);
+        }
+        if (processInstanceSimulator != null)
+        {
+            processInstanceSimulator.appendReport(sb);
+        }
+        if (kafkaProducerMetrics != null)
+        {
+            kafkaProducerMetrics.appendReport(sb);
+        }
         sb.append("\n\tEvents were aggregated: ").append(messageSender.isAggregatedEvents());
         sb.append("\n****************************************");
         return sb.toString();
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.compression;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.github.luben.zstd.Zstd;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.xxhash.XXHash32;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * The compression codecs of the message bodies, each with its {@code Content-Encoding} token and its range of levels.
+ * The encoders write the standard container format of each codec, so the consumers can decompress the bodies
+ * with any library.
+ */
+public enum Codec
+{
+    /**
+     * Deflate in the gzip format (RFC 1952), with a deflater reused per thread. Levels 0 (stored) to 9.
+     */
+    GZIP("gzip", Deflater.NO_COMPRESSION, Deflater.BEST_COMPRESSION, 6)
+    {
+        @Override
+        Encoder createEncoder(int level)
+        {
+            final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(level, true));
+            return input -> {
+                final Deflater deflater = deflaters.get();
+                deflater.reset();
+                deflater.setInput(input);
+                deflater.finish();
+                byte[] output = new byte[GZIP_HEADER.length + input.length + (input.length >> 8) + 64];
+                System.arraycopy(GZIP_HEADER, 0, output, 0, GZIP_HEADER.length);
+                int position = GZIP_HEADER.length;
+                while (!deflater.finished())
+                {
+                    if (position == output.length)
+                    {
+                        output = Arrays.copyOf(output, output.length * 2);
+                    }
+                    position += deflater.deflate(output, position, output.length - position);
+                }
+                final CRC32 crc = new CRC32();
+                crc.update(input);
+                output = Arrays.copyOf(output, position + GZIP_TRAILER_LENGTH);
+                writeIntLE(output, position, (int) crc.getValue());
+                writeIntLE(output, position + 4, input.length);
+                return output;
+            };
+        }
+    },
+
+    /**
+     * LZ4 in the frame format, with the fast compressor at level 0 and the high compression one at levels 1 to 17.
+     */
+    LZ4("lz4", 0, 17, 0)
+    {
+        @Override
+        Encoder createEncoder(int level)
+        {
+            final LZ4Compressor compressor = (level == 0) ? LZ4Factory.fastestInstance().fastCompressor()
+                        : LZ4Factory.fastestInstance().highCompressor(level);
+            return input -> writeLz4Frame(compressor, input);
+        }
+    },
+
+    /**
+     * Zstandard, levels 1 to 22.
+     */
+    ZSTD("zstd", 1, 22, 3)
+    {
+        @Override
+        Encoder createEncoder(int level)
+        {
+            return input -> Zstd.compress(input, level);
+        }
+    };
+
+    /** The gzip header: magic, deflate, no flags, no modification time, no extra flags, unknown OS */
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+    private static final int GZIP_TRAILER_LENGTH = 8;
+    private static final int LZ4_MAGIC = 0x184D2204;
+    /** Version 01, independent blocks, content size */
+    private static final byte LZ4_FLG = 0x40 | 0x20 | 0x08;
+    /** 4 MB blocks */
+    private static final byte LZ4_BD = 0x70;
+    private static final int LZ4_MAX_BLOCK_SIZE = 4 * 1024 * 1024;
+    private static final int LZ4_UNCOMPRESSED_BLOCK = 0x80000000;
+    private static final int LZ4_HEADER_LENGTH = 15;
+    private static final XXHash32 XXHASH = XXHashFactory.fastestInstance().hash32();
+
+    /**
+     * Compresses a message body. Encoders are safe to use from any number of threads.
+     */
+    @FunctionalInterface
+    public interface Encoder
+    {
+        byte[] encode(byte[] input);
+    }
+
+    private final String contentEncoding;
+    private final int minLevel;
+    private final int maxLevel;
+    private final int defaultLevel;
+
+    Codec(String contentEncoding, int minLevel, int maxLevel, int defaultLevel)
+    {
+        this.contentEncoding = contentEncoding;
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+        this.defaultLevel = defaultLevel;
+    }
+
+    abstract Encoder createEncoder(int level);
+
+    /**
+     * @param level the compression level, or null for the default one of the codec
+     * @throws IllegalArgumentException if the level is out of the codec's range
+     */
+    public Encoder newEncoder(Integer level)
+    {
+        if (level == null)
+        {
+            return createEncoder(defaultLevel);
+        }
+        if (level < minLevel || level > maxLevel)
+        {
+            throw new IllegalArgumentException("The " + this + " level must be between " + minLevel + " and " + maxLevel + ", got: " + level);
+        }
+        return createEncoder(level);
+    }
+
+    public String getContentEncoding()
+    {
+        return contentEncoding;
+    }
+
+    /**
+     * @return the level used when none is given
+     */
+    public int getDefaultLevel()
+    {
+        return defaultLevel;
+    }
+
+    private static byte[] writeLz4Frame(LZ4Compressor compressor, byte[] input)
+    {
+        final int numOfBlocks = Math.max(1, (input.length + LZ4_MAX_BLOCK_SIZE - 1) / LZ4_MAX_BLOCK_SIZE);
+        final byte[] output = new byte[LZ4_HEADER_LENGTH + compressor.maxCompressedLength(input.length) + numOfBlocks * 8 + 4];
+        writeIntLE(output, 0, LZ4_MAGIC);
+        output[4] = LZ4_FLG;
+        output[5] = LZ4_BD;
+        writeIntLE(output, 6, input.length);
+        writeIntLE(output, 10, 0);
+        output[14] = (byte) (XXHASH.hash(output, 4, 10, 0) >> 8);
+        int position = LZ4_HEADER_LENGTH;
+        for (int offset = 0; offset < input.length; offset += LZ4_MAX_BLOCK_SIZE)
+        {
+            final int length = Math.min(LZ4_MAX_BLOCK_SIZE, input.length - offset);
+            final int compressedLength = compressor.compress(input, offset, length, output, position + 4, output.length - position - 4);
+            if (compressedLength < length)
+            {
+                writeIntLE(output, position, compressedLength);
+                position += 4 + compressedLength;
+            }
+            else
+            {
+                writeIntLE(output, position, length | LZ4_UNCOMPRESSED_BLOCK);
+                System.arraycopy(input, offset, output, position + 4, length);
+                position += 4 + length;
+            }
+        }
+        // End mark
+        writeIntLE(output, position, 0);
+        return Arrays.copyOf(output, position + 4);
+    }
+
+    private static void writeIntLE(byte[] buffer, int offset, int value)
+    {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) (value >>> 16);
+        buffer[offset + 3] = (byte) (value >>> 24);
+    }
+}
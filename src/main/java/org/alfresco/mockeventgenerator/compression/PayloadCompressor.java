@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.compression;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+import org.alfresco.mockeventgenerator.serialization.WireFormat;
+import org.apache.camel.Exchange;
+
+/**
+ * Compresses the serialized message bodies that are at least the minimum size, and accounts for the bytes saved
+ * and the CPU time spent. The bodies that don't get smaller are sent as they are, like the small ones.
+ * <p>
+ * The CPU time is the sending thread's own, if the JVM measures it, otherwise the elapsed time.
+ */
+public class PayloadCompressor implements RunReport
+{
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final Codec codec;
+    private final int level;
+    private final int minSize;
+    private final Codec.Encoder encoder;
+    private final boolean threadCpuTime;
+    private final Map<WireFormat, Map<String, Object>> headers = new EnumMap<>(WireFormat.class);
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder belowMinSize = new LongAdder();
+    private final LongAdder notSmaller = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+
+    /**
+     * @param codec   the codec
+     * @param level   the compression level, or null for the default one of the codec
+     * @param minSize the size in bytes under which the bodies are sent uncompressed
+     * @throws IllegalArgumentException if the level is out of the codec's range
+     */
+    public PayloadCompressor(Codec codec, Integer level, int minSize)
+    {
+        this.codec = codec;
+        this.encoder = codec.newEncoder(level);
+        this.level = (level == null) ? codec.getDefaultLevel() : level;
+        this.minSize = Math.max(0, minSize);
+        this.threadCpuTime = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+        for (WireFormat format : WireFormat.values())
+        {
+            Map<String, Object> formatHeaders = new HashMap<>(format.withContentType(Collections.emptyMap()));
+            formatHeaders.put(Exchange.CONTENT_ENCODING, codec.getContentEncoding());
+            headers.put(format, Collections.unmodifiableMap(formatHeaders));
+        }
+    }
+
+    /**
+     * @param body the serialized message body, bytes or a string
+     * @return the compressed body, or null if the body is to be sent as it is
+     */
+    public byte[] compress(Object body)
+    {
+        final byte[] input = (body instanceof byte[]) ? (byte[]) body : body.toString().getBytes(StandardCharsets.UTF_8);
+        if (input.length < minSize)
+        {
+            belowMinSize.increment();
+            return null;
+        }
+        final long start = cpuTime();
+        final byte[] output = encoder.encode(input);
+        cpuNanos.add(cpuTime() - start);
+        bytesIn.add(input.length);
+        if (output.length >= input.length)
+        {
+            notSmaller.increment();
+            bytesOut.add(input.length);
+            return null;
+        }
+        compressed.increment();
+        bytesOut.add(output.length);
+        return output;
+    }
+
+    /**
+     * @return the given message headers, with the content type of the given format and the content encoding of the codec
+     */
+    public Map<String, Object> withContentEncoding(WireFormat format, Map<String, Object> messageHeaders)
+    {
+        if (messageHeaders.isEmpty())
+        {
+            return headers.get(format);
+        }
+        Map<String, Object> merged = new HashMap<>(messageHeaders);
+        merged.putAll(headers.get(format));
+        return merged;
+    }
+
+    private long cpuTime()
+    {
+        return threadCpuTime ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    public Codec getCodec()
+    {
+        return codec;
+    }
+
+    public long getCompressed()
+    {
+        return compressed.sum();
+    }
+
+    public long getBelowMinSize()
+    {
+        return belowMinSize.sum();
+    }
+
+    public long getNotSmaller()
+    {
+        return notSmaller.sum();
+    }
+
+    /**
+     * @return the size of the sent bodies relative to their uncompressed size, over the bodies of at least the minimum size
+     */
+    public double getRatio()
+    {
+        final long in = bytesIn.sum();
+        return (in == 0L) ? 1.0 : (double) bytesOut.sum() / in;
+    }
+
+    @Override
+    public StringBuilder appendReport(StringBuilder sb)
+    {
+        final long attempts = getCompressed() + getNotSmaller();
+        return sb.append("\n\tCompression (").append(codec).append(" level ").append(level).append(", min size ").append(minSize).append(" bytes):")
+                    .append("\n\t\tCompressed: ").append(getCompressed())
+                    .append(", not smaller (sent as is): ").append(getNotSmaller())
+                    .append(", below the min size (sent as is): ").append(getBelowMinSize())
+                    .append(String.format("\n\t\tRatio: %.3f (%d bytes in, %d bytes out)", getRatio(), bytesIn.sum(), bytesOut.sum()))
+                    .append(String.format(", %s time per message: %.2f us", threadCpuTime ? "CPU" : "elapsed",
+                                (attempts == 0L) ? 0.0 : cpuNanos.sum() / 1000.0 / attempts));
+    }
+}
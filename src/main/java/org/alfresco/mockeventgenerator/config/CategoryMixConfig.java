@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import org.alfresco.mockeventgenerator.mix.CategoryMix;
+import org.alfresco.mockeventgenerator.serialization.BodyType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Creates the mix of event categories when any {@code generator.categoryMix.weights} is set.
+ */
+@Configuration
+@Conditional(CategoryMixConfig.OnCategoryWeights.class)
+@EnableConfigurationProperties(CategoryMixProperties.class)
+public class CategoryMixConfig
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(CategoryMixConfig.class);
+
+    @Bean
+    public CategoryMix categoryMix(CategoryMixProperties props, WireFormatProperties wireFormats,
+                @Value("${generator.producer.bodyType:STRING}") String bodyType)
+    {
+        CategoryMix mix = new CategoryMix(props.getWeights(), BodyType.valueOf(bodyType.trim().toUpperCase()), wireFormats::getFormat);
+        LOGGER.info("Sending the events of several categories, with the weights: " + props.getWeights());
+        return mix;
+    }
+
+    /**
+     * Matches when at least one category weight is set. A map of properties can't be tested with
+     * {@code @ConditionalOnProperty}.
+     */
+    static class OnCategoryWeights implements Condition
+    {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata)
+        {
+            return Binder.get(context.getEnvironment())
+                        .bind("generator.category-mix.weights", Bindable.mapOf(String.class, Double.class))
+                        .map(weights -> !weights.isEmpty())
+                        .orElse(false);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The relative weights of the event categories to send together in one run, by category name, e.g.
+ * {@code generator.categoryMix.weights.ACS_RAW_EVENT=3}. Unless at least one is given, only the events of
+ * {@code generator.eventCategory} are sent.
+ */
+@ConfigurationProperties(prefix = "generator.category-mix")
+public class CategoryMixProperties
+{
+    private Map<String, Double> weights = new LinkedHashMap<>();
+
+    public Map<String, Double> getWeights()
+    {
+        return weights;
+    }
+
+    public void setWeights(Map<String, Double> weights)
+    {
+        this.weights = weights;
+    }
+}
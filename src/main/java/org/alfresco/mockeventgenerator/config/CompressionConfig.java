@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import org.alfresco.mockeventgenerator.compression.PayloadCompressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the compression stage of the message bodies when {@code generator.compression.codec} is set.
+ */
+@Configuration
+@EnableConfigurationProperties(CompressionProperties.class)
+public class CompressionConfig
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompressionConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "generator.compression.codec")
+    public PayloadCompressor payloadCompressor(CompressionProperties props)
+    {
+        PayloadCompressor compressor = new PayloadCompressor(props.getCodec(), props.getLevel(), props.getMinSize());
+        LOGGER.info("Compressing the message bodies of at least " + props.getMinSize() + " bytes with " + props.getCodec() + '.');
+        return compressor;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import org.alfresco.mockeventgenerator.compression.Codec;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The compression of the serialized message bodies, off unless a codec is set.
+ */
+@ConfigurationProperties(prefix = "generator.compression")
+public class CompressionProperties
+{
+    private Codec codec;
+    /** Null for the default level of the codec */
+    private Integer level;
+    private int minSize = 1024;
+
+    public Codec getCodec()
+    {
+        return codec;
+    }
+
+    public void setCodec(Codec codec)
+    {
+        this.codec = codec;
+    }
+
+    public Integer getLevel()
+    {
+        return level;
+    }
+
+    public void setLevel(Integer level)
+    {
+        this.level = level;
+    }
+
+    public int getMinSize()
+    {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize)
+    {
+        this.minSize = minSize;
+    }
+
+    public boolean isEnabled()
+    {
+        return codec != null;
+    }
+}
@@ -18,9 +18,12 @@ package org.alfresco.mockeventgenerator.config;
 import java.util.List;
 
 import org.alfresco.event.databind.EventObjectMapperFactory;
-import org.alfresco.event.model.EventV1;
-import org.alfresco.event.model.ResourceV1;
 import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.EventMaker.CloudConnectorEventInstance;
+import org.alfresco.mockeventgenerator.EventMaker.PublicAcsEventInstance;
+import org.alfresco.mockeventgenerator.EventMaker.PublicActivitiEventInstance;
+import org.alfresco.mockeventgenerator.EventMaker.RawAcsEventInstance;
+import org.alfresco.mockeventgenerator.EventMaker.RawActivitiEventInstance;
 import org.alfresco.mockeventgenerator.model.CloudConnectorIntegrationRequest;
 import org.alfresco.sync.events.types.RepositoryEvent;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,36 +59,7 @@ public class EventConfig
     @Bean
     public ObjectMapper objectMapper()
     {
-        EventTypeCategory eventTypeCategory = eventTypeCategory();
-        switch (eventTypeCategory)
-        {
-            case ACS_RAW_EVENT:
-            {
-                return createAcsRawEventObjectMapper();
-            }
-            case ACS_PUBLIC_EVENT:
-            {
-                return EventObjectMapperFactory.createInstance();
-            }
-            case ACTIVITI_RAW_EVENT:
-            {
-                // This won't be used, as the content is String. We are returning a default
-                // ObjectMapper to avoid chalking for null mapper. See CamelMessageProducer#send() method.
-                return new ObjectMapper();
-            }
-            case ACTIVITI_PUBLIC_EVENT:
-            {
-                return EventObjectMapperFactory.createInstance();
-            }
-            case CLOUD_CONNECTOR_EVENT:
-            {
-                return EventObjectMapperFactory.createInstance();
-            }
-            default:
-            {
-                throw new RuntimeException("No mapper is defined for the: " + eventTypeCategory);
-            }
-        }
+        return eventTypeCategory().createObjectMapper();
     }
 
     public static ObjectMapper createAcsRawEventObjectMapper()
@@ -109,13 +83,37 @@ public class EventConfig
             {
                 return EventMaker.getRandomRawAcsEvent();
             }
+
+            @Override
+            public List<?> getSampleEvents()
+            {
+                return EventMaker.getSampleEvents(RawAcsEventInstance.values(), RawAcsEventInstance::getEvent);
+            }
+
+            @Override
+            public ObjectMapper createObjectMapper()
+            {
+                return createAcsRawEventObjectMapper();
+            }
         },
         ACS_PUBLIC_EVENT()
         {
             @Override
-            public EventV1<? extends ResourceV1> getRandomEvent()
+            public Object getRandomEvent()
+            {
+                return EventMaker.getRandomPublicAcsMessage();
+            }
+
+            @Override
+            public List<?> getSampleEvents()
             {
-                return EventMaker.getRandomPublicAcsEvent();
+                return EventMaker.getSampleEvents(PublicAcsEventInstance.values(), PublicAcsEventInstance::getEvent);
+            }
+
+            @Override
+            public ObjectMapper createObjectMapper()
+            {
+                return EventObjectMapperFactory.createInstance();
             }
         },
         ACTIVITI_RAW_EVENT()
@@ -125,13 +123,39 @@ public class EventConfig
             {
                 return EventMaker.getRandomRawActivitiEvent();
             }
+
+            @Override
+            public List<?> getSampleEvents()
+            {
+                return EventMaker.getSampleEvents(RawActivitiEventInstance.values(), RawActivitiEventInstance::getEvent);
+            }
+
+            @Override
+            public ObjectMapper createObjectMapper()
+            {
+                // This won't be used, as the content is String. We are returning a default
+                // ObjectMapper to avoid chalking for null mapper. See CamelMessageProducer#send() method.
+                return new ObjectMapper();
+            }
         },
         ACTIVITI_PUBLIC_EVENT()
         {
             @Override
-            public List<EventV1<? extends ResourceV1>> getRandomEvent()
+            public List<?> getRandomEvent()
+            {
+                return EventMaker.getRandomPublicActivitiMessages();
+            }
+
+            @Override
+            public List<?> getSampleEvents()
             {
-                return EventMaker.getRandomPublicActivitiEvent();
+                return EventMaker.getSampleEvents(PublicActivitiEventInstance.values(), PublicActivitiEventInstance::getEvents);
+            }
+
+            @Override
+            public ObjectMapper createObjectMapper()
+            {
+                return EventObjectMapperFactory.createInstance();
             }
         },
         CLOUD_CONNECTOR_EVENT()
@@ -141,8 +165,31 @@ public class EventConfig
             {
                 return EventMaker.getRandomCloudConnectorEvent();
             }
+
+            @Override
+            public List<?> getSampleEvents()
+            {
+                return EventMaker.getSampleEvents(CloudConnectorEventInstance.values(), CloudConnectorEventInstance::getEvent);
+            }
+
+            @Override
+            public ObjectMapper createObjectMapper()
+            {
+                return EventObjectMapperFactory.createInstance();
+            }
         };
 
         public abstract Object getRandomEvent();
+
+        /**
+         * @return one event of each type of this category, built from fixed sample values without touching the
+         * state of the live generation; the public Activiti events come as lists, like their random ones
+         */
+        public abstract List<?> getSampleEvents();
+
+        /**
+         * @return a new mapper that serializes the events of this category
+         */
+        public abstract ObjectMapper createObjectMapper();
     }
 }
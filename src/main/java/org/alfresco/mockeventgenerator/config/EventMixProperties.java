@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The relative weights of the event types of each category, by the name of their {@code EventMaker}
+ * instance enum constant, e.g. {@code generator.eventMix.rawAcs.NODE_ADDED_EVENT=80}. The types that
+ * aren't given keep a weight of 1, and a weight of 0 leaves a type out of the mix.
+ */
+@ConfigurationProperties(prefix = "generator.event-mix")
+public class EventMixProperties
+{
+    private Map<String, Double> rawAcs = new LinkedHashMap<>();
+    private Map<String, Double> publicAcs = new LinkedHashMap<>();
+    private Map<String, Double> rawActiviti = new LinkedHashMap<>();
+    private Map<String, Double> publicActiviti = new LinkedHashMap<>();
+
+    /**
+     * Sets the weights on the {@link EventMaker}.
+     *
+     * @throws IllegalArgumentException if a name isn't an event type of its category, or if a weight is invalid
+     */
+    public void apply()
+    {
+        EventMaker.setRawAcsEventWeights(rawAcs);
+        EventMaker.setPublicAcsEventWeights(publicAcs);
+        EventMaker.setRawActivitiEventWeights(rawActiviti);
+        EventMaker.setPublicActivitiEventWeights(publicActiviti);
+    }
+
+    public Map<String, Double> getRawAcs()
+    {
+        return rawAcs;
+    }
+
+    public void setRawAcs(Map<String, Double> rawAcs)
+    {
+        this.rawAcs = rawAcs;
+    }
+
+    public Map<String, Double> getPublicAcs()
+    {
+        return publicAcs;
+    }
+
+    public void setPublicAcs(Map<String, Double> publicAcs)
+    {
+        this.publicAcs = publicAcs;
+    }
+
+    public Map<String, Double> getRawActiviti()
+    {
+        return rawActiviti;
+    }
+
+    public void setRawActiviti(Map<String, Double> rawActiviti)
+    {
+        this.rawActiviti = rawActiviti;
+    }
+
+    public Map<String, Double> getPublicActiviti()
+    {
+        return publicActiviti;
+    }
+
+    public void setPublicActiviti(Map<String, Double> publicActiviti)
+    {
+        this.publicActiviti = publicActiviti;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import org.alfresco.mockeventgenerator.CamelMessageProducer;
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.mix.CategoryMix;
+import org.alfresco.mockeventgenerator.pool.EventPool;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Creates the pool of pre-generated, serialized events when {@code generator.pool.enabled} is set.
+ * <p>
+ * The generators are only started once the context is refreshed, i.e. once all the configurations have
+ * set the seed and the generator settings, so that even the first pooled events are generated with them.
+ * The runners, which take the events from the pool, run after that.
+ */
+@Configuration
+@ConditionalOnProperty(name = "generator.pool.enabled", havingValue = "true")
+public class EventPoolConfig
+{
+    @Bean(destroyMethod = "stop")
+    public EventPool eventPool(CamelMessageProducer camelMessageProducer, EventTypeCategory eventTypeCategory,
+                ObjectProvider<CategoryMix> categoryMixProvider,
+                @Value("${generator.pool.capacity:10000}") int capacity,
+                @Value("${generator.pool.generatorThreads:1}") int generatorThreads)
+    {
+        final CategoryMix categoryMix = categoryMixProvider.getIfAvailable();
+        return new EventPool(capacity, generatorThreads, () -> {
+            try
+            {
+                return camelMessageProducer.serialize((categoryMix == null) ? eventTypeCategory.getRandomEvent() : categoryMix.nextEvent());
+            }
+            catch (JsonProcessingException ex)
+            {
+                throw new RuntimeException(ex);
+            }
+        });
+    }
+
+    @EventListener
+    public void startEventPool(ContextRefreshedEvent event)
+    {
+        event.getApplicationContext().getBean(EventPool.class).start();
+    }
+}
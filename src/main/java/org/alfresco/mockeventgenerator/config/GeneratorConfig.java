@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.metrics.EventClockBenchmark;
+import org.alfresco.mockeventgenerator.payload.PayloadShaper;
+import org.alfresco.mockeventgenerator.payload.PayloadSize;
+import org.alfresco.mockeventgenerator.population.SyntheticPopulation;
+import org.alfresco.mockeventgenerator.util.EventClock;
+import org.alfresco.mockeventgenerator.util.IdGenerator;
+import org.alfresco.mockeventgenerator.util.RandomStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the broker independent {@code generator.*} properties, and sets how the event ids are generated,
+ * the seed of the random event streams, the clock of the event timestamps, the mix of event types, the
+ * population the events refer to and the size of their payloads. Runs the event clock benchmark at startup
+ * when {@code generator.clock.benchmark.enabled} is set.
+ */
+@Configuration
+@EnableConfigurationProperties({ LoadProfileProperties.class, EventMixProperties.class, PopulationProperties.class,
+            LifecycleProperties.class, PayloadProperties.class })
+public class GeneratorConfig
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeneratorConfig.class);
+
+    public GeneratorConfig(@Value("${generator.idGenerator:FAST_RANDOM}") String idGenerator,
+                @Value("${generator.seed:#{null}}") Long seed,
+                @Value("${generator.clock.synthetic:#{null}}") Boolean syntheticClock,
+                @Value("${generator.clock.start:2018-01-01T00:00:00Z}") String clockStart,
+                @Value("${generator.clock.tickInMillis:1}") long clockTickInMillis,
+                EventMixProperties eventMixProperties,
+                PopulationProperties populationProperties,
+                PayloadProperties payloadProperties)
+    {
+        EventMaker.setIdGenerator(IdGenerator.valueOf(idGenerator.trim().toUpperCase()));
+        RandomStreams.setSeed(seed);
+        // Seeded runs are replayed with the same timestamps too, unless told otherwise
+        if ((syntheticClock == null) ? seed != null : syntheticClock)
+        {
+            EventMaker.setClock(EventClock.perWorker(parseInstant(clockStart), clockTickInMillis));
+            LOGGER.info("Reading the event timestamps from a synthetic clock per worker, starting at " + clockStart + " and moving on by "
+                        + clockTickInMillis + " ms at every read.");
+        }
+        else
+        {
+            EventMaker.setClock(EventClock.system());
+        }
+        eventMixProperties.apply();
+        if (populationProperties.isEnabled())
+        {
+            SyntheticPopulation population = new SyntheticPopulation(populationProperties);
+            EventMaker.setPopulation(population);
+            LOGGER.info("Generating events for " + population.getNumOfUsers() + " users, " + population.getNumOfGroups() + " groups and "
+                        + population.getNumOfSites() + " sites, picked with a " + populationProperties.getDistribution() + " distribution.");
+        }
+        if (payloadProperties.getSize() != PayloadSize.NONE || payloadProperties.getExtraAspects() > 0)
+        {
+            EventMaker.setPayloadShaper(new PayloadShaper(payloadProperties));
+        }
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "generator.clock.benchmark.enabled", havingValue = "true")
+    public ApplicationRunner eventClockBenchmark(@Value("${generator.clock.benchmark.numOfEvents:100000}") int numOfEvents)
+    {
+        // The raw event categories, which don't drive the simulators
+        return new StartupReportRunner(() -> new EventClockBenchmark(numOfEvents)
+                    .run(Arrays.asList(EventTypeCategory.ACS_RAW_EVENT, EventTypeCategory.ACTIVITI_RAW_EVENT)));
+    }
+
+    private static long parseInstant(String instant)
+    {
+        try
+        {
+            return Instant.parse(instant.trim()).toEpochMilli();
+        }
+        catch (DateTimeParseException ex)
+        {
+            throw new IllegalArgumentException("Expected an ISO-8601 instant, e.g. 2018-01-01T00:00:00Z, for generator.clock.start, got: "
+                        + instant, ex);
+        }
+    }
+}
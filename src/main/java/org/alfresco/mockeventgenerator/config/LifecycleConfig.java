@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.lifecycle.FlatFolderCatalog;
+import org.alfresco.mockeventgenerator.lifecycle.FolderCatalog;
+import org.alfresco.mockeventgenerator.lifecycle.NodeLifecycleSimulator;
+import org.alfresco.mockeventgenerator.repository.RepositoryTree;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the node lifecycle simulation when {@code generator.lifecycle.enabled} is set, and makes the
+ * public ACS events report its changes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "generator.lifecycle.enabled", havingValue = "true")
+public class LifecycleConfig
+{
+    @Bean
+    public NodeLifecycleSimulator nodeLifecycleSimulator(LifecycleProperties props, ObjectProvider<RepositoryTree> repositoryTree)
+    {
+        // The nodes live in the repository tree if there is one
+        final RepositoryTree tree = repositoryTree.getIfAvailable();
+        final FolderCatalog folders = (tree != null) ? tree : new FlatFolderCatalog(props.getFolders(), props.getSites());
+        NodeLifecycleSimulator simulator = new NodeLifecycleSimulator(props.getMaxLiveNodes(), folders, props.getOperations());
+        EventMaker.setNodeLifecycle(simulator);
+        return simulator;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.alfresco.mockeventgenerator.lifecycle.NodeLifecycleSimulator;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The settings of the {@link NodeLifecycleSimulator}, which replaces the stateless public ACS events
+ * when enabled.
+ */
+@ConfigurationProperties(prefix = "generator.lifecycle")
+public class LifecycleProperties
+{
+    private boolean enabled;
+    private int maxLiveNodes = 1_000_000;
+    private int folders = 10_000;
+    private int sites = 100;
+    private Map<String, Double> operations = new LinkedHashMap<>();
+
+    public LifecycleProperties()
+    {
+        operations.put("ADD", 30.0);
+        operations.put("UPDATE", 40.0);
+        operations.put("MOVE", 10.0);
+        operations.put("GRANT_PERMISSION", 10.0);
+        operations.put("DELETE", 10.0);
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public int getMaxLiveNodes()
+    {
+        return maxLiveNodes;
+    }
+
+    public void setMaxLiveNodes(int maxLiveNodes)
+    {
+        this.maxLiveNodes = maxLiveNodes;
+    }
+
+    public int getFolders()
+    {
+        return folders;
+    }
+
+    public void setFolders(int folders)
+    {
+        this.folders = folders;
+    }
+
+    public int getSites()
+    {
+        return sites;
+    }
+
+    public void setSites(int sites)
+    {
+        this.sites = sites;
+    }
+
+    public Map<String, Double> getOperations()
+    {
+        return operations;
+    }
+
+    public void setOperations(Map<String, Double> operations)
+    {
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import org.alfresco.mockeventgenerator.rate.LoadProfile;
+import org.alfresco.mockeventgenerator.rate.LoadProfileType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The settings of a time-varying {@link LoadProfile}. The same settings are accepted
+ * as the {@code loadProfile} attribute of the REST API request payload.
+ * <p>
+ * All profiles move between the {@code baseRate} and the {@code peakRate}; see
+ * {@link LoadProfileType} for how each type uses the remaining settings.
+ */
+@ConfigurationProperties(prefix = "generator.scheduled.profile")
+public class LoadProfileProperties
+{
+    private LoadProfileType type = LoadProfileType.CONSTANT;
+    private double baseRate;
+    private double peakRate;
+    private double stepRate;
+    private long periodInSeconds;
+    private long spikeStartInSeconds;
+    private long spikeDurationInSeconds;
+    private double peakHour = 14.0;
+
+    public LoadProfile createLoadProfile(long runDurationNanos)
+    {
+        return type.create(this, runDurationNanos);
+    }
+
+    public LoadProfileType getType()
+    {
+        return type;
+    }
+
+    public void setType(LoadProfileType type)
+    {
+        this.type = type;
+    }
+
+    public double getBaseRate()
+    {
+        return baseRate;
+    }
+
+    public void setBaseRate(double baseRate)
+    {
+        this.baseRate = baseRate;
+    }
+
+    public double getPeakRate()
+    {
+        return peakRate;
+    }
+
+    public void setPeakRate(double peakRate)
+    {
+        this.peakRate = peakRate;
+    }
+
+    public double getStepRate()
+    {
+        return stepRate;
+    }
+
+    public void setStepRate(double stepRate)
+    {
+        this.stepRate = stepRate;
+    }
+
+    public long getPeriodInSeconds()
+    {
+        return periodInSeconds;
+    }
+
+    public void setPeriodInSeconds(long periodInSeconds)
+    {
+        this.periodInSeconds = periodInSeconds;
+    }
+
+    public long getSpikeStartInSeconds()
+    {
+        return spikeStartInSeconds;
+    }
+
+    public void setSpikeStartInSeconds(long spikeStartInSeconds)
+    {
+        this.spikeStartInSeconds = spikeStartInSeconds;
+    }
+
+    public long getSpikeDurationInSeconds()
+    {
+        return spikeDurationInSeconds;
+    }
+
+    public void setSpikeDurationInSeconds(long spikeDurationInSeconds)
+    {
+        this.spikeDurationInSeconds = spikeDurationInSeconds;
+    }
+
+    public double getPeakHour()
+    {
+        return peakHour;
+    }
+
+    public void setPeakHour(double peakHour)
+    {
+        this.peakHour = peakHour;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder(200);
+        sb.append("LoadProfile [type=").append(type)
+                    .append(", baseRate=").append(baseRate)
+                    .append(", peakRate=").append(peakRate)
+                    .append(", stepRate=").append(stepRate)
+                    .append(", periodInSeconds=").append(periodInSeconds)
+                    .append(", spikeStartInSeconds=").append(spikeStartInSeconds)
+                    .append(", spikeDurationInSeconds=").append(spikeDurationInSeconds)
+                    .append(", peakHour=").append(peakHour)
+                    .append(']');
+        return sb.toString();
+    }
+}
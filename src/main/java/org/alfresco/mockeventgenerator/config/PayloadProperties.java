@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import org.alfresco.mockeventgenerator.payload.PayloadShaper;
+import org.alfresco.mockeventgenerator.payload.PayloadSize;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The settings of the {@link PayloadShaper}, see {@link PayloadSize} for how each distribution uses them.
+ */
+@ConfigurationProperties(prefix = "generator.payload")
+public class PayloadProperties
+{
+    private PayloadSize size = PayloadSize.NONE;
+    private int bytes = 4096;
+    private int minBytes = 500;
+    private int maxBytes = 1024 * 1024;
+    private int medianBytes = 4096;
+    private double sigma = 1.5;
+    private int extraAspects;
+
+    public PayloadSize getSize()
+    {
+        return size;
+    }
+
+    public void setSize(PayloadSize size)
+    {
+        this.size = size;
+    }
+
+    public int getBytes()
+    {
+        return bytes;
+    }
+
+    public void setBytes(int bytes)
+    {
+        this.bytes = bytes;
+    }
+
+    public int getMinBytes()
+    {
+        return minBytes;
+    }
+
+    public void setMinBytes(int minBytes)
+    {
+        this.minBytes = minBytes;
+    }
+
+    public int getMaxBytes()
+    {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(int maxBytes)
+    {
+        this.maxBytes = maxBytes;
+    }
+
+    public int getMedianBytes()
+    {
+        return medianBytes;
+    }
+
+    public void setMedianBytes(int medianBytes)
+    {
+        this.medianBytes = medianBytes;
+    }
+
+    public double getSigma()
+    {
+        return sigma;
+    }
+
+    public void setSigma(double sigma)
+    {
+        this.sigma = sigma;
+    }
+
+    public int getExtraAspects()
+    {
+        return extraAspects;
+    }
+
+    public void setExtraAspects(int extraAspects)
+    {
+        this.extraAspects = extraAspects;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import org.alfresco.mockeventgenerator.population.AccessDistribution;
+import org.alfresco.mockeventgenerator.population.SyntheticPopulation;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The settings of the {@link SyntheticPopulation} of users, groups and sites the events refer to,
+ * instead of the handful of built-in ones.
+ */
+@ConfigurationProperties(prefix = "generator.population")
+public class PopulationProperties
+{
+    private boolean enabled;
+    private int users = 1_000_000;
+    private int groups = 50_000;
+    private int sites = 100_000;
+    private AccessDistribution distribution = AccessDistribution.ZIPF;
+    private double zipfExponent = 1.0;
+    private double hotSetFraction = 0.2;
+    private double hotAccessFraction = 0.8;
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public int getUsers()
+    {
+        return users;
+    }
+
+    public void setUsers(int users)
+    {
+        this.users = users;
+    }
+
+    public int getGroups()
+    {
+        return groups;
+    }
+
+    public void setGroups(int groups)
+    {
+        this.groups = groups;
+    }
+
+    public int getSites()
+    {
+        return sites;
+    }
+
+    public void setSites(int sites)
+    {
+        this.sites = sites;
+    }
+
+    public AccessDistribution getDistribution()
+    {
+        return distribution;
+    }
+
+    public void setDistribution(AccessDistribution distribution)
+    {
+        this.distribution = distribution;
+    }
+
+    public double getZipfExponent()
+    {
+        return zipfExponent;
+    }
+
+    public void setZipfExponent(double zipfExponent)
+    {
+        this.zipfExponent = zipfExponent;
+    }
+
+    public double getHotSetFraction()
+    {
+        return hotSetFraction;
+    }
+
+    public void setHotSetFraction(double hotSetFraction)
+    {
+        this.hotSetFraction = hotSetFraction;
+    }
+
+    public double getHotAccessFraction()
+    {
+        return hotAccessFraction;
+    }
+
+    public void setHotAccessFraction(double hotAccessFraction)
+    {
+        this.hotAccessFraction = hotAccessFraction;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.process.ProcessInstanceSimulator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the process instance simulation when {@code generator.processes.enabled} is set, and makes the
+ * public Activiti events report its steps.
+ */
+@Configuration
+@ConditionalOnProperty(name = "generator.processes.enabled", havingValue = "true")
+public class ProcessSimulationConfig
+{
+    @Bean
+    public ProcessInstanceSimulator processInstanceSimulator(@Value("${generator.processes.instances:10000}") int instances,
+                @Value("${generator.processes.meanStepDelayMillis:60000}") long meanStepDelayMillis)
+    {
+        ProcessInstanceSimulator simulator = new ProcessInstanceSimulator(instances, meanStepDelayMillis, EventMaker::getUserName);
+        EventMaker.setProcessSimulator(simulator);
+        return simulator;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.repository.RepositoryTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the synthetic repository tree when {@code generator.repository.enabled} is set, and makes the
+ * ACS events take their ancestry and paths from it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "generator.repository.enabled", havingValue = "true")
+public class RepositoryTreeConfig
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(RepositoryTreeConfig.class);
+
+    @Bean
+    public RepositoryTree repositoryTree(@Value("${generator.repository.sites:100}") int sites,
+                @Value("${generator.repository.depth:3}") int depth,
+                @Value("${generator.repository.fanOut:5}") int fanOut)
+    {
+        RepositoryTree tree = new RepositoryTree(sites, depth, fanOut);
+        EventMaker.setRepositoryTree(tree);
+        LOGGER.info("Generating events in a repository of " + tree.getNumOfSites() + " sites and " + tree.getNumOfFolders() + " folders.");
+        return tree;
+    }
+}
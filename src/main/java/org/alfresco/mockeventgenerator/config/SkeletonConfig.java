@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.serialization.WireFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+/**
+ * Compiles the serialize-once skeletons of the public ACS and Activiti events when
+ * {@code generator.skeletons.enabled} is set, so that these events are written straight from the
+ * per-event values instead of being built and serialized one by one. Fails at startup if these events
+ * are to be sent in a wire format with schemas, which needs the event objects. The skeletons are recorded
+ * after the {@link GeneratorConfig generator config} has set the payload shaping: with a size distribution,
+ * the skeleton events are padded to its typical size.
+ */
+@Configuration
+@ConditionalOnProperty(name = "generator.skeletons.enabled", havingValue = "true")
+@EnableConfigurationProperties(WireFormatProperties.class)
+@DependsOn("generatorConfig")
+public class SkeletonConfig
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(SkeletonConfig.class);
+
+    public SkeletonConfig(WireFormatProperties wireFormats)
+    {
+        // The skeletons write JSON text, which can be transcoded to the binary formats but can't be written with a schema
+        for (EventTypeCategory category : new EventTypeCategory[] { EventTypeCategory.ACS_PUBLIC_EVENT, EventTypeCategory.ACTIVITI_PUBLIC_EVENT })
+        {
+            final WireFormat format = wireFormats.getFormat(category);
+            if (format.hasSchema())
+            {
+                throw new IllegalStateException("The " + category + " events can't be sent as " + format
+                            + " when they are written from skeletons. Disable generator.skeletons.enabled or choose another wire format.");
+            }
+        }
+        EventMaker.setSkeletons(EventTypeCategory.ACS_PUBLIC_EVENT.createObjectMapper(), EventTypeCategory.ACTIVITI_PUBLIC_EVENT.createObjectMapper());
+        LOGGER.info("Writing the public ACS and Activiti events from their serialize-once skeletons.");
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import java.util.function.Supplier;
+
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+
+/**
+ * Runs a one-off measurement, e.g. a benchmark, at startup and logs its report. It runs before
+ * the startup run, which is the lowest precedence runner, so the measurement isn't skewed by
+ * the events being sent.
+ */
+class StartupReportRunner implements ApplicationRunner, Ordered
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupReportRunner.class);
+
+    private final Supplier<? extends RunReport> measurement;
+
+    /**
+     * @param measurement runs the measurement and returns its report
+     */
+    StartupReportRunner(Supplier<? extends RunReport> measurement)
+    {
+        this.measurement = measurement;
+    }
+
+    @Override
+    public void run(ApplicationArguments args)
+    {
+        LOGGER.info(measurement.get().appendReport(new StringBuilder("****************************************"))
+                    .append("\n****************************************").toString());
+    }
+
+    @Override
+    public int getOrder()
+    {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.template.TemplateDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Loads the user's event templates when {@code generator.templates.directory} is set, and makes the raw
+ * Activiti events use them instead of the built-in ones.
+ */
+@Configuration
+@ConditionalOnProperty(name = "generator.templates.directory")
+public class TemplateConfig
+{
+    @Bean
+    public TemplateDirectory templateDirectory(@Value("${generator.templates.directory}") String directory) throws IOException
+    {
+        TemplateDirectory templateDirectory = new TemplateDirectory(Paths.get(directory), EventMaker.getTemplatePlaceholders()).start();
+        EventMaker.setTemplateDirectory(templateDirectory);
+        return templateDirectory;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.mix.CategoryMix;
+import org.alfresco.mockeventgenerator.serialization.EventSerializer;
+import org.alfresco.mockeventgenerator.serialization.WireFormat;
+import org.alfresco.mockeventgenerator.serialization.WireFormatBenchmark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Selects the wire format of the events, and runs the wire format benchmark at startup when
+ * {@code generator.wireFormat.benchmark.enabled} is set.
+ */
+@Configuration
+@EnableConfigurationProperties(WireFormatProperties.class)
+public class WireFormatConfig
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(WireFormatConfig.class);
+
+    /**
+     * The format of the producer's own events, i.e. those of {@code generator.eventCategory}. The bodies
+     * of a category mix, which ignores the event category, carry their own format when it isn't JSON.
+     */
+    @Bean
+    public WireFormat wireFormat(EventTypeCategory eventTypeCategory, WireFormatProperties props, ObjectProvider<CategoryMix> categoryMix)
+    {
+        for (Map.Entry<String, WireFormat> entry : props.getFormats().entrySet())
+        {
+            final EventTypeCategory category = toCategory(entry.getKey());
+            if (entry.getValue().hasSchema())
+            {
+                verify(category, entry.getValue());
+            }
+            if (entry.getValue().isBinary())
+            {
+                LOGGER.info("Sending the " + category + " events as " + entry.getValue() + " (" + entry.getValue().getContentType() + ").");
+            }
+        }
+        return (categoryMix.getIfAvailable() == null) ? props.getFormat(eventTypeCategory) : WireFormat.JSON;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "generator.wire-format.benchmark.enabled", havingValue = "true")
+    public ApplicationRunner wireFormatBenchmark(WireFormatProperties props)
+    {
+        final int numOfEvents = props.getBenchmark().getNumOfEvents();
+        return new StartupReportRunner(() -> new WireFormatBenchmark(numOfEvents).run(Arrays.asList(EventTypeCategory.values())));
+    }
+
+    private static EventTypeCategory toCategory(String name)
+    {
+        try
+        {
+            return EventTypeCategory.valueOf(name);
+        }
+        catch (IllegalArgumentException ex)
+        {
+            throw new IllegalArgumentException("Unknown event category in generator.wireFormat.formats: " + name, ex);
+        }
+    }
+
+    /**
+     * Fails fast if the events of the given category can't be written in the given format, e.g. if no schema can be
+     * generated from their type. One {@link EventTypeCategory#getSampleEvents() sample event} of each type is written,
+     * so the check neither depends on nor changes the state of the live generation.
+     */
+    private static void verify(EventTypeCategory category, WireFormat format)
+    {
+        final EventSerializer serializer = new EventSerializer(category.createObjectMapper(), format);
+        try
+        {
+            for (Object event : category.getSampleEvents())
+            {
+                for (Object message : (event instanceof Iterable) ? (Iterable<?>) event : Arrays.asList(event))
+                {
+                    serializer.writeBytes(message);
+                }
+            }
+        }
+        catch (JsonProcessingException ex)
+        {
+            throw new IllegalStateException("The " + category + " events can't be sent as " + format + ": " + ex.getOriginalMessage(), ex);
+        }
+    }
+}
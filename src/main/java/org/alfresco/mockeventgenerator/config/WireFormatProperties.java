@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.serialization.WireFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The wire format of the events of each category, by category name, e.g.
+ * {@code generator.wireFormat.formats.ACS_PUBLIC_EVENT=SMILE}. The categories that aren't given are sent as JSON.
+ */
+@ConfigurationProperties(prefix = "generator.wire-format")
+public class WireFormatProperties
+{
+    private Map<String, WireFormat> formats = new LinkedHashMap<>();
+    private final Benchmark benchmark = new Benchmark();
+
+    public Map<String, WireFormat> getFormats()
+    {
+        return formats;
+    }
+
+    public void setFormats(Map<String, WireFormat> formats)
+    {
+        this.formats = formats;
+    }
+
+    public Benchmark getBenchmark()
+    {
+        return benchmark;
+    }
+
+    /**
+     * @return the wire format of the given category
+     */
+    public WireFormat getFormat(EventTypeCategory category)
+    {
+        return formats.getOrDefault(category.name(), WireFormat.JSON);
+    }
+
+    /**
+     * @return whether any category is sent in a binary format
+     */
+    public boolean isAnyBinary()
+    {
+        return formats.values().stream().anyMatch(WireFormat::isBinary);
+    }
+
+    /**
+     * Encodes sample events of every category in every format at startup, and reports their sizes and encode times.
+     */
+    public static class Benchmark
+    {
+        private boolean enabled;
+        private int numOfEvents = 1000;
+
+        public boolean isEnabled()
+        {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled)
+        {
+            this.enabled = enabled;
+        }
+
+        public int getNumOfEvents()
+        {
+            return numOfEvents;
+        }
+
+        public void setNumOfEvents(int numOfEvents)
+        {
+            this.numOfEvents = numOfEvents;
+        }
+    }
+}
@@ -15,9 +15,18 @@
  */
 package org.alfresco.mockeventgenerator.config.kafka;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.alfresco.mockeventgenerator.config.CamelRouteProperties;
+import org.alfresco.mockeventgenerator.config.CompressionProperties;
 import org.alfresco.mockeventgenerator.config.RouteConfig;
+import org.alfresco.mockeventgenerator.config.WireFormatProperties;
+import org.alfresco.mockeventgenerator.serialization.BodyType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
@@ -31,9 +40,66 @@ import org.springframework.context.annotation.Profile;
 @Profile(value = "kafka")
 public class KafkaConfig extends RouteConfig
 {
+    private static final String SERIALIZER_CLASS_OPTION = "serializerClass";
+    private static final String BYTE_ARRAY_SERIALIZER = "org.apache.kafka.common.serialization.ByteArraySerializer";
+
+    private final KafkaProperties properties;
+
     @Autowired
-    public KafkaConfig(KafkaProperties properties)
+    public KafkaConfig(KafkaProperties properties, WireFormatProperties wireFormats, CompressionProperties compression,
+                @Value("${generator.producer.bodyType:STRING}") String bodyType)
+    {
+        super(withEndpointOptions(properties.getCamelRoute(), endpointOptions(properties.getProducer(),
+                    BodyType.valueOf(bodyType.trim().toUpperCase()) == BodyType.BYTES || wireFormats.isAnyBinary() || compression.isEnabled())));
+        this.properties = properties;
+    }
+
+    @Bean
+    public KafkaProducerMetrics kafkaProducerMetrics()
+    {
+        return new KafkaProducerMetrics(properties.getProducer());
+    }
+
+    /**
+     * @return the producer settings as endpoint options, plus the serializer that sends the byte array bodies as
+     * they are, rather than converting them back to strings for the endpoint's default {@code StringSerializer}
+     */
+    private static Map<String, Object> endpointOptions(KafkaProperties.Producer producer, boolean byteArrayBodies)
+    {
+        Map<String, Object> options = new LinkedHashMap<>(producer.getEndpointOptions());
+        if (byteArrayBodies)
+        {
+            options.put(SERIALIZER_CLASS_OPTION, BYTE_ARRAY_SERIALIZER);
+        }
+        return options;
+    }
+
+    /**
+     * Appends the given options to the Kafka endpoint URI of the route, except those already set in the
+     * URI, which take precedence. Routes to other endpoints, e.g. in the tests, are left as they are.
+     */
+    static CamelRouteProperties withEndpointOptions(CamelRouteProperties routeProperties, Map<String, Object> options)
+    {
+        String toRoute = routeProperties.getToRoute();
+        if (toRoute == null || !toRoute.startsWith("kafka:"))
+        {
+            return routeProperties;
+        }
+        StringBuilder sb = new StringBuilder(toRoute);
+        for (Map.Entry<String, Object> option : options.entrySet())
+        {
+            if (!hasOption(toRoute, option.getKey()))
+            {
+                sb.append((sb.indexOf("?") < 0) ? '?' : '&').append(option.getKey()).append('=').append(option.getValue());
+            }
+        }
+        routeProperties.setToRoute(sb.toString());
+        return routeProperties;
+    }
+
+    private static boolean hasOption(String uri, String option)
     {
-        super(properties.getCamelRoute());
+        final int query = uri.indexOf('?');
+        return query >= 0 && ('&' + uri.substring(query + 1)).contains('&' + option + '=');
     }
 }
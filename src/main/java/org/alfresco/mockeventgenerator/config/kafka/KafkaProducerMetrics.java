@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config.kafka;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+
+/**
+ * Reports the effective producer settings and the metrics the Kafka producers of the run register in JMX, so
+ * batching strategies can be compared by their send rate, batch sizes and request latencies.
+ */
+public class KafkaProducerMetrics implements RunReport
+{
+    private static final String PRODUCER_METRICS = "kafka.producer:type=producer-metrics,client-id=*";
+    /** The reported metrics, in the order they are reported in */
+    private static final String[] METRICS = {
+                "record-send-rate", "record-send-total", "record-error-rate", "batch-size-avg", "batch-size-max",
+                "records-per-request-avg", "compression-rate-avg", "request-latency-avg", "request-latency-max",
+                "record-queue-time-avg", "bufferpool-wait-ratio" };
+
+    private final KafkaProperties.Producer producer;
+    private final MBeanServer mBeanServer;
+
+    public KafkaProducerMetrics(KafkaProperties.Producer producer)
+    {
+        this(producer, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public KafkaProducerMetrics(KafkaProperties.Producer producer, MBeanServer mBeanServer)
+    {
+        this.producer = producer;
+        this.mBeanServer = mBeanServer;
+    }
+
+    @Override
+    public StringBuilder appendReport(StringBuilder sb)
+    {
+        final Map<String, Object> options = producer.getEndpointOptions();
+        sb.append("\n\tKafka producer settings: ").append(options.isEmpty() ? "defaults" : options.toString());
+        final Set<ObjectName> names;
+        try
+        {
+            names = mBeanServer.queryNames(new ObjectName(PRODUCER_METRICS), null);
+        }
+        catch (JMException ex)
+        {
+            throw new IllegalStateException("Invalid object name: " + PRODUCER_METRICS, ex);
+        }
+        if (names.isEmpty())
+        {
+            return sb.append("\n\tKafka producer metrics: none registered");
+        }
+        for (ObjectName name : names)
+        {
+            sb.append("\n\tKafka producer metrics (client ").append(name.getKeyProperty("client-id")).append("):");
+            final AttributeList attributes;
+            try
+            {
+                attributes = mBeanServer.getAttributes(name, METRICS);
+            }
+            catch (JMException ex)
+            {
+                sb.append("\n\t\tUnavailable: ").append(ex.getMessage());
+                continue;
+            }
+            for (Attribute attribute : attributes.asList())
+            {
+                sb.append("\n\t\t").append(attribute.getName()).append(": ").append(format(attribute.getValue()));
+            }
+        }
+        return sb;
+    }
+
+    private static String format(Object value)
+    {
+        if (value instanceof Double)
+        {
+            final double metric = (Double) value;
+            // Kafka reports the metrics without any sample as NaN or infinity
+            return (Double.isNaN(metric) || Double.isInfinite(metric)) ? "n/a" : String.format("%.2f", metric);
+        }
+        return String.valueOf(value);
+    }
+}
@@ -15,6 +15,12 @@
  */
 package org.alfresco.mockeventgenerator.config.kafka;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 import org.alfresco.mockeventgenerator.config.CamelRouteProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -25,6 +31,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class KafkaProperties
 {
     private final CamelRouteProperties camelRoute = new CamelRouteProperties();
+    private final Producer producer = new Producer();
     private String host;
     private int port;
 
@@ -33,6 +40,11 @@ public class KafkaProperties
         return camelRoute;
     }
 
+    public Producer getProducer()
+    {
+        return producer;
+    }
+
     public String getHost()
     {
         return host;
@@ -52,4 +64,145 @@ public class KafkaProperties
     {
         this.port = port;
     }
+
+    /**
+     * The compression of the record batches by the Kafka producer.
+     */
+    public enum CompressionType
+    {
+        NONE, GZIP, SNAPPY, LZ4;
+
+        /**
+         * @return the name of the codec in the Kafka producer configuration
+         */
+        public String getCodecName()
+        {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * The batching, compression and acknowledgement settings of the Kafka producer, each left to the
+     * Camel Kafka endpoint's default unless set.
+     */
+    public static class Producer
+    {
+        private static final List<String> ACKS = Arrays.asList("0", "1", "all", "-1");
+
+        /** How long to wait for more records to fill a batch before sending it */
+        private Integer lingerMs;
+        /** The maximum size of a batch, per partition, in bytes */
+        private Integer batchSize;
+        private CompressionType compressionType;
+        /** 0, 1 or all */
+        private String acks;
+        /** The maximum number of unacknowledged requests per connection */
+        private Integer maxInFlightRequests;
+        /** The memory the records waiting to be sent can take, in bytes */
+        private Integer bufferMemory;
+        /** Names the producer, e.g. in its metrics */
+        private String clientId;
+
+        public Integer getLingerMs()
+        {
+            return lingerMs;
+        }
+
+        public void setLingerMs(Integer lingerMs)
+        {
+            this.lingerMs = lingerMs;
+        }
+
+        public Integer getBatchSize()
+        {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize)
+        {
+            this.batchSize = batchSize;
+        }
+
+        public CompressionType getCompressionType()
+        {
+            return compressionType;
+        }
+
+        public void setCompressionType(CompressionType compressionType)
+        {
+            this.compressionType = compressionType;
+        }
+
+        public String getAcks()
+        {
+            return acks;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the acks aren't 0, 1, all or -1
+         */
+        public void setAcks(String acks)
+        {
+            final String trimmed = (acks == null) ? null : acks.trim().toLowerCase(Locale.ROOT);
+            if (trimmed != null && !ACKS.contains(trimmed))
+            {
+                throw new IllegalArgumentException("Expected 0, 1 or all for the Kafka producer acks, got: " + acks);
+            }
+            this.acks = trimmed;
+        }
+
+        public Integer getMaxInFlightRequests()
+        {
+            return maxInFlightRequests;
+        }
+
+        public void setMaxInFlightRequests(Integer maxInFlightRequests)
+        {
+            this.maxInFlightRequests = maxInFlightRequests;
+        }
+
+        public Integer getBufferMemory()
+        {
+            return bufferMemory;
+        }
+
+        public void setBufferMemory(Integer bufferMemory)
+        {
+            this.bufferMemory = bufferMemory;
+        }
+
+        public String getClientId()
+        {
+            return clientId;
+        }
+
+        public void setClientId(String clientId)
+        {
+            this.clientId = clientId;
+        }
+
+        /**
+         * @return the Camel Kafka endpoint options of the settings that are set, by option name
+         */
+        public Map<String, Object> getEndpointOptions()
+        {
+            Map<String, Object> options = new LinkedHashMap<>();
+            putIfSet(options, "lingerMs", lingerMs);
+            putIfSet(options, "producerBatchSize", batchSize);
+            putIfSet(options, "compressionCodec", (compressionType == null) ? null : compressionType.getCodecName());
+            putIfSet(options, "requestRequiredAcks", acks);
+            putIfSet(options, "maxInFlightRequest", maxInFlightRequests);
+            putIfSet(options, "bufferMemorySize", bufferMemory);
+            putIfSet(options, "clientId", clientId);
+            return options;
+        }
+
+        private static void putIfSet(Map<String, Object> options, String option, Object value)
+        {
+            if (value != null)
+            {
+                options.put(option, value);
+            }
+        }
+    }
 }
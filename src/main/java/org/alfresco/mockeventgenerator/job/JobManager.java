@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.job;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.PreDestroy;
+
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the send jobs submitted via the REST API on a dedicated, bounded executor, so the
+ * servlet threads are not tied up for the duration of a run.
+ * <p>
+ * At most {@code maxConcurrent} jobs run at a time and at most {@code queueCapacity} wait for
+ * their turn; beyond that a submission is rejected. The most recent {@code maxRetained}
+ * finished jobs are kept for their status to be queried.
+ */
+@Component
+public class JobManager
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobManager.class);
+
+    private final ThreadPoolExecutor executor;
+    private final int maxRetained;
+    /** In submission order, so the oldest finished jobs are evicted first */
+    private final Map<String, SendJob> jobs = new LinkedHashMap<>();
+
+    public JobManager(@Value("${generator.jobs.maxConcurrent:2}") int maxConcurrent,
+                @Value("${generator.jobs.queueCapacity:8}") int queueCapacity,
+                @Value("${generator.jobs.maxRetained:100}") int maxRetained)
+    {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "send-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(Math.max(1, maxConcurrent), Math.max(1, maxConcurrent), 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.maxRetained = Math.max(1, maxRetained);
+    }
+
+    /**
+     * Queues the given run as a new job.
+     *
+     * @param description a human readable summary of the run
+     * @param weight      the job's weight in the throughput governor's fair sharing
+     * @param run         the run itself, which reports its sends to, and stops when cancelled by, the given job
+     * @return the queued job
+     * @throws RejectedExecutionException if the maximum number of running and queued jobs has been reached
+     */
+    public SendJob submit(String description, double weight, Function<SendJob, ? extends RunReport> run)
+    {
+        final SendJob job = new SendJob(description, weight);
+        synchronized (jobs)
+        {
+            evictFinishedJobs();
+            jobs.put(job.getId(), job);
+        }
+        try
+        {
+            job.setFuture(executor.submit(() -> execute(job, run)));
+        }
+        catch (RejectedExecutionException ex)
+        {
+            synchronized (jobs)
+            {
+                jobs.remove(job.getId());
+            }
+            throw ex;
+        }
+        return job;
+    }
+
+    private void execute(SendJob job, Function<SendJob, ? extends RunReport> run)
+    {
+        if (!job.markRunning())
+        {
+            // Cancelled while queued
+            return;
+        }
+        LOGGER.info("Started job " + job.getId() + ": " + job.getDescription());
+        try
+        {
+            RunReport runReport = run.apply(job);
+            String report = (runReport == null) ? null : runReport.appendReport(new StringBuilder(512)).toString();
+            job.markFinished(job.isCancelled() ? SendJob.State.CANCELLED : SendJob.State.COMPLETED, report, null);
+        }
+        catch (RuntimeException ex)
+        {
+            LOGGER.error("Job " + job.getId() + " failed.", ex);
+            job.markFinished(job.isCancelled() ? SendJob.State.CANCELLED : SendJob.State.FAILED, null, String.valueOf(ex.getMessage()));
+        }
+        LOGGER.info("Job " + job.getId() + " ended as " + job.getState() + " after sending " + job.getEventsSent() + " events.");
+    }
+
+    public SendJob getJob(String id)
+    {
+        synchronized (jobs)
+        {
+            return jobs.get(id);
+        }
+    }
+
+    public List<SendJob> getJobs()
+    {
+        synchronized (jobs)
+        {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    /**
+     * @return the cancelled job, or null if there is no job with the given id
+     */
+    public SendJob cancel(String id)
+    {
+        SendJob job = getJob(id);
+        if (job != null)
+        {
+            job.cancel();
+        }
+        return job;
+    }
+
+    private void evictFinishedJobs()
+    {
+        int finished = 0;
+        Collection<SendJob> values = jobs.values();
+        for (SendJob job : values)
+        {
+            if (job.getState().isFinished())
+            {
+                finished++;
+            }
+        }
+        for (Iterator<SendJob> iterator = values.iterator(); iterator.hasNext() && finished >= maxRetained; )
+        {
+            if (iterator.next().getState().isFinished())
+            {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        getJobs().forEach(SendJob::cancel);
+        executor.shutdownNow();
+    }
+}
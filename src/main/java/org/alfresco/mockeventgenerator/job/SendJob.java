@@ -0,0 +1,211 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.job;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.mockeventgenerator.metrics.RateMeter;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A send run submitted via the REST API, executed in the background by the {@link JobManager}.
+ * The getters make up the JSON status returned by the job endpoints.
+ */
+public class SendJob
+{
+    public enum State
+    {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED;
+
+        public boolean isFinished()
+        {
+            return this == COMPLETED || this == CANCELLED || this == FAILED;
+        }
+    }
+
+    private final String id;
+    private final String description;
+    private final double weight;
+    private final RateMeter rateMeter = new RateMeter();
+    private final Instant submittedAt;
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant endedAt;
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile String report;
+    private volatile String failure;
+    private volatile boolean cancelRequested;
+    private volatile Future<?> future;
+
+    /**
+     * @param description a human readable summary of the run
+     * @param weight      the job's weight in the throughput governor's fair sharing
+     */
+    public SendJob(String description, double weight)
+    {
+        this.id = UUID.randomUUID().toString();
+        this.description = description;
+        this.weight = weight;
+        this.submittedAt = Instant.now();
+    }
+
+    /**
+     * Called by the senders for every event sent on behalf of this job.
+     */
+    public void recordSent()
+    {
+        rateMeter.mark();
+    }
+
+    synchronized boolean markRunning()
+    {
+        if (state != State.QUEUED)
+        {
+            return false;
+        }
+        this.startedAt = Instant.now();
+        this.startNanos = System.nanoTime();
+        this.state = State.RUNNING;
+        return true;
+    }
+
+    synchronized void markFinished(State finalState, String report, String failure)
+    {
+        if (state.isFinished())
+        {
+            return;
+        }
+        this.endedAt = Instant.now();
+        this.endNanos = System.nanoTime();
+        this.report = report;
+        this.failure = failure;
+        this.state = finalState;
+    }
+
+    /**
+     * Cancels the job, interrupting its senders if it is running.
+     *
+     * @return false if the job had already finished
+     */
+    public boolean cancel()
+    {
+        synchronized (this)
+        {
+            if (state.isFinished())
+            {
+                return false;
+            }
+            cancelRequested = true;
+            if (state == State.QUEUED)
+            {
+                markFinished(State.CANCELLED, null, null);
+            }
+        }
+        Future<?> runningFuture = future;
+        if (runningFuture != null)
+        {
+            runningFuture.cancel(true);
+        }
+        return true;
+    }
+
+    @JsonIgnore
+    public boolean isCancelled()
+    {
+        return cancelRequested;
+    }
+
+    void setFuture(Future<?> future)
+    {
+        this.future = future;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public String getDescription()
+    {
+        return description;
+    }
+
+    public double getWeight()
+    {
+        return weight;
+    }
+
+    public State getState()
+    {
+        return state;
+    }
+
+    public String getSubmittedAt()
+    {
+        return submittedAt.toString();
+    }
+
+    public String getStartedAt()
+    {
+        return (startedAt == null) ? null : startedAt.toString();
+    }
+
+    public String getEndedAt()
+    {
+        return (endedAt == null) ? null : endedAt.toString();
+    }
+
+    public long getEventsSent()
+    {
+        return rateMeter.getCount();
+    }
+
+    /**
+     * @return the number of events sent per second over the last few seconds, or 0 once finished
+     */
+    public double getCurrentRatePerSecond()
+    {
+        return (state == State.RUNNING) ? rateMeter.getCurrentRate() : 0.0;
+    }
+
+    public double getAverageRatePerSecond()
+    {
+        if (startNanos == 0L)
+        {
+            return 0.0;
+        }
+        long elapsed = ((endNanos == 0L) ? System.nanoTime() : endNanos) - startNanos;
+        return (elapsed <= 0L) ? 0.0 : getEventsSent() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * @return the end-of-run report, once the job has completed
+     */
+    public String getReport()
+    {
+        return report;
+    }
+
+    public String getFailure()
+    {
+        return failure;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.lifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.alfresco.event.model.HierarchyEntry;
+import org.alfresco.mockeventgenerator.util.IdGenerator;
+import org.alfresco.mockeventgenerator.util.RandomStreams;
+
+/**
+ * Folders directly in the document libraries of their sites, spread evenly over the sites. The ids
+ * of the folders and sites are derived from their index, so they are the same on every run.
+ */
+public class FlatFolderCatalog implements FolderCatalog
+{
+    private static final String NODE_TYPE = "Node";
+    private static final long FOLDER_SALT = 0x1L;
+    private static final long DOCUMENT_LIBRARY_SALT = 0x2L;
+    private static final long SITE_SALT = 0x3L;
+
+    private final int numOfFolders;
+    private final int numOfSites;
+
+    public FlatFolderCatalog(int numOfFolders, int numOfSites)
+    {
+        if (numOfFolders < 1 || numOfSites < 1)
+        {
+            throw new IllegalArgumentException("There must be at least one folder and one site, got " + numOfFolders + " and "
+                        + numOfSites);
+        }
+        this.numOfFolders = numOfFolders;
+        this.numOfSites = numOfSites;
+    }
+
+    @Override
+    public int getNumOfFolders()
+    {
+        return numOfFolders;
+    }
+
+    @Override
+    public int nextFolder()
+    {
+        return RandomStreams.nextInt(numOfFolders);
+    }
+
+    @Override
+    public int getSite(int folder)
+    {
+        return folder % numOfSites;
+    }
+
+    @Override
+    public List<HierarchyEntry> getHierarchy(int folder)
+    {
+        final int site = getSite(folder);
+        List<HierarchyEntry> hierarchy = new ArrayList<>(3);
+        hierarchy.add(new HierarchyEntry(IdGenerator.derive(FOLDER_SALT, folder), NODE_TYPE));
+        hierarchy.add(new HierarchyEntry(IdGenerator.derive(DOCUMENT_LIBRARY_SALT, site), NODE_TYPE));
+        hierarchy.add(new HierarchyEntry(IdGenerator.derive(SITE_SALT, site), NODE_TYPE));
+        return hierarchy;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.lifecycle;
+
+import java.util.List;
+
+import org.alfresco.event.model.HierarchyEntry;
+
+/**
+ * The folders the simulated nodes live in.
+ */
+public interface FolderCatalog
+{
+    int getNumOfFolders();
+
+    /**
+     * @return a folder picked at random
+     */
+    int nextFolder();
+
+    /**
+     * @return the site the given folder belongs to
+     */
+    int getSite(int folder);
+
+    /**
+     * @return the primary hierarchy of a node of the given folder, i.e. the folder and its ancestors, nearest first
+     */
+    List<HierarchyEntry> getHierarchy(int folder);
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.lifecycle;
+
+import java.nio.ByteBuffer;
+
+import org.alfresco.mockeventgenerator.util.RandomStreams;
+
+/**
+ * The live nodes of the lifecycle simulation, kept off-heap in fixed size records so that tens of
+ * millions of nodes neither weigh on the heap nor on the garbage collector.
+ * <p>
+ * A record holds the node id as two longs, its parent folder and its site. The records are packed
+ * from slot 0 to {@code size - 1}: a removed record is replaced by the last one, so picking a random
+ * live node is a single random slot. The memory is allocated in chunks as the store grows, up to the
+ * capacity. Note that the direct memory of the JVM may need raising with {@code -XX:MaxDirectMemorySize}.
+ * <p>
+ * The store isn't thread-safe, its callers synchronize.
+ */
+public class LiveNodeStore
+{
+    public static final int RECORD_SIZE = 24;
+    private static final int ID_MSB_OFFSET = 0;
+    private static final int ID_LSB_OFFSET = 8;
+    private static final int PARENT_OFFSET = 16;
+    private static final int SITE_OFFSET = 20;
+    /** 64k records, i.e. 1.5 MB, per chunk */
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final int capacity;
+    private final ByteBuffer[] chunks;
+    private int size;
+
+    /**
+     * @param capacity the maximum number of live nodes
+     */
+    public LiveNodeStore(int capacity)
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("The capacity must be at least 1, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.chunks = new ByteBuffer[((capacity - 1) >>> CHUNK_SHIFT) + 1];
+    }
+
+    /**
+     * @return the slot of the added node, or -1 if the store is full
+     */
+    public int add(long idMsb, long idLsb, int parent, int site)
+    {
+        if (size == capacity)
+        {
+            return -1;
+        }
+        final int slot = size;
+        final int chunk = slot >>> CHUNK_SHIFT;
+        if (chunks[chunk] == null)
+        {
+            final int numOfRecords = Math.min(CHUNK_MASK + 1, capacity - (chunk << CHUNK_SHIFT));
+            chunks[chunk] = ByteBuffer.allocateDirect(numOfRecords * RECORD_SIZE);
+        }
+        final ByteBuffer buffer = chunks[chunk];
+        final int offset = offset(slot);
+        buffer.putLong(offset + ID_MSB_OFFSET, idMsb);
+        buffer.putLong(offset + ID_LSB_OFFSET, idLsb);
+        buffer.putInt(offset + PARENT_OFFSET, parent);
+        buffer.putInt(offset + SITE_OFFSET, site);
+        size++;
+        return slot;
+    }
+
+    /**
+     * Removes the node of the given slot, by moving the last node into it.
+     */
+    public void remove(int slot)
+    {
+        checkSlot(slot);
+        final int last = size - 1;
+        if (slot != last)
+        {
+            final ByteBuffer from = chunk(last);
+            final ByteBuffer to = chunk(slot);
+            final int fromOffset = offset(last);
+            final int toOffset = offset(slot);
+            to.putLong(toOffset + ID_MSB_OFFSET, from.getLong(fromOffset + ID_MSB_OFFSET));
+            to.putLong(toOffset + ID_LSB_OFFSET, from.getLong(fromOffset + ID_LSB_OFFSET));
+            // The parent and the site at once
+            to.putLong(toOffset + PARENT_OFFSET, from.getLong(fromOffset + PARENT_OFFSET));
+        }
+        size = last;
+    }
+
+    /**
+     * @return the slot of a live node picked at random, or -1 if the store is empty
+     */
+    public int randomSlot()
+    {
+        return (size == 0) ? -1 : RandomStreams.nextInt(size);
+    }
+
+    public long getIdMsb(int slot)
+    {
+        checkSlot(slot);
+        return chunk(slot).getLong(offset(slot) + ID_MSB_OFFSET);
+    }
+
+    public long getIdLsb(int slot)
+    {
+        checkSlot(slot);
+        return chunk(slot).getLong(offset(slot) + ID_LSB_OFFSET);
+    }
+
+    public int getParent(int slot)
+    {
+        checkSlot(slot);
+        return chunk(slot).getInt(offset(slot) + PARENT_OFFSET);
+    }
+
+    public int getSite(int slot)
+    {
+        checkSlot(slot);
+        return chunk(slot).getInt(offset(slot) + SITE_OFFSET);
+    }
+
+    public void setParent(int slot, int parent, int site)
+    {
+        checkSlot(slot);
+        final ByteBuffer buffer = chunk(slot);
+        final int offset = offset(slot);
+        buffer.putInt(offset + PARENT_OFFSET, parent);
+        buffer.putInt(offset + SITE_OFFSET, site);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return the off-heap memory allocated so far
+     */
+    public long getAllocatedBytes()
+    {
+        long bytes = 0L;
+        for (ByteBuffer chunk : chunks)
+        {
+            bytes += (chunk == null) ? 0 : chunk.capacity();
+        }
+        return bytes;
+    }
+
+    private ByteBuffer chunk(int slot)
+    {
+        return chunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int slot)
+    {
+        return (slot & CHUNK_MASK) * RECORD_SIZE;
+    }
+
+    private void checkSlot(int slot)
+    {
+        if (slot < 0 || slot >= size)
+        {
+            throw new IndexOutOfBoundsException("Slot: " + slot + ", size: " + size);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.lifecycle;
+
+import org.alfresco.mockeventgenerator.util.IdGenerator;
+
+/**
+ * A change made to a node by the lifecycle simulation, from which its event is built.
+ */
+public final class NodeChange
+{
+    private final NodeOperation operation;
+    private final long idMsb;
+    private final long idLsb;
+    private final int folder;
+
+    NodeChange(NodeOperation operation, long idMsb, long idLsb, int folder)
+    {
+        this.operation = operation;
+        this.idMsb = idMsb;
+        this.idLsb = idLsb;
+        this.folder = folder;
+    }
+
+    public NodeOperation getOperation()
+    {
+        return operation;
+    }
+
+    public String getNodeId()
+    {
+        return IdGenerator.format(idMsb, idLsb);
+    }
+
+    /**
+     * @return the folder the node is in after the change, or was in when deleted
+     */
+    public int getFolder()
+    {
+        return folder;
+    }
+}
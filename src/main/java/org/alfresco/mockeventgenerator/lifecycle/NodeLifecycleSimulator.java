@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.lifecycle;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+import org.alfresco.mockeventgenerator.util.AliasSampler;
+
+/**
+ * Simulates the lifecycle of the repository nodes: each node is added, then updated, moved or given
+ * permissions any number of times, then deleted, and no change ever refers to a node that isn't live.
+ * <p>
+ * The changes are made one at a time, so they are generated in a causally valid order. They are also
+ * sent in that order by a single sender thread; with several sender threads, two changes of the same
+ * node made in quick succession may still overtake each other on the way to the broker.
+ */
+public class NodeLifecycleSimulator implements RunReport
+{
+    private final LiveNodeStore store;
+    private final FolderCatalog folders;
+    private final AliasSampler<NodeOperation> operations;
+    private final AtomicLongArray counts = new AtomicLongArray(NodeOperation.values().length);
+
+    /**
+     * @param maxLiveNodes     the capacity of the store; once full, additions turn into deletions
+     * @param folders          the folders the nodes live in
+     * @param operationWeights the relative weights of the {@link NodeOperation}s, by name
+     */
+    public NodeLifecycleSimulator(int maxLiveNodes, FolderCatalog folders, Map<String, ? extends Number> operationWeights)
+    {
+        this.store = new LiveNodeStore(maxLiveNodes);
+        this.folders = folders;
+        this.operations = AliasSampler.ofEnum(NodeOperation.class, operationWeights);
+    }
+
+    /**
+     * Makes the next change, picked by the operation weights, to a live node picked at random.
+     */
+    public NodeChange next()
+    {
+        NodeOperation operation = operations.sample();
+        final NodeChange change;
+        synchronized (store)
+        {
+            if (store.size() == 0)
+            {
+                operation = NodeOperation.ADD;
+            }
+            change = operation.apply(store, folders);
+        }
+        counts.incrementAndGet(change.getOperation().ordinal());
+        return change;
+    }
+
+    public FolderCatalog getFolders()
+    {
+        return folders;
+    }
+
+    public int getNumOfLiveNodes()
+    {
+        synchronized (store)
+        {
+            return store.size();
+        }
+    }
+
+    public long getCount(NodeOperation operation)
+    {
+        return counts.get(operation.ordinal());
+    }
+
+    @Override
+    public StringBuilder appendReport(StringBuilder sb)
+    {
+        final long allocatedBytes;
+        final int liveNodes;
+        synchronized (store)
+        {
+            allocatedBytes = store.getAllocatedBytes();
+            liveNodes = store.size();
+        }
+        sb.append("\n\tNode lifecycle: ").append(liveNodes).append(" live nodes of at most ").append(store.getCapacity())
+                    .append(" in ").append(folders.getNumOfFolders()).append(" folders, ")
+                    .append(allocatedBytes / (1024 * 1024)).append(" MB off-heap")
+                    .append("\n\t\tChanges:");
+        for (NodeOperation operation : NodeOperation.values())
+        {
+            sb.append(' ').append(operation).append('=').append(getCount(operation));
+        }
+        return sb;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.lifecycle;
+
+import org.alfresco.mockeventgenerator.util.IdGenerator;
+
+/**
+ * The changes the lifecycle simulation makes to the live nodes, with the type of the public event
+ * each change is reported with.
+ */
+public enum NodeOperation
+{
+    /**
+     * Creates a node in a random folder.
+     */
+    ADD("NODEADDED")
+    {
+        @Override
+        NodeChange apply(LiveNodeStore store, FolderCatalog folders)
+        {
+            final long idMsb = IdGenerator.randomMostSignificantBits();
+            final long idLsb = IdGenerator.randomLeastSignificantBits();
+            final int folder = folders.nextFolder();
+            if (store.add(idMsb, idLsb, folder, folders.getSite(folder)) < 0)
+            {
+                // Full, make room instead
+                return DELETE.apply(store, folders);
+            }
+            return new NodeChange(this, idMsb, idLsb, folder);
+        }
+    },
+    /**
+     * Updates a live node in place.
+     */
+    UPDATE("NODEUPDATED")
+    {
+        @Override
+        NodeChange apply(LiveNodeStore store, FolderCatalog folders)
+        {
+            final int slot = store.randomSlot();
+            return new NodeChange(this, store.getIdMsb(slot), store.getIdLsb(slot), store.getParent(slot));
+        }
+    },
+    /**
+     * Moves a live node to another random folder.
+     */
+    MOVE("NODEMOVED")
+    {
+        @Override
+        NodeChange apply(LiveNodeStore store, FolderCatalog folders)
+        {
+            final int slot = store.randomSlot();
+            final int folder = folders.nextFolder();
+            store.setParent(slot, folder, folders.getSite(folder));
+            return new NodeChange(this, store.getIdMsb(slot), store.getIdLsb(slot), folder);
+        }
+    },
+    /**
+     * Grants a permission on a live node.
+     */
+    GRANT_PERMISSION("LOCALPERMISSIONGRANTED")
+    {
+        @Override
+        NodeChange apply(LiveNodeStore store, FolderCatalog folders)
+        {
+            final int slot = store.randomSlot();
+            return new NodeChange(this, store.getIdMsb(slot), store.getIdLsb(slot), store.getParent(slot));
+        }
+    },
+    /**
+     * Deletes a live node, which is never referred to again.
+     */
+    DELETE("NODEREMOVED")
+    {
+        @Override
+        NodeChange apply(LiveNodeStore store, FolderCatalog folders)
+        {
+            final int slot = store.randomSlot();
+            final NodeChange change = new NodeChange(this, store.getIdMsb(slot), store.getIdLsb(slot), store.getParent(slot));
+            store.remove(slot);
+            return change;
+        }
+    };
+
+    private final String eventType;
+
+    NodeOperation(String eventType)
+    {
+        this.eventType = eventType;
+    }
+
+    public String getEventType()
+    {
+        return eventType;
+    }
+
+    /**
+     * Applies the operation to the store, which holds at least one node unless the operation is {@link #ADD}.
+     */
+    abstract NodeChange apply(LiveNodeStore store, FolderCatalog folders);
+}
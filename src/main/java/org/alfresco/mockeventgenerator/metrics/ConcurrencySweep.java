@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The results of a closed-loop run, where a fixed number of clients each send the next event as soon
+ * as the previous send completes, repeated at increasing concurrency levels.
+ * <p>
+ * Once the broker is saturated, adding clients no longer adds throughput, it only adds latency.
+ * The saturation point is the last level before the throughput stopped growing with the concurrency,
+ * i.e. where the relative throughput gain fell below 10% of the relative concurrency increase.
+ */
+public class ConcurrencySweep implements RunReport
+{
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double MIN_SCALING = 0.1;
+
+    private final List<Level> levels = new ArrayList<>();
+
+    /**
+     * @return the concurrency levels to sweep: 1, 2, 4, ... up to and including {@code maxConcurrency}
+     */
+    public static List<Integer> levelsUpTo(int maxConcurrency)
+    {
+        List<Integer> concurrencyLevels = new ArrayList<>();
+        for (int concurrency = 1; concurrency < maxConcurrency; concurrency <<= 1)
+        {
+            concurrencyLevels.add(concurrency);
+        }
+        concurrencyLevels.add(Math.max(1, maxConcurrency));
+        return concurrencyLevels;
+    }
+
+    public synchronized Level startLevel(int concurrency)
+    {
+        Level level = new Level(concurrency);
+        levels.add(level);
+        return level;
+    }
+
+    public synchronized List<Level> getLevels()
+    {
+        return Collections.unmodifiableList(new ArrayList<>(levels));
+    }
+
+    /**
+     * @return the level where the throughput stopped scaling with the concurrency,
+     * or null if it was still scaling at the last level
+     */
+    public synchronized Level getSaturationLevel()
+    {
+        for (int i = 1; i < levels.size(); i++)
+        {
+            Level previous = levels.get(i - 1);
+            Level current = levels.get(i);
+            double previousThroughput = previous.getThroughput();
+            if (previousThroughput <= 0.0)
+            {
+                continue;
+            }
+            double throughputGain = current.getThroughput() / previousThroughput - 1.0;
+            double concurrencyIncrease = (double) current.getConcurrency() / previous.getConcurrency() - 1.0;
+            if (throughputGain < MIN_SCALING * concurrencyIncrease)
+            {
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized StringBuilder appendReport(StringBuilder sb)
+    {
+        sb.append("\n\tClosed-loop concurrency sweep (latency in micros):");
+        for (Level level : levels)
+        {
+            sb.append("\n\t\tConcurrency ").append(level.getConcurrency())
+                        .append(": sent=").append(level.getSent())
+                        .append(", failed=").append(level.getFailed())
+                        .append(", throughput per second=").append(String.format("%.1f", level.getThroughput()))
+                        .append(", ");
+            level.getLatencyHistogram().appendSummary(sb, 1000L);
+        }
+        Level saturation = getSaturationLevel();
+        if (saturation == null)
+        {
+            sb.append("\n\tThroughput was still scaling at the highest concurrency level");
+        }
+        else
+        {
+            sb.append("\n\tThroughput stopped scaling beyond concurrency ").append(saturation.getConcurrency())
+                        .append(" (").append(String.format("%.1f", saturation.getThroughput())).append(" per second)");
+        }
+        return sb;
+    }
+
+    /**
+     * The results of one concurrency level. The clients record into it concurrently.
+     */
+    public static class Level
+    {
+        private final int concurrency;
+        private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+        private final LongAdder failed = new LongAdder();
+        private final long startNanos;
+        private volatile long endNanos;
+
+        Level(int concurrency)
+        {
+            this.concurrency = concurrency;
+            this.startNanos = System.nanoTime();
+        }
+
+        public void recordSent(long latencyNanos)
+        {
+            latencyHistogram.record(latencyNanos);
+        }
+
+        public void recordFailed()
+        {
+            failed.increment();
+        }
+
+        public void end()
+        {
+            endAt(System.nanoTime());
+        }
+
+        void endAt(long endNanos)
+        {
+            this.endNanos = endNanos;
+        }
+
+        long getStartNanos()
+        {
+            return startNanos;
+        }
+
+        public int getConcurrency()
+        {
+            return concurrency;
+        }
+
+        public long getSent()
+        {
+            return latencyHistogram.getCount();
+        }
+
+        public long getFailed()
+        {
+            return failed.sum();
+        }
+
+        public LatencyHistogram getLatencyHistogram()
+        {
+            return latencyHistogram;
+        }
+
+        public double getThroughput()
+        {
+            long elapsed = ((endNanos == 0L) ? System.nanoTime() : endNanos) - startNanos;
+            return (elapsed <= 0L) ? 0.0 : getSent() * NANOS_PER_SECOND / elapsed;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.metrics;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.util.EventClock;
+
+/**
+ * Measures what the caching {@link EventClock} saves: generates the same number of events of each category, first
+ * with a wall clock that formats every date afresh, as the events were generated before the clock kept its last
+ * formatted date, then with the {@link EventClock#system() system clock}, and reports the mean generation time per
+ * event of both. Each clock generates the events a few times before it is timed, to warm the code up.
+ * <p>
+ * The events are generated like those of a run, so only categories that don't drive the node lifecycle or process
+ * instance simulators, such as the raw events, should be measured before a run.
+ */
+public class EventClockBenchmark implements RunReport
+{
+    private static final int WARM_UP_PASSES = 3;
+
+    private final int numOfEvents;
+    private final Map<EventTypeCategory, double[]> results = new EnumMap<>(EventTypeCategory.class);
+
+    /**
+     * @param numOfEvents the number of events to generate per category and clock
+     */
+    public EventClockBenchmark(int numOfEvents)
+    {
+        this.numOfEvents = Math.max(1, numOfEvents);
+    }
+
+    /**
+     * Measures the given categories, one after the other, then restores the clock of the events.
+     */
+    public EventClockBenchmark run(Collection<EventTypeCategory> categories)
+    {
+        final EventClock previousClock = EventMaker.getClock();
+        try
+        {
+            for (EventTypeCategory category : categories)
+            {
+                final double uncached = measure(category, new UncachedClock(ZoneId.systemDefault()));
+                final double cached = measure(category, EventClock.system());
+                results.put(category, new double[] { uncached, cached });
+            }
+        }
+        finally
+        {
+            EventMaker.setClock(previousClock);
+        }
+        return this;
+    }
+
+    private double measure(EventTypeCategory category, EventClock clock)
+    {
+        EventMaker.setClock(clock);
+        for (int i = 0; i < WARM_UP_PASSES; i++)
+        {
+            generateAll(category);
+        }
+        final long start = System.nanoTime();
+        generateAll(category);
+        return (double) (System.nanoTime() - start) / numOfEvents;
+    }
+
+    private void generateAll(EventTypeCategory category)
+    {
+        for (int i = 0; i < numOfEvents; i++)
+        {
+            category.getRandomEvent();
+        }
+    }
+
+    /**
+     * @return the mean generation time of an event of the given category with the uncached clock, in nanoseconds,
+     * or a negative value if the category wasn't measured
+     */
+    public double getUncachedNanos(EventTypeCategory category)
+    {
+        final double[] result = results.get(category);
+        return (result == null) ? -1.0 : result[0];
+    }
+
+    /**
+     * @return the mean generation time of an event of the given category with the caching clock, in nanoseconds,
+     * or a negative value if the category wasn't measured
+     */
+    public double getCachedNanos(EventTypeCategory category)
+    {
+        final double[] result = results.get(category);
+        return (result == null) ? -1.0 : result[1];
+    }
+
+    @Override
+    public StringBuilder appendReport(StringBuilder sb)
+    {
+        sb.append("\n\tEvent clock (").append(numOfEvents).append(" events per category, mean generation time per event):");
+        for (Map.Entry<EventTypeCategory, double[]> entry : results.entrySet())
+        {
+            final double uncached = entry.getValue()[0];
+            final double cached = entry.getValue()[1];
+            sb.append("\n\t\t").append(entry.getKey())
+                        .append(String.format(": uncached=%.2f us, caching=%.2f us (%.2fx)", uncached / 1000.0, cached / 1000.0, uncached / cached));
+        }
+        return sb;
+    }
+
+    /**
+     * The wall clock, formatting every date afresh.
+     */
+    private static class UncachedClock extends EventClock
+    {
+        private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+
+        private final ZoneId zone;
+
+        UncachedClock(ZoneId zone)
+        {
+            super(zone);
+            this.zone = zone;
+        }
+
+        @Override
+        public long currentTimeMillis()
+        {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public String formatDateTime(long millis)
+        {
+            return DATE_TIME_FORMATTER.format(Instant.ofEpochMilli(millis).atZone(zone));
+        }
+    }
+}
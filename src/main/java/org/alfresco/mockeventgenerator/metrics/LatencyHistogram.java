@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free, log-linear histogram of non-negative long values (e.g. nanoseconds).
+ * <p>
+ * Values are grouped into power-of-two ranges, each split into {@value #SUB_BUCKETS}
+ * linear sub-buckets, which keeps the relative error of the reported percentiles
+ * below ~3% while using a fixed amount of memory, whatever the recorded range.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUM_OF_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_OF_BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value)
+    {
+        if (value < 0)
+        {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.increment();
+        totalSum.add(value);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value))
+        {
+            currentMax = max.get();
+        }
+    }
+
+    public long getCount()
+    {
+        return totalCount.sum();
+    }
+
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    public double getMean()
+    {
+        long count = totalCount.sum();
+        return (count == 0) ? 0.0 : (double) totalSum.sum() / count;
+    }
+
+    /**
+     * @param percentile the percentile in the range of [0.0, 100.0]
+     * @return the (upper bound) value at the given percentile, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        long count = totalCount.sum();
+        if (count == 0)
+        {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil((Math.min(percentile, 100.0) / 100.0) * count));
+        long cumulative = 0L;
+        for (int i = 0; i < NUM_OF_BUCKETS; i++)
+        {
+            cumulative += counts.get(i);
+            if (cumulative >= rank)
+            {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Appends a one line summary of the histogram, with the values scaled down by the given divisor.
+     */
+    public StringBuilder appendSummary(StringBuilder sb, long divisor)
+    {
+        return sb.append("mean=").append(String.format("%.1f", getMean() / divisor))
+                    .append(", p50=").append(getValueAtPercentile(50.0) / divisor)
+                    .append(", p90=").append(getValueAtPercentile(90.0) / divisor)
+                    .append(", p99=").append(getValueAtPercentile(99.0) / divisor)
+                    .append(", p99.9=").append(getValueAtPercentile(99.9) / divisor)
+                    .append(", max=").append(getMax() / divisor);
+    }
+
+    static int bucketIndex(long value)
+    {
+        if (value < SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long bucketUpperBound(int index)
+    {
+        if (index < SUB_BUCKETS)
+        {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
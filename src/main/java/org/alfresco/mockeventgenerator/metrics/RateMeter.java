@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free meter of the live rate of events, over a sliding window of the last
+ * {@value #WINDOW_SECONDS} whole seconds.
+ * <p>
+ * Each second has its own slot in a small ring; a slot still holding the count of an
+ * older second is reset by the first event that lands in it.
+ */
+public class RateMeter
+{
+    private static final int WINDOW_SECONDS = 5;
+    /** One extra slot for the current, incomplete second */
+    private static final int SLOTS = WINDOW_SECONDS + 1;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long originNanos = System.nanoTime();
+    private final AtomicLongArray slotSecond = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray slotCount = new AtomicLongArray(SLOTS);
+    private final LongAdder total = new LongAdder();
+
+    public RateMeter()
+    {
+        for (int i = 0; i < SLOTS; i++)
+        {
+            slotSecond.set(i, -1L);
+        }
+    }
+
+    public void mark()
+    {
+        total.increment();
+        final long second = currentSecond();
+        final int slot = (int) (second % SLOTS);
+        long slotOwner = slotSecond.get(slot);
+        while (slotOwner != second)
+        {
+            if (slotSecond.compareAndSet(slot, slotOwner, second))
+            {
+                // A concurrent mark() may have incremented the stale count in between, losing at most a few events
+                slotCount.set(slot, 0L);
+                break;
+            }
+            slotOwner = slotSecond.get(slot);
+        }
+        slotCount.incrementAndGet(slot);
+    }
+
+    public long getCount()
+    {
+        return total.sum();
+    }
+
+    /**
+     * @return the average number of events per second over the last whole seconds
+     */
+    public double getCurrentRate()
+    {
+        final long second = currentSecond();
+        final long window = Math.min(WINDOW_SECONDS, second);
+        if (window == 0L)
+        {
+            // Less than a second so far: extrapolate from the partial second
+            final long elapsed = System.nanoTime() - originNanos;
+            return (elapsed <= 0L) ? 0.0 : total.sum() * (double) NANOS_PER_SECOND / elapsed;
+        }
+        long sum = 0L;
+        for (long s = second - window; s < second; s++)
+        {
+            final int slot = (int) (s % SLOTS);
+            if (slotSecond.get(slot) == s)
+            {
+                sum += slotCount.get(slot);
+            }
+        }
+        return (double) sum / window;
+    }
+
+    private long currentSecond()
+    {
+        return (System.nanoTime() - originNanos) / NANOS_PER_SECOND;
+    }
+}
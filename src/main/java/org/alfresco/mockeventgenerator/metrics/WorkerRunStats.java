@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The statistics of a fixed-count run split across several workers.
+ * <p>
+ * To measure how well the run scales, the first worker sends a few events on its own
+ * (the solo phase) before the other workers are released. The scaling efficiency is the
+ * throughput of the parallel phase divided by {@code workers} times the solo throughput,
+ * and the marginal gain is the extra throughput each added worker brought on average.
+ */
+public class WorkerRunStats implements RunReport
+{
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int workers;
+    private final AtomicLongArray sentPerWorker;
+    private volatile long startNanos;
+    private volatile long parallelStartNanos;
+    private volatile long endNanos;
+    private volatile long soloEvents;
+
+    public WorkerRunStats(int workers)
+    {
+        this.workers = workers;
+        this.sentPerWorker = new AtomicLongArray(workers);
+    }
+
+    public void start()
+    {
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of the solo phase, after the given number of events sent by the first worker.
+     */
+    public void endSoloPhase(long soloEvents)
+    {
+        this.soloEvents = soloEvents;
+        this.parallelStartNanos = System.nanoTime();
+    }
+
+    public void recordSent(int worker)
+    {
+        sentPerWorker.incrementAndGet(worker);
+    }
+
+    public void end()
+    {
+        this.endNanos = System.nanoTime();
+    }
+
+    public int getWorkers()
+    {
+        return workers;
+    }
+
+    public long getTotalSent()
+    {
+        long total = 0L;
+        for (int i = 0; i < workers; i++)
+        {
+            total += sentPerWorker.get(i);
+        }
+        return total;
+    }
+
+    public double getThroughput()
+    {
+        return rate(getTotalSent(), endNanos - startNanos);
+    }
+
+    public double getSoloThroughput()
+    {
+        return (parallelStartNanos == 0L) ? 0.0 : rate(soloEvents, parallelStartNanos - startNanos);
+    }
+
+    public double getParallelThroughput()
+    {
+        return (parallelStartNanos == 0L) ? 0.0 : rate(getTotalSent() - soloEvents, endNanos - parallelStartNanos);
+    }
+
+    public double getScalingEfficiency()
+    {
+        double solo = getSoloThroughput();
+        return (solo == 0.0) ? 0.0 : getParallelThroughput() / (workers * solo);
+    }
+
+    @Override
+    public StringBuilder appendReport(StringBuilder sb)
+    {
+        sb.append("\n\tWorkers: ").append(workers)
+                    .append("\n\tThroughput per second: ").append(String.format("%.1f", getThroughput()));
+        for (int i = 0; i < workers; i++)
+        {
+            sb.append("\n\t\tWorker ").append(i).append(" sent: ").append(sentPerWorker.get(i));
+        }
+        if (workers > 1 && parallelStartNanos != 0L)
+        {
+            double solo = getSoloThroughput();
+            double parallel = getParallelThroughput();
+            sb.append("\n\tSolo throughput per second (1 worker): ").append(String.format("%.1f", solo))
+                        .append("\n\tParallel throughput per second (").append(workers).append(" workers): ")
+                        .append(String.format("%.1f", parallel))
+                        .append("\n\tScaling efficiency: ").append(String.format("%.1f%%", getScalingEfficiency() * 100.0))
+                        .append("\n\tMarginal throughput per added worker: ").append(String.format("%.1f", (parallel - solo) / (workers - 1)));
+        }
+        return sb;
+    }
+
+    private static double rate(long count, long nanos)
+    {
+        return (nanos <= 0L) ? 0.0 : count * NANOS_PER_SECOND / nanos;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.mix;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+import org.alfresco.mockeventgenerator.serialization.BodyType;
+import org.alfresco.mockeventgenerator.serialization.EncodedBody;
+import org.alfresco.mockeventgenerator.serialization.EventSerializer;
+import org.alfresco.mockeventgenerator.serialization.WireFormat;
+import org.alfresco.mockeventgenerator.util.AliasSampler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Generates the events of several {@link EventTypeCategory categories} in one run, each category getting
+ * its share of the events, and so of the send rate, in proportion to its weight.
+ * <p>
+ * As the categories are serialized differently, each event is serialized by the serializer of its own category,
+ * built once, and handed over as its message body (or list of bodies), which the producer sends as is. The bodies
+ * of the categories sent in a binary {@link WireFormat} are handed over as {@link EncodedBody encoded bodies},
+ * so the producer sets their content type.
+ */
+public class CategoryMix implements RunReport
+{
+    private static final EventTypeCategory[] CATEGORIES = EventTypeCategory.values();
+
+    private final AliasSampler<EventTypeCategory> categories;
+    private final BodyType bodyType;
+    private final EventSerializer[] serializers = new EventSerializer[CATEGORIES.length];
+    private final LongAdder[] events = new LongAdder[CATEGORIES.length];
+    private final LongAdder[] messages = new LongAdder[CATEGORIES.length];
+
+    /**
+     * @param weightsByName the relative weights of the categories, by name; the categories that aren't given are left out
+     * @param bodyType      the type of the message bodies to serialize the JSON events to
+     * @param formats       the wire format of each category
+     * @throws IllegalArgumentException if a name isn't a category, or if no category has a positive weight
+     */
+    public CategoryMix(Map<String, ? extends Number> weightsByName, BodyType bodyType, Function<EventTypeCategory, WireFormat> formats)
+    {
+        this.categories = AliasSampler.ofEnum(EventTypeCategory.class, weightsByName, 0.0);
+        this.bodyType = bodyType;
+        for (EventTypeCategory category : CATEGORIES)
+        {
+            serializers[category.ordinal()] = new EventSerializer(category.createObjectMapper(), formats.apply(category));
+            events[category.ordinal()] = new LongAdder();
+            messages[category.ordinal()] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return the serialized next event of a category picked by weight: a message body, or a list of them
+     * for the categories that generate several messages per event
+     */
+    public Object nextEvent()
+    {
+        final EventTypeCategory category = categories.sample();
+        final EventSerializer serializer = serializers[category.ordinal()];
+        final Object event = category.getRandomEvent();
+        events[category.ordinal()].increment();
+        try
+        {
+            if (event instanceof Collection)
+            {
+                Collection<?> msgs = (Collection<?>) event;
+                List<Object> serialized = new ArrayList<>(msgs.size());
+                for (Object obj : msgs)
+                {
+                    serialized.add(toBody(serializer, obj));
+                }
+                messages[category.ordinal()].add(serialized.size());
+                return serialized;
+            }
+            messages[category.ordinal()].increment();
+            return toBody(serializer, event);
+        }
+        catch (JsonProcessingException ex)
+        {
+            throw new RuntimeException("Couldn't serialize the " + category + " event.", ex);
+        }
+    }
+
+    private Object toBody(EventSerializer serializer, Object event) throws JsonProcessingException
+    {
+        final WireFormat format = serializer.getFormat();
+        return format.isBinary() ? new EncodedBody(serializer.writeBytes(event), format) : bodyType.toBody(serializer, event);
+    }
+
+    /**
+     * @return the probability of picking the given category
+     */
+    public double getShare(EventTypeCategory category)
+    {
+        return categories.getProbability(category.ordinal());
+    }
+
+    public long getEvents(EventTypeCategory category)
+    {
+        return events[category.ordinal()].sum();
+    }
+
+    public long getMessages(EventTypeCategory category)
+    {
+        return messages[category.ordinal()].sum();
+    }
+
+    @Override
+    public StringBuilder appendReport(StringBuilder sb)
+    {
+        sb.append("\n\tEvent categories:");
+        for (EventTypeCategory category : CATEGORIES)
+        {
+            if (getShare(category) > 0.0)
+            {
+                sb.append("\n\t\t").append(category).append(String.format(" (%.1f%%)", getShare(category) * 100.0))
+                            .append(": events=").append(getEvents(category)).append(", messages=").append(getMessages(category))
+                            .append(", format=").append(serializers[category.ordinal()].getFormat());
+            }
+        }
+        return sb;
+    }
+}
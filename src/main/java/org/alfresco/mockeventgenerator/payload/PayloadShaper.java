@@ -0,0 +1,142 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.payload;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.alfresco.mockeventgenerator.config.PayloadProperties;
+
+/**
+ * Pads the events' property maps, so that their payloads reach a target size drawn from a
+ * {@link PayloadSize} distribution, and adds aspects to them.
+ * <p>
+ * The property values are pre-built text fragments, one of each power of two size, so a target of
+ * any size is reached with a handful of shared strings, and a large payload costs no more CPU to
+ * generate than a small one; what remains is the cost of serializing it.
+ * The target is the size of the added properties as serialized JSON, give or take the smallest
+ * fragment; the events' own fields come on top.
+ */
+public class PayloadShaper
+{
+    private static final int MIN_FRAGMENT_SHIFT = 4;
+    private static final int MAX_FRAGMENT_SHIFT = 20;
+    private static final String PROPERTY_NAME_PREFIX = "mock:property";
+    private static final int MAX_NUM_OF_PROPERTIES = 100;
+    /** The JSON characters around a property value: the quotes of the name and the value, the colon and the comma */
+    private static final int PROPERTY_OVERHEAD = 6;
+    private static final char[] TEXT_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ".toCharArray();
+    private static final long FRAGMENT_SEED = 0xF4A6E47L;
+
+    private final PayloadProperties props;
+    private final String[] fragments = new String[MAX_FRAGMENT_SHIFT + 1];
+    private final String[] propertyNames = new String[MAX_NUM_OF_PROPERTIES];
+    private final List<String> extraAspects;
+
+    public PayloadShaper(PayloadProperties props)
+    {
+        if (props.getMinBytes() < 0 || props.getMaxBytes() < props.getMinBytes())
+        {
+            throw new IllegalArgumentException("Expected 0 <= minBytes <= maxBytes, got " + props.getMinBytes() + " and " + props.getMaxBytes());
+        }
+        this.props = props;
+        final SplittableRandom random = new SplittableRandom(FRAGMENT_SEED);
+        for (int shift = MIN_FRAGMENT_SHIFT; shift <= MAX_FRAGMENT_SHIFT; shift++)
+        {
+            final char[] text = new char[1 << shift];
+            for (int i = 0; i < text.length; i++)
+            {
+                text[i] = TEXT_CHARS[random.nextInt(TEXT_CHARS.length)];
+            }
+            fragments[shift] = new String(text);
+        }
+        for (int i = 0; i < MAX_NUM_OF_PROPERTIES; i++)
+        {
+            propertyNames[i] = PROPERTY_NAME_PREFIX + i;
+        }
+        List<String> aspects = new ArrayList<>(props.getExtraAspects());
+        for (int i = 0; i < props.getExtraAspects(); i++)
+        {
+            aspects.add("mock:aspect" + i);
+        }
+        this.extraAspects = Collections.unmodifiableList(aspects);
+    }
+
+    /**
+     * @return a new map of properties reaching the next target size
+     */
+    public Map<String, Serializable> nextProperties()
+    {
+        final Map<String, Serializable> properties = new HashMap<>();
+        fill(properties, props.getSize().nextTargetBytes(props));
+        return properties;
+    }
+
+    /**
+     * @return a new map of properties reaching the typical target size, without drawing it from the random streams
+     */
+    public Map<String, Serializable> typicalProperties()
+    {
+        final Map<String, Serializable> properties = new HashMap<>();
+        fill(properties, props.getSize().typicalTargetBytes(props));
+        return properties;
+    }
+
+    /**
+     * Adds properties totalling about the given number of bytes to the map: the largest fragments
+     * that fit first.
+     */
+    public <M extends Map<String, ? super String>> M fill(M properties, int targetBytes)
+    {
+        int remaining = targetBytes;
+        int numOfProperties = 0;
+        while (numOfProperties < MAX_NUM_OF_PROPERTIES)
+        {
+            final String name = propertyNames[numOfProperties];
+            final int available = remaining - name.length() - PROPERTY_OVERHEAD;
+            if (available < (1 << MIN_FRAGMENT_SHIFT))
+            {
+                break;
+            }
+            final int shift = Math.min(MAX_FRAGMENT_SHIFT, 31 - Integer.numberOfLeadingZeros(available));
+            properties.put(name, fragments[shift]);
+            remaining -= name.length() + PROPERTY_OVERHEAD + (1 << shift);
+            numOfProperties++;
+        }
+        return properties;
+    }
+
+    /**
+     * @return the given aspects plus the configured extra ones
+     */
+    public Set<String> withExtraAspects(Set<String> aspects)
+    {
+        if (extraAspects.isEmpty())
+        {
+            return aspects;
+        }
+        Set<String> allAspects = new HashSet<>(aspects);
+        allAspects.addAll(extraAspects);
+        return allAspects;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.payload;
+
+import org.alfresco.mockeventgenerator.config.PayloadProperties;
+import org.alfresco.mockeventgenerator.util.RandomStreams;
+
+/**
+ * The distributions of the payload sizes the {@link PayloadShaper} aims at.
+ */
+public enum PayloadSize
+{
+    /**
+     * No padding, the events keep their natural size.
+     */
+    NONE()
+    {
+        @Override
+        public int nextTargetBytes(PayloadProperties props)
+        {
+            return 0;
+        }
+
+        @Override
+        public int typicalTargetBytes(PayloadProperties props)
+        {
+            return 0;
+        }
+    },
+    /**
+     * {@code bytes} for every event.
+     */
+    FIXED()
+    {
+        @Override
+        public int nextTargetBytes(PayloadProperties props)
+        {
+            return props.getBytes();
+        }
+
+        @Override
+        public int typicalTargetBytes(PayloadProperties props)
+        {
+            return props.getBytes();
+        }
+    },
+    /**
+     * Uniformly distributed between {@code minBytes} and {@code maxBytes}.
+     */
+    UNIFORM()
+    {
+        @Override
+        public int nextTargetBytes(PayloadProperties props)
+        {
+            return props.getMinBytes() + RandomStreams.nextInt(props.getMaxBytes() - props.getMinBytes() + 1);
+        }
+
+        @Override
+        public int typicalTargetBytes(PayloadProperties props)
+        {
+            return props.getMinBytes() + (props.getMaxBytes() - props.getMinBytes()) / 2;
+        }
+    },
+    /**
+     * Log-normally distributed around {@code medianBytes}, with the spread {@code sigma} of the underlying
+     * normal distribution, and clamped between {@code minBytes} and {@code maxBytes}: most events are small,
+     * a few are very large, as in most real workloads.
+     */
+    LOGNORMAL()
+    {
+        @Override
+        public int nextTargetBytes(PayloadProperties props)
+        {
+            final double bytes = props.getMedianBytes() * Math.exp(props.getSigma() * RandomStreams.nextGaussian());
+            return (int) Math.max(props.getMinBytes(), Math.min(props.getMaxBytes(), bytes));
+        }
+
+        @Override
+        public int typicalTargetBytes(PayloadProperties props)
+        {
+            return Math.max(props.getMinBytes(), Math.min(props.getMaxBytes(), props.getMedianBytes()));
+        }
+    };
+
+    /**
+     * @return the size to aim at for the next event
+     */
+    public abstract int nextTargetBytes(PayloadProperties props);
+
+    /**
+     * @return the median size of the distribution, e.g. for the sample events, which mustn't draw from the random streams
+     */
+    public abstract int typicalTargetBytes(PayloadProperties props);
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.alfresco.mockeventgenerator.metrics.LatencyHistogram;
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+import org.alfresco.mockeventgenerator.util.RandomStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded ring buffer of ready-to-send events, filled by background generator threads and
+ * drained by the sender threads, which takes the generation and serialization cost of the
+ * events off the send path.
+ * <p>
+ * The generators block when the pool is full, the senders when it is empty. Both are counted
+ * as stalls: generator stalls mean the senders can't keep up (the pool does its job), sender
+ * stalls mean the generators can't keep up and the send rate is bound by the generation.
+ * <p>
+ * If generating an event fails, the generators stop and the failure is rethrown to the
+ * senders waiting on the pool, rather than leaving them blocked on a pool that never fills.
+ */
+public class EventPool implements RunReport
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventPool.class);
+    private static final long FAILURE_CHECK_INTERVAL_IN_MILLIS = 100L;
+
+    private final BlockingQueue<Object> buffer;
+    private final int capacity;
+    private final Supplier<Object> eventSupplier;
+    private final int numOfGenerators;
+    private final List<Thread> generators;
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder generatorStalls = new LongAdder();
+    private final LongAdder taken = new LongAdder();
+    private final LongAdder senderStalls = new LongAdder();
+    private final LongAdder senderStallNanos = new LongAdder();
+    private final LatencyHistogram fillLevel = new LatencyHistogram();
+    /** The first failure of a generator thread, if any */
+    private volatile RuntimeException failure;
+
+    /**
+     * @param capacity        the maximum number of events in the pool
+     * @param numOfGenerators the number of background threads generating the events
+     * @param eventSupplier   supplies the ready-to-send events
+     */
+    public EventPool(int capacity, int numOfGenerators, Supplier<Object> eventSupplier)
+    {
+        this.capacity = Math.max(1, capacity);
+        this.buffer = new ArrayBlockingQueue<>(this.capacity);
+        this.numOfGenerators = Math.max(1, numOfGenerators);
+        this.generators = new ArrayList<>(this.numOfGenerators);
+        this.eventSupplier = eventSupplier;
+    }
+
+    /**
+     * Starts the generator threads. Calling it more than once has no effect.
+     */
+    public synchronized EventPool start()
+    {
+        if (generators.isEmpty())
+        {
+            for (int i = 0; i < numOfGenerators; i++)
+            {
+                final int generatorIndex = i;
+                Thread generator = new Thread(() -> generate(generatorIndex), "event-pool-generator-" + i);
+                generator.setDaemon(true);
+                generator.start();
+                generators.add(generator);
+            }
+        }
+        return this;
+    }
+
+    private void generate(int generatorIndex)
+    {
+        RandomStreams.bindWorker(generatorIndex);
+        try
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                Object event = eventSupplier.get();
+                // Counted before it is pooled, so the events taken are never more than the events generated
+                generated.increment();
+                if (!buffer.offer(event))
+                {
+                    generatorStalls.increment();
+                    buffer.put(event);
+                }
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            // Stopped
+        }
+        catch (RuntimeException ex)
+        {
+            LOGGER.error("Event generator thread failed.", ex);
+            if (failure == null)
+            {
+                failure = ex;
+            }
+            stop();
+        }
+    }
+
+    private void checkNotFailed()
+    {
+        final RuntimeException ex = failure;
+        if (ex != null)
+        {
+            throw new IllegalStateException("The event pool generators failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Takes the next ready-to-send event, waiting for one to be generated if the pool is empty.
+     *
+     * @throws IllegalStateException if the generators failed and the pool is empty
+     */
+    public Object take() throws InterruptedException
+    {
+        fillLevel.record(buffer.size());
+        Object event = buffer.poll();
+        if (event == null)
+        {
+            final long stallStart = System.nanoTime();
+            while ((event = buffer.poll(FAILURE_CHECK_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS)) == null)
+            {
+                checkNotFailed();
+            }
+            senderStalls.increment();
+            senderStallNanos.add(System.nanoTime() - stallStart);
+        }
+        taken.increment();
+        return event;
+    }
+
+    /**
+     * Blocks until the pool holds at least the given number of events (capped at its capacity).
+     *
+     * @throws IllegalStateException if the generators failed before the pool was filled
+     */
+    public void awaitFill(int numOfEvents) throws InterruptedException
+    {
+        final int target = Math.min(numOfEvents, getCapacity());
+        while (buffer.size() < target)
+        {
+            checkNotFailed();
+            TimeUnit.MILLISECONDS.sleep(10L);
+        }
+    }
+
+    public synchronized void stop()
+    {
+        generators.forEach(Thread::interrupt);
+        generators.clear();
+    }
+
+    public int size()
+    {
+        return buffer.size();
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public long getGenerated()
+    {
+        return generated.sum();
+    }
+
+    public long getSenderStalls()
+    {
+        return senderStalls.sum();
+    }
+
+    @Override
+    public StringBuilder appendReport(StringBuilder sb)
+    {
+        final long takenEvents = taken.sum();
+        final long stalls = senderStalls.sum();
+        return sb.append("\n\tEvent pool (capacity ").append(getCapacity()).append(", ").append(numOfGenerators).append(" generator(s)):")
+                    .append("\n\t\tGenerated: ").append(getGenerated()).append(", taken: ").append(takenEvents)
+                    .append(", currently pooled: ").append(size())
+                    .append("\n\t\tFill level when taken: mean=").append(String.format("%.1f", fillLevel.getMean()))
+                    .append(", p50=").append(fillLevel.getValueAtPercentile(50.0))
+                    .append(", p1=").append(fillLevel.getValueAtPercentile(1.0))
+                    .append("\n\t\tSender stalls (pool empty): ").append(stalls)
+                    .append(String.format(" (%.1f%% of takes)", (takenEvents == 0L) ? 0.0 : stalls * 100.0 / takenEvents))
+                    .append(", total stall time in ms: ").append(TimeUnit.NANOSECONDS.toMillis(senderStallNanos.sum()))
+                    .append("\n\t\tGenerator stalls (pool full): ").append(generatorStalls.sum());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.population;
+
+import org.alfresco.mockeventgenerator.config.PopulationProperties;
+import org.alfresco.mockeventgenerator.util.RandomStreams;
+
+/**
+ * How often each entry of the population is picked.
+ */
+public enum AccessDistribution
+{
+    /**
+     * All the entries equally often, which gives a consumer's caches the worst hit ratio.
+     */
+    UNIFORM()
+    {
+        @Override
+        public IndexSampler create(int size, PopulationProperties props)
+        {
+            return () -> RandomStreams.nextInt(size);
+        }
+    },
+    /**
+     * The entry of rank {@code k} in proportion to {@code 1 / k^zipfExponent}: a few entries make most of
+     * the traffic, with a long tail of rarely used ones.
+     */
+    ZIPF()
+    {
+        @Override
+        public IndexSampler create(int size, PopulationProperties props)
+        {
+            return new ZipfSampler(size, props.getZipfExponent());
+        }
+    },
+    /**
+     * The first {@code hotSetFraction} of the entries get {@code hotAccessFraction} of the picks, e.g. 80% of
+     * the picks for 20% of the entries; the picks are uniform within the hot set and within the rest.
+     */
+    HOT_SET()
+    {
+        @Override
+        public IndexSampler create(int size, PopulationProperties props)
+        {
+            final double hotSetFraction = props.getHotSetFraction();
+            final double hotAccessFraction = props.getHotAccessFraction();
+            if (hotSetFraction <= 0.0 || hotSetFraction > 1.0 || hotAccessFraction < 0.0 || hotAccessFraction > 1.0)
+            {
+                throw new IllegalArgumentException("The hot set and hot access fractions must be between 0 and 1, got "
+                            + hotSetFraction + " and " + hotAccessFraction);
+            }
+            final int hotSetSize = (int) Math.max(1L, Math.round(size * hotSetFraction));
+            if (hotSetSize >= size)
+            {
+                return UNIFORM.create(size, props);
+            }
+            final int coldSetSize = size - hotSetSize;
+            return () -> (RandomStreams.nextDouble() < hotAccessFraction) ? RandomStreams.nextInt(hotSetSize)
+                        : hotSetSize + RandomStreams.nextInt(coldSetSize);
+        }
+    };
+
+    /**
+     * @param size  the number of entries, at least 1
+     * @param props the settings of the distribution
+     */
+    public abstract IndexSampler create(int size, PopulationProperties props);
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.population;
+
+/**
+ * Picks the index of an entry of the population, i.e. which user, group or site an event refers to.
+ */
+@FunctionalInterface
+public interface IndexSampler
+{
+    /**
+     * @return an index from 0 (included) to the size of the population (excluded)
+     */
+    int next();
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.population;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.alfresco.mockeventgenerator.config.PopulationProperties;
+import org.alfresco.mockeventgenerator.util.UserInfo;
+
+/**
+ * A large population of users, groups and sites for the events to refer to, so that the consumers'
+ * caches see a realistic number of distinct entries.
+ * <p>
+ * The population is held in primitive arrays, a few bytes per user, rather than in objects: the users'
+ * names and ages are indexes in small tables, and the group names and site ids are derived from their
+ * index. The names are built on demand, except for the most frequently picked entries, whose names are
+ * kept once built. The population itself is the same on every run, only the picks are random.
+ */
+public class SyntheticPopulation
+{
+    private static final String[] FIRST_NAMES = { "John", "Sam", "Glen", "Joe", "Jane", "Alice", "Bob", "Carol", "David", "Emma",
+                "Frank", "Grace", "Henry", "Irene", "Jack", "Karen", "Liam", "Maria", "Noah", "Olivia", "Paul", "Quinn", "Rose",
+                "Steve", "Tina", "Umar", "Vera", "Will", "Xena", "Yusuf", "Zoe", "Amir" };
+    private static final String[] LAST_NAMES = { "Doe", "Blogg", "Raymond", "Sixpack", "Meatball", "Smith", "Jones", "Taylor",
+                "Brown", "Wilson", "Evans", "Thomas", "Johnson", "Roberts", "Walker", "Wright", "Robinson", "Thompson", "White",
+                "Hughes", "Edwards", "Green", "Hall", "Wood", "Harris", "Lewis", "Martin", "Jackson", "Clarke", "Clark", "Turner",
+                "Hill" };
+    private static final int MIN_AGE = 18;
+    private static final int AGE_RANGE = 50;
+    /** The number of entries whose names are kept, from index 0, which the skewed distributions pick the most */
+    private static final int NAME_CACHE_SIZE = 4096;
+    private static final long POPULATION_SEED = 0x5EED5EED5EED5EEDL;
+
+    private final int numOfUsers;
+    private final int numOfGroups;
+    private final int numOfSites;
+    private final byte[] firstNames;
+    private final byte[] lastNames;
+    private final byte[] ages;
+    private final IndexSampler userSampler;
+    private final IndexSampler groupSampler;
+    private final IndexSampler siteSampler;
+    private final AtomicReferenceArray<String> userNameCache;
+    private final AtomicReferenceArray<String> groupNameCache;
+    private final AtomicReferenceArray<String> siteIdCache;
+
+    public SyntheticPopulation(PopulationProperties props)
+    {
+        this.numOfUsers = requirePositive("users", props.getUsers());
+        this.numOfGroups = requirePositive("groups", props.getGroups());
+        this.numOfSites = requirePositive("sites", props.getSites());
+
+        this.firstNames = new byte[numOfUsers];
+        this.lastNames = new byte[numOfUsers];
+        this.ages = new byte[numOfUsers];
+        final SplittableRandom random = new SplittableRandom(POPULATION_SEED);
+        for (int i = 0; i < numOfUsers; i++)
+        {
+            firstNames[i] = (byte) random.nextInt(FIRST_NAMES.length);
+            lastNames[i] = (byte) random.nextInt(LAST_NAMES.length);
+            ages[i] = (byte) random.nextInt(AGE_RANGE);
+        }
+
+        final AccessDistribution distribution = props.getDistribution();
+        this.userSampler = distribution.create(numOfUsers, props);
+        this.groupSampler = distribution.create(numOfGroups, props);
+        this.siteSampler = distribution.create(numOfSites, props);
+        this.userNameCache = new AtomicReferenceArray<>(Math.min(numOfUsers, NAME_CACHE_SIZE));
+        this.groupNameCache = new AtomicReferenceArray<>(Math.min(numOfGroups, NAME_CACHE_SIZE));
+        this.siteIdCache = new AtomicReferenceArray<>(Math.min(numOfSites, NAME_CACHE_SIZE));
+    }
+
+    public int nextUser()
+    {
+        return userSampler.next();
+    }
+
+    public int nextGroup()
+    {
+        return groupSampler.next();
+    }
+
+    public int nextSite()
+    {
+        return siteSampler.next();
+    }
+
+    public String getUserName(int user)
+    {
+        String userName = cached(userNameCache, user);
+        if (userName == null)
+        {
+            final String firstName = FIRST_NAMES[firstNames[user]];
+            userName = new StringBuilder(24).append(Character.toLowerCase(firstName.charAt(0)))
+                        .append(LAST_NAMES[lastNames[user]].toLowerCase())
+                        .append(user)
+                        .toString();
+            cache(userNameCache, user, userName);
+        }
+        return userName;
+    }
+
+    public UserInfo getUser(int user)
+    {
+        return new UserInfo(FIRST_NAMES[firstNames[user]], LAST_NAMES[lastNames[user]], MIN_AGE + ages[user], getUserName(user));
+    }
+
+    public String getGroupName(int group)
+    {
+        String groupName = cached(groupNameCache, group);
+        if (groupName == null)
+        {
+            groupName = "GROUP_" + group;
+            cache(groupNameCache, group, groupName);
+        }
+        return groupName;
+    }
+
+    public String getSiteId(int site)
+    {
+        String siteId = cached(siteIdCache, site);
+        if (siteId == null)
+        {
+            siteId = "site" + site;
+            cache(siteIdCache, site, siteId);
+        }
+        return siteId;
+    }
+
+    public int getNumOfUsers()
+    {
+        return numOfUsers;
+    }
+
+    public int getNumOfGroups()
+    {
+        return numOfGroups;
+    }
+
+    public int getNumOfSites()
+    {
+        return numOfSites;
+    }
+
+    private static String cached(AtomicReferenceArray<String> cache, int index)
+    {
+        return (index < cache.length()) ? cache.get(index) : null;
+    }
+
+    private static void cache(AtomicReferenceArray<String> cache, int index, String value)
+    {
+        if (index < cache.length())
+        {
+            // Racing threads build the same value, whichever wins doesn't matter
+            cache.lazySet(index, value);
+        }
+    }
+
+    private static int requirePositive(String name, int value)
+    {
+        if (value < 1)
+        {
+            throw new IllegalArgumentException("The population's '" + name + "' must be at least 1, got " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.population;
+
+import org.alfresco.mockeventgenerator.util.RandomStreams;
+
+/**
+ * Samples Zipf distributed indexes in constant time and without any table, so that it scales to millions
+ * of entries, using the rejection-inversion method of Hoermann and Derflinger ("Rejection-inversion to
+ * generate variates from monotone discrete distributions", 1996).
+ * <p>
+ * The index {@code k - 1} is picked in proportion to {@code 1 / k^exponent}.
+ */
+public class ZipfSampler implements IndexSampler
+{
+    private final int size;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralSize;
+    private final double s;
+
+    /**
+     * @param size     the number of entries, at least 1
+     * @param exponent the skew of the distribution, greater than zero; the larger, the fewer the hot entries
+     */
+    public ZipfSampler(int size, double exponent)
+    {
+        if (size < 1)
+        {
+            throw new IllegalArgumentException("The size must be at least 1, got " + size);
+        }
+        if (!(exponent > 0.0))
+        {
+            throw new IllegalArgumentException("The Zipf exponent must be greater than zero, got " + exponent);
+        }
+        this.size = size;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1.0;
+        this.hIntegralSize = hIntegral(size + 0.5);
+        this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+    }
+
+    @Override
+    public int next()
+    {
+        while (true)
+        {
+            final double u = hIntegralSize + RandomStreams.nextDouble() * (hIntegralX1 - hIntegralSize);
+            final double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1)
+            {
+                k = 1;
+            }
+            else if (k > size)
+            {
+                k = size;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k))
+            {
+                return k - 1;
+            }
+        }
+    }
+
+    /**
+     * {@code H(x)}, an integral of {@code h(x) = 1 / x^exponent}
+     */
+    private double hIntegral(double x)
+    {
+        final double logX = Math.log(x);
+        return helper2((1.0 - exponent) * logX) * logX;
+    }
+
+    private double h(double x)
+    {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x)
+    {
+        double t = x * (1.0 - exponent);
+        if (t < -1.0)
+        {
+            // Limited by the rounding errors
+            t = -1.0;
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    /**
+     * {@code log(1 + x) / x}, accurate for small values of x too
+     */
+    private static double helper1(double x)
+    {
+        if (Math.abs(x) > 1e-8)
+        {
+            return Math.log1p(x) / x;
+        }
+        return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+
+    /**
+     * {@code (exp(x) - 1) / x}, accurate for small values of x too
+     */
+    private static double helper2(double x)
+    {
+        if (Math.abs(x) > 1e-8)
+        {
+            return Math.expm1(x) / x;
+        }
+        return 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.process;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+import org.alfresco.mockeventgenerator.util.IdGenerator;
+import org.alfresco.mockeventgenerator.util.RandomStreams;
+
+/**
+ * Runs a fixed number of process instances at once, each going through all the {@link ProcessStage}s,
+ * so that every task event belongs to a process that was started and is still running. As soon as an
+ * instance completes, a new one takes its place.
+ * <p>
+ * The instances advance in simulated time: each stage is due a random, exponentially distributed delay
+ * after the previous one, and {@link #next()} always advances the instance that is due first. The steps of
+ * the different instances are therefore interleaved the way they would be in a running system, only
+ * without the waiting. The instances are kept in primitive arrays, scheduled by a binary heap of their
+ * slots ordered by due time; a live instance takes about 50 bytes, plus its assignee's name.
+ */
+public class ProcessInstanceSimulator implements RunReport
+{
+    private final int numOfInstances;
+    private final double meanStepDelayMillis;
+    private final Supplier<String> assignees;
+
+    // The state of the instances, by slot
+    private final long[] processIdMsb;
+    private final long[] processIdLsb;
+    private final long[] taskIdMsb;
+    private final long[] taskIdLsb;
+    private final String[] assignee;
+    private final byte[] stage;
+    private final long[] dueTime;
+    /** The slots, as a binary min-heap ordered by due time */
+    private final int[] heap;
+
+    private final long[] stepCounts = new long[ProcessStage.values().length];
+    private long simulatedTime;
+
+    /**
+     * @param numOfInstances      the number of live process instances
+     * @param meanStepDelayMillis the mean simulated time between two stages of an instance
+     * @param assignees           picks the users the tasks are assigned to
+     */
+    public ProcessInstanceSimulator(int numOfInstances, long meanStepDelayMillis, Supplier<String> assignees)
+    {
+        if (numOfInstances < 1)
+        {
+            throw new IllegalArgumentException("The number of process instances must be at least 1, got " + numOfInstances);
+        }
+        this.numOfInstances = numOfInstances;
+        this.meanStepDelayMillis = Math.max(0L, meanStepDelayMillis);
+        this.assignees = assignees;
+        this.processIdMsb = new long[numOfInstances];
+        this.processIdLsb = new long[numOfInstances];
+        this.taskIdMsb = new long[numOfInstances];
+        this.taskIdLsb = new long[numOfInstances];
+        this.assignee = new String[numOfInstances];
+        this.stage = new byte[numOfInstances];
+        this.dueTime = new long[numOfInstances];
+        this.heap = new int[numOfInstances];
+
+        // The instances start at random times, rather than all at once
+        for (int slot = 0; slot < numOfInstances; slot++)
+        {
+            stage[slot] = (byte) ProcessStage.START.ordinal();
+            dueTime[slot] = nextDelay();
+            heap[slot] = slot;
+        }
+        for (int i = numOfInstances / 2 - 1; i >= 0; i--)
+        {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Advances the instance that is due first to its next stage.
+     */
+    public synchronized ProcessStep next()
+    {
+        final int slot = heap[0];
+        simulatedTime = dueTime[slot];
+        final ProcessStage current = ProcessStage.valueOf(stage[slot]);
+        if (current == ProcessStage.START)
+        {
+            processIdMsb[slot] = IdGenerator.randomMostSignificantBits();
+            processIdLsb[slot] = IdGenerator.randomLeastSignificantBits();
+            taskIdMsb[slot] = IdGenerator.randomMostSignificantBits();
+            taskIdLsb[slot] = IdGenerator.randomLeastSignificantBits();
+            assignee[slot] = null;
+        }
+        else if (current == ProcessStage.TASK_ASSIGNED)
+        {
+            assignee[slot] = assignees.get();
+        }
+        final ProcessStep step = new ProcessStep(current, IdGenerator.format(processIdMsb[slot], processIdLsb[slot]),
+                    IdGenerator.format(taskIdMsb[slot], taskIdLsb[slot]), assignee[slot]);
+        stepCounts[current.ordinal()]++;
+
+        // A completed instance is replaced by a new one in the same slot
+        final ProcessStage following = current.next();
+        stage[slot] = (byte) ((following == null) ? ProcessStage.START : following).ordinal();
+        dueTime[slot] = simulatedTime + nextDelay();
+        siftDown(0);
+        return step;
+    }
+
+    private long nextDelay()
+    {
+        return (long) (-meanStepDelayMillis * Math.log(1.0 - RandomStreams.nextDouble()));
+    }
+
+    private void siftDown(int index)
+    {
+        final int slot = heap[index];
+        final long due = dueTime[slot];
+        int half = numOfInstances >>> 1;
+        while (index < half)
+        {
+            int child = 2 * index + 1;
+            if (child + 1 < numOfInstances && dueTime[heap[child + 1]] < dueTime[heap[child]])
+            {
+                child++;
+            }
+            if (due <= dueTime[heap[child]])
+            {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    public int getNumOfInstances()
+    {
+        return numOfInstances;
+    }
+
+    /**
+     * @return the simulated time of the last step, in milliseconds from the start of the simulation
+     */
+    public synchronized long getSimulatedTimeMillis()
+    {
+        return simulatedTime;
+    }
+
+    public synchronized long getCount(ProcessStage processStage)
+    {
+        return stepCounts[processStage.ordinal()];
+    }
+
+    @Override
+    public synchronized StringBuilder appendReport(StringBuilder sb)
+    {
+        sb.append("\n\tProcess instances: ").append(numOfInstances).append(" live, ")
+                    .append(stepCounts[ProcessStage.START.ordinal()]).append(" started, ")
+                    .append(stepCounts[ProcessStage.PROCESS_COMPLETED.ordinal()]).append(" completed in ")
+                    .append(TimeUnit.MILLISECONDS.toMinutes(simulatedTime)).append(" simulated minutes")
+                    .append("\n\t\tSteps:");
+        for (ProcessStage processStage : ProcessStage.values())
+        {
+            sb.append(' ').append(processStage).append('=').append(stepCounts[processStage.ordinal()]);
+        }
+        return sb;
+    }
+}
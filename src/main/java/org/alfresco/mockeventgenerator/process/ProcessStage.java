@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.process;
+
+/**
+ * The stages every simulated process instance goes through, in order. Each stage is reported by its own
+ * group of events.
+ */
+public enum ProcessStage
+{
+    /** The process is created and started, with its variables, up to its user task */
+    START,
+    /** The user task is created and offered to a candidate group */
+    TASK_CREATED,
+    /** The user task is assigned to a user */
+    TASK_ASSIGNED,
+    /** The user completes the task */
+    TASK_COMPLETED,
+    /** The process reaches its end event, and its variables are deleted */
+    PROCESS_COMPLETED;
+
+    private static final ProcessStage[] STAGES = values();
+
+    /**
+     * @return the stage after this one, or {@code null} if the process is completed
+     */
+    public ProcessStage next()
+    {
+        return (ordinal() + 1 < STAGES.length) ? STAGES[ordinal() + 1] : null;
+    }
+
+    static ProcessStage valueOf(int ordinal)
+    {
+        return STAGES[ordinal];
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.process;
+
+import org.alfresco.mockeventgenerator.util.IdGenerator;
+
+/**
+ * A stage reached by a process instance, from which its events are built. All the instances run the
+ * same process definition.
+ */
+public final class ProcessStep
+{
+    public static final String PROCESS_DEFINITION_KEY = "SimpleProcess";
+    public static final String PROCESS_DEFINITION_ID = PROCESS_DEFINITION_KEY + ":1:" + IdGenerator.derive(0x20L, 0);
+    public static final String USER_TASK_ELEMENT_ID = "sid-" + IdGenerator.derive(0x21L, 0);
+    public static final String END_EVENT_ELEMENT_ID = "sid-" + IdGenerator.derive(0x22L, 0);
+
+    private final ProcessStage stage;
+    private final String processInstanceId;
+    private final String taskId;
+    private final String assignee;
+
+    /**
+     * @param stage             the stage reached
+     * @param processInstanceId the id of the process instance
+     * @param taskId            the id of its user task
+     * @param assignee          the user the task is assigned to, or {@code null} before it is
+     */
+    public ProcessStep(ProcessStage stage, String processInstanceId, String taskId, String assignee)
+    {
+        this.stage = stage;
+        this.processInstanceId = processInstanceId;
+        this.taskId = taskId;
+        this.assignee = assignee;
+    }
+
+    public ProcessStage getStage()
+    {
+        return stage;
+    }
+
+    public String getProcessInstanceId()
+    {
+        return processInstanceId;
+    }
+
+    public String getTaskId()
+    {
+        return taskId;
+    }
+
+    public String getAssignee()
+    {
+        return assignee;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.rate;
+
+/**
+ * The shape of the load over the course of a run, as consumed by the {@link RateController}.
+ */
+@FunctionalInterface
+public interface LoadProfile
+{
+    /**
+     * @param elapsedNanos the time since the start of the run
+     * @return the target number of events per second at the given time. A rate of zero pauses the sending
+     */
+    double rateAt(long elapsedNanos);
+
+    static LoadProfile constant(double ratePerSecond)
+    {
+        return elapsedNanos -> ratePerSecond;
+    }
+}
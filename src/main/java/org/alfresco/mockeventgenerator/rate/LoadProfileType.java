@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.rate;
+
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.mockeventgenerator.config.LoadProfileProperties;
+
+/**
+ * The available {@link LoadProfile} shapes.
+ */
+public enum LoadProfileType
+{
+    /**
+     * A flat {@code baseRate}.
+     */
+    CONSTANT()
+    {
+        @Override
+        public LoadProfile create(LoadProfileProperties props, long runDurationNanos)
+        {
+            requirePositive("baseRate", props.getBaseRate());
+            return LoadProfile.constant(props.getBaseRate());
+        }
+    },
+    /**
+     * A linear ramp from the {@code baseRate} to the {@code peakRate} over {@code periodInSeconds}
+     * (defaults to the whole run), holding the {@code peakRate} afterwards.
+     */
+    RAMP()
+    {
+        @Override
+        public LoadProfile create(LoadProfileProperties props, long runDurationNanos)
+        {
+            final double base = props.getBaseRate();
+            final double peak = props.getPeakRate();
+            final long rampNanos = periodOrRunDuration(props, runDurationNanos);
+            requirePositive("peakRate", peak);
+            return elapsedNanos -> (elapsedNanos >= rampNanos) ? peak : base + (peak - base) * elapsedNanos / rampNanos;
+        }
+    },
+    /**
+     * A staircase starting at the {@code baseRate} and going up by {@code stepRate} every
+     * {@code periodInSeconds}, capped at the {@code peakRate} if one is set.
+     */
+    STEP()
+    {
+        @Override
+        public LoadProfile create(LoadProfileProperties props, long runDurationNanos)
+        {
+            final double base = props.getBaseRate();
+            final double step = props.getStepRate();
+            final double cap = (props.getPeakRate() > 0.0) ? props.getPeakRate() : Double.MAX_VALUE;
+            final long stepNanos = TimeUnit.SECONDS.toNanos(requirePositive("periodInSeconds", props.getPeriodInSeconds()));
+            requirePositive("stepRate", step);
+            return elapsedNanos -> Math.min(cap, base + step * (elapsedNanos / stepNanos));
+        }
+    },
+    /**
+     * A sine wave between the {@code baseRate} (trough) and the {@code peakRate} (crest) with a
+     * wavelength of {@code periodInSeconds}. The run starts at the trough.
+     */
+    SINE()
+    {
+        @Override
+        public LoadProfile create(LoadProfileProperties props, long runDurationNanos)
+        {
+            final double base = props.getBaseRate();
+            final double amplitude = props.getPeakRate() - base;
+            final double periodNanos = TimeUnit.SECONDS.toNanos(requirePositive("periodInSeconds", props.getPeriodInSeconds()));
+            requirePositive("peakRate", props.getPeakRate());
+            return elapsedNanos -> base + amplitude * (1.0 - Math.cos(2.0 * Math.PI * elapsedNanos / periodNanos)) / 2.0;
+        }
+    },
+    /**
+     * The {@code baseRate}, except for {@code spikeDurationInSeconds} from {@code spikeStartInSeconds}
+     * where it jumps to the {@code peakRate}. The spike repeats every {@code periodInSeconds}, if set.
+     */
+    SPIKE()
+    {
+        @Override
+        public LoadProfile create(LoadProfileProperties props, long runDurationNanos)
+        {
+            final double base = props.getBaseRate();
+            final double peak = props.getPeakRate();
+            final long startNanos = TimeUnit.SECONDS.toNanos(props.getSpikeStartInSeconds());
+            final long durationNanos = TimeUnit.SECONDS.toNanos(requirePositive("spikeDurationInSeconds", props.getSpikeDurationInSeconds()));
+            final long repeatNanos = TimeUnit.SECONDS.toNanos(props.getPeriodInSeconds());
+            requirePositive("peakRate", peak);
+            return elapsedNanos -> {
+                long sinceStart = elapsedNanos - startNanos;
+                if (sinceStart < 0L)
+                {
+                    return base;
+                }
+                if (repeatNanos > 0L)
+                {
+                    sinceStart %= repeatNanos;
+                }
+                return (sinceStart < durationNanos) ? peak : base;
+            };
+        }
+    },
+    /**
+     * A 24 hour day compressed into {@code periodInSeconds} (defaults to the whole run), going from
+     * the {@code baseRate} at night to the {@code peakRate} at {@code peakHour}.
+     */
+    DIURNAL()
+    {
+        @Override
+        public LoadProfile create(LoadProfileProperties props, long runDurationNanos)
+        {
+            final double base = props.getBaseRate();
+            final double amplitude = props.getPeakRate() - base;
+            final double dayNanos = periodOrRunDuration(props, runDurationNanos);
+            final double peakHour = props.getPeakHour();
+            requirePositive("peakRate", props.getPeakRate());
+            return elapsedNanos -> {
+                double hour = 24.0 * (elapsedNanos % (long) dayNanos) / dayNanos;
+                // A raised cosine centred on the peak hour; squaring it gives a quiet night and a busy working day
+                double shape = (1.0 + Math.cos(2.0 * Math.PI * (hour - peakHour) / 24.0)) / 2.0;
+                return base + amplitude * shape * shape;
+            };
+        }
+    };
+
+    public abstract LoadProfile create(LoadProfileProperties props, long runDurationNanos);
+
+    private static long periodOrRunDuration(LoadProfileProperties props, long runDurationNanos)
+    {
+        long periodNanos = TimeUnit.SECONDS.toNanos(props.getPeriodInSeconds());
+        return requirePositive("periodInSeconds", (periodNanos > 0L) ? periodNanos : runDurationNanos);
+    }
+
+    private static <T extends Number> T requirePositive(String name, T value)
+    {
+        if (value.doubleValue() <= 0.0)
+        {
+            throw new IllegalArgumentException("The load profile's '" + name + "' must be greater than zero.");
+        }
+        return value;
+    }
+}
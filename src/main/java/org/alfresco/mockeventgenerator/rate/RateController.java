@@ -0,0 +1,314 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.rate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.alfresco.mockeventgenerator.metrics.LatencyHistogram;
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+
+/**
+ * Open-loop token-bucket rate controller.
+ * <p>
+ * Every permit has an intended issue time on an absolute schedule, each permit following the
+ * previous one by the interval of the {@link LoadProfile}'s rate at that time, so the sends
+ * are spread evenly within each second rather than fired as a burst at the start of it.
+ * Any number of sender threads may share one controller; each call to {@link #acquire()}
+ * claims the next free slot and parks until its intended time. A sender that falls behind gets its permits immediately until
+ * it catches up with the schedule, bounded by the {@code maxCatchUp} bucket depth, beyond
+ * which the missed permits are skipped instead of being sent as one large burst.
+ * <p>
+ * The difference between the actual and the intended issue time of every permit is recorded
+ * in the {@link #getDriftHistogram() drift histogram}.
+ */
+public class RateController implements RunReport
+{
+    /** Waits shorter than this are spun (yielding) rather than parked, as parking overshoots by tens of micros */
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    /** The schedule is kept in fixed point, so non-integral intervals do not accumulate rounding drift */
+    private static final int FRACTION_BITS = 10;
+    private static final double NANOS_PER_SECOND_FIXED = (double) (TimeUnit.SECONDS.toNanos(1) << FRACTION_BITS);
+    /** Below this rate the profile is considered paused */
+    private static final double MIN_RATE_PER_SECOND = 0.001;
+    /** Longer intervals are integrated over the profile in steps of this size */
+    private static final long STEP_FIXED = TimeUnit.MILLISECONDS.toNanos(1) << FRACTION_BITS;
+    private static final int INTEGRATION_STEPS = 10_000;
+
+    private final LoadProfile loadProfile;
+    private final long durationNanos;
+    private final long maxCatchUpFixed;
+    private final AtomicLong nextIssueFixed = new AtomicLong();
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LatencyHistogram driftHistogram = new LatencyHistogram();
+
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile boolean started;
+    private volatile boolean cancelled;
+
+    /**
+     * @param ratePerSecond    the constant target number of permits per second
+     * @param durationNanos    how long the controller issues permits for
+     * @param maxCatchUpNanos  how far behind the schedule a sender may be and still catch up.
+     *                         Zero or negative means there is no limit
+     */
+    public RateController(double ratePerSecond, long durationNanos, long maxCatchUpNanos)
+    {
+        this(LoadProfile.constant(requirePositiveRate(ratePerSecond)), durationNanos, maxCatchUpNanos);
+    }
+
+    /**
+     * @param loadProfile      the target number of permits per second over time
+     * @param durationNanos    how long the controller issues permits for
+     * @param maxCatchUpNanos  how far behind the schedule a sender may be and still catch up.
+     *                         Zero or negative means there is no limit
+     */
+    public RateController(LoadProfile loadProfile, long durationNanos, long maxCatchUpNanos)
+    {
+        this.loadProfile = loadProfile;
+        this.durationNanos = durationNanos;
+        this.maxCatchUpFixed = (maxCatchUpNanos > 0) ? (maxCatchUpNanos << FRACTION_BITS) : 0L;
+    }
+
+    /**
+     * Starts the schedule clock. Calling it more than once has no effect.
+     */
+    public synchronized RateController start()
+    {
+        if (!started)
+        {
+            startNanos = System.nanoTime();
+            started = true;
+        }
+        return this;
+    }
+
+    /**
+     * Blocks until the next permit's intended issue time.
+     *
+     * @return true if the caller may send, false if the run is over or has been cancelled
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public boolean acquire() throws InterruptedException
+    {
+        if (!started)
+        {
+            start();
+        }
+        final long intended = claimSlot();
+        if (cancelled || intended >= durationNanos)
+        {
+            markEnd();
+            return false;
+        }
+        waitUntil(startNanos + intended);
+        if (cancelled)
+        {
+            markEnd();
+            return false;
+        }
+        driftHistogram.record(System.nanoTime() - startNanos - intended);
+        issued.increment();
+        return true;
+    }
+
+    private long claimSlot()
+    {
+        while (true)
+        {
+            final long current = nextIssueFixed.get();
+            long slot = current;
+            long missed = 0L;
+            if (maxCatchUpFixed > 0L)
+            {
+                final long nowFixed = (System.nanoTime() - startNanos) << FRACTION_BITS;
+                final long behind = nowFixed - maxCatchUpFixed - current;
+                if (behind > 0L)
+                {
+                    // Too far behind the schedule: drop the missed permits rather than bursting them out
+                    final long interval = intervalFixedAt(current);
+                    missed = (interval > 0L) ? behind / interval : 0L;
+                    slot = current + behind;
+                }
+            }
+            while (intervalFixedAt(slot) <= 0L && (slot >> FRACTION_BITS) < durationNanos)
+            {
+                // The profile is paused; move along the schedule without issuing a permit
+                slot += STEP_FIXED;
+            }
+            if (nextIssueFixed.compareAndSet(current, nextSlotFixed(slot)))
+            {
+                if (missed > 0L)
+                {
+                    skipped.add(missed);
+                }
+                return slot >> FRACTION_BITS;
+            }
+        }
+    }
+
+    /**
+     * Finds the time after the given slot where the area under the profile's rate reaches one permit.
+     */
+    private long nextSlotFixed(long slotFixed)
+    {
+        double remainingPermits = 1.0;
+        long time = slotFixed;
+        while ((time >> FRACTION_BITS) < durationNanos)
+        {
+            final double rate = loadProfile.rateAt(time >> FRACTION_BITS);
+            if (rate >= MIN_RATE_PER_SECOND)
+            {
+                final long interval = Math.round(NANOS_PER_SECOND_FIXED * remainingPermits / rate);
+                if (interval <= STEP_FIXED)
+                {
+                    return time + Math.max(1L, interval);
+                }
+                remainingPermits -= rate * STEP_FIXED / NANOS_PER_SECOND_FIXED;
+            }
+            time += STEP_FIXED;
+        }
+        return time;
+    }
+
+    private long intervalFixedAt(long slotFixed)
+    {
+        final double rate = loadProfile.rateAt(slotFixed >> FRACTION_BITS);
+        if (rate < MIN_RATE_PER_SECOND)
+        {
+            return 0L;
+        }
+        return Math.max(1L, Math.round(NANOS_PER_SECOND_FIXED / rate));
+    }
+
+    private void waitUntil(long deadlineNanos) throws InterruptedException
+    {
+        long remaining;
+        while (!cancelled && (remaining = deadlineNanos - System.nanoTime()) > 0L)
+        {
+            if (Thread.interrupted())
+            {
+                throw new InterruptedException();
+            }
+            if (remaining > SPIN_THRESHOLD_NANOS)
+            {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            }
+            else
+            {
+                Thread.yield();
+            }
+        }
+    }
+
+    private void markEnd()
+    {
+        if (endNanos == 0L)
+        {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    public void cancel()
+    {
+        cancelled = true;
+        markEnd();
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    public LoadProfile getLoadProfile()
+    {
+        return loadProfile;
+    }
+
+    /**
+     * @return the number of permits the load profile asks for over the elapsed time of the run
+     */
+    public double getTargetPermits()
+    {
+        final long elapsed = getElapsedNanos();
+        final double step = (double) elapsed / INTEGRATION_STEPS;
+        double total = 0.0;
+        for (int i = 0; i < INTEGRATION_STEPS; i++)
+        {
+            total += loadProfile.rateAt((long) ((i + 0.5) * step));
+        }
+        return total * step / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public long getIssued()
+    {
+        return issued.sum();
+    }
+
+    public long getSkipped()
+    {
+        return skipped.sum();
+    }
+
+    public long getElapsedNanos()
+    {
+        if (!started)
+        {
+            return 0L;
+        }
+        return ((endNanos == 0L) ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    public double getAchievedRate()
+    {
+        long elapsed = getElapsedNanos();
+        return (elapsed == 0L) ? 0.0 : getIssued() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * @return the distribution of (actual - intended) issue times, in nanoseconds
+     */
+    public LatencyHistogram getDriftHistogram()
+    {
+        return driftHistogram;
+    }
+
+    @Override
+    public StringBuilder appendReport(StringBuilder sb)
+    {
+        final double elapsedSeconds = (double) getElapsedNanos() / TimeUnit.SECONDS.toNanos(1);
+        final double targetPermits = getTargetPermits();
+        sb.append("\n\tTarget events: ").append(Math.round(targetPermits))
+                    .append("\n\tTarget rate per second: ").append(String.format("%.1f", (elapsedSeconds > 0.0) ? targetPermits / elapsedSeconds : 0.0))
+                    .append("\n\tAchieved rate per second: ").append(String.format("%.1f", getAchievedRate()))
+                    .append("\n\tSend drift in micros: ");
+        driftHistogram.appendSummary(sb, 1000L);
+        return sb.append("\n\tPermits skipped (beyond catch-up limit): ").append(getSkipped());
+    }
+
+    private static double requirePositiveRate(double ratePerSecond)
+    {
+        if (ratePerSecond <= 0.0)
+        {
+            throw new IllegalArgumentException("The rate must be greater than zero: " + ratePerSecond);
+        }
+        return ratePerSecond;
+    }
+}
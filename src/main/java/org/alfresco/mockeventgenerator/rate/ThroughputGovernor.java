@@ -0,0 +1,299 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.rate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * A process-wide ceiling on the rate of sends, shared fairly between all the concurrent runs.
+ * <p>
+ * Each run registers a {@link Share} with a weight and acquires a permit from it before every send.
+ * The permits are issued no faster than {@code maxRatePerSecond}, to the waiting senders in the order
+ * of their start-time fair queuing tags: each permit of a share is tagged {@code 1/weight} after the
+ * previous one, so busy shares get permits in proportion to their weights. The scheduling is
+ * work-conserving: a share with nobody waiting takes no part in it, so its unused capacity goes to
+ * the busy ones, and when it becomes busy again it starts from the current virtual time rather
+ * than with credit saved up while idle.
+ * <p>
+ * A zero (the default) or negative {@code maxRatePerSecond} disables the governor; the shares then
+ * never block.
+ */
+@Component
+public class ThroughputGovernor implements RunReport
+{
+    /** The number of closed shares listed in the report; the older ones are only counted */
+    private static final int MAX_RECENT_CLOSED_SHARES = 16;
+
+    private final double maxRatePerSecond;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+    private final Map<String, Share> activeShares = new ConcurrentHashMap<>();
+    /** The last closed shares, oldest first */
+    private final Deque<Share> recentClosedShares = new ArrayDeque<>();
+    private final AtomicLong shareCount = new AtomicLong();
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder throttledNanos = new LongAdder();
+
+    // Guarded by the lock
+    private double virtualTime;
+    private long nextPermitNanos;
+    private long arrivalSequence;
+
+    // Guarded by recentClosedShares
+    private long numOfOlderClosedShares;
+    private long olderClosedSharesGranted;
+
+    public ThroughputGovernor(@Value("${generator.governor.maxRatePerSecond:0}") double maxRatePerSecond,
+                @Value("${generator.governor.burstInMillis:50}") long burstInMillis)
+    {
+        this.maxRatePerSecond = maxRatePerSecond;
+        this.intervalNanos = (maxRatePerSecond > 0.0) ? Math.max(1L, Math.round(TimeUnit.SECONDS.toNanos(1) / maxRatePerSecond)) : 0L;
+        this.burstNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, burstInMillis));
+        this.nextPermitNanos = System.nanoTime();
+    }
+
+    public boolean isEnabled()
+    {
+        return intervalNanos > 0L;
+    }
+
+    /**
+     * Registers a new share of the global capacity. The share must be {@link Share#close() closed}
+     * at the end of the run.
+     *
+     * @param name   a name for the reports
+     * @param weight the relative weight of the share, compared with the other busy shares
+     */
+    public Share register(String name, double weight)
+    {
+        if (weight <= 0.0)
+        {
+            throw new IllegalArgumentException("The weight must be greater than zero: " + weight);
+        }
+        Share share = new Share(name + " #" + shareCount.incrementAndGet(), weight);
+        activeShares.put(share.name, share);
+        return share;
+    }
+
+    private void acquire(Share share) throws InterruptedException
+    {
+        final long arrival = System.nanoTime();
+        lock.lockInterruptibly();
+        try
+        {
+            final double startTag = Math.max(virtualTime, share.finishTag);
+            share.finishTag = startTag + 1.0 / share.weight;
+            final Waiter waiter = new Waiter(startTag, arrivalSequence++, lock.newCondition());
+            waiters.add(waiter);
+            try
+            {
+                while (true)
+                {
+                    if (waiters.peek() == waiter)
+                    {
+                        final long now = System.nanoTime();
+                        final long wait = nextPermitNanos - now;
+                        if (wait <= 0L)
+                        {
+                            waiters.poll();
+                            virtualTime = startTag;
+                            // An idle governor doesn't save up more than the burst allowance
+                            nextPermitNanos = Math.max(nextPermitNanos, now - burstNanos) + intervalNanos;
+                            signalHead();
+                            break;
+                        }
+                        waiter.condition.awaitNanos(wait);
+                    }
+                    else
+                    {
+                        waiter.condition.await();
+                    }
+                }
+            }
+            catch (InterruptedException ex)
+            {
+                waiters.remove(waiter);
+                signalHead();
+                throw ex;
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        share.granted.increment();
+        granted.increment();
+        throttledNanos.add(System.nanoTime() - arrival);
+    }
+
+    private void signalHead()
+    {
+        final Waiter head = waiters.peek();
+        if (head != null)
+        {
+            head.condition.signal();
+        }
+    }
+
+    public long getGranted()
+    {
+        return granted.sum();
+    }
+
+    @Override
+    public StringBuilder appendReport(StringBuilder sb)
+    {
+        if (isEnabled())
+        {
+            final long grantedPermits = getGranted();
+            sb.append("\n\tGovernor ceiling per second: ").append(String.format("%.1f", maxRatePerSecond))
+                        .append("\n\tGovernor permits granted: ").append(grantedPermits)
+                        .append(", mean wait in micros: ")
+                        .append((grantedPermits == 0L) ? 0L : TimeUnit.NANOSECONDS.toMicros(throttledNanos.sum() / grantedPermits));
+            final List<Share> closedShares;
+            synchronized (recentClosedShares)
+            {
+                if (numOfOlderClosedShares > 0L)
+                {
+                    sb.append("\n\t\t").append(numOfOlderClosedShares).append(" older closed share(s) granted: ")
+                                .append(olderClosedSharesGranted);
+                }
+                closedShares = new ArrayList<>(recentClosedShares);
+            }
+            for (Share share : closedShares)
+            {
+                appendShare(sb, share, ", closed");
+            }
+            for (Share share : activeShares.values())
+            {
+                appendShare(sb, share, "");
+            }
+        }
+        return sb;
+    }
+
+    private static void appendShare(StringBuilder sb, Share share, String state)
+    {
+        sb.append("\n\t\t").append(share.name).append(" (weight ").append(share.weight).append(state).append(") granted: ")
+                    .append(share.getGranted());
+    }
+
+    private void closed(Share share)
+    {
+        if (activeShares.remove(share.name) != null)
+        {
+            synchronized (recentClosedShares)
+            {
+                recentClosedShares.addLast(share);
+                if (recentClosedShares.size() > MAX_RECENT_CLOSED_SHARES)
+                {
+                    final Share oldest = recentClosedShares.removeFirst();
+                    numOfOlderClosedShares++;
+                    olderClosedSharesGranted += oldest.getGranted();
+                }
+            }
+        }
+    }
+
+    /**
+     * A run's share of the global capacity.
+     */
+    public class Share implements AutoCloseable
+    {
+        private final String name;
+        private final double weight;
+        private final LongAdder granted = new LongAdder();
+        // Guarded by the governor's lock
+        private double finishTag;
+
+        private Share(String name, double weight)
+        {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        /**
+         * Blocks until the governor issues this share its next permit. Returns immediately if the
+         * governor is disabled.
+         */
+        public void acquire() throws InterruptedException
+        {
+            if (isEnabled())
+            {
+                ThroughputGovernor.this.acquire(this);
+            }
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public double getWeight()
+        {
+            return weight;
+        }
+
+        public long getGranted()
+        {
+            return granted.sum();
+        }
+
+        @Override
+        public void close()
+        {
+            closed(this);
+        }
+    }
+
+    private static class Waiter implements Comparable<Waiter>
+    {
+        private final double startTag;
+        private final long sequence;
+        private final Condition condition;
+
+        Waiter(double startTag, long sequence, Condition condition)
+        {
+            this.startTag = startTag;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+
+        @Override
+        public int compareTo(Waiter other)
+        {
+            int result = Double.compare(startTag, other.startTag);
+            return (result != 0) ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.alfresco.event.model.HierarchyEntry;
+import org.alfresco.mockeventgenerator.lifecycle.FolderCatalog;
+import org.alfresco.mockeventgenerator.util.IdGenerator;
+import org.alfresco.mockeventgenerator.util.RandomStreams;
+
+/**
+ * A synthetic repository: {@code /Company Home/Sites}, the sites with their document libraries,
+ * and in each document library a tree of folders of the given depth and fan-out.
+ * <p>
+ * The events pick a folder and take its ancestry from here, so the events of the same folder share
+ * their ancestors as they would in a real repository. All the per-folder values (the primary hierarchy,
+ * the parent node ids and the paths) are built once, as immutable lists, so picking a folder allocates
+ * nothing; the tree takes a few hundred bytes of heap per folder. The ids are derived from the position
+ * of the nodes, so the tree is the same on every run.
+ */
+public class RepositoryTree implements FolderCatalog
+{
+    private static final String NODE_TYPE = "Node";
+    private static final long COMPANY_HOME_NAMESPACE = 0x10L;
+    private static final long SITES_NAMESPACE = 0x11L;
+    private static final long SITE_NAMESPACE = 0x12L;
+    private static final long DOCUMENT_LIBRARY_NAMESPACE = 0x13L;
+    private static final long FOLDER_NAMESPACE = 0x14L;
+    private static final int MAX_NUM_OF_FOLDERS = 5_000_000;
+
+    private final int numOfSites;
+    private final int foldersPerSite;
+    private final String[] siteIds;
+    private final String[] folderIds;
+    private final String[] folderNames;
+    private final List<HierarchyEntry>[] contentHierarchies;
+    private final List<HierarchyEntry>[] folderHierarchies;
+    private final List<List<String>>[] contentParentIds;
+    private final List<List<String>>[] folderParentIds;
+    private final String[] contentPathPrefixes;
+    private final List<String>[] folderPaths;
+
+    /**
+     * @param numOfSites the number of sites
+     * @param depth      the number of folder levels in each document library
+     * @param fanOut     the number of subfolders of each folder, and of folders at the root of each document library
+     */
+    @SuppressWarnings("unchecked")
+    public RepositoryTree(int numOfSites, int depth, int fanOut)
+    {
+        if (numOfSites < 1 || depth < 1 || fanOut < 1)
+        {
+            throw new IllegalArgumentException("The number of sites, the depth and the fan-out must be at least 1, got "
+                        + numOfSites + ", " + depth + " and " + fanOut);
+        }
+        // Stops at the first level that goes over the maximum, before the sizes can overflow
+        final long maxPerSite = MAX_NUM_OF_FOLDERS / numOfSites;
+        long perSite = 0L;
+        long levelSize = 1L;
+        for (int level = 1; level <= depth; level++)
+        {
+            levelSize *= fanOut;
+            perSite += levelSize;
+            if (perSite > maxPerSite)
+            {
+                throw new IllegalArgumentException("The tree would hold more than " + MAX_NUM_OF_FOLDERS + " folders, its maximum. "
+                            + "Reduce the number of sites, the depth or the fan-out.");
+            }
+        }
+        this.numOfSites = numOfSites;
+        this.foldersPerSite = (int) perSite;
+        final int numOfFolders = foldersPerSite * numOfSites;
+        this.siteIds = new String[numOfSites];
+        this.folderIds = new String[numOfFolders];
+        this.folderNames = new String[numOfFolders];
+        this.contentHierarchies = new List[numOfFolders];
+        this.folderHierarchies = new List[numOfFolders];
+        this.contentParentIds = new List[numOfFolders];
+        this.folderParentIds = new List[numOfFolders];
+        this.contentPathPrefixes = new String[numOfFolders];
+        this.folderPaths = new List[numOfFolders];
+
+        final HierarchyEntry companyHome = new HierarchyEntry(IdGenerator.derive(COMPANY_HOME_NAMESPACE, 0), NODE_TYPE);
+        final HierarchyEntry sites = new HierarchyEntry(IdGenerator.derive(SITES_NAMESPACE, 0), NODE_TYPE);
+        for (int site = 0; site < numOfSites; site++)
+        {
+            siteIds[site] = "site" + site;
+            // The ancestors of the folders at the root of the document library, nearest first
+            List<HierarchyEntry> rootAncestors = new ArrayList<>(4);
+            rootAncestors.add(new HierarchyEntry(IdGenerator.derive(DOCUMENT_LIBRARY_NAMESPACE, site), NODE_TYPE));
+            rootAncestors.add(new HierarchyEntry(IdGenerator.derive(SITE_NAMESPACE, site), NODE_TYPE));
+            rootAncestors.add(sites);
+            rootAncestors.add(companyHome);
+            buildLevel(site * foldersPerSite, fanOut, depth, Collections.unmodifiableList(rootAncestors),
+                        "/Company Home/Sites/" + siteIds[site] + "/documentLibrary");
+        }
+    }
+
+    /**
+     * Builds the given number of sibling folders from the given index, and their subfolders, depth first.
+     *
+     * @return the index after the last folder built
+     */
+    private int buildLevel(int index, int numOfSiblings, int remainingDepth, List<HierarchyEntry> ancestors, String parentPath)
+    {
+        final List<List<String>> parentIds = Collections.singletonList(toIds(ancestors));
+        for (int sibling = 0; sibling < numOfSiblings; sibling++)
+        {
+            final int folder = index++;
+            folderIds[folder] = IdGenerator.derive(FOLDER_NAMESPACE, folder);
+            folderNames[folder] = "folder" + sibling;
+            final String path = parentPath + '/' + folderNames[folder];
+
+            List<HierarchyEntry> hierarchy = new ArrayList<>(ancestors.size() + 1);
+            hierarchy.add(new HierarchyEntry(folderIds[folder], NODE_TYPE));
+            hierarchy.addAll(ancestors);
+            contentHierarchies[folder] = Collections.unmodifiableList(hierarchy);
+            folderHierarchies[folder] = ancestors;
+            contentParentIds[folder] = Collections.singletonList(toIds(contentHierarchies[folder]));
+            folderParentIds[folder] = parentIds;
+            contentPathPrefixes[folder] = path + '/';
+            folderPaths[folder] = Collections.singletonList(path);
+
+            if (remainingDepth > 1)
+            {
+                index = buildLevel(index, numOfSiblings, remainingDepth - 1, contentHierarchies[folder], path);
+            }
+        }
+        return index;
+    }
+
+    private static List<String> toIds(List<HierarchyEntry> entries)
+    {
+        List<String> ids = new ArrayList<>(entries.size());
+        for (HierarchyEntry entry : entries)
+        {
+            ids.add(entry.getId());
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    @Override
+    public int getNumOfFolders()
+    {
+        return folderIds.length;
+    }
+
+    @Override
+    public int nextFolder()
+    {
+        return RandomStreams.nextInt(folderIds.length);
+    }
+
+    @Override
+    public int getSite(int folder)
+    {
+        return folder / foldersPerSite;
+    }
+
+    public int getNumOfSites()
+    {
+        return numOfSites;
+    }
+
+    public String getSiteId(int folder)
+    {
+        return siteIds[getSite(folder)];
+    }
+
+    public String getFolderId(int folder)
+    {
+        return folderIds[folder];
+    }
+
+    public String getFolderName(int folder)
+    {
+        return folderNames[folder];
+    }
+
+    /**
+     * @return the primary hierarchy of a node in the given folder: the folder, then its ancestors up to Company Home
+     */
+    @Override
+    public List<HierarchyEntry> getHierarchy(int folder)
+    {
+        return contentHierarchies[folder];
+    }
+
+    /**
+     * @return the primary hierarchy of the folder itself
+     */
+    public List<HierarchyEntry> getFolderHierarchy(int folder)
+    {
+        return folderHierarchies[folder];
+    }
+
+    /**
+     * @return the ids of the ancestors of a node in the given folder, as the single primary path of the raw events
+     */
+    public List<List<String>> getContentParentIds(int folder)
+    {
+        return contentParentIds[folder];
+    }
+
+    /**
+     * @return the ids of the ancestors of the folder itself, as the single primary path of the raw events
+     */
+    public List<List<String>> getFolderParentIds(int folder)
+    {
+        return folderParentIds[folder];
+    }
+
+    /**
+     * @return the path of the folder followed by a slash, to append the name of a node in the folder to
+     */
+    public String getContentPathPrefix(int folder)
+    {
+        return contentPathPrefixes[folder];
+    }
+
+    /**
+     * @return the path of the folder itself, as the single path of the raw events
+     */
+    public List<String> getFolderPaths(int folder)
+    {
+        return folderPaths[folder];
+    }
+}
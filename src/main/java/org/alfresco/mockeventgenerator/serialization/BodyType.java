@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.serialization;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * The type of the message bodies handed to Camel.
+ */
+public enum BodyType
+{
+    /**
+     * JSON strings, which Camel encodes to bytes for the wire. The JMS routes send them as text messages.
+     * The events in a binary {@link WireFormat} are bytes whatever the body type.
+     */
+    STRING()
+    {
+        @Override
+        public Object toBody(EventSerializer serializer, Object event) throws JsonProcessingException
+        {
+            return serializer.getFormat().isBinary() ? BYTES.toBody(serializer, event) : serializer.writeString(event);
+        }
+    },
+
+    /**
+     * UTF-8 JSON bytes, written straight from the events without an intermediate string. The JMS routes
+     * send them as bytes messages; the Kafka route is switched to Kafka's {@code ByteArraySerializer}.
+     */
+    BYTES()
+    {
+        @Override
+        public Object toBody(EventSerializer serializer, Object event) throws JsonProcessingException
+        {
+            return (event instanceof byte[]) ? event : serializer.writeBytes(event);
+        }
+    };
+
+    /**
+     * @return the body of the message of the given event, or of its already serialized form
+     */
+    public abstract Object toBody(EventSerializer serializer, Object event) throws JsonProcessingException;
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.serialization;
+
+/**
+ * A serialized message body that carries its own {@link WireFormat}, for the bodies whose format isn't the
+ * producer's, e.g. those of the categories of a mix that are sent in a binary format.
+ */
+public final class EncodedBody
+{
+    private final byte[] body;
+    private final WireFormat format;
+
+    public EncodedBody(byte[] body, WireFormat format)
+    {
+        this.body = body;
+        this.format = format;
+    }
+
+    public byte[] getBody()
+    {
+        return body;
+    }
+
+    public WireFormat getFormat()
+    {
+        return format;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.serialization;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.alfresco.event.model.EventV1;
+
+import com.fasterxml.jackson.core.FormatSchema;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Serializes the events with one {@link ObjectWriter} per concrete event class, created on first use, so the
+ * serializer of the event's type is only looked up once rather than for every event.
+ * <p>
+ * {@link #writeBytes(Object)} writes the UTF-8 JSON straight into a per-thread buffer that is reused from one
+ * event to the next, so the only allocation per message is the returned array, instead of the char[], the
+ * String and the byte[] of encoding a JSON string.
+ * <p>
+ * With a binary {@link WireFormat}, the same writers write to a generator of that format instead, and the
+ * pre-serialized JSON events (strings) are transcoded token by token. The Avro schemas are generated once per
+ * event type; for the public events, whose resource is generic, the type includes the class of the resource.
+ */
+public class EventSerializer
+{
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    /** A buffer that grew larger than this for a huge event is dropped rather than kept for the next ones */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+    private static final ThreadLocal<ReusableBuffer> BUFFER = ThreadLocal.withInitial(ReusableBuffer::new);
+
+    private final ObjectMapper mapper;
+    private final WireFormat format;
+    private final JsonFactory factory;
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<JavaType, FormatSchema> schemas = new ConcurrentHashMap<>();
+
+    /**
+     * @param mapper the mapper of the events, whatever the format
+     * @param format the format to write the events in
+     */
+    public EventSerializer(ObjectMapper mapper, WireFormat format)
+    {
+        this.mapper = format.adaptMapper(mapper);
+        this.format = format;
+        this.factory = format.createFactory();
+    }
+
+    /**
+     * @return the event as a JSON string; a string is returned as is
+     * @throws IllegalStateException if the format is binary
+     */
+    public String writeString(Object event) throws JsonProcessingException
+    {
+        if (format.isBinary())
+        {
+            throw new IllegalStateException("The " + format + " events can only be written as bytes.");
+        }
+        return (event instanceof String) ? (String) event : getWriter(event.getClass()).writeValueAsString(event);
+    }
+
+    /**
+     * @return the event as UTF-8 JSON bytes, or in the binary format; a string is taken as the JSON of an event
+     */
+    public byte[] writeBytes(Object event) throws JsonProcessingException
+    {
+        if (event instanceof String && factory == null)
+        {
+            return ((String) event).getBytes(StandardCharsets.UTF_8);
+        }
+        final ReusableBuffer buffer = BUFFER.get();
+        buffer.reset();
+        try
+        {
+            if (factory == null)
+            {
+                getWriter(event.getClass()).writeValue(buffer, event);
+            }
+            else
+            {
+                writeBinary(event, buffer);
+            }
+        }
+        catch (JsonProcessingException ex)
+        {
+            throw ex;
+        }
+        catch (IOException ex)
+        {
+            // Can't happen when writing to memory
+            throw JsonMappingException.fromUnexpectedIOE(ex);
+        }
+        final byte[] bytes = buffer.toByteArray();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE)
+        {
+            BUFFER.remove();
+        }
+        return bytes;
+    }
+
+    private void writeBinary(Object event, OutputStream out) throws IOException
+    {
+        try (JsonGenerator generator = factory.createGenerator(out))
+        {
+            if (event instanceof String)
+            {
+                if (format.hasSchema())
+                {
+                    throw JsonMappingException.from(generator, "Pre-serialized JSON events can't be written as " + format + '.');
+                }
+                try (JsonParser parser = mapper.getFactory().createParser((String) event))
+                {
+                    parser.nextToken();
+                    generator.copyCurrentStructure(parser);
+                }
+            }
+            else
+            {
+                if (format.hasSchema())
+                {
+                    generator.setSchema(getSchema(event));
+                }
+                getWriter(event.getClass()).writeValue(generator, event);
+            }
+        }
+    }
+
+    private FormatSchema getSchema(Object event) throws JsonMappingException
+    {
+        final JavaType type = getSchemaType(event);
+        FormatSchema schema = schemas.get(type);
+        if (schema == null)
+        {
+            schema = format.createSchema(mapper, type);
+            schemas.putIfAbsent(type, schema);
+        }
+        return schema;
+    }
+
+    private JavaType getSchemaType(Object event)
+    {
+        if (event instanceof EventV1 && ((EventV1<?>) event).getResource() != null)
+        {
+            return mapper.getTypeFactory().constructParametricType(EventV1.class, ((EventV1<?>) event).getResource().getClass());
+        }
+        return mapper.constructType(event.getClass());
+    }
+
+    /**
+     * @return the writer of the given event class
+     */
+    public ObjectWriter getWriter(Class<?> eventClass)
+    {
+        return writers.computeIfAbsent(eventClass, mapper::writerFor);
+    }
+
+    public ObjectMapper getMapper()
+    {
+        return mapper;
+    }
+
+    public WireFormat getFormat()
+    {
+        return format;
+    }
+
+    /**
+     * A growable byte array output stream that, unlike {@code ByteArrayOutputStream}, isn't synchronized.
+     */
+    private static final class ReusableBuffer extends OutputStream
+    {
+        private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        private int count;
+
+        void reset()
+        {
+            count = 0;
+        }
+
+        int capacity()
+        {
+            return bytes.length;
+        }
+
+        byte[] toByteArray()
+        {
+            return Arrays.copyOf(bytes, count);
+        }
+
+        @Override
+        public void write(int b)
+        {
+            ensureCapacity(count + 1);
+            bytes[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, bytes, count, len);
+            count += len;
+        }
+
+        private void ensureCapacity(int minCapacity)
+        {
+            if (minCapacity > bytes.length)
+            {
+                bytes = Arrays.copyOf(bytes, Math.max(minCapacity, bytes.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.serialization;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatVisitorWrapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes the bean properties that have no static type (e.g. {@code Object}, or a map of {@code Serializable}
+ * values), for which no Avro schema can be generated, as strings holding their JSON.
+ */
+class UntypedValuesAsJson extends SimpleModule
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param jsonWriter writes the JSON of the untyped values
+     */
+    UntypedValuesAsJson(ObjectWriter jsonWriter)
+    {
+        super(UntypedValuesAsJson.class.getSimpleName());
+        final JsonStringSerializer serializer = new JsonStringSerializer(jsonWriter);
+        setSerializerModifier(new BeanSerializerModifier()
+        {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                        List<BeanPropertyWriter> beanProperties)
+            {
+                for (BeanPropertyWriter property : beanProperties)
+                {
+                    if (isUntyped(property.getType()))
+                    {
+                        property.assignSerializer(serializer);
+                    }
+                }
+                return beanProperties;
+            }
+        });
+    }
+
+    private static boolean isUntyped(JavaType type)
+    {
+        if (type.isContainerType())
+        {
+            return isUntyped(type.getContentType());
+        }
+        return type.isJavaLangObject() || type.isInterface();
+    }
+
+    private static final class JsonStringSerializer extends StdSerializer<Object>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ObjectWriter jsonWriter;
+
+        JsonStringSerializer(ObjectWriter jsonWriter)
+        {
+            super(Object.class);
+            this.jsonWriter = jsonWriter;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException
+        {
+            gen.writeString(jsonWriter.writeValueAsString(value));
+        }
+
+        @Override
+        public void acceptJsonFormatVisitor(JsonFormatVisitorWrapper visitor, JavaType typeHint) throws JsonMappingException
+        {
+            visitor.expectStringFormat(typeHint);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.serialization;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.camel.Exchange;
+
+import com.fasterxml.jackson.core.FormatSchema;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroFactory;
+import com.fasterxml.jackson.dataformat.avro.schema.AvroSchemaGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * The encodings of the events on the wire. The binary ones are written by the same mapper as the JSON,
+ * with the same configuration, only to a generator of another format.
+ */
+public enum WireFormat
+{
+    JSON("application/json")
+    {
+        @Override
+        public JsonFactory createFactory()
+        {
+            return null;
+        }
+    },
+
+    /**
+     * Jackson's binary JSON, with back references to the repeated property names and short strings.
+     */
+    SMILE("application/x-jackson-smile")
+    {
+        @Override
+        public JsonFactory createFactory()
+        {
+            return new SmileFactory();
+        }
+    },
+
+    /**
+     * Concise Binary Object Representation (RFC 7049).
+     */
+    CBOR("application/cbor")
+    {
+        @Override
+        public JsonFactory createFactory()
+        {
+            return new CBORFactory();
+        }
+    },
+
+    /**
+     * Avro binary encoding, without the property names, against a schema generated from the type of each event.
+     * The consumers must generate the same schemas, or get them from somewhere else, to read the events.
+     * The properties without a static type (e.g. maps of {@code Object} or {@code Serializable} values) are
+     * written as strings holding their JSON. Pre-serialized JSON events can't be written as Avro.
+     */
+    AVRO("avro/binary")
+    {
+        @Override
+        public JsonFactory createFactory()
+        {
+            return new AvroFactory();
+        }
+
+        @Override
+        public FormatSchema createSchema(ObjectMapper mapper, JavaType type) throws JsonMappingException
+        {
+            AvroSchemaGenerator generator = new AvroSchemaGenerator();
+            mapper.acceptJsonFormatVisitor(type, generator);
+            return generator.getGeneratedSchema();
+        }
+
+        @Override
+        public boolean hasSchema()
+        {
+            return true;
+        }
+
+        @Override
+        public ObjectMapper adaptMapper(ObjectMapper mapper)
+        {
+            return mapper.copy().registerModule(new UntypedValuesAsJson(mapper.writer()));
+        }
+    };
+
+    private final String contentType;
+    private final Map<String, Object> contentTypeHeaders;
+
+    WireFormat(String contentType)
+    {
+        this.contentType = contentType;
+        this.contentTypeHeaders = Collections.singletonMap(Exchange.CONTENT_TYPE, contentType);
+    }
+
+    /**
+     * @return a new factory of the generators of this format, or null for JSON, which is written by the mapper's own factory
+     */
+    public abstract JsonFactory createFactory();
+
+    /**
+     * @return the schema to write the values of the given type with
+     * @throws UnsupportedOperationException if the format has no schemas
+     */
+    public FormatSchema createSchema(ObjectMapper mapper, JavaType type) throws JsonMappingException
+    {
+        throw new UnsupportedOperationException(this + " has no schemas.");
+    }
+
+    /**
+     * @return the mapper to write the events in this format with, configured like the given JSON mapper
+     */
+    public ObjectMapper adaptMapper(ObjectMapper mapper)
+    {
+        return mapper;
+    }
+
+    /**
+     * @return whether each value must be written with a schema of its type
+     */
+    public boolean hasSchema()
+    {
+        return false;
+    }
+
+    public boolean isBinary()
+    {
+        return this != JSON;
+    }
+
+    public String getContentType()
+    {
+        return contentType;
+    }
+
+    /**
+     * @return the given message headers, with the content type of this format
+     */
+    public Map<String, Object> withContentType(Map<String, Object> headers)
+    {
+        if (headers.isEmpty())
+        {
+            return contentTypeHeaders;
+        }
+        Map<String, Object> merged = new HashMap<>(headers);
+        merged.put(Exchange.CONTENT_TYPE, contentType);
+        return merged;
+    }
+}
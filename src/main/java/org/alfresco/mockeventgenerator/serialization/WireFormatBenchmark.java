@@ -0,0 +1,205 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.serialization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.metrics.RunReport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Compares the {@link WireFormat wire formats}: encodes the same sample messages of each category in every format,
+ * and reports their mean encoded size, relative to JSON, and their mean encode time. Each format encodes the
+ * sample a few times before it is timed, so the writers and schemas are created and the code is warmed up.
+ */
+public class WireFormatBenchmark implements RunReport
+{
+    private static final WireFormat[] FORMATS = WireFormat.values();
+    private static final int WARM_UP_PASSES = 3;
+
+    private final int numOfMessages;
+    private final Map<EventTypeCategory, Result[]> results = new EnumMap<>(EventTypeCategory.class);
+
+    /**
+     * @param numOfMessages the number of sample messages to encode per category
+     */
+    public WireFormatBenchmark(int numOfMessages)
+    {
+        this.numOfMessages = Math.max(1, numOfMessages);
+    }
+
+    /**
+     * Measures the given categories, one after the other.
+     */
+    public WireFormatBenchmark run(Collection<EventTypeCategory> categories)
+    {
+        for (EventTypeCategory category : categories)
+        {
+            final List<Object> messages = sample(category);
+            final Result[] categoryResults = new Result[FORMATS.length];
+            for (WireFormat format : FORMATS)
+            {
+                categoryResults[format.ordinal()] = measure(new EventSerializer(category.createObjectMapper(), format), messages);
+            }
+            results.put(category, categoryResults);
+        }
+        return this;
+    }
+
+    /**
+     * @return the {@link EventTypeCategory#getSampleEvents() sample events} of the category, one message per event,
+     * repeated up to the number of messages. Unlike random events, they don't move the simulators, the seeded
+     * random streams or the clock of the live generation on.
+     */
+    private List<Object> sample(EventTypeCategory category)
+    {
+        final List<Object> sampleMessages = new ArrayList<>();
+        for (Object event : category.getSampleEvents())
+        {
+            if (event instanceof Collection)
+            {
+                sampleMessages.addAll((Collection<?>) event);
+            }
+            else
+            {
+                sampleMessages.add(event);
+            }
+        }
+        List<Object> messages = new ArrayList<>(numOfMessages);
+        while (!sampleMessages.isEmpty() && messages.size() < numOfMessages)
+        {
+            messages.add(sampleMessages.get(messages.size() % sampleMessages.size()));
+        }
+        return messages;
+    }
+
+    private static Result measure(EventSerializer serializer, List<Object> messages)
+    {
+        try
+        {
+            for (int i = 0; i < WARM_UP_PASSES; i++)
+            {
+                encodeAll(serializer, messages);
+            }
+            final long start = System.nanoTime();
+            final long bytes = encodeAll(serializer, messages);
+            return new Result(messages.size(), bytes, System.nanoTime() - start, null);
+        }
+        catch (JsonProcessingException ex)
+        {
+            return new Result(messages.size(), 0L, 0L, ex.getOriginalMessage());
+        }
+        catch (RuntimeException ex)
+        {
+            return new Result(messages.size(), 0L, 0L, ex.toString());
+        }
+    }
+
+    private static long encodeAll(EventSerializer serializer, List<Object> messages) throws JsonProcessingException
+    {
+        long bytes = 0L;
+        for (Object message : messages)
+        {
+            bytes += serializer.writeBytes(message).length;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the result of the given category in the given format, or null if the category wasn't measured
+     */
+    public Result getResult(EventTypeCategory category, WireFormat format)
+    {
+        final Result[] categoryResults = results.get(category);
+        return (categoryResults == null) ? null : categoryResults[format.ordinal()];
+    }
+
+    @Override
+    public StringBuilder appendReport(StringBuilder sb)
+    {
+        sb.append("\n\tWire formats (").append(numOfMessages).append(" sample messages per category):");
+        for (Map.Entry<EventTypeCategory, Result[]> entry : results.entrySet())
+        {
+            sb.append("\n\t\t").append(entry.getKey()).append(':');
+            final Result json = entry.getValue()[WireFormat.JSON.ordinal()];
+            for (WireFormat format : FORMATS)
+            {
+                final Result result = entry.getValue()[format.ordinal()];
+                sb.append("\n\t\t\t").append(format).append(": ");
+                if (!result.isSupported())
+                {
+                    sb.append("not supported (").append(result.getFailure()).append(')');
+                    continue;
+                }
+                sb.append(String.format("mean size=%.0f bytes", result.getMeanSize()));
+                if (json.isSupported())
+                {
+                    sb.append(String.format(" (%.1f%% of JSON)", result.getMeanSize() * 100.0 / json.getMeanSize()));
+                }
+                sb.append(String.format(", mean encode time=%.2f us", result.getMeanEncodeNanos() / 1000.0));
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * The encoded size and encode time of the sample messages of a category in a format.
+     */
+    public static final class Result
+    {
+        private final int numOfMessages;
+        private final long bytes;
+        private final long nanos;
+        private final String failure;
+
+        Result(int numOfMessages, long bytes, long nanos, String failure)
+        {
+            this.numOfMessages = numOfMessages;
+            this.bytes = bytes;
+            this.nanos = nanos;
+            this.failure = failure;
+        }
+
+        public boolean isSupported()
+        {
+            return failure == null;
+        }
+
+        /**
+         * @return why the messages couldn't be encoded in the format, or null if they could
+         */
+        public String getFailure()
+        {
+            return failure;
+        }
+
+        public double getMeanSize()
+        {
+            return (double) bytes / numOfMessages;
+        }
+
+        public double getMeanEncodeNanos()
+        {
+            return (double) nanos / numOfMessages;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.skeleton;
+
+import java.util.Date;
+import java.util.List;
+
+import org.alfresco.event.model.HierarchyEntry;
+
+/**
+ * The values that change from one public event to the next: ids, user and group names, permissions,
+ * timestamps, dates and node ancestries. Everything else in an event only depends on its type.
+ */
+public interface EventInputs
+{
+    String uuid();
+
+    String userName();
+
+    String group();
+
+    String permission();
+
+    long currentTimeMillis();
+
+    Date currentDate();
+
+    List<HierarchyEntry> nodeHierarchy();
+}
@@ -0,0 +1,503 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.skeleton;
+
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.alfresco.event.model.HierarchyEntry;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * The serialized form of an event shape, i.e. of the event (or list of events) one event type generates, with
+ * a slot for each of its {@link EventInputs inputs}. Rendering it only generates the inputs and writes them
+ * between the constant parts of the JSON, without building the events or going through the object mapper,
+ * and gives the same text as the mapper would for the events built from the same inputs.
+ * <p>
+ * A skeleton is compiled by running the event's generator once with marker inputs, and serializing what it
+ * returns with the mapper: the markers are then replaced by the slots of their input. An input used more than
+ * once, e.g. a process instance id, is generated and written once per rendering, then copied to all its places.
+ * The generator must take its inputs in the same order, and build events of the same shape, whatever their
+ * values. Skeletons are safe to render from any number of threads.
+ */
+public final class EventSkeleton
+{
+    /** 19 digit timestamps, far beyond any real one */
+    private static final long MILLIS_MARKER_BASE = 7_000_000_000_000_000_000L;
+    /** 3000-01-01, a second apart */
+    private static final long DATE_MARKER_BASE = 32_503_680_000_000L;
+    private static final String SENTINEL_PREFIX = "@@SLOT:v";
+    private static final String SENTINEL_SUFFIX = "@@";
+    private static final String QUOTED_SENTINEL_START = '"' + SENTINEL_PREFIX;
+    private static final String QUOTED_SENTINEL_END = SENTINEL_SUFFIX + '"';
+    private static final int ENTRY_ID = 0;
+    private static final int ENTRY_TYPE = 1;
+    /** Per-thread buffers, reused across renderings of all the skeletons */
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    /**
+     * The kinds of input, how each is taken from the {@link EventInputs} and written as JSON.
+     */
+    private enum Input
+    {
+        UUID()
+        {
+            @Override
+            void appendNext(StringBuilder sb, EventInputs inputs, EventSkeleton skeleton)
+            {
+                appendQuoted(sb, inputs.uuid());
+            }
+        },
+        USER_NAME()
+        {
+            @Override
+            void appendNext(StringBuilder sb, EventInputs inputs, EventSkeleton skeleton)
+            {
+                appendQuoted(sb, inputs.userName());
+            }
+        },
+        GROUP()
+        {
+            @Override
+            void appendNext(StringBuilder sb, EventInputs inputs, EventSkeleton skeleton)
+            {
+                appendQuoted(sb, inputs.group());
+            }
+        },
+        PERMISSION()
+        {
+            @Override
+            void appendNext(StringBuilder sb, EventInputs inputs, EventSkeleton skeleton)
+            {
+                appendQuoted(sb, inputs.permission());
+            }
+        },
+        MILLIS()
+        {
+            @Override
+            void appendNext(StringBuilder sb, EventInputs inputs, EventSkeleton skeleton)
+            {
+                sb.append(inputs.currentTimeMillis());
+            }
+        },
+        DATE()
+        {
+            @Override
+            void appendNext(StringBuilder sb, EventInputs inputs, EventSkeleton skeleton)
+            {
+                skeleton.appendDate(sb, inputs.currentDate());
+            }
+        },
+        HIERARCHY()
+        {
+            @Override
+            void appendNext(StringBuilder sb, EventInputs inputs, EventSkeleton skeleton)
+            {
+                skeleton.appendHierarchy(sb, inputs.nodeHierarchy());
+            }
+        };
+
+        /**
+         * Takes the next value of this input, and appends it as the mapper writes it.
+         */
+        abstract void appendNext(StringBuilder sb, EventInputs inputs, EventSkeleton skeleton);
+    }
+
+    /**
+     * A serialized document split into its literal text and the indexes of the variables between them.
+     */
+    private static final class Document
+    {
+        private final String[] literals;
+        private final int[] variables;
+        private final int literalLength;
+
+        private Document(String[] literals, int[] variables)
+        {
+            this.literals = literals;
+            this.variables = variables;
+            int length = 0;
+            for (String literal : literals)
+            {
+                length += literal.length();
+            }
+            this.literalLength = length;
+        }
+    }
+
+    /**
+     * The buffers of a thread: the JSON of all the inputs one after the other, then the output.
+     */
+    private static final class Buffers
+    {
+        private final StringBuilder values = new StringBuilder(1024);
+        private final StringBuilder output = new StringBuilder(4096);
+        private int[] ends = new int[64];
+        private char[] chars = new char[1024];
+
+        private int[] ends(int numOfInputs)
+        {
+            if (ends.length < numOfInputs)
+            {
+                ends = new int[numOfInputs];
+            }
+            return ends;
+        }
+
+        private char[] chars(int length)
+        {
+            if (chars.length < length)
+            {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            return chars;
+        }
+    }
+
+    private final Input[] inputs;
+    private final Document[] documents;
+    private final Document hierarchyEntry;
+    private final boolean datesAsTimestamps;
+    private final ThreadLocal<DateFormat> dateFormat;
+
+    private EventSkeleton(Recorder recorder, List<String> serializedDocuments)
+    {
+        this.inputs = recorder.inputs.toArray(new Input[0]);
+        this.hierarchyEntry = recorder.hierarchyEntry;
+        this.datesAsTimestamps = recorder.datesAsTimestamps;
+        this.dateFormat = ThreadLocal.withInitial(() -> (DateFormat) recorder.dateFormat.clone());
+        this.documents = new Document[serializedDocuments.size()];
+        for (int i = 0; i < documents.length; i++)
+        {
+            documents[i] = split(serializedDocuments.get(i), inputs.length);
+        }
+    }
+
+    /**
+     * Compiles the skeleton of the events the given generator builds.
+     *
+     * @param mapper    the mapper the events are serialized with
+     * @param generator builds an event, or a list of events, from the given inputs
+     * @throws IllegalStateException if the events can't be serialized
+     */
+    public static EventSkeleton compile(ObjectMapper mapper, Function<EventInputs, ?> generator)
+    {
+        Recorder recorder = new Recorder(mapper);
+        final Object shape = generator.apply(recorder);
+        final List<?> events = (shape instanceof List) ? (List<?>) shape : Collections.singletonList(shape);
+        List<String> serializedDocuments = new ArrayList<>(events.size());
+        for (Object event : events)
+        {
+            serializedDocuments.add(recorder.toSlots(recorder.serialize(event)));
+        }
+        return new EventSkeleton(recorder, serializedDocuments);
+    }
+
+    /**
+     * Splits the given document at its quoted sentinels, named after their variable index.
+     */
+    private static Document split(String document, int numOfVariables)
+    {
+        List<String> literals = new ArrayList<>();
+        List<Integer> variables = new ArrayList<>();
+        int position = 0;
+        int start;
+        while ((start = document.indexOf(QUOTED_SENTINEL_START, position)) >= 0)
+        {
+            final int end = document.indexOf(QUOTED_SENTINEL_END, start + QUOTED_SENTINEL_START.length());
+            int variable = -1;
+            try
+            {
+                variable = (end < 0) ? -1 : Integer.parseInt(document.substring(start + QUOTED_SENTINEL_START.length(), end));
+            }
+            catch (NumberFormatException ex)
+            {
+                // Reported below
+            }
+            if (variable < 0 || variable >= numOfVariables)
+            {
+                throw new IllegalStateException("Unexpected slot at offset " + start + " of: " + document);
+            }
+            literals.add(document.substring(position, start));
+            variables.add(variable);
+            position = end + QUOTED_SENTINEL_END.length();
+        }
+        literals.add(document.substring(position));
+        return new Document(literals.toArray(new String[0]), variables.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Renders the events of this skeleton, with fresh values of all the inputs, taken in the order the
+     * generator took them.
+     *
+     * @return the serialized events, one per event built by the generator
+     */
+    public List<String> render(EventInputs eventInputs)
+    {
+        final Buffers buffers = BUFFERS.get();
+        final StringBuilder values = buffers.values;
+        final int[] ends = buffers.ends(inputs.length);
+        values.setLength(0);
+        for (int i = 0; i < inputs.length; i++)
+        {
+            inputs[i].appendNext(values, eventInputs, this);
+            ends[i] = values.length();
+        }
+        final char[] chars = buffers.chars(values.length());
+        values.getChars(0, values.length(), chars, 0);
+
+        if (documents.length == 1)
+        {
+            return Collections.singletonList(render(documents[0], buffers.output, chars, ends));
+        }
+        List<String> rendered = new ArrayList<>(documents.length);
+        for (Document document : documents)
+        {
+            rendered.add(render(document, buffers.output, chars, ends));
+        }
+        return rendered;
+    }
+
+    private static String render(Document document, StringBuilder sb, char[] values, int[] ends)
+    {
+        sb.setLength(0);
+        final int[] variables = document.variables;
+        for (int i = 0; i < variables.length; i++)
+        {
+            final int variable = variables[i];
+            final int start = (variable == 0) ? 0 : ends[variable - 1];
+            sb.append(document.literals[i]).append(values, start, ends[variable] - start);
+        }
+        return sb.append(document.literals[variables.length]).toString();
+    }
+
+    public int getNumOfEvents()
+    {
+        return documents.length;
+    }
+
+    private void appendDate(StringBuilder sb, Date date)
+    {
+        if (datesAsTimestamps)
+        {
+            sb.append(date.getTime());
+        }
+        else
+        {
+            sb.append('"').append(dateFormat.get().format(date)).append('"');
+        }
+    }
+
+    private void appendHierarchy(StringBuilder sb, List<HierarchyEntry> entries)
+    {
+        sb.append('[');
+        for (int i = 0; i < entries.size(); i++)
+        {
+            if (i > 0)
+            {
+                sb.append(',');
+            }
+            final HierarchyEntry entry = entries.get(i);
+            final int[] variables = hierarchyEntry.variables;
+            for (int j = 0; j < variables.length; j++)
+            {
+                sb.append(hierarchyEntry.literals[j]);
+                appendQuoted(sb, (variables[j] == ENTRY_ID) ? entry.getId() : entry.getType());
+            }
+            sb.append(hierarchyEntry.literals[variables.length]);
+        }
+        sb.append(']');
+    }
+
+    /**
+     * Appends the given string as a quoted JSON string, escaped the way Jackson escapes it by default:
+     * the quote, the backslash and the control characters, the latter with their short escape if any.
+     */
+    static StringBuilder appendQuoted(StringBuilder sb, String value)
+    {
+        int first = 0;
+        while (first < value.length() && !needsEscape(value.charAt(first)))
+        {
+            first++;
+        }
+        if (first == value.length())
+        {
+            // Nothing to escape, e.g. ids: a single copy of the whole string
+            return sb.append('"').append(value).append('"');
+        }
+        sb.append('"').append(value.substring(0, first));
+        for (int i = first; i < value.length(); i++)
+        {
+            final char c = value.charAt(i);
+            if (!needsEscape(c))
+            {
+                sb.append(c);
+                continue;
+            }
+            sb.append('\\');
+            switch (c)
+            {
+                case '"':
+                case '\\':
+                    sb.append(c);
+                    break;
+                case '\b':
+                    sb.append('b');
+                    break;
+                case '\t':
+                    sb.append('t');
+                    break;
+                case '\n':
+                    sb.append('n');
+                    break;
+                case '\f':
+                    sb.append('f');
+                    break;
+                case '\r':
+                    sb.append('r');
+                    break;
+                default:
+                    sb.append("u00").append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                                .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+        return sb.append('"');
+    }
+
+    private static boolean needsEscape(char c)
+    {
+        return c < 0x20 || c == '"' || c == '\\';
+    }
+
+    /**
+     * Hands out a distinct marker value for every input the generator takes, and replaces the markers by the
+     * sentinels of their slots in the serialized events.
+     */
+    private static final class Recorder implements EventInputs
+    {
+        private final ObjectMapper mapper;
+        private final List<Input> inputs = new ArrayList<>();
+        /** The serialized markers that aren't already quoted sentinels, by variable index */
+        private final Map<Integer, String> markers = new HashMap<>();
+        private final boolean datesAsTimestamps;
+        private final DateFormat dateFormat;
+        private final Document hierarchyEntry;
+
+        private Recorder(ObjectMapper mapper)
+        {
+            this.mapper = mapper;
+            this.datesAsTimestamps = mapper.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            this.dateFormat = mapper.getSerializationConfig().getDateFormat();
+            final HierarchyEntry entry = new HierarchyEntry(sentinel(ENTRY_ID), sentinel(ENTRY_TYPE));
+            this.hierarchyEntry = split(serialize(entry), 2);
+        }
+
+        private static String sentinel(int variable)
+        {
+            return SENTINEL_PREFIX + variable + SENTINEL_SUFFIX;
+        }
+
+        private int add(Input input)
+        {
+            inputs.add(input);
+            return inputs.size() - 1;
+        }
+
+        @Override
+        public String uuid()
+        {
+            return sentinel(add(Input.UUID));
+        }
+
+        @Override
+        public String userName()
+        {
+            return sentinel(add(Input.USER_NAME));
+        }
+
+        @Override
+        public String group()
+        {
+            return sentinel(add(Input.GROUP));
+        }
+
+        @Override
+        public String permission()
+        {
+            return sentinel(add(Input.PERMISSION));
+        }
+
+        @Override
+        public long currentTimeMillis()
+        {
+            final int variable = add(Input.MILLIS);
+            final long marker = MILLIS_MARKER_BASE + variable;
+            markers.put(variable, Long.toString(marker));
+            return marker;
+        }
+
+        @Override
+        public Date currentDate()
+        {
+            final int variable = add(Input.DATE);
+            final Date marker = new Date(DATE_MARKER_BASE + variable * 1000L);
+            markers.put(variable, serialize(marker));
+            return marker;
+        }
+
+        @Override
+        public List<HierarchyEntry> nodeHierarchy()
+        {
+            final int variable = add(Input.HIERARCHY);
+            final List<HierarchyEntry> marker = Collections.singletonList(new HierarchyEntry(sentinel(variable), Input.HIERARCHY.name()));
+            markers.put(variable, serialize(marker));
+            return marker;
+        }
+
+        private String serialize(Object value)
+        {
+            try
+            {
+                return mapper.writeValueAsString(value);
+            }
+            catch (JsonProcessingException ex)
+            {
+                throw new IllegalStateException("Couldn't serialize the event shape " + value, ex);
+            }
+        }
+
+        /**
+         * @return the given serialized event, with all its markers as the quoted sentinels of their slots
+         */
+        private String toSlots(String document)
+        {
+            for (Map.Entry<Integer, String> marker : markers.entrySet())
+            {
+                document = document.replace(marker.getValue(), '"' + sentinel(marker.getKey()) + '"');
+            }
+            return document;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.alfresco.mockeventgenerator.util.RandomStreams;
+
+/**
+ * An immutable JSON document split into its literal text and its dynamic slots, so each
+ * rendering only writes the literals and the slot values one after the other, without
+ * parsing or re-serializing the document.
+ * <p>
+ * A template is compiled from the serialized document, in which every dynamic value has been
+ * set to the string value returned by {@link #sentinel(String)}. The quoted sentinel is
+ * replaced, quotes included, by what the slot of that name writes. Templates are safe to
+ * render from any number of threads.
+ * <p>
+ * Templates can also be {@link #parse(String, Map) parsed} from text with {@code ${name}}
+ * placeholders, e.g. the event templates supplied by the user.
+ */
+public final class CompiledTemplate
+{
+    private static final String SENTINEL_PREFIX = "@@SLOT:";
+    private static final String SENTINEL_SUFFIX = "@@";
+    private static final String QUOTED_SENTINEL_START = '"' + SENTINEL_PREFIX;
+    private static final String QUOTED_SENTINEL_END = SENTINEL_SUFFIX + '"';
+    private static final String PLACEHOLDER_START = "${";
+    private static final String PLACEHOLDER_END = "}";
+    private static final String RANDOM_INT_PLACEHOLDER = "randomInt(";
+    /** Per-thread output buffer, reused across renderings of all the templates */
+    private static final ThreadLocal<StringBuilder> OUTPUT = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+
+    /**
+     * Writes the value of a dynamic slot, as JSON (i.e. quoted if it is a string).
+     */
+    @FunctionalInterface
+    public interface Slot
+    {
+        void appendTo(StringBuilder sb);
+    }
+
+    private final String[] literals;
+    private final Slot[] slots;
+    private final int literalLength;
+
+    private CompiledTemplate(String[] literals, Slot[] slots)
+    {
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals)
+        {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * @return the placeholder value to set in the document for the slot of the given name
+     */
+    public static String sentinel(String slotName)
+    {
+        return SENTINEL_PREFIX + slotName + SENTINEL_SUFFIX;
+    }
+
+    /**
+     * Compiles the given serialized document.
+     *
+     * @param document the document, with its dynamic values set to {@link #sentinel(String) sentinels}
+     * @param slots    the slots, by name
+     * @throws IllegalArgumentException if the document refers to a slot that isn't given
+     */
+    public static CompiledTemplate compile(String document, Map<String, Slot> slots)
+    {
+        List<String> literals = new ArrayList<>();
+        List<Slot> orderedSlots = new ArrayList<>();
+        int position = 0;
+        int start;
+        while ((start = document.indexOf(QUOTED_SENTINEL_START, position)) >= 0)
+        {
+            final int end = document.indexOf(QUOTED_SENTINEL_END, start + QUOTED_SENTINEL_START.length());
+            if (end < 0)
+            {
+                throw new IllegalArgumentException("Unterminated slot at offset " + start);
+            }
+            final String name = document.substring(start + QUOTED_SENTINEL_START.length(), end);
+            final Slot slot = slots.get(name);
+            if (slot == null)
+            {
+                throw new IllegalArgumentException("Unknown slot: " + name);
+            }
+            literals.add(document.substring(position, start));
+            orderedSlots.add(slot);
+            position = end + QUOTED_SENTINEL_END.length();
+        }
+        literals.add(document.substring(position));
+        return new CompiledTemplate(literals.toArray(new String[0]), orderedSlots.toArray(new Slot[0]));
+    }
+
+    /**
+     * Parses the given text, in which each {@code ${name}} placeholder is replaced, as is, by what the slot
+     * of that name writes; quote the placeholder in the text if its value is a string. The built-in
+     * {@code ${randomInt(min,max)}} placeholder writes a random integer between min and max inclusive.
+     *
+     * @param text  the text, with its dynamic values as placeholders
+     * @param slots the slots, by placeholder name
+     * @throws IllegalArgumentException if the text refers to a slot that isn't given, or a placeholder is malformed
+     */
+    public static CompiledTemplate parse(String text, Map<String, Slot> slots)
+    {
+        List<String> literals = new ArrayList<>();
+        List<Slot> orderedSlots = new ArrayList<>();
+        int position = 0;
+        int start;
+        while ((start = text.indexOf(PLACEHOLDER_START, position)) >= 0)
+        {
+            final int end = text.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+            if (end < 0)
+            {
+                throw new IllegalArgumentException("Unterminated placeholder at offset " + start);
+            }
+            final String name = text.substring(start + PLACEHOLDER_START.length(), end).trim();
+            final Slot slot = name.startsWith(RANDOM_INT_PLACEHOLDER) ? parseRandomInt(name) : slots.get(name);
+            if (slot == null)
+            {
+                throw new IllegalArgumentException("Unknown placeholder: " + name);
+            }
+            literals.add(text.substring(position, start));
+            orderedSlots.add(slot);
+            position = end + PLACEHOLDER_END.length();
+        }
+        literals.add(text.substring(position));
+        return new CompiledTemplate(literals.toArray(new String[0]), orderedSlots.toArray(new Slot[0]));
+    }
+
+    private static Slot parseRandomInt(String placeholder)
+    {
+        final String[] bounds = placeholder.endsWith(")")
+                    ? placeholder.substring(RANDOM_INT_PLACEHOLDER.length(), placeholder.length() - 1).split(",")
+                    : new String[0];
+        if (bounds.length != 2)
+        {
+            throw new IllegalArgumentException("Expected randomInt(min,max), got: " + placeholder);
+        }
+        final int min;
+        final int max;
+        try
+        {
+            min = Integer.parseInt(bounds[0].trim());
+            max = Integer.parseInt(bounds[1].trim());
+        }
+        catch (NumberFormatException ex)
+        {
+            throw new IllegalArgumentException("Expected randomInt(min,max), got: " + placeholder, ex);
+        }
+        if (min > max)
+        {
+            throw new IllegalArgumentException("The minimum is greater than the maximum in: " + placeholder);
+        }
+        final long range = (long) max - min + 1L;
+        if (range > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("The range is too large in: " + placeholder);
+        }
+        return sb -> sb.append(min + RandomStreams.nextInt((int) range));
+    }
+
+    /**
+     * Renders the template with fresh slot values.
+     */
+    public String render()
+    {
+        final StringBuilder sb = OUTPUT.get();
+        sb.setLength(0);
+        sb.ensureCapacity(literalLength + slots.length * 48);
+        return renderTo(sb).toString();
+    }
+
+    /**
+     * Appends the template, with fresh slot values, to the given buffer.
+     */
+    public StringBuilder renderTo(StringBuilder sb)
+    {
+        for (int i = 0; i < slots.length; i++)
+        {
+            sb.append(literals[i]);
+            slots[i].appendTo(sb);
+        }
+        return sb.append(literals[slots.length]);
+    }
+
+    public int getNumOfSlots()
+    {
+        return slots.length;
+    }
+}
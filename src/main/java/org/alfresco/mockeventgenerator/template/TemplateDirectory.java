@@ -0,0 +1,191 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.template;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.alfresco.mockeventgenerator.util.RandomStreams;
+import org.json.JSONException;
+import org.json.JSONTokener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The event templates supplied by the user, as the {@code *.json} files of a directory. Each file is
+ * {@link CompiledTemplate#parse(String, Map) parsed} once, with its {@code ${name}} placeholders as slots.
+ * <p>
+ * Once started, the directory is watched for changes: the templates are recompiled in the background and
+ * swapped in at once, so the senders never wait for them. A file that doesn't compile, or isn't valid JSON
+ * (e.g. because it is being written), is logged and its previous version is kept.
+ */
+public class TemplateDirectory implements Closeable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplateDirectory.class);
+    private static final String TEMPLATE_SUFFIX = ".json";
+    /** How long to wait for a burst of changes (e.g. an editor saving a file) to settle before reloading */
+    private static final long SETTLE_MILLIS = 100L;
+
+    private final Path directory;
+    private final Map<String, CompiledTemplate.Slot> slots;
+    /** The templates by file name, only changed while reloading */
+    private final Map<String, CompiledTemplate> templatesByName = new TreeMap<>();
+    private final AtomicReference<CompiledTemplate[]> templates = new AtomicReference<>(new CompiledTemplate[0]);
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * @param directory the directory of the templates
+     * @param slots     the slots of the placeholders, by name
+     */
+    public TemplateDirectory(Path directory, Map<String, CompiledTemplate.Slot> slots)
+    {
+        this.directory = directory;
+        this.slots = slots;
+    }
+
+    /**
+     * Loads the templates and starts watching the directory. Calling it more than once has no effect.
+     *
+     * @throws IOException if the directory can't be read or watched
+     */
+    public synchronized TemplateDirectory start() throws IOException
+    {
+        if (watcher == null)
+        {
+            reload();
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            watcher = new Thread(this::watch, "template-directory-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+        return this;
+    }
+
+    private void watch()
+    {
+        try
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                WatchKey key = watchService.take();
+                TimeUnit.MILLISECONDS.sleep(SETTLE_MILLIS);
+                boolean changed = false;
+                for (; key != null; key = watchService.poll())
+                {
+                    for (WatchEvent<?> event : key.pollEvents())
+                    {
+                        changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                                    || event.context().toString().endsWith(TEMPLATE_SUFFIX);
+                    }
+                    key.reset();
+                }
+                if (changed)
+                {
+                    reload();
+                }
+            }
+        }
+        catch (InterruptedException | ClosedWatchServiceException ex)
+        {
+            // Stopped
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            LOGGER.error("Stopped watching the event templates in " + directory + ".", ex);
+        }
+    }
+
+    /**
+     * Reloads the templates of the directory.
+     */
+    synchronized void reload() throws IOException
+    {
+        Map<String, CompiledTemplate> reloaded = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TEMPLATE_SUFFIX))
+        {
+            for (Path file : files)
+            {
+                final String name = file.getFileName().toString();
+                try
+                {
+                    reloaded.put(name, compile(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)));
+                }
+                catch (IOException | IllegalArgumentException | JSONException ex)
+                {
+                    LOGGER.warn("Invalid event template " + file + ", keeping its previous version if any: " + ex.getMessage());
+                    final CompiledTemplate previous = templatesByName.get(name);
+                    if (previous != null)
+                    {
+                        reloaded.put(name, previous);
+                    }
+                }
+            }
+        }
+        templatesByName.clear();
+        templatesByName.putAll(reloaded);
+        templates.set(reloaded.values().toArray(new CompiledTemplate[0]));
+        LOGGER.info("Loaded " + reloaded.size() + " event template(s) from " + directory + ": " + reloaded.keySet());
+    }
+
+    private CompiledTemplate compile(String text)
+    {
+        CompiledTemplate template = CompiledTemplate.parse(text, slots);
+        // Fails on a file that is only partly written
+        new JSONTokener(template.render()).nextValue();
+        return template;
+    }
+
+    /**
+     * @return a template picked at random, or {@code null} if there are none
+     */
+    public CompiledTemplate next()
+    {
+        final CompiledTemplate[] current = templates.get();
+        return (current.length == 0) ? null : current[RandomStreams.nextInt(current.length)];
+    }
+
+    public int getNumOfTemplates()
+    {
+        return templates.get().length;
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (watcher != null)
+        {
+            watcher.interrupt();
+            watcher = null;
+            watchService.close();
+        }
+    }
+}
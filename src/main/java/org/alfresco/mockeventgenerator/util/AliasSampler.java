@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Picks values at random with given relative weights, in constant time whatever the number of
+ * values, using the alias method (Vose's variant).
+ * <p>
+ * The values are split into as many equally likely columns. Each column holds a value with the
+ * probability {@code prob[i]}, and the value {@code alias[i]} otherwise, so a pick only needs one
+ * random number: its integral part chooses the column, its fractional part the value.
+ */
+public final class AliasSampler<T>
+{
+    private final T[] values;
+    private final double[] prob;
+    private final int[] alias;
+
+    /**
+     * @param values  the values to pick from
+     * @param weights the relative weight of each value; zero weighted values are never picked
+     * @throws IllegalArgumentException if a weight is negative or not finite, or if all the weights are zero
+     */
+    public AliasSampler(T[] values, double[] weights)
+    {
+        if (values.length == 0 || values.length != weights.length)
+        {
+            throw new IllegalArgumentException("Expected one weight per value, got " + weights.length + " weights for "
+                        + values.length + " values.");
+        }
+        double total = 0.0;
+        for (double weight : weights)
+        {
+            if (weight < 0.0 || Double.isNaN(weight) || Double.isInfinite(weight))
+            {
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0.0)
+        {
+            throw new IllegalArgumentException("At least one weight must be positive.");
+        }
+
+        final int n = values.length;
+        this.values = values.clone();
+        this.prob = new double[n];
+        this.alias = new int[n];
+
+        // Scale the weights so that the average column is exactly full
+        final double[] scaled = new double[n];
+        final Deque<Integer> small = new ArrayDeque<>();
+        final Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < n; i++)
+        {
+            scaled[i] = weights[i] * n / total;
+            (scaled[i] < 1.0 ? small : large).push(i);
+        }
+        // Fill each underfull column with the excess of an overfull one
+        while (!small.isEmpty() && !large.isEmpty())
+        {
+            final int less = small.pop();
+            final int more = large.pop();
+            prob[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            (scaled[more] < 1.0 ? small : large).push(more);
+        }
+        // What is left is full, give or take the rounding errors
+        while (!large.isEmpty())
+        {
+            prob[large.pop()] = 1.0;
+        }
+        while (!small.isEmpty())
+        {
+            prob[small.pop()] = 1.0;
+        }
+    }
+
+    /**
+     * @return a sampler picking each of the given values with the same probability
+     */
+    public static <T> AliasSampler<T> uniform(T[] values)
+    {
+        final double[] weights = new double[values.length];
+        Arrays.fill(weights, 1.0);
+        return new AliasSampler<>(values, weights);
+    }
+
+    /**
+     * Creates a sampler of the constants of an enum from their weights by name. The names are matched
+     * regardless of case, and of dashes versus underscores, so that they can be given as property keys.
+     * The constants that aren't given keep a weight of 1.
+     *
+     * @throws IllegalArgumentException if a name isn't one of the constants
+     */
+    public static <E extends Enum<E>> AliasSampler<E> ofEnum(Class<E> enumType, Map<String, ? extends Number> weightsByName)
+    {
+        return ofEnum(enumType, weightsByName, 1.0);
+    }
+
+    /**
+     * As {@link #ofEnum(Class, Map)}, where the constants that aren't given get the given default weight.
+     */
+    public static <E extends Enum<E>> AliasSampler<E> ofEnum(Class<E> enumType, Map<String, ? extends Number> weightsByName,
+                double defaultWeight)
+    {
+        final E[] constants = enumType.getEnumConstants();
+        final double[] weights = new double[constants.length];
+        Arrays.fill(weights, defaultWeight);
+        if (weightsByName != null)
+        {
+            for (Map.Entry<String, ? extends Number> entry : weightsByName.entrySet())
+            {
+                final String name = entry.getKey().trim().replace('-', '_').toUpperCase(Locale.ROOT);
+                final E constant;
+                try
+                {
+                    constant = Enum.valueOf(enumType, name);
+                }
+                catch (IllegalArgumentException ex)
+                {
+                    throw new IllegalArgumentException("Unknown " + enumType.getSimpleName() + ": " + entry.getKey()
+                                + ". Expected one of " + Arrays.toString(constants), ex);
+                }
+                weights[constant.ordinal()] = entry.getValue().doubleValue();
+            }
+        }
+        return new AliasSampler<>(constants, weights);
+    }
+
+    /**
+     * @return a value picked from the calling thread's {@link RandomStreams stream}
+     */
+    public T sample()
+    {
+        final double u = RandomStreams.nextDouble() * values.length;
+        final int column = (int) u;
+        return (u - column < prob[column]) ? values[column] : values[alias[column]];
+    }
+
+    /**
+     * @return the probability of picking the value at the given index, i.e. its normalized weight
+     */
+    public double getProbability(int index)
+    {
+        double p = prob[index];
+        for (int i = 0; i < alias.length; i++)
+        {
+            if (alias[i] == index && prob[i] < 1.0)
+            {
+                p += 1.0 - prob[i];
+            }
+        }
+        return p / values.length;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The source of the timestamps and dates of the generated events.
+ * <p>
+ * Formatting a date is one of the heaviest steps of generating an event, and an event often
+ * holds several dates of the same millisecond, so the clock keeps the last formatted date and
+ * only formats again when the millisecond changes.
+ */
+public abstract class EventClock
+{
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    private static final EventClock SYSTEM = new EventClock(ZoneId.systemDefault())
+    {
+        @Override
+        public long currentTimeMillis()
+        {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private final ZoneId zone;
+    private volatile FormattedDateTime lastFormatted = new FormattedDateTime(Long.MIN_VALUE, null);
+
+    protected EventClock(ZoneId zone)
+    {
+        this.zone = zone;
+    }
+
+    /**
+     * @return the wall clock, formatting the dates in the system time zone
+     */
+    public static EventClock system()
+    {
+        return SYSTEM;
+    }
+
+    /**
+     * @return a clock which starts at {@code startMillis} and moves on by {@code tickMillis} each time it is read
+     * (zero for a clock that only moves when {@link SyntheticClock#advance(long) advanced}), formatting the dates in UTC
+     */
+    public static SyntheticClock synthetic(long startMillis, long tickMillis)
+    {
+        return new SyntheticClock(startMillis, tickMillis, ZoneOffset.UTC);
+    }
+
+    /**
+     * @return a clock which, like {@link #synthetic(long, long)}, starts at {@code startMillis} and moves on by
+     * {@code tickMillis} each time it is read, but separately for each thread, starting over whenever the thread is
+     * {@link RandomStreams#bindWorker(int) bound to a worker}. The timestamps of a worker then only depend on the
+     * events it generated, so that seeded runs are replayed with the same timestamps however the threads interleave.
+     */
+    public static WorkerClock perWorker(long startMillis, long tickMillis)
+    {
+        return new WorkerClock(startMillis, tickMillis, ZoneOffset.UTC);
+    }
+
+    public abstract long currentTimeMillis();
+
+    /**
+     * @return the current time, without moving on a clock that ticks each time it is read, e.g. for the
+     * timestamps in the ids, which must not shift the timestamps of the events
+     */
+    public long peekTimeMillis()
+    {
+        return currentTimeMillis();
+    }
+
+    public Date currentDate()
+    {
+        return new Date(currentTimeMillis());
+    }
+
+    /**
+     * @return the millisecond of the current second, i.e. 0 to 999
+     */
+    public int currentMilliOfSecond()
+    {
+        return (int) Math.floorMod(currentTimeMillis(), 1000L);
+    }
+
+    /**
+     * @return the current time in the {@code yyyy-MM-dd'T'HH:mm:ss.SSSZ} format of the Jackson dates
+     */
+    public String formatDateTime()
+    {
+        return formatDateTime(currentTimeMillis());
+    }
+
+    public String formatDateTime(long millis)
+    {
+        FormattedDateTime formatted = lastFormatted;
+        if (formatted.millis != millis)
+        {
+            formatted = new FormattedDateTime(millis, DATE_TIME_FORMATTER.format(Instant.ofEpochMilli(millis).atZone(zone)));
+            lastFormatted = formatted;
+        }
+        return formatted.text;
+    }
+
+    private static final class FormattedDateTime
+    {
+        private final long millis;
+        private final String text;
+
+        private FormattedDateTime(long millis, String text)
+        {
+            this.millis = millis;
+            this.text = text;
+        }
+    }
+
+    /**
+     * A clock that is independent of the wall clock, e.g. to generate the same timestamps on every
+     * run or to test time dependent code without waiting.
+     */
+    public static class SyntheticClock extends EventClock
+    {
+        private final AtomicLong time;
+        private final long tickMillis;
+
+        public SyntheticClock(long startMillis, long tickMillis, ZoneId zone)
+        {
+            super(zone);
+            this.time = new AtomicLong(startMillis);
+            this.tickMillis = tickMillis;
+        }
+
+        @Override
+        public long currentTimeMillis()
+        {
+            return time.getAndAdd(tickMillis);
+        }
+
+        @Override
+        public long peekTimeMillis()
+        {
+            return time.get();
+        }
+
+        public void advance(long millis)
+        {
+            time.addAndGet(millis);
+        }
+
+        public void set(long millis)
+        {
+            time.set(millis);
+        }
+    }
+
+    /**
+     * A synthetic clock with a time of its own in each worker.
+     */
+    public static class WorkerClock extends EventClock
+    {
+        private final long startMillis;
+        private final long tickMillis;
+        /** The binding count the time was started at, and the time */
+        private final ThreadLocal<long[]> time = ThreadLocal.withInitial(() -> new long[] { -1L, 0L });
+
+        public WorkerClock(long startMillis, long tickMillis, ZoneId zone)
+        {
+            super(zone);
+            this.startMillis = startMillis;
+            this.tickMillis = tickMillis;
+        }
+
+        @Override
+        public long currentTimeMillis()
+        {
+            final long[] state = currentState();
+            final long now = state[1];
+            state[1] = now + tickMillis;
+            return now;
+        }
+
+        @Override
+        public long peekTimeMillis()
+        {
+            return currentState()[1];
+        }
+
+        private long[] currentState()
+        {
+            final long[] state = time.get();
+            final int binding = RandomStreams.getBindingCount();
+            if (state[0] != binding)
+            {
+                state[0] = binding;
+                state[1] = startMillis;
+            }
+            return state;
+        }
+
+        public long getStartMillis()
+        {
+            return startMillis;
+        }
+
+        public long getTickMillis()
+        {
+            return tickMillis;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.util;
+
+import java.util.UUID;
+
+/**
+ * The ways of generating the ids of the mock events, all in the canonical 36 character UUID format.
+ */
+public enum IdGenerator
+{
+    /**
+     * Random (version 4) UUIDs from {@link UUID#randomUUID()}, i.e. from a shared {@code SecureRandom}.
+     * These ids ignore the seed of the {@link RandomStreams}.
+     */
+    SECURE_RANDOM()
+    {
+        @Override
+        char[] nextId(char[] buffer)
+        {
+            final UUID uuid = UUID.randomUUID();
+            return format(buffer, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        }
+    },
+
+    /**
+     * Random (version 4) UUIDs from the calling thread's {@link RandomStreams stream}, without any contention
+     * between threads, and reproducible when seeded. They are not cryptographically secure, which doesn't
+     * matter for mock data.
+     */
+    FAST_RANDOM()
+    {
+        @Override
+        char[] nextId(char[] buffer)
+        {
+            return format(buffer, randomMostSignificantBits(), randomLeastSignificantBits());
+        }
+    },
+
+    /**
+     * Time-ordered (version 7) UUIDs: the first 48 bits are the Unix time in milliseconds, read from the
+     * {@link #setClock(EventClock) clock} of the events, the rest is random. Ids generated in different
+     * milliseconds sort in the order they were generated in, which is what gives the consumers' indexes
+     * their locality.
+     */
+    TIME_ORDERED()
+    {
+        @Override
+        char[] nextId(char[] buffer)
+        {
+            final long msb = (clock.peekTimeMillis() << 16) | (7L << 12) | (RandomStreams.nextInt() & 0xFFFL);
+            return format(buffer, msb, randomLeastSignificantBits());
+        }
+    };
+
+    private static final long VERSION_MASK = 0xF000L;
+    private static final long VARIANT_MASK = 0xC000000000000000L;
+    private static final long VARIANT_IETF = 0x8000000000000000L;
+    private static final int UUID_LENGTH = 36;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[UUID_LENGTH]);
+    private static volatile EventClock clock = EventClock.system();
+
+    /**
+     * Sets the clock the {@link #TIME_ORDERED} ids read their time from, i.e. the clock of the events.
+     */
+    public static void setClock(EventClock eventClock)
+    {
+        clock = eventClock;
+    }
+
+    /**
+     * @return a new id
+     */
+    public String newId()
+    {
+        return new String(nextId(BUFFER.get()));
+    }
+
+    /**
+     * Appends a new id to the given buffer, without creating any intermediate object.
+     */
+    public StringBuilder appendTo(StringBuilder sb)
+    {
+        return sb.append(nextId(BUFFER.get()), 0, UUID_LENGTH);
+    }
+
+    /**
+     * @return the given bits in the canonical UUID format, e.g. of an id that is kept as two longs
+     */
+    public static String format(long msb, long lsb)
+    {
+        return new String(format(BUFFER.get(), msb, lsb));
+    }
+
+    /**
+     * @return the random most significant bits of a version 4 UUID, from the calling thread's stream
+     */
+    public static long randomMostSignificantBits()
+    {
+        return (RandomStreams.nextLong() & ~VERSION_MASK) | (4L << 12);
+    }
+
+    /**
+     * Writes a new id to the given buffer, in the canonical UUID format.
+     *
+     * @return the buffer
+     */
+    abstract char[] nextId(char[] buffer);
+
+    /**
+     * @return a version 4 like UUID which only depends on the given namespace and index, for the ids of
+     * the nodes that must be the same on every run
+     */
+    public static String derive(long namespace, int index)
+    {
+        final long seed = (namespace << 32) | (index & 0xFFFFFFFFL);
+        return format((mix64(seed) & ~VERSION_MASK) | (4L << 12), (mix64(~seed) & ~VARIANT_MASK) | VARIANT_IETF);
+    }
+
+    /**
+     * The 64 bit finalizer of MurmurHash3
+     */
+    private static long mix64(long z)
+    {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * @return the random least significant bits of a UUID, with the IETF variant
+     */
+    public static long randomLeastSignificantBits()
+    {
+        return (RandomStreams.nextLong() & ~VARIANT_MASK) | VARIANT_IETF;
+    }
+
+    static char[] format(char[] buffer, long msb, long lsb)
+    {
+        writeHex(buffer, 0, msb >>> 32, 8);
+        buffer[8] = '-';
+        writeHex(buffer, 9, msb >>> 16, 4);
+        buffer[13] = '-';
+        writeHex(buffer, 14, msb, 4);
+        buffer[18] = '-';
+        writeHex(buffer, 19, lsb >>> 48, 4);
+        buffer[23] = '-';
+        writeHex(buffer, 24, lsb, 12);
+        return buffer;
+    }
+
+    private static void writeHex(char[] buffer, int offset, long value, int numOfDigits)
+    {
+        for (int i = offset + numOfDigits - 1; i >= offset; i--)
+        {
+            buffer[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.util;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The source of all the randomness of the generated events.
+ * <p>
+ * Unseeded (the default), each thread draws from its {@link ThreadLocalRandom}. Once a seed is
+ * {@link #setSeed(Long) set}, each thread draws from its own {@link SplittableRandom} stream, derived
+ * from the seed and the index of the worker the thread is {@link #bindWorker(int) bound to}: the same
+ * seed and worker index always give the same sequence, whatever thread runs the worker. Threads that
+ * aren't bound to a worker get a stream of their own too, but which one depends on the order the
+ * threads first draw in, so only the streams of the workers are reproducible.
+ */
+public final class RandomStreams
+{
+    /** The golden ratio increment of {@link SplittableRandom}, which spreads the worker indexes apart */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static volatile Long seed;
+    private static final ThreadLocal<SplittableRandom> STREAM = new ThreadLocal<>();
+    /** Unbound threads take the negative indexes, so they never share a stream with a worker */
+    private static final AtomicInteger UNBOUND_STREAMS = new AtomicInteger();
+    /** The number of times each thread has been bound, for the per-worker state kept outside of the streams */
+    private static final ThreadLocal<int[]> BINDINGS = ThreadLocal.withInitial(() -> new int[1]);
+
+    private RandomStreams()
+    {
+    }
+
+    /**
+     * Sets the seed of all the streams, or makes them unseeded if {@code null}. The threads that are
+     * already bound keep their streams until they are bound again.
+     */
+    public static void setSeed(Long newSeed)
+    {
+        seed = newSeed;
+    }
+
+    public static Long getSeed()
+    {
+        return seed;
+    }
+
+    public static boolean isSeeded()
+    {
+        return seed != null;
+    }
+
+    /**
+     * Restarts the calling thread's stream as the stream of the given worker. Has no effect when unseeded.
+     */
+    public static void bindWorker(int workerIndex)
+    {
+        BINDINGS.get()[0]++;
+        final Long currentSeed = seed;
+        if (currentSeed == null)
+        {
+            STREAM.remove();
+        }
+        else
+        {
+            STREAM.set(streamOf(currentSeed, workerIndex));
+        }
+    }
+
+    /**
+     * @return the number of times the calling thread has been {@link #bindWorker(int) bound} to a worker, which
+     * changes whenever the thread starts over as a worker, seeded or not
+     */
+    public static int getBindingCount()
+    {
+        return BINDINGS.get()[0];
+    }
+
+    /**
+     * @return a new stream of the given worker, independent of the calling thread
+     */
+    public static SplittableRandom streamOf(long baseSeed, int workerIndex)
+    {
+        return new SplittableRandom(mix64(baseSeed + GOLDEN_GAMMA * (workerIndex + 1L)));
+    }
+
+    public static int nextInt(int bound)
+    {
+        final SplittableRandom stream = stream();
+        return (stream == null) ? ThreadLocalRandom.current().nextInt(bound) : stream.nextInt(bound);
+    }
+
+    public static int nextInt()
+    {
+        final SplittableRandom stream = stream();
+        return (stream == null) ? ThreadLocalRandom.current().nextInt() : stream.nextInt();
+    }
+
+    public static long nextLong()
+    {
+        final SplittableRandom stream = stream();
+        return (stream == null) ? ThreadLocalRandom.current().nextLong() : stream.nextLong();
+    }
+
+    public static double nextDouble()
+    {
+        final SplittableRandom stream = stream();
+        return (stream == null) ? ThreadLocalRandom.current().nextDouble() : stream.nextDouble();
+    }
+
+    /**
+     * @return a normally distributed value, with a mean of 0 and a standard deviation of 1
+     */
+    public static double nextGaussian()
+    {
+        // Marsaglia's polar method, keeping one of the two values it makes
+        double u;
+        double v;
+        double s;
+        do
+        {
+            u = 2.0 * nextDouble() - 1.0;
+            v = 2.0 * nextDouble() - 1.0;
+            s = u * u + v * v;
+        }
+        while (s >= 1.0 || s == 0.0);
+        return u * Math.sqrt(-2.0 * Math.log(s) / s);
+    }
+
+    private static SplittableRandom stream()
+    {
+        final Long currentSeed = seed;
+        if (currentSeed == null)
+        {
+            return null;
+        }
+        SplittableRandom stream = STREAM.get();
+        if (stream == null)
+        {
+            stream = streamOf(currentSeed, -1 - UNBOUND_STREAMS.getAndIncrement());
+            STREAM.set(stream);
+        }
+        return stream;
+    }
+
+    /**
+     * The 64 bit finalizer of MurmurHash3, as used by {@link SplittableRandom} itself.
+     */
+    private static long mix64(long z)
+    {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
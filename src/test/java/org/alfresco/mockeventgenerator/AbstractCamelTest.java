@@ -15,6 +15,7 @@
  */
 package org.alfresco.mockeventgenerator;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -50,6 +51,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -246,6 +249,61 @@ public abstract class AbstractCamelTest
         mockEndpoint.assertIsSatisfied();
     }
 
+    @Test
+    public void testMockEventsViaRestApi_multipleWorkers() throws Exception
+    {
+        final int numOfEvents = 7;
+        EventRequestPayload payload = new EventRequestPayload();
+        payload.setNumOfEvents(numOfEvents);
+        payload.setPauseTimeInMillis(-1L);
+        payload.setWorkers(3);
+
+        // Set the expected number of messages
+        mockEndpoint.expectedMessageCount(numOfEvents);
+        // Send event via Rest API
+        restTemplate.postForLocation(baseUrl + "events", payload);
+
+        // Checks that the quota split across the workers adds up to the requested number of events
+        mockEndpoint.assertIsSatisfied();
+    }
+
+    @Test
+    public void testSendJobViaRestApi() throws Exception
+    {
+        final int numOfEvents = 3;
+        EventRequestPayload payload = new EventRequestPayload();
+        payload.setNumOfEvents(numOfEvents);
+        payload.setPauseTimeInMillis(-1L);
+
+        mockEndpoint.expectedMessageCount(numOfEvents);
+        // The request returns as soon as the job is queued
+        ResponseEntity<Map> response = restTemplate.postForEntity(baseUrl + "events", payload, Map.class);
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        String jobId = (String) response.getBody().get("id");
+        assertNotNull(jobId);
+
+        mockEndpoint.assertIsSatisfied();
+        Map<?, ?> job = awaitJobState(jobId, "COMPLETED");
+        assertEquals(numOfEvents, ((Number) job.get("eventsSent")).intValue());
+        assertNotNull(job.get("report"));
+    }
+
+    @Test
+    public void testCancelSendJobViaRestApi() throws Exception
+    {
+        final int numOfEvents = 1000;
+        EventRequestPayload payload = new EventRequestPayload();
+        payload.setNumOfEvents(numOfEvents);
+        payload.setPauseTimeInMillis(50L);
+
+        String jobId = (String) restTemplate.postForEntity(baseUrl + "events", payload, Map.class).getBody().get("id");
+        restTemplate.delete(baseUrl + "events/" + jobId);
+
+        Map<?, ?> job = awaitJobState(jobId, "CANCELLED");
+        assertTrue(((Number) job.get("eventsSent")).intValue() < numOfEvents);
+        assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity(baseUrl + "events/unknown-job", Map.class).getStatusCode());
+    }
+
     @Test
     public void testCustomConnectorEventViaRestApi_inBoundVars() throws Exception
     {
@@ -313,6 +371,21 @@ public abstract class AbstractCamelTest
         });
     }
 
+    private Map<?, ?> awaitJobState(String jobId, String state) throws InterruptedException
+    {
+        Map<?, ?> job = null;
+        for (int i = 0; i < 100; i++)
+        {
+            job = restTemplate.getForObject(baseUrl + "events/" + jobId, Map.class);
+            if (state.equals(job.get("state")))
+            {
+                return job;
+            }
+            Thread.sleep(100L);
+        }
+        throw new AssertionError("The job didn't reach the " + state + " state: " + job);
+    }
+
     protected String getBody(MockEndpoint mockEndpoint, int index)
     {
         List<Exchange> list = mockEndpoint.getExchanges();
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.alfresco.mockeventgenerator.compression.Codec;
+import org.alfresco.mockeventgenerator.compression.PayloadCompressor;
+import org.alfresco.mockeventgenerator.config.CamelRouteProperties;
+import org.alfresco.mockeventgenerator.serialization.EncodedBody;
+import org.alfresco.mockeventgenerator.serialization.WireFormat;
+import org.apache.camel.Exchange;
+import org.apache.camel.CamelContext;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the asynchronous mode and the body types of {@link CamelMessageProducer}.
+ */
+public class CamelMessageProducerTest
+{
+    private CamelContext camelContext;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        camelContext = new DefaultCamelContext();
+        camelContext.start();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        camelContext.stop();
+    }
+
+    @Test
+    public void testAsyncSend() throws Exception
+    {
+        CamelMessageProducer producer = createProducer("mock:async-out", 2);
+        MockEndpoint mockEndpoint = camelContext.getEndpoint("mock:async-out", MockEndpoint.class);
+        mockEndpoint.expectedMessageCount(10);
+
+        for (int i = 0; i < 10; i++)
+        {
+            producer.send("message-" + i, Collections.singletonMap("index", i));
+        }
+        assertTrue(producer.awaitInFlight(10, TimeUnit.SECONDS));
+
+        mockEndpoint.assertIsSatisfied();
+        assertEquals(10, producer.getTotalMessagesSent());
+        assertEquals(0, producer.getTotalMessagesFailed());
+        assertEquals(0, producer.getInFlight());
+        assertEquals(9, mockEndpoint.getReceivedExchanges().get(9).getIn().getHeader("index"));
+    }
+
+    @Test
+    public void testAsyncSendFailuresAreCounted() throws Exception
+    {
+        // There is no consumer on the direct endpoint, so every send fails
+        CamelMessageProducer producer = createProducer("direct:no-consumer?block=false", 4);
+        for (int i = 0; i < 5; i++)
+        {
+            producer.send("message-" + i);
+        }
+        assertTrue(producer.awaitInFlight(10, TimeUnit.SECONDS));
+
+        assertEquals(0, producer.getTotalMessagesSent());
+        assertEquals(5, producer.getTotalMessagesFailed());
+    }
+
+    @Test
+    public void testByteArrayBodies() throws Exception
+    {
+        CamelRouteProperties routeProperties = new CamelRouteProperties();
+        routeProperties.setToRoute("mock:bytes-out");
+        CamelMessageProducer producer = new CamelMessageProducer(camelContext, routeProperties, new ObjectMapper(), false, 1, "BYTES",
+                    WireFormat.JSON, (PayloadCompressor) null);
+        MockEndpoint mockEndpoint = camelContext.getEndpoint("mock:bytes-out", MockEndpoint.class);
+        mockEndpoint.expectedMessageCount(2);
+
+        producer.send(Collections.singletonMap("name", "event"));
+        producer.send("[\"aggregated\"]");
+
+        mockEndpoint.assertIsSatisfied();
+        assertArrayEquals("{\"name\":\"event\"}".getBytes(StandardCharsets.UTF_8),
+                    (byte[]) mockEndpoint.getReceivedExchanges().get(0).getIn().getBody());
+        assertArrayEquals("[\"aggregated\"]".getBytes(StandardCharsets.UTF_8),
+                    (byte[]) mockEndpoint.getReceivedExchanges().get(1).getIn().getBody());
+        assertTrue(producer.isAggregated());
+    }
+
+    @Test
+    public void testContentTypeOfTheWireFormat() throws Exception
+    {
+        CamelRouteProperties routeProperties = new CamelRouteProperties();
+        routeProperties.setToRoute("mock:smile-out");
+        CamelMessageProducer producer = new CamelMessageProducer(camelContext, routeProperties, new ObjectMapper(), false, 1, "STRING",
+                    WireFormat.SMILE, (PayloadCompressor) null);
+        MockEndpoint mockEndpoint = camelContext.getEndpoint("mock:smile-out", MockEndpoint.class);
+        mockEndpoint.expectedMessageCount(2);
+
+        producer.send(Collections.singletonMap("name", "event"));
+        producer.send(new EncodedBody(new byte[] { 1, 2 }, WireFormat.CBOR));
+
+        mockEndpoint.assertIsSatisfied();
+        byte[] smileBody = (byte[]) mockEndpoint.getReceivedExchanges().get(0).getIn().getBody();
+        assertEquals(":)", new String(smileBody, 0, 2, StandardCharsets.US_ASCII));
+        assertEquals("application/x-jackson-smile", mockEndpoint.getReceivedExchanges().get(0).getIn().getHeader(Exchange.CONTENT_TYPE));
+        assertArrayEquals(new byte[] { 1, 2 }, (byte[]) mockEndpoint.getReceivedExchanges().get(1).getIn().getBody());
+        assertEquals("application/cbor", mockEndpoint.getReceivedExchanges().get(1).getIn().getHeader(Exchange.CONTENT_TYPE));
+    }
+
+    @Test
+    public void testCompressedBodies() throws Exception
+    {
+        CamelRouteProperties routeProperties = new CamelRouteProperties();
+        routeProperties.setToRoute("mock:compressed-out");
+        PayloadCompressor compressor = new PayloadCompressor(Codec.GZIP, 6, 64);
+        CamelMessageProducer producer = new CamelMessageProducer(camelContext, routeProperties, new ObjectMapper(), false, 1, "STRING",
+                    WireFormat.JSON, compressor);
+        MockEndpoint mockEndpoint = camelContext.getEndpoint("mock:compressed-out", MockEndpoint.class);
+        mockEndpoint.expectedMessageCount(2);
+
+        producer.send(Collections.singletonMap("name", "small"));
+        producer.send(Collections.singletonMap("name", String.join("", Collections.nCopies(100, "large"))));
+
+        mockEndpoint.assertIsSatisfied();
+        assertEquals("{\"name\":\"small\"}", mockEndpoint.getReceivedExchanges().get(0).getIn().getBody());
+        assertEquals(null, mockEndpoint.getReceivedExchanges().get(0).getIn().getHeader(Exchange.CONTENT_ENCODING));
+        assertEquals("gzip", mockEndpoint.getReceivedExchanges().get(1).getIn().getHeader(Exchange.CONTENT_ENCODING));
+        assertEquals("application/json", mockEndpoint.getReceivedExchanges().get(1).getIn().getHeader(Exchange.CONTENT_TYPE));
+        assertTrue(((byte[]) mockEndpoint.getReceivedExchanges().get(1).getIn().getBody()).length < 500);
+        assertEquals(1, compressor.getCompressed());
+        assertTrue(producer.appendReport(new StringBuilder()).toString().contains("Compression (GZIP level 6"));
+    }
+
+    private CamelMessageProducer createProducer(String toRoute, int maxInFlight)
+    {
+        CamelRouteProperties routeProperties = new CamelRouteProperties();
+        routeProperties.setToRoute(toRoute);
+        return new CamelMessageProducer(camelContext, routeProperties, new ObjectMapper(), true, maxInFlight, "STRING", WireFormat.JSON,
+                    (PayloadCompressor) null);
+    }
+}
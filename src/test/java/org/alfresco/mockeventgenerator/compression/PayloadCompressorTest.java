@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.compression;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.serialization.WireFormat;
+import org.junit.Test;
+
+import com.github.luben.zstd.Zstd;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+
+/**
+ * Unit tests for {@link Codec} and {@link PayloadCompressor}.
+ */
+public class PayloadCompressorTest
+{
+    @Test
+    public void testCodecsWriteTheirStandardFormats() throws Exception
+    {
+        byte[] input = EventMaker.getRandomRawActivitiEvent().getBytes(StandardCharsets.UTF_8);
+        for (Integer level : new Integer[] { null, 1, 9 })
+        {
+            byte[] gzip = Codec.GZIP.newEncoder(level).encode(input);
+            assertTrue(gzip.length < input.length);
+            assertArrayEquals(input, readAll(new GZIPInputStream(new ByteArrayInputStream(gzip))));
+
+            byte[] lz4 = Codec.LZ4.newEncoder((level == null) ? null : level - 1).encode(input);
+            assertTrue(lz4.length < input.length);
+            assertArrayEquals(input, readAll(new LZ4FrameInputStream(new ByteArrayInputStream(lz4))));
+
+            byte[] zstd = Codec.ZSTD.newEncoder(level).encode(input);
+            assertTrue(zstd.length < input.length);
+            assertArrayEquals(input, Zstd.decompress(zstd, input.length));
+        }
+        // Empty and incompressible inputs
+        assertArrayEquals(new byte[0], readAll(new LZ4FrameInputStream(new ByteArrayInputStream(Codec.LZ4.newEncoder(null).encode(new byte[0])))));
+        byte[] random = new byte[5000];
+        new Random(42).nextBytes(random);
+        assertArrayEquals(random, readAll(new LZ4FrameInputStream(new ByteArrayInputStream(Codec.LZ4.newEncoder(null).encode(random)))));
+    }
+
+    @Test
+    public void testLevelRange()
+    {
+        try
+        {
+            Codec.GZIP.newEncoder(10);
+            fail("The gzip levels are 0 to 9");
+        }
+        catch (IllegalArgumentException ex)
+        {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testMinSizeAndAccounting() throws Exception
+    {
+        PayloadCompressor compressor = new PayloadCompressor(Codec.GZIP, null, 100);
+        assertNull(compressor.compress("{\"small\":true}"));
+        String large = EventMaker.getRandomRawActivitiEvent();
+        byte[] compressed = compressor.compress(large);
+        assertArrayEquals(large.getBytes(StandardCharsets.UTF_8), readAll(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+        byte[] random = new byte[1000];
+        new Random(42).nextBytes(random);
+        assertNull(compressor.compress(random));
+
+        assertEquals(1, compressor.getCompressed());
+        assertEquals(1, compressor.getBelowMinSize());
+        assertEquals(1, compressor.getNotSmaller());
+        assertTrue(compressor.getRatio() < 1.0);
+        String report = compressor.appendReport(new StringBuilder()).toString();
+        assertTrue(report, report.contains("GZIP level 6") && report.contains("Compressed: 1"));
+    }
+
+    @Test
+    public void testHeaders()
+    {
+        PayloadCompressor compressor = new PayloadCompressor(Codec.ZSTD, 3, 0);
+        Map<String, Object> headers = compressor.withContentEncoding(WireFormat.SMILE, Collections.singletonMap("index", 1));
+        assertEquals("zstd", headers.get("Content-Encoding"));
+        assertEquals("application/x-jackson-smile", headers.get("Content-Type"));
+        assertEquals(1, headers.get("index"));
+        assertEquals("zstd", compressor.withContentEncoding(WireFormat.JSON, Collections.emptyMap()).get("Content-Encoding"));
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException
+    {
+        try (InputStream input = in)
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1)
+            {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
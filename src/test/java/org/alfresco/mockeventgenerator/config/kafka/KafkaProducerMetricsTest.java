@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.config.kafka;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class KafkaProducerMetricsTest
+{
+    @Test
+    public void testReportWithoutProducer()
+    {
+        MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        String report = new KafkaProducerMetrics(new KafkaProperties.Producer(), mBeanServer).appendReport(new StringBuilder()).toString();
+
+        assertTrue(report, report.contains("Kafka producer settings: defaults"));
+        assertTrue(report, report.contains("Kafka producer metrics: none registered"));
+    }
+
+    @Test
+    public void testReportProducerMetrics() throws Exception
+    {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("record-send-rate", 1234.5);
+        metrics.put("batch-size-avg", 16384.0);
+        metrics.put("request-latency-avg", Double.NaN);
+        MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        mBeanServer.registerMBean(new FakeMetrics(metrics), new ObjectName("kafka.producer:type=producer-metrics,client-id=generator"));
+
+        KafkaProperties.Producer producer = new KafkaProperties.Producer();
+        producer.setLingerMs(10);
+        String report = new KafkaProducerMetrics(producer, mBeanServer).appendReport(new StringBuilder()).toString();
+
+        assertTrue(report, report.contains("Kafka producer settings: {lingerMs=10}"));
+        assertTrue(report, report.contains("Kafka producer metrics (client generator):"));
+        assertTrue(report, report.contains("\n\t\trecord-send-rate: 1234.50"));
+        assertTrue(report, report.contains("\n\t\tbatch-size-avg: 16384.00"));
+        assertTrue(report, report.contains("\n\t\trequest-latency-avg: n/a"));
+        // The metrics the producer doesn't have are left out
+        assertTrue(report, !report.contains("bufferpool-wait-ratio"));
+    }
+
+    private static class FakeMetrics implements DynamicMBean
+    {
+        private final Map<String, Object> metrics;
+
+        FakeMetrics(Map<String, Object> metrics)
+        {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException
+        {
+            if (!metrics.containsKey(attribute))
+            {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return metrics.get(attribute);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes)
+        {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes)
+            {
+                if (metrics.containsKey(attribute))
+                {
+                    list.add(new Attribute(attribute, metrics.get(attribute)));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo()
+        {
+            return new MBeanInfo(FakeMetrics.class.getName(), "Fake producer metrics", null, null, null, null);
+        }
+    }
+}
@@ -18,7 +18,11 @@ package org.alfresco.mockeventgenerator.config.kafka;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.alfresco.mockeventgenerator.AbstractCamelTest;
+import org.alfresco.mockeventgenerator.config.CamelRouteProperties;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ActiveProfiles;
@@ -44,6 +48,41 @@ public class KafkaTest extends AbstractCamelTest
         assertEquals("direct:topic=" + TOPIC_NAME, properties.getCamelRoute().getToRoute());
     }
 
+    @Test
+    public void testProducerEndpointOptions()
+    {
+        KafkaProperties.Producer producer = new KafkaProperties.Producer();
+        assertEquals(Collections.emptyMap(), producer.getEndpointOptions());
+
+        producer.setLingerMs(20);
+        producer.setBatchSize(65536);
+        producer.setCompressionType(KafkaProperties.CompressionType.LZ4);
+        producer.setAcks("ALL");
+        Map<String, Object> options = producer.getEndpointOptions();
+        assertEquals("{lingerMs=20, producerBatchSize=65536, compressionCodec=lz4, requestRequiredAcks=all}", options.toString());
+
+        CamelRouteProperties route = new CamelRouteProperties();
+        route.setToRoute("kafka:events?brokers=localhost:9092&lingerMs=5");
+        KafkaConfig.withEndpointOptions(route, options);
+        // The options already in the URI take precedence
+        assertEquals("kafka:events?brokers=localhost:9092&lingerMs=5&producerBatchSize=65536&compressionCodec=lz4&requestRequiredAcks=all",
+                    route.getToRoute());
+
+        route.setToRoute("kafka:events");
+        KafkaConfig.withEndpointOptions(route, Collections.singletonMap("clientId", "generator"));
+        assertEquals("kafka:events?clientId=generator", route.getToRoute());
+
+        route.setToRoute("direct:topic=" + TOPIC_NAME);
+        KafkaConfig.withEndpointOptions(route, options);
+        assertEquals("direct:topic=" + TOPIC_NAME, route.getToRoute());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidAcks()
+    {
+        new KafkaProperties.Producer().setAcks("2");
+    }
+
     @Override
     protected String getRoute()
     {
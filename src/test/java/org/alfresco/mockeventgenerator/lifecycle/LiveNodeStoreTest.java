@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.lifecycle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LiveNodeStore}.
+ */
+public class LiveNodeStoreTest
+{
+    @Test
+    public void testAddAndRemove()
+    {
+        // Spans several chunks
+        final int capacity = 200_000;
+        LiveNodeStore store = new LiveNodeStore(capacity);
+        for (int i = 0; i < capacity; i++)
+        {
+            assertEquals(i, store.add(i, -i, i % 1000, i % 10));
+        }
+        assertEquals(-1, store.add(0L, 0L, 0, 0));
+        assertEquals((long) capacity * LiveNodeStore.RECORD_SIZE, store.getAllocatedBytes());
+
+        // The last node takes the place of the removed one
+        store.remove(5);
+        assertEquals(capacity - 1, store.size());
+        assertEquals(capacity - 1, store.getIdMsb(5));
+        assertEquals(-(capacity - 1), store.getIdLsb(5));
+        assertEquals((capacity - 1) % 1000, store.getParent(5));
+        assertEquals((capacity - 1) % 10, store.getSite(5));
+
+        store.setParent(5, 42, 7);
+        assertEquals(42, store.getParent(5));
+        assertEquals(7, store.getSite(5));
+        assertEquals(capacity - 1, store.getIdMsb(5));
+    }
+
+    @Test
+    public void testRandomSlots()
+    {
+        LiveNodeStore store = new LiveNodeStore(100);
+        assertEquals(-1, store.randomSlot());
+        for (int i = 0; i < 10; i++)
+        {
+            store.add(i, i, 0, 0);
+        }
+        Set<Integer> slots = new HashSet<>();
+        for (int i = 0; i < 1000; i++)
+        {
+            int slot = store.randomSlot();
+            assertTrue(slot >= 0 && slot < 10);
+            slots.add(slot);
+        }
+        assertEquals(10, slots.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRemovedSlotIsNotLive()
+    {
+        LiveNodeStore store = new LiveNodeStore(10);
+        store.add(1L, 1L, 0, 0);
+        store.remove(0);
+        store.getIdMsb(0);
+    }
+}
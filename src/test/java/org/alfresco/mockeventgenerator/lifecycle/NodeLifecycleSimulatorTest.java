@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.lifecycle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link NodeLifecycleSimulator}.
+ */
+public class NodeLifecycleSimulatorTest
+{
+    @Test
+    public void testChangesAreCausallyValid()
+    {
+        NodeLifecycleSimulator simulator = new NodeLifecycleSimulator(500, new FlatFolderCatalog(20, 4), Collections.emptyMap());
+        Set<String> liveNodes = new HashSet<>();
+        Set<String> deletedNodes = new HashSet<>();
+        for (int i = 0; i < 50_000; i++)
+        {
+            NodeChange change = simulator.next();
+            String nodeId = change.getNodeId();
+            assertTrue(change.getFolder() >= 0 && change.getFolder() < 20);
+            switch (change.getOperation())
+            {
+                case ADD:
+                    assertTrue("Added twice: " + nodeId, liveNodes.add(nodeId));
+                    assertFalse(deletedNodes.contains(nodeId));
+                    break;
+                case DELETE:
+                    assertTrue("Deleted but not live: " + nodeId, liveNodes.remove(nodeId));
+                    deletedNodes.add(nodeId);
+                    break;
+                default:
+                    assertTrue(change.getOperation() + " but not live: " + nodeId, liveNodes.contains(nodeId));
+            }
+        }
+        assertEquals(liveNodes.size(), simulator.getNumOfLiveNodes());
+        // Full, so the additions turned into deletions
+        assertTrue(simulator.getNumOfLiveNodes() <= 500);
+        assertTrue(simulator.getCount(NodeOperation.DELETE) > 0);
+    }
+
+    @Test
+    public void testFolderHierarchy()
+    {
+        FlatFolderCatalog folders = new FlatFolderCatalog(20, 4);
+        assertEquals(3, folders.getHierarchy(5).size());
+        assertEquals(folders.getHierarchy(5).get(0).getId(), folders.getHierarchy(5).get(0).getId());
+        // Folders 1 and 5 are in the same site
+        assertEquals(folders.getHierarchy(1).get(2).getId(), folders.getHierarchy(5).get(2).getId());
+        assertFalse(folders.getHierarchy(1).get(0).getId().equals(folders.getHierarchy(5).get(0).getId()));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ConcurrencySweep}.
+ */
+public class ConcurrencySweepTest
+{
+    @Test
+    public void testLevels()
+    {
+        assertEquals(Arrays.asList(1), ConcurrencySweep.levelsUpTo(1));
+        assertEquals(Arrays.asList(1, 2, 4, 8), ConcurrencySweep.levelsUpTo(8));
+        assertEquals(Arrays.asList(1, 2, 4, 8, 10), ConcurrencySweep.levelsUpTo(10));
+    }
+
+    @Test
+    public void testSaturationLevel()
+    {
+        ConcurrencySweep sweep = new ConcurrencySweep();
+        // Per second: 1000, 1900, 3500, then flat
+        addLevel(sweep, 1, 1000);
+        addLevel(sweep, 2, 1900);
+        addLevel(sweep, 4, 3500);
+        addLevel(sweep, 8, 3600);
+        addLevel(sweep, 16, 3550);
+
+        assertEquals(4, sweep.getSaturationLevel().getConcurrency());
+    }
+
+    @Test
+    public void testStillScaling()
+    {
+        ConcurrencySweep sweep = new ConcurrencySweep();
+        addLevel(sweep, 1, 1000);
+        addLevel(sweep, 2, 2000);
+        addLevel(sweep, 3, 2800);
+
+        assertNull(sweep.getSaturationLevel());
+    }
+
+    private static void addLevel(ConcurrencySweep sweep, int concurrency, int sentPerSecond)
+    {
+        ConcurrencySweep.Level level = sweep.startLevel(concurrency);
+        for (int i = 0; i < sentPerSecond; i++)
+        {
+            level.recordSent(1000L);
+        }
+        level.endAt(level.getStartNanos() + TimeUnit.SECONDS.toNanos(1));
+    }
+}
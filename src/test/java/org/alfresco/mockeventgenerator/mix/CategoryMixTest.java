@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.mix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.serialization.BodyType;
+import org.alfresco.mockeventgenerator.serialization.WireFormat;
+import org.json.JSONObject;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CategoryMix}.
+ */
+public class CategoryMixTest
+{
+    @Test
+    public void testSharesAndCounters()
+    {
+        Map<String, Double> weights = new HashMap<>();
+        weights.put("ACS_RAW_EVENT", 3.0);
+        weights.put("acs-public-event", 1.0);
+        weights.put("ACTIVITI_PUBLIC_EVENT", 1.0);
+        CategoryMix mix = newJsonMix(weights);
+        assertEquals(0.6, mix.getShare(EventTypeCategory.ACS_RAW_EVENT), 1e-9);
+        assertEquals(0.0, mix.getShare(EventTypeCategory.CLOUD_CONNECTOR_EVENT), 1e-9);
+
+        final int numOfEvents = 10_000;
+        for (int i = 0; i < numOfEvents; i++)
+        {
+            Object event = mix.nextEvent();
+            if (event instanceof List)
+            {
+                for (Object message : (List<?>) event)
+                {
+                    new JSONObject((String) message);
+                }
+            }
+            else
+            {
+                new JSONObject((String) event);
+            }
+        }
+        long rawAcs = mix.getEvents(EventTypeCategory.ACS_RAW_EVENT);
+        long publicAcs = mix.getEvents(EventTypeCategory.ACS_PUBLIC_EVENT);
+        long publicActiviti = mix.getEvents(EventTypeCategory.ACTIVITI_PUBLIC_EVENT);
+        assertEquals(numOfEvents, rawAcs + publicAcs + publicActiviti);
+        assertEquals(0L, mix.getEvents(EventTypeCategory.CLOUD_CONNECTOR_EVENT));
+        assertEquals(0.6, rawAcs / (double) numOfEvents, 0.03);
+        assertEquals(rawAcs, mix.getMessages(EventTypeCategory.ACS_RAW_EVENT));
+        // The public Activiti events come in groups of messages
+        assertTrue(mix.getMessages(EventTypeCategory.ACTIVITI_PUBLIC_EVENT) > publicActiviti);
+    }
+
+    @Test
+    public void testEachCategoryUsesItsOwnMapper()
+    {
+        Map<String, Double> weights = new HashMap<>();
+        weights.put("ACS_RAW_EVENT", 1.0);
+        JSONObject rawEvent = new JSONObject((String) newJsonMix(weights).nextEvent());
+        // The raw ACS mapper writes the type information
+        assertTrue(rawEvent.toString(), rawEvent.has("@class"));
+
+        weights.clear();
+        weights.put("ACS_PUBLIC_EVENT", 1.0);
+        JSONObject publicEvent = new JSONObject((String) newJsonMix(weights).nextEvent());
+        assertTrue(publicEvent.toString(), !publicEvent.has("@class"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownCategory()
+    {
+        Map<String, Double> weights = new HashMap<>();
+        weights.put("UNKNOWN_EVENT", 1.0);
+        newJsonMix(weights);
+    }
+
+    private static CategoryMix newJsonMix(Map<String, Double> weights)
+    {
+        return new CategoryMix(weights, BodyType.STRING, category -> WireFormat.JSON);
+    }
+}
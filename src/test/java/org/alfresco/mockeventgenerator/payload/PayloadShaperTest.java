@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.payload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.alfresco.event.model.EventV1;
+import org.alfresco.event.model.ResourceV1;
+import org.alfresco.event.model.acs.NodeResourceV1;
+import org.alfresco.event.model.activiti.VariableResourceV1;
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.config.PayloadProperties;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for {@link PayloadShaper}.
+ */
+public class PayloadShaperTest
+{
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testFillReachesTargetSize() throws Exception
+    {
+        PayloadShaper shaper = new PayloadShaper(new PayloadProperties());
+        for (int target : new int[] { 0, 100, 500, 4096, 12_345, 1024 * 1024, 3 * 1024 * 1024 })
+        {
+            // Without the braces of the map
+            int bytes = mapper.writeValueAsBytes(shaper.fill(new HashMap<>(), target)).length - 2;
+            assertTrue("Target " + target + ", got " + bytes, bytes <= Math.max(target, 0) && bytes >= target - 40);
+        }
+    }
+
+    @Test
+    public void testLogNormalSizes() throws Exception
+    {
+        PayloadProperties props = new PayloadProperties();
+        props.setSize(PayloadSize.LOGNORMAL);
+        props.setMinBytes(500);
+        props.setMaxBytes(1024 * 1024);
+        props.setMedianBytes(4096);
+        int belowMedian = 0;
+        for (int i = 0; i < 10_000; i++)
+        {
+            int target = PayloadSize.LOGNORMAL.nextTargetBytes(props);
+            assertTrue(target >= 500 && target <= 1024 * 1024);
+            belowMedian += (target < 4096) ? 1 : 0;
+        }
+        assertEquals(0.5, belowMedian / 10_000.0, 0.05);
+    }
+
+    @Test
+    public void testExtraAspects()
+    {
+        PayloadProperties props = new PayloadProperties();
+        PayloadShaper shaper = new PayloadShaper(props);
+        Set<String> aspects = Collections.singleton("cm:auditable");
+        assertSame(aspects, shaper.withExtraAspects(aspects));
+
+        props.setExtraAspects(5);
+        assertEquals(6, new PayloadShaper(props).withExtraAspects(aspects).size());
+    }
+
+    @Test
+    public void testPublicEventsArePadded() throws Exception
+    {
+        PayloadProperties props = new PayloadProperties();
+        props.setSize(PayloadSize.FIXED);
+        props.setBytes(8192);
+        props.setExtraAspects(2);
+        EventMaker.setPayloadShaper(new PayloadShaper(props));
+        try
+        {
+            NodeResourceV1 node = (NodeResourceV1) EventMaker.PublicAcsEventInstance.NODE_ADDED_EVENT.getEvent().getResource();
+            assertTrue(mapper.writeValueAsBytes(node.getProperties()).length > 8000);
+            assertTrue(node.getAspects().contains("mock:aspect1"));
+
+            List<EventV1<? extends ResourceV1>> events = EventMaker.PublicActivitiEventInstance.PROCESS_CREATED.getEvents();
+            VariableResourceV1<?> payload = events.stream()
+                        .filter(event -> "VARIABLE_CREATED".equals(event.getType()))
+                        .map(event -> (VariableResourceV1<?>) event.getResource())
+                        .filter(variable -> "payload".equals(variable.getName()))
+                        .findFirst()
+                        .get();
+            assertTrue(mapper.writeValueAsBytes(payload.getValue()).length > 8000);
+        }
+        finally
+        {
+            EventMaker.setPayloadShaper(null);
+        }
+        NodeResourceV1 node = (NodeResourceV1) EventMaker.PublicAcsEventInstance.NODE_ADDED_EVENT.getEvent().getResource();
+        assertEquals("Not padded unless the payloads are shaped", null, node.getProperties());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link EventPool}.
+ */
+public class EventPoolTest
+{
+    @Test
+    public void testPrefillAndTake() throws Exception
+    {
+        AtomicInteger counter = new AtomicInteger();
+        EventPool eventPool = new EventPool(100, 2, () -> "event-" + counter.incrementAndGet()).start();
+        try
+        {
+            eventPool.awaitFill(50);
+            assertTrue(eventPool.size() >= 50);
+
+            // Draining more than the capacity keeps the generators going
+            Set<Object> taken = new HashSet<>();
+            for (int i = 0; i < 1000; i++)
+            {
+                taken.add(eventPool.take());
+            }
+            assertEquals("Every event is taken once", 1000, taken.size());
+            assertTrue(eventPool.getGenerated() >= 1000);
+        }
+        finally
+        {
+            eventPool.stop();
+        }
+    }
+
+    @Test
+    public void testPrefillIsCappedAtCapacity() throws Exception
+    {
+        EventPool eventPool = new EventPool(10, 1, () -> "event").start();
+        try
+        {
+            eventPool.awaitFill(1000);
+            assertEquals(10, eventPool.size());
+            assertTrue(eventPool.appendReport(new StringBuilder()).toString().contains("Generator stalls"));
+        }
+        finally
+        {
+            eventPool.stop();
+        }
+    }
+
+    @Test(timeout = 10_000L)
+    public void testGeneratorFailureIsRethrown() throws Exception
+    {
+        AtomicInteger counter = new AtomicInteger();
+        EventPool eventPool = new EventPool(100, 2, () -> {
+            if (counter.incrementAndGet() > 5)
+            {
+                throw new IllegalArgumentException("No more events");
+            }
+            return "event";
+        }).start();
+        try
+        {
+            try
+            {
+                eventPool.awaitFill(50);
+                fail("The pool can't be filled");
+            }
+            catch (IllegalStateException ex)
+            {
+                assertTrue(ex.getCause() instanceof IllegalArgumentException);
+            }
+
+            // The events generated before the failure are still taken
+            for (int i = 0; i < 5; i++)
+            {
+                assertEquals("event", eventPool.take());
+            }
+            try
+            {
+                eventPool.take();
+                fail("The pool is empty and its generators failed");
+            }
+            catch (IllegalStateException ex)
+            {
+                assertTrue(ex.getCause() instanceof IllegalArgumentException);
+            }
+        }
+        finally
+        {
+            eventPool.stop();
+        }
+    }
+}
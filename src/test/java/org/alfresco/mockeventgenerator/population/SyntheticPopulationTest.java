@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.population;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.alfresco.mockeventgenerator.config.PopulationProperties;
+import org.alfresco.mockeventgenerator.util.UserInfo;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SyntheticPopulation} and its {@link AccessDistribution}s.
+ */
+public class SyntheticPopulationTest
+{
+    private static final int NUM_OF_PICKS = 500_000;
+
+    @Test
+    public void testZipfDistribution()
+    {
+        final int size = 1000;
+        int[] counts = count(new ZipfSampler(size, 1.0), size);
+        double harmonic = 0.0;
+        for (int k = 1; k <= size; k++)
+        {
+            harmonic += 1.0 / k;
+        }
+        for (int k = 1; k <= 3; k++)
+        {
+            assertEquals("Rank " + k, 1.0 / (k * harmonic), counts[k - 1] / (double) NUM_OF_PICKS, 0.005);
+        }
+        assertTrue(counts[size - 1] > 0);
+    }
+
+    @Test
+    public void testHotSetDistribution()
+    {
+        PopulationProperties props = new PopulationProperties();
+        props.setHotSetFraction(0.1);
+        props.setHotAccessFraction(0.9);
+        final int size = 1000;
+        int[] counts = count(AccessDistribution.HOT_SET.create(size, props), size);
+        long hotPicks = 0;
+        for (int i = 0; i < 100; i++)
+        {
+            hotPicks += counts[i];
+        }
+        assertEquals(0.9, hotPicks / (double) NUM_OF_PICKS, 0.01);
+    }
+
+    @Test
+    public void testPopulation()
+    {
+        PopulationProperties props = new PopulationProperties();
+        props.setUsers(100_000);
+        props.setGroups(10);
+        props.setSites(20);
+        SyntheticPopulation population = new SyntheticPopulation(props);
+        assertEquals(100_000, population.getNumOfUsers());
+
+        UserInfo user = population.getUser(99_999);
+        assertTrue(user.getUserName().endsWith("99999"));
+        assertEquals(user.getUserName(), population.getUserName(99_999));
+        assertTrue(user.getAge() >= 18);
+        // The names of the most picked entries are built once
+        assertSame(population.getUserName(0), population.getUserName(0));
+        assertEquals("GROUP_9", population.getGroupName(9));
+        assertEquals("site19", population.getSiteId(19));
+
+        // The same population on every run
+        assertEquals(user.getUserName(), new SyntheticPopulation(props).getUserName(99_999));
+
+        for (int i = 0; i < 10_000; i++)
+        {
+            int group = population.nextGroup();
+            assertTrue(group >= 0 && group < 10);
+        }
+    }
+
+    private static int[] count(IndexSampler sampler, int size)
+    {
+        int[] counts = new int[size];
+        for (int i = 0; i < NUM_OF_PICKS; i++)
+        {
+            counts[sampler.next()]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ProcessInstanceSimulator}.
+ */
+public class ProcessInstanceSimulatorTest
+{
+    @Test
+    public void testInstancesGoThroughAllStagesInOrder()
+    {
+        AtomicInteger users = new AtomicInteger();
+        ProcessInstanceSimulator simulator = new ProcessInstanceSimulator(1000, 1000L, () -> "user" + users.incrementAndGet());
+        Map<String, ProcessStep> lastSteps = new HashMap<>();
+        long lastTime = 0L;
+        int completed = 0;
+        for (int i = 0; i < 100_000; i++)
+        {
+            ProcessStep step = simulator.next();
+            ProcessStep previous = lastSteps.get(step.getProcessInstanceId());
+            if (step.getStage() == ProcessStage.START)
+            {
+                // Never a process that was already started
+                assertNull(previous);
+                assertNull(step.getAssignee());
+            }
+            else if (previous != null)
+            {
+                assertEquals(previous.getStage().next(), step.getStage());
+                assertEquals(previous.getTaskId(), step.getTaskId());
+                if (step.getStage() != ProcessStage.TASK_ASSIGNED)
+                {
+                    assertEquals(previous.getAssignee(), step.getAssignee());
+                }
+            }
+            if (step.getStage().compareTo(ProcessStage.TASK_ASSIGNED) >= 0)
+            {
+                assertNotNull(step.getAssignee());
+            }
+            if (step.getStage() == ProcessStage.PROCESS_COMPLETED)
+            {
+                completed++;
+            }
+            lastSteps.put(step.getProcessInstanceId(), step);
+
+            assertTrue(simulator.getSimulatedTimeMillis() >= lastTime);
+            lastTime = simulator.getSimulatedTimeMillis();
+        }
+        assertEquals(completed, simulator.getCount(ProcessStage.PROCESS_COMPLETED));
+        assertTrue("Completed: " + completed, completed > 10_000);
+        assertEquals(simulator.getCount(ProcessStage.TASK_ASSIGNED), users.get());
+    }
+
+    @Test
+    public void testInstancesInterleave()
+    {
+        ProcessInstanceSimulator simulator = new ProcessInstanceSimulator(100, 1000L, () -> "user");
+        // The first steps all start different instances, rather than running one instance to completion
+        Map<String, Integer> started = new HashMap<>();
+        for (int i = 0; i < 50; i++)
+        {
+            ProcessStep step = simulator.next();
+            started.merge(step.getProcessInstanceId(), 1, Integer::sum);
+        }
+        assertTrue("Instances: " + started.size(), started.size() > 25);
+    }
+}
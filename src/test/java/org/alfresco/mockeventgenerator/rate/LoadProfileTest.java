@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.rate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.mockeventgenerator.config.LoadProfileProperties;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link LoadProfileType} shapes.
+ */
+public class LoadProfileTest
+{
+    private static final long RUN_NANOS = TimeUnit.SECONDS.toNanos(100);
+
+    @Test
+    public void testRamp()
+    {
+        LoadProfileProperties props = properties(LoadProfileType.RAMP, 100, 1100);
+        LoadProfile profile = props.createLoadProfile(RUN_NANOS);
+
+        assertEquals(100.0, profile.rateAt(0L), 0.001);
+        assertEquals(600.0, profile.rateAt(seconds(50)), 0.001);
+        assertEquals(1100.0, profile.rateAt(RUN_NANOS), 0.001);
+    }
+
+    @Test
+    public void testStep()
+    {
+        LoadProfileProperties props = properties(LoadProfileType.STEP, 100, 250);
+        props.setStepRate(50);
+        props.setPeriodInSeconds(10);
+        LoadProfile profile = props.createLoadProfile(RUN_NANOS);
+
+        assertEquals(100.0, profile.rateAt(seconds(9)), 0.001);
+        assertEquals(150.0, profile.rateAt(seconds(10)), 0.001);
+        assertEquals(200.0, profile.rateAt(seconds(25)), 0.001);
+        // Capped at the peak rate
+        assertEquals(250.0, profile.rateAt(seconds(90)), 0.001);
+    }
+
+    @Test
+    public void testSine()
+    {
+        LoadProfileProperties props = properties(LoadProfileType.SINE, 100, 300);
+        props.setPeriodInSeconds(20);
+        LoadProfile profile = props.createLoadProfile(RUN_NANOS);
+
+        assertEquals(100.0, profile.rateAt(0L), 0.001);
+        assertEquals(200.0, profile.rateAt(seconds(5)), 0.001);
+        assertEquals(300.0, profile.rateAt(seconds(10)), 0.001);
+        assertEquals(100.0, profile.rateAt(seconds(20)), 0.001);
+    }
+
+    @Test
+    public void testRepeatingSpike()
+    {
+        LoadProfileProperties props = properties(LoadProfileType.SPIKE, 10, 1000);
+        props.setSpikeStartInSeconds(5);
+        props.setSpikeDurationInSeconds(2);
+        props.setPeriodInSeconds(30);
+        LoadProfile profile = props.createLoadProfile(RUN_NANOS);
+
+        assertEquals(10.0, profile.rateAt(seconds(4)), 0.001);
+        assertEquals(1000.0, profile.rateAt(seconds(6)), 0.001);
+        assertEquals(10.0, profile.rateAt(seconds(7)), 0.001);
+        assertEquals(1000.0, profile.rateAt(seconds(36)), 0.001);
+    }
+
+    @Test
+    public void testDiurnal()
+    {
+        LoadProfileProperties props = properties(LoadProfileType.DIURNAL, 10, 1000);
+        props.setPeriodInSeconds(24);
+        props.setPeakHour(14);
+        LoadProfile profile = props.createLoadProfile(RUN_NANOS);
+
+        // One second of the run is one hour of the day
+        assertEquals(1000.0, profile.rateAt(seconds(14)), 0.001);
+        assertEquals(10.0, profile.rateAt(seconds(2)), 0.001);
+        assertTrue(profile.rateAt(seconds(10)) > profile.rateAt(seconds(6)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidProfile()
+    {
+        properties(LoadProfileType.SINE, 10, 1000).createLoadProfile(RUN_NANOS);
+    }
+
+    @Test
+    public void testRateControllerFollowsProfile() throws Exception
+    {
+        // Ramp from 0 to 2000 permits per second over half a second, i.e. 500 permits
+        LoadProfileProperties props = properties(LoadProfileType.RAMP, 0, 2000);
+        long runNanos = TimeUnit.MILLISECONDS.toNanos(500);
+        RateController rateController = new RateController(props.createLoadProfile(runNanos), runNanos, 0L).start();
+
+        int firstHalf = 0;
+        int total = 0;
+        long halfway = System.nanoTime() + runNanos / 2;
+        while (rateController.acquire())
+        {
+            total++;
+            if (System.nanoTime() < halfway)
+            {
+                firstHalf++;
+            }
+        }
+        assertEquals(500, total, 2);
+        // A quarter of a linear ramp's permits are in its first half
+        assertTrue("First half: " + firstHalf, firstHalf < total / 2);
+    }
+
+    private static LoadProfileProperties properties(LoadProfileType type, double baseRate, double peakRate)
+    {
+        LoadProfileProperties props = new LoadProfileProperties();
+        props.setType(type);
+        props.setBaseRate(baseRate);
+        props.setPeakRate(peakRate);
+        return props;
+    }
+
+    private static long seconds(long seconds)
+    {
+        return TimeUnit.SECONDS.toNanos(seconds);
+    }
+}
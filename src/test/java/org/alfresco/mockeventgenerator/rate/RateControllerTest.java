@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.rate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RateController}.
+ */
+public class RateControllerTest
+{
+    @Test
+    public void testPermitsAreEvenlyPaced() throws Exception
+    {
+        // 200 permits per second for half a second
+        RateController rateController = new RateController(200, TimeUnit.MILLISECONDS.toNanos(500), 0L).start();
+        List<Long> issueTimes = new ArrayList<>();
+        while (rateController.acquire())
+        {
+            issueTimes.add(System.nanoTime());
+        }
+
+        assertEquals(100, issueTimes.size());
+        assertEquals(100, rateController.getIssued());
+        // The permits must not be issued as a burst: the last one is ~495ms after the first one
+        long spanMillis = TimeUnit.NANOSECONDS.toMillis(issueTimes.get(issueTimes.size() - 1) - issueTimes.get(0));
+        assertTrue("Span was: " + spanMillis, spanMillis >= 450);
+        assertEquals(100, rateController.getDriftHistogram().getCount());
+    }
+
+    @Test
+    public void testSlowSenderCatchesUp() throws Exception
+    {
+        // 1000 permits per second for 200ms, with a sender that stalls for 100ms
+        RateController rateController = new RateController(1000, TimeUnit.MILLISECONDS.toNanos(200), 0L).start();
+        int count = 0;
+        while (rateController.acquire())
+        {
+            if (count++ == 0)
+            {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        // Nothing is lost as there is no catch-up limit
+        assertEquals(200, rateController.getIssued());
+        assertEquals(0, rateController.getSkipped());
+        assertTrue(rateController.getDriftHistogram().getMax() >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testPermitsBeyondCatchUpLimitAreSkipped() throws Exception
+    {
+        RateController rateController = new RateController(1000, TimeUnit.MILLISECONDS.toNanos(200), TimeUnit.MILLISECONDS.toNanos(10))
+                    .start();
+        int count = 0;
+        while (rateController.acquire())
+        {
+            if (count++ == 0)
+            {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        assertTrue(rateController.getSkipped() > 0);
+        assertEquals(200, rateController.getIssued() + rateController.getSkipped(), 2);
+    }
+
+    @Test
+    public void testCancel() throws Exception
+    {
+        RateController rateController = new RateController(10, TimeUnit.SECONDS.toNanos(60), 0L).start();
+        assertTrue(rateController.acquire());
+        rateController.cancel();
+        assertFalse(rateController.acquire());
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.rate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ThroughputGovernor}.
+ */
+public class ThroughputGovernorTest
+{
+    @Test
+    public void testDisabledGovernorDoesNotBlock() throws Exception
+    {
+        ThroughputGovernor governor = new ThroughputGovernor(0, 0);
+        assertFalse(governor.isEnabled());
+        try (ThroughputGovernor.Share share = governor.register("test", 1.0))
+        {
+            long start = System.nanoTime();
+            for (int i = 0; i < 100_000; i++)
+            {
+                share.acquire();
+            }
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    @Test
+    public void testReportKeepsClosedShares() throws Exception
+    {
+        ThroughputGovernor governor = new ThroughputGovernor(100_000, 0);
+        try (ThroughputGovernor.Share share = governor.register("run", 2.0))
+        {
+            for (int i = 0; i < 10; i++)
+            {
+                share.acquire();
+            }
+        }
+        String report = governor.appendReport(new StringBuilder()).toString();
+        assertTrue(report, report.contains("run #1 (weight 2.0, closed) granted: 10"));
+    }
+
+    @Test
+    public void testReportBoundsClosedShares() throws Exception
+    {
+        ThroughputGovernor governor = new ThroughputGovernor(100_000, 0);
+        for (int i = 0; i < 100; i++)
+        {
+            try (ThroughputGovernor.Share share = governor.register("job", 1.0))
+            {
+                share.acquire();
+            }
+        }
+        ThroughputGovernor.Share active = governor.register("active", 1.0);
+        String report = governor.appendReport(new StringBuilder()).toString();
+        assertTrue(report, report.contains("84 older closed share(s) granted: 84"));
+        assertTrue(report, !report.contains("job #84 ") && report.contains("job #85 (weight 1.0, closed) granted: 1"));
+        assertTrue(report, report.contains("active #101 (weight 1.0) granted: 0"));
+        active.close();
+    }
+
+    @Test
+    public void testGlobalCeiling() throws Exception
+    {
+        ThroughputGovernor governor = new ThroughputGovernor(1000, 0);
+        ThroughputGovernor.Share share1 = governor.register("share1", 1.0);
+        ThroughputGovernor.Share share2 = governor.register("share2", 1.0);
+
+        List<Thread> threads = new ArrayList<>();
+        threads.addAll(startSenders(share1, 2, 400));
+        threads.addAll(startSenders(share2, 2, 400));
+        joinAll(threads);
+
+        // 4 threads racing for 400ms at a ceiling of 1000 per second
+        long granted = share1.getGranted() + share2.getGranted();
+        assertTrue("Granted: " + granted, granted >= 300 && granted <= 450);
+        assertEquals(granted, governor.getGranted());
+    }
+
+    @Test
+    public void testWeightedFairSharing() throws Exception
+    {
+        ThroughputGovernor governor = new ThroughputGovernor(2000, 0);
+        ThroughputGovernor.Share light = governor.register("light", 1.0);
+        ThroughputGovernor.Share heavy = governor.register("heavy", 3.0);
+
+        // Let all the senders queue up before the measurement starts
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        threads.addAll(startSenders(light, 2, 500, startGate));
+        threads.addAll(startSenders(heavy, 2, 500, startGate));
+        startGate.countDown();
+        joinAll(threads);
+
+        double ratio = (double) heavy.getGranted() / light.getGranted();
+        assertEquals("Heavy: " + heavy.getGranted() + ", light: " + light.getGranted(), 3.0, ratio, 0.5);
+    }
+
+    @Test
+    public void testUnusedCapacityGoesToBusyShares() throws Exception
+    {
+        ThroughputGovernor governor = new ThroughputGovernor(1000, 0);
+        ThroughputGovernor.Share idle = governor.register("idle", 10.0);
+        ThroughputGovernor.Share busy = governor.register("busy", 1.0);
+
+        joinAll(startSenders(busy, 2, 400));
+
+        // The idle share's much larger weight doesn't hold the busy one back
+        assertEquals(0, idle.getGranted());
+        assertTrue("Granted: " + busy.getGranted(), busy.getGranted() >= 300);
+    }
+
+    private static List<Thread> startSenders(ThroughputGovernor.Share share, int numOfThreads, long durationMillis)
+    {
+        return startSenders(share, numOfThreads, durationMillis, new CountDownLatch(0));
+    }
+
+    private static List<Thread> startSenders(ThroughputGovernor.Share share, int numOfThreads, long durationMillis, CountDownLatch startGate)
+    {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numOfThreads; i++)
+        {
+            Thread thread = new Thread(() -> {
+                try
+                {
+                    startGate.await();
+                    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+                    while (System.nanoTime() < deadline)
+                    {
+                        share.acquire();
+                    }
+                }
+                catch (InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        return threads;
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException
+    {
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+    }
+}
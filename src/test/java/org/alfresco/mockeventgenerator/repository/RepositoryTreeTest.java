@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.alfresco.event.model.HierarchyEntry;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RepositoryTree}.
+ */
+public class RepositoryTreeTest
+{
+    @Test
+    public void testShape()
+    {
+        RepositoryTree tree = new RepositoryTree(3, 2, 4);
+        // 4 root folders and 16 subfolders per site
+        assertEquals(3 * (4 + 16), tree.getNumOfFolders());
+        assertEquals(3, tree.getNumOfSites());
+
+        // The folders of a site are contiguous, each root folder followed by its subfolders
+        assertEquals("/Company Home/Sites/site0/documentLibrary/folder0", tree.getFolderPaths(0).get(0));
+        assertEquals("/Company Home/Sites/site0/documentLibrary/folder0/folder1/", tree.getContentPathPrefix(2));
+        assertEquals("/Company Home/Sites/site0/documentLibrary/folder1", tree.getFolderPaths(5).get(0));
+        assertEquals("site1", tree.getSiteId(20));
+        assertEquals(1, tree.getSite(20));
+        assertEquals(2, tree.getSite(tree.getNumOfFolders() - 1));
+    }
+
+    @Test
+    public void testSharedAncestry()
+    {
+        RepositoryTree tree = new RepositoryTree(2, 3, 3);
+        List<HierarchyEntry> root = tree.getHierarchy(0);
+        List<HierarchyEntry> child = tree.getHierarchy(1);
+        List<HierarchyEntry> grandChild = tree.getHierarchy(2);
+
+        // Company Home, Sites, the site and its document library, then the folders
+        assertEquals(5, root.size());
+        assertEquals(6, child.size());
+        assertEquals(7, grandChild.size());
+        assertEquals(tree.getFolderId(0), root.get(0).getId());
+        assertEquals(tree.getFolderId(1), child.get(0).getId());
+        assertEquals(root, child.subList(1, child.size()));
+        assertEquals(child, grandChild.subList(1, grandChild.size()));
+        assertEquals(child, tree.getFolderHierarchy(2));
+
+        // Every site shares Company Home and Sites, but not the document library
+        List<HierarchyEntry> otherSite = tree.getHierarchy(tree.getNumOfFolders() - 1);
+        assertEquals(root.get(4).getId(), otherSite.get(otherSite.size() - 1).getId());
+        assertEquals(root.get(3).getId(), otherSite.get(otherSite.size() - 2).getId());
+        assertNotEquals(root.get(1).getId(), otherSite.get(otherSite.size() - 4).getId());
+    }
+
+    @Test
+    public void testParentIdsMatchHierarchy()
+    {
+        RepositoryTree tree = new RepositoryTree(2, 2, 2);
+        for (int folder = 0; folder < tree.getNumOfFolders(); folder++)
+        {
+            assertIds(tree.getHierarchy(folder), tree.getContentParentIds(folder));
+            assertIds(tree.getFolderHierarchy(folder), tree.getFolderParentIds(folder));
+            assertTrue(tree.getContentPathPrefix(folder).startsWith(tree.getFolderPaths(folder).get(0) + '/'));
+        }
+    }
+
+    @Test
+    public void testCachedAndStable()
+    {
+        RepositoryTree tree = new RepositoryTree(4, 2, 3);
+        assertSame(tree.getHierarchy(7), tree.getHierarchy(7));
+        assertSame(tree.getContentParentIds(7), tree.getContentParentIds(7));
+        assertSame(tree.getContentPathPrefix(7), tree.getContentPathPrefix(7));
+
+        // The ids are the same on every run
+        RepositoryTree other = new RepositoryTree(4, 2, 3);
+        assertEquals(tree.getFolderId(7), other.getFolderId(7));
+        assertEquals(tree.getHierarchy(7).get(1).getId(), other.getHierarchy(7).get(1).getId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyFolders()
+    {
+        new RepositoryTree(100_000, 3, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyFoldersWithoutOverflow()
+    {
+        // 5^30 levels would overflow a long
+        new RepositoryTree(1, 30, 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManySites()
+    {
+        new RepositoryTree(Integer.MAX_VALUE, 1, Integer.MAX_VALUE);
+    }
+
+    private static void assertIds(List<HierarchyEntry> hierarchy, List<List<String>> parentIds)
+    {
+        assertEquals(1, parentIds.size());
+        assertEquals(hierarchy.size(), parentIds.get(0).size());
+        for (int i = 0; i < hierarchy.size(); i++)
+        {
+            assertEquals(hierarchy.get(i).getId(), parentIds.get(0).get(i));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.serialization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for {@link EventSerializer}.
+ */
+public class EventSerializerTest
+{
+    @Test
+    public void testSameOutputAsTheMapper() throws Exception
+    {
+        for (EventTypeCategory category : EventTypeCategory.values())
+        {
+            ObjectMapper mapper = category.createObjectMapper();
+            EventSerializer serializer = new EventSerializer(mapper, WireFormat.JSON);
+            for (int i = 0; i < 50; i++)
+            {
+                Object event = category.getRandomEvent();
+                for (Object message : (event instanceof Collection) ? (Collection<?>) event : Collections.singletonList(event))
+                {
+                    String expected = (message instanceof String) ? (String) message : mapper.writeValueAsString(message);
+                    assertEquals(category.name(), expected, serializer.writeString(message));
+                    assertArrayEquals(category.name(), expected.getBytes(StandardCharsets.UTF_8), serializer.writeBytes(message));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReusedBufferAndCachedWriters() throws Exception
+    {
+        EventSerializer serializer = new EventSerializer(new ObjectMapper(), WireFormat.JSON);
+        Map<String, Object> small = Collections.singletonMap("name", "small");
+        Map<String, Object> large = new HashMap<>();
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 10_000; i++)
+        {
+            value.append('x');
+        }
+        large.put("name", value.toString());
+
+        byte[] first = serializer.writeBytes(large);
+        byte[] second = serializer.writeBytes(small);
+        assertNotSame(first, second);
+        assertEquals("{\"name\":\"" + value + "\"}", new String(first, StandardCharsets.UTF_8));
+        assertEquals("{\"name\":\"small\"}", new String(second, StandardCharsets.UTF_8));
+        assertSame(serializer.getWriter(HashMap.class), serializer.getWriter(HashMap.class));
+    }
+
+    @Test
+    public void testBodyTypes() throws Exception
+    {
+        EventSerializer serializer = new EventSerializer(new ObjectMapper(), WireFormat.JSON);
+        Map<String, Object> event = Collections.singletonMap("name", "event");
+        assertEquals("{\"name\":\"event\"}", BodyType.STRING.toBody(serializer, event));
+        assertArrayEquals("{\"name\":\"event\"}".getBytes(StandardCharsets.UTF_8), (byte[]) BodyType.BYTES.toBody(serializer, event));
+        assertArrayEquals("[1]".getBytes(StandardCharsets.UTF_8), (byte[]) BodyType.BYTES.toBody(serializer, "[1]"));
+    }
+}
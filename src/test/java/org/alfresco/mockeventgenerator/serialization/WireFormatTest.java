@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.serialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.alfresco.event.model.EventV1;
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.util.EventClock;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.FormatSchema;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Tests the {@link WireFormat wire formats} of {@link EventSerializer}, and {@link WireFormatBenchmark}.
+ */
+public class WireFormatTest
+{
+    @Test
+    public void testBinaryFormatsHoldTheSameDocument() throws Exception
+    {
+        ObjectMapper smileReader = new ObjectMapper(new SmileFactory());
+        ObjectMapper cborReader = new ObjectMapper(new CBORFactory());
+        for (EventTypeCategory category : EventTypeCategory.values())
+        {
+            ObjectMapper mapper = category.createObjectMapper();
+            EventSerializer json = new EventSerializer(mapper, WireFormat.JSON);
+            EventSerializer smile = new EventSerializer(mapper, WireFormat.SMILE);
+            EventSerializer cbor = new EventSerializer(mapper, WireFormat.CBOR);
+            for (int i = 0; i < 20; i++)
+            {
+                Object event = category.getRandomEvent();
+                for (Object message : (event instanceof Collection) ? (Collection<?>) event : Collections.singletonList(event))
+                {
+                    JsonNode expected = mapper.readTree(json.writeBytes(message));
+                    assertEquals(category.name(), expected, smileReader.readTree(smile.writeBytes(message)));
+                    assertEquals(category.name(), expected, cborReader.readTree(cbor.writeBytes(message)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAvroSchemaOfEachResourceType() throws Exception
+    {
+        ObjectMapper mapper = WireFormat.AVRO.adaptMapper(EventTypeCategory.ACS_PUBLIC_EVENT.createObjectMapper());
+        EventSerializer avro = new EventSerializer(EventTypeCategory.ACS_PUBLIC_EVENT.createObjectMapper(), WireFormat.AVRO);
+        for (int i = 0; i < 20; i++)
+        {
+            EventV1<?> event = EventMaker.getRandomPublicAcsEvent();
+            FormatSchema schema = WireFormat.AVRO.createSchema(mapper,
+                        mapper.getTypeFactory().constructParametricType(EventV1.class, event.getResource().getClass()));
+            JsonNode decoded = new AvroMapper().readerFor(JsonNode.class).with(schema).readValue(avro.writeBytes(event));
+            assertEquals(event.getId(), decoded.get("id").asText());
+            assertEquals(event.getResource().getId(), decoded.get("resource").get("id").asText());
+        }
+    }
+
+    @Test
+    public void testSampleEventsOfEachType() throws Exception
+    {
+        List<?> samples = EventTypeCategory.ACS_PUBLIC_EVENT.getSampleEvents();
+        assertEquals(EventMaker.PublicAcsEventInstance.values().length, samples.size());
+        // The same fixed values every time
+        assertEquals(new ObjectMapper().writeValueAsString(samples),
+                    new ObjectMapper().writeValueAsString(EventTypeCategory.ACS_PUBLIC_EVENT.getSampleEvents()));
+
+        EventSerializer avro = new EventSerializer(EventTypeCategory.ACTIVITI_PUBLIC_EVENT.createObjectMapper(), WireFormat.AVRO);
+        for (Object events : EventTypeCategory.ACTIVITI_PUBLIC_EVENT.getSampleEvents())
+        {
+            for (Object event : (List<?>) events)
+            {
+                assertTrue(avro.writeBytes(event).length > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testAvroWritesUntypedValuesAsJson() throws Exception
+    {
+        EventSerializer avro = new EventSerializer(new ObjectMapper(), WireFormat.AVRO);
+        Holder holder = new Holder();
+        holder.values.put("count", 3);
+        FormatSchema schema = WireFormat.AVRO.createSchema(avro.getMapper(), avro.getMapper().constructType(Holder.class));
+        JsonNode decoded = new AvroMapper().readerFor(JsonNode.class).with(schema).readValue(avro.writeBytes(holder));
+        assertEquals("{\"count\":3}", decoded.get("values").asText());
+        try
+        {
+            avro.writeBytes("{\"name\":\"event\"}");
+            fail("Pre-serialized events have no schema");
+        }
+        catch (JsonProcessingException ex)
+        {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testBinaryFormatsAreBytesWhateverTheBodyType() throws Exception
+    {
+        EventSerializer smile = new EventSerializer(new ObjectMapper(), WireFormat.SMILE);
+        assertTrue(BodyType.STRING.toBody(smile, Collections.singletonMap("name", "event")) instanceof byte[]);
+        try
+        {
+            smile.writeString(Collections.singletonMap("name", "event"));
+            fail("A binary format can't be written as a string");
+        }
+        catch (IllegalStateException ex)
+        {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testContentTypeHeader()
+    {
+        assertEquals(Collections.singletonMap("Content-Type", "application/cbor"),
+                    WireFormat.CBOR.withContentType(Collections.emptyMap()));
+        assertEquals("application/json", WireFormat.JSON.withContentType(Collections.singletonMap("index", 1)).get("Content-Type"));
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        EventClock clock = EventClock.synthetic(1_530_000_000_000L, 1L);
+        EventMaker.setClock(clock);
+        WireFormatBenchmark benchmark;
+        try
+        {
+            benchmark = new WireFormatBenchmark(50)
+                        .run(Arrays.asList(EventTypeCategory.ACS_PUBLIC_EVENT, EventTypeCategory.ACTIVITI_RAW_EVENT));
+            assertEquals("The sample events don't move the clock of the live generation on", 1_530_000_000_000L,
+                        clock.currentTimeMillis());
+        }
+        finally
+        {
+            EventMaker.setClock(EventClock.system());
+        }
+
+        WireFormatBenchmark.Result json = benchmark.getResult(EventTypeCategory.ACS_PUBLIC_EVENT, WireFormat.JSON);
+        WireFormatBenchmark.Result smile = benchmark.getResult(EventTypeCategory.ACS_PUBLIC_EVENT, WireFormat.SMILE);
+        assertTrue(smile.isSupported());
+        assertTrue(smile.getMeanSize() < json.getMeanSize());
+        assertTrue(benchmark.getResult(EventTypeCategory.ACTIVITI_RAW_EVENT, WireFormat.CBOR).isSupported());
+        assertTrue(benchmark.getResult(EventTypeCategory.ACS_PUBLIC_EVENT, WireFormat.AVRO).isSupported());
+        assertFalse(benchmark.getResult(EventTypeCategory.ACTIVITI_RAW_EVENT, WireFormat.AVRO).isSupported());
+        assertEquals(null, benchmark.getResult(EventTypeCategory.CLOUD_CONNECTOR_EVENT, WireFormat.JSON));
+
+        String report = benchmark.appendReport(new StringBuilder()).toString();
+        assertTrue(report, report.contains("ACS_PUBLIC_EVENT:") && report.contains("SMILE: mean size="));
+    }
+
+    public static class Holder
+    {
+        private final Map<String, Object> values = new HashMap<>();
+
+        public Map<String, Object> getValues()
+        {
+            return values;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.skeleton;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.alfresco.event.databind.EventObjectMapperFactory;
+import org.alfresco.event.model.EventV1;
+import org.alfresco.event.model.HierarchyEntry;
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.EventMaker.PublicAcsEventInstance;
+import org.alfresco.mockeventgenerator.EventMaker.PublicActivitiEventInstance;
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.config.SkeletonConfig;
+import org.alfresco.mockeventgenerator.config.WireFormatProperties;
+import org.alfresco.mockeventgenerator.serialization.WireFormat;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Conformance tests of {@link EventSkeleton}: the skeletons must render exactly what the mapper writes for
+ * the events built from the same inputs.
+ */
+public class EventSkeletonTest
+{
+    private static final String[] USER_NAMES = { "jsmith", "quote\"d", "back\\slash", "tab\tnew\nline\r\b\f", "ctrl\u0001\u001f\u007f",
+                "caf\u00e9 \u4e2d\u6587 </script>" };
+
+    private final ObjectMapper mapper = EventObjectMapperFactory.createInstance();
+
+    /**
+     * Deterministic inputs, including values that must be escaped, which two instances of the same seed
+     * hand out identically.
+     */
+    private static class SampleInputs implements EventInputs
+    {
+        private final int seed;
+        private int count;
+
+        SampleInputs(int seed)
+        {
+            this.seed = seed;
+        }
+
+        private int next()
+        {
+            return seed * 1000 + count++;
+        }
+
+        @Override
+        public String uuid()
+        {
+            return "id-" + next();
+        }
+
+        @Override
+        public String userName()
+        {
+            final int n = next();
+            return USER_NAMES[n % USER_NAMES.length] + n;
+        }
+
+        @Override
+        public String group()
+        {
+            return "GROUP_\"" + next();
+        }
+
+        @Override
+        public String permission()
+        {
+            return "Site\\Manager" + next();
+        }
+
+        @Override
+        public long currentTimeMillis()
+        {
+            return 1_500_000_000_000L + next() * 7919L;
+        }
+
+        @Override
+        public Date currentDate()
+        {
+            return new Date(1_500_000_000_000L + next() * 1_234_567L);
+        }
+
+        @Override
+        public List<HierarchyEntry> nodeHierarchy()
+        {
+            final int n = next();
+            List<HierarchyEntry> entries = new ArrayList<>();
+            for (int i = 0; i < n % 4; i++)
+            {
+                entries.add(new HierarchyEntry("h" + n + "-" + i, USER_NAMES[i]));
+            }
+            return entries;
+        }
+    }
+
+    @Test
+    public void testPublicAcsEventsSameAsTheMapper() throws Exception
+    {
+        for (PublicAcsEventInstance instance : PublicAcsEventInstance.values())
+        {
+            EventSkeleton skeleton = EventSkeleton.compile(mapper, inputs -> EventMaker.withInputs(inputs, instance::getEvent));
+            assertEquals(1, skeleton.getNumOfEvents());
+            for (int seed = 0; seed < 20; seed++)
+            {
+                EventV1<?> event = EventMaker.withInputs(new SampleInputs(seed), instance::getEvent);
+                assertEquals(instance.name(), mapper.writeValueAsString(event), skeleton.render(new SampleInputs(seed)).get(0));
+            }
+        }
+    }
+
+    @Test
+    public void testPublicActivitiEventsSameAsTheMapper() throws Exception
+    {
+        for (PublicActivitiEventInstance instance : PublicActivitiEventInstance.values())
+        {
+            EventSkeleton skeleton = EventSkeleton.compile(mapper, inputs -> EventMaker.withInputs(inputs, instance::getEvents));
+            for (int seed = 0; seed < 20; seed++)
+            {
+                List<EventV1<?>> events = new ArrayList<>(EventMaker.withInputs(new SampleInputs(seed), instance::getEvents));
+                List<String> expected = new ArrayList<>();
+                for (EventV1<?> event : events)
+                {
+                    expected.add(mapper.writeValueAsString(event));
+                }
+                assertEquals(instance.name(), expected, skeleton.render(new SampleInputs(seed)));
+            }
+        }
+    }
+
+    @Test
+    public void testEscapingSameAsTheMapper() throws Exception
+    {
+        StringBuilder value = new StringBuilder();
+        for (char c = 0; c < 0x800; c++)
+        {
+            value.append(c);
+        }
+        value.append("\ud83d\ude00");
+        assertEquals(mapper.writeValueAsString(value.toString()), EventSkeleton.appendQuoted(new StringBuilder(), value.toString()).toString());
+    }
+
+    @Test
+    public void testSkeletonsReplaceTheEvents() throws Exception
+    {
+        EventMaker.setSkeletons(mapper, mapper);
+        try
+        {
+            Object message = EventMaker.getRandomPublicAcsMessage();
+            assertTrue(message instanceof String);
+            assertTrue(mapper.readTree((String) message).has("resource"));
+            for (Object activitiMessage : EventMaker.getRandomPublicActivitiMessages())
+            {
+                assertTrue(activitiMessage instanceof String);
+                assertTrue(mapper.readTree((String) activitiMessage).has("resource"));
+            }
+        }
+        finally
+        {
+            EventMaker.setSkeletons(null, null);
+        }
+        assertTrue(EventMaker.getRandomPublicAcsMessage() instanceof EventV1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSkeletonsCantBeSentWithSchemas()
+    {
+        WireFormatProperties wireFormats = new WireFormatProperties();
+        wireFormats.setFormats(Collections.singletonMap(EventTypeCategory.ACTIVITI_PUBLIC_EVENT.name(), WireFormat.AVRO));
+        new SkeletonConfig(wireFormats);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.template;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.util.ResourceUtil;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CompiledTemplate}.
+ */
+public class CompiledTemplateTest
+{
+    @Test
+    public void testRender()
+    {
+        AtomicInteger counter = new AtomicInteger();
+        Map<String, CompiledTemplate.Slot> slots = new HashMap<>();
+        slots.put("id", sb -> sb.append('"').append("id-").append(counter.incrementAndGet()).append('"'));
+        slots.put("count", sb -> sb.append(42));
+
+        JSONObject json = new JSONObject();
+        json.put("id", CompiledTemplate.sentinel("id"));
+        json.put("count", CompiledTemplate.sentinel("count"));
+        json.put("name", "static");
+        CompiledTemplate template = CompiledTemplate.compile(json.toString(), slots);
+        assertEquals(2, template.getNumOfSlots());
+
+        JSONObject rendered = new JSONObject(template.render());
+        assertEquals("id-1", rendered.getString("id"));
+        assertEquals(42, rendered.getInt("count"));
+        assertEquals("static", rendered.getString("name"));
+        assertEquals("id-2", new JSONObject(template.render()).getString("id"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownSlot()
+    {
+        CompiledTemplate.compile("{\"id\":\"" + CompiledTemplate.sentinel("unknown") + "\"}", Collections.emptyMap());
+    }
+
+    @Test
+    public void testParsePlaceholders()
+    {
+        Map<String, CompiledTemplate.Slot> slots = new HashMap<>();
+        slots.put("user", sb -> sb.append("jdoe"));
+        CompiledTemplate template = CompiledTemplate.parse("{\"user\":\"${user}\",\"count\":${ randomInt(3, 5) }}", slots);
+        assertEquals(2, template.getNumOfSlots());
+        for (int i = 0; i < 100; i++)
+        {
+            JSONObject rendered = new JSONObject(template.render());
+            assertEquals("jdoe", rendered.getString("user"));
+            int count = rendered.getInt("count");
+            assertTrue("Count: " + count, count >= 3 && count <= 5);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseUnknownPlaceholder()
+    {
+        CompiledTemplate.parse("{\"id\":\"${unknown}\"}", Collections.emptyMap());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseMalformedRandomInt()
+    {
+        CompiledTemplate.parse("{\"count\":${randomInt(5)}}", Collections.emptyMap());
+    }
+
+    @Test
+    public void testRawActivitiEventsMatchTheirResources()
+    {
+        for (String eventFileName : new String[] { "processStarted.json", "taskAssigned.json", "taskCompleted.json" })
+        {
+            JSONArray expected = new JSONArray(ResourceUtil.getResourceFileAsString("events/activiti/" + eventFileName));
+            String eventType = expected.getJSONObject(0).getString("eventType");
+            JSONArray actual = findRawActivitiEvent(eventType);
+            assertEquals(expected.length(), actual.length());
+            for (int i = 0; i < expected.length(); i++)
+            {
+                JSONObject expectedEvent = expected.getJSONObject(i);
+                JSONObject actualEvent = actual.getJSONObject(i);
+                assertNotEquals(expectedEvent.getString("id"), actualEvent.getString("id"));
+                assertTrue(actualEvent.getLong("timestamp") > expectedEvent.getLong("timestamp"));
+                // Apart from the dynamic values, the events are as defined in the resource
+                for (String key : new String[] { "id", "timestamp" })
+                {
+                    expectedEvent.remove(key);
+                    actualEvent.remove(key);
+                }
+                for (String key : new String[] { "startDate", "claimedDate", "createdDate" })
+                {
+                    assertEquals(expectedEvent.getJSONObject("entity").has(key), actualEvent.getJSONObject("entity").has(key));
+                    expectedEvent.getJSONObject("entity").remove(key);
+                    actualEvent.getJSONObject("entity").remove(key);
+                }
+                assertTrue(expectedEvent.similar(actualEvent));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentRendering() throws Exception
+    {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++)
+        {
+            executor.submit(() -> {
+                for (int j = 0; j < 250; j++)
+                {
+                    JSONArray events = new JSONArray(EventMaker.getRandomRawActivitiEvent());
+                    for (Object event : events)
+                    {
+                        ids.add(((JSONObject) event).getString("id"));
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        // Every rendered event got its own id, none was overwritten by another thread
+        assertTrue(ids.size() >= 1000);
+    }
+
+    private static JSONArray findRawActivitiEvent(String eventType)
+    {
+        for (EventMaker.RawActivitiEventInstance instance : EventMaker.RawActivitiEventInstance.values())
+        {
+            JSONArray events = new JSONArray(instance.getEvent());
+            if (eventType.equals(events.getJSONObject(0).getString("eventType")))
+            {
+                return events;
+            }
+        }
+        throw new AssertionError("No raw Activiti event of type " + eventType);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.template;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link TemplateDirectory}.
+ */
+public class TemplateDirectoryTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLoadAndRender() throws Exception
+    {
+        write("event.json", "[{\"id\":\"${uuid}\",\"timestamp\":${timestamp},\"user\":\"${user}\",\"group\":\"${group}\","
+                    + "\"date\":\"${date}\",\"priority\":${randomInt(1,3)}}]");
+        write("ignored.txt", "${unknown}");
+        try (TemplateDirectory directory = new TemplateDirectory(folder.getRoot().toPath(), EventMaker.getTemplatePlaceholders()).start())
+        {
+            assertEquals(1, directory.getNumOfTemplates());
+            JSONObject event = new JSONArray(directory.next().render()).getJSONObject(0);
+            assertEquals(36, event.getString("id").length());
+            assertTrue(event.getLong("timestamp") > 0L);
+            assertTrue(event.getString("user").length() > 0);
+            assertTrue(event.getString("group").length() > 0);
+            assertTrue(event.getString("date").length() > 0);
+            assertTrue(event.getInt("priority") >= 1 && event.getInt("priority") <= 3);
+        }
+    }
+
+    @Test
+    public void testHotReload() throws Exception
+    {
+        try (TemplateDirectory directory = new TemplateDirectory(folder.getRoot().toPath(), EventMaker.getTemplatePlaceholders()).start())
+        {
+            assertNull(directory.next());
+
+            write("event.json", "{\"version\":1}");
+            awaitUntil(() -> directory.getNumOfTemplates() == 1);
+            assertEquals(1, new JSONObject(directory.next().render()).getInt("version"));
+
+            write("event.json", "{\"version\":2}");
+            awaitUntil(() -> new JSONObject(directory.next().render()).getInt("version") == 2);
+
+            // A broken template doesn't replace the working one
+            write("event.json", "{\"version\":");
+            write("other.json", "{\"version\":3}");
+            awaitUntil(() -> directory.getNumOfTemplates() == 2);
+            for (int i = 0; i < 20; i++)
+            {
+                assertTrue(new JSONObject(directory.next().render()).getInt("version") >= 2);
+            }
+
+            Files.delete(folder.getRoot().toPath().resolve("other.json"));
+            awaitUntil(() -> directory.getNumOfTemplates() == 1);
+        }
+    }
+
+    private void write(String fileName, String content) throws Exception
+    {
+        Path file = folder.getRoot().toPath().resolve(fileName);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException
+    {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean())
+        {
+            assertTrue("Timed out", System.nanoTime() < deadline);
+            TimeUnit.MILLISECONDS.sleep(50L);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.EventMaker.RawAcsEventInstance;
+import org.alfresco.sync.events.types.NodeAddedEvent;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AliasSampler}.
+ */
+public class AliasSamplerTest
+{
+    @After
+    public void tearDown()
+    {
+        EventMaker.setRawAcsEventWeights(Collections.emptyMap());
+    }
+
+    @Test
+    public void testWeightedPicks()
+    {
+        String[] values = { "a", "b", "c", "d" };
+        double[] weights = { 80.0, 15.0, 5.0, 0.0 };
+        AliasSampler<String> sampler = new AliasSampler<>(values, weights);
+        assertEquals(0.80, sampler.getProbability(0), 1e-9);
+        assertEquals(0.15, sampler.getProbability(1), 1e-9);
+        assertEquals(0.05, sampler.getProbability(2), 1e-9);
+        assertEquals(0.0, sampler.getProbability(3), 1e-9);
+
+        Map<String, Integer> counts = new HashMap<>();
+        final int numOfPicks = 200_000;
+        for (int i = 0; i < numOfPicks; i++)
+        {
+            counts.merge(sampler.sample(), 1, Integer::sum);
+        }
+        assertEquals(0.80, counts.get("a") / (double) numOfPicks, 0.01);
+        assertEquals(0.15, counts.get("b") / (double) numOfPicks, 0.01);
+        assertEquals(0.05, counts.get("c") / (double) numOfPicks, 0.01);
+        // Zero weighted values are never picked
+        assertNull(counts.get("d"));
+    }
+
+    @Test
+    public void testUniform()
+    {
+        AliasSampler<Integer> sampler = AliasSampler.uniform(new Integer[] { 1, 2, 3 });
+        for (int i = 0; i < 3; i++)
+        {
+            assertEquals(1.0 / 3, sampler.getProbability(i), 1e-9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAllZeroWeights()
+    {
+        new AliasSampler<>(new String[] { "a", "b" }, new double[] { 0.0, 0.0 });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeight()
+    {
+        new AliasSampler<>(new String[] { "a", "b" }, new double[] { 1.0, -1.0 });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownEnumName()
+    {
+        AliasSampler.ofEnum(RawAcsEventInstance.class, Collections.singletonMap("NO_SUCH_EVENT", 1.0));
+    }
+
+    @Test
+    public void testEventMix()
+    {
+        Map<String, Double> weights = new HashMap<>();
+        for (RawAcsEventInstance instance : RawAcsEventInstance.values())
+        {
+            if (instance != RawAcsEventInstance.NODE_ADDED_EVENT)
+            {
+                weights.put(instance.name(), 0.0);
+            }
+        }
+        // Property style names are accepted too
+        weights.put("node-added-event", 1.0);
+        EventMaker.setRawAcsEventWeights(weights);
+        for (int i = 0; i < 1000; i++)
+        {
+            assertTrue(EventMaker.getRandomRawAcsEvent() instanceof NodeAddedEvent);
+        }
+    }
+}
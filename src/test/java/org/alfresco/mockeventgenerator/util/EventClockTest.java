@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.alfresco.mockeventgenerator.config.EventConfig.EventTypeCategory;
+import org.alfresco.mockeventgenerator.metrics.EventClockBenchmark;
+import org.json.JSONArray;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link EventClock} and {@link EventClockBenchmark}.
+ */
+public class EventClockTest
+{
+    @After
+    public void tearDown()
+    {
+        EventMaker.setClock(EventClock.system());
+    }
+
+    @Test
+    public void testFormatDateTime()
+    {
+        EventClock clock = EventClock.system();
+        long millis = 1_530_000_123_456L;
+        String expected = ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault())
+                    .format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ"));
+        assertEquals(expected, clock.formatDateTime(millis));
+        // Formatted once per millisecond
+        assertSame(clock.formatDateTime(millis), clock.formatDateTime(millis));
+        assertEquals(expected.replace(".456", ".457"), clock.formatDateTime(millis + 1));
+    }
+
+    @Test
+    public void testSyntheticClock()
+    {
+        EventClock.SyntheticClock clock = EventClock.synthetic(1_000L, 10L);
+        assertEquals(1_000L, clock.currentTimeMillis());
+        assertEquals(1_010L, clock.currentTimeMillis());
+        clock.advance(1_000L);
+        assertEquals(2_020L, clock.currentTimeMillis());
+        assertEquals(30, clock.currentMilliOfSecond());
+        clock.set(0L);
+        assertEquals("1970-01-01T00:00:00.000+0000", clock.formatDateTime());
+    }
+
+    @Test
+    public void testWorkerClock() throws Exception
+    {
+        EventClock.WorkerClock clock = EventClock.perWorker(1_000L, 5L);
+        RandomStreams.bindWorker(0);
+        assertEquals(1_000L, clock.currentTimeMillis());
+        assertEquals(1_005L, clock.peekTimeMillis());
+        assertEquals(1_005L, clock.currentTimeMillis());
+
+        // Another thread has a time of its own
+        long[] otherThread = new long[1];
+        Thread thread = new Thread(() -> {
+            RandomStreams.bindWorker(1);
+            otherThread[0] = clock.currentTimeMillis();
+        });
+        thread.start();
+        thread.join();
+        assertEquals(1_000L, otherThread[0]);
+        assertEquals(1_010L, clock.currentTimeMillis());
+
+        // Starts over when the thread is bound again
+        RandomStreams.bindWorker(0);
+        assertEquals(1_000L, clock.currentTimeMillis());
+    }
+
+    @Test
+    public void testEventsUseTheClock()
+    {
+        EventMaker.setClock(EventClock.synthetic(1_530_000_000_000L, 0L));
+        JSONArray events = new JSONArray(EventMaker.getRandomRawActivitiEvent());
+        for (int i = 0; i < events.length(); i++)
+        {
+            assertEquals(1_530_000_000_000L, events.getJSONObject(i).getLong("timestamp"));
+        }
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        EventClock clock = EventClock.synthetic(0L, 1L);
+        EventMaker.setClock(clock);
+        EventClockBenchmark benchmark = new EventClockBenchmark(200).run(Collections.singletonList(EventTypeCategory.ACTIVITI_RAW_EVENT));
+
+        assertTrue(benchmark.getUncachedNanos(EventTypeCategory.ACTIVITI_RAW_EVENT) > 0.0);
+        assertTrue(benchmark.getCachedNanos(EventTypeCategory.ACTIVITI_RAW_EVENT) > 0.0);
+        assertTrue(benchmark.getCachedNanos(EventTypeCategory.ACS_RAW_EVENT) < 0.0);
+        String report = benchmark.appendReport(new StringBuilder()).toString();
+        assertTrue(report, report.contains("ACTIVITI_RAW_EVENT: uncached="));
+        // The clock of the events is restored
+        assertSame(clock, EventMaker.getClock());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.mockeventgenerator.EventMaker;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link IdGenerator}.
+ */
+public class IdGeneratorTest
+{
+    @Test
+    public void testIdsAreValidUuids()
+    {
+        for (IdGenerator idGenerator : IdGenerator.values())
+        {
+            Set<String> ids = new HashSet<>();
+            for (int i = 0; i < 10_000; i++)
+            {
+                String id = idGenerator.newId();
+                UUID uuid = UUID.fromString(id);
+                // The canonical, lower case format round-trips
+                assertEquals(id, uuid.toString());
+                assertEquals(2, uuid.variant());
+                assertEquals((idGenerator == IdGenerator.TIME_ORDERED) ? 7 : 4, uuid.version());
+                ids.add(id);
+            }
+            assertEquals(idGenerator + " ids must be unique", 10_000, ids.size());
+        }
+    }
+
+    @Test
+    public void testAppendTo()
+    {
+        StringBuilder sb = new StringBuilder("id:");
+        IdGenerator.FAST_RANDOM.appendTo(sb);
+        assertEquals(39, sb.length());
+        UUID.fromString(sb.substring(3));
+    }
+
+    @Test
+    public void testTimeOrderedIds() throws Exception
+    {
+        long before = System.currentTimeMillis();
+        String first = IdGenerator.TIME_ORDERED.newId();
+        TimeUnit.MILLISECONDS.sleep(2);
+        String second = IdGenerator.TIME_ORDERED.newId();
+
+        assertTrue(first.compareTo(second) < 0);
+        long timestamp = UUID.fromString(first).getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis());
+    }
+
+    @Test
+    public void testTimeOrderedIdsUseTheEventClock()
+    {
+        EventClock clock = EventClock.synthetic(1_530_000_000_000L, 1L);
+        EventMaker.setClock(clock);
+        try
+        {
+            String id = IdGenerator.TIME_ORDERED.newId();
+            assertEquals(1_530_000_000_000L, UUID.fromString(id).getMostSignificantBits() >>> 16);
+
+            // Generating an id doesn't move a ticking clock on, so the ids don't shift the timestamps of the events
+            IdGenerator.TIME_ORDERED.newId();
+            assertEquals(1_530_000_000_000L, clock.currentTimeMillis());
+        }
+        finally
+        {
+            EventMaker.setClock(EventClock.system());
+        }
+    }
+}
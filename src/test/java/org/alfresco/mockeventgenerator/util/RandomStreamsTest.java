@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Alfresco Software, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.mockeventgenerator.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RandomStreams}.
+ */
+public class RandomStreamsTest
+{
+    @After
+    public void tearDown()
+    {
+        RandomStreams.setSeed(null);
+        RandomStreams.bindWorker(0);
+    }
+
+    @Test
+    public void testSameSeedAndWorkerGiveSameSequence() throws Exception
+    {
+        RandomStreams.setSeed(42L);
+        List<String> expected = drawSequence(3);
+
+        // Whatever thread runs the worker
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            Future<List<String>> other = executor.submit(() -> drawSequence(3));
+            assertEquals(expected, other.get());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        // Binding again restarts the stream
+        assertEquals(expected, drawSequence(3));
+    }
+
+    @Test
+    public void testWorkersAndSeedsGiveDifferentSequences()
+    {
+        RandomStreams.setSeed(42L);
+        List<String> worker0 = drawSequence(0);
+        List<String> worker1 = drawSequence(1);
+        assertNotEquals(worker0, worker1);
+
+        RandomStreams.setSeed(43L);
+        assertNotEquals(worker0, drawSequence(0));
+    }
+
+    @Test
+    public void testUnseededIsNotReproducible()
+    {
+        List<String> first = drawSequence(0);
+        assertNotEquals(first, drawSequence(0));
+    }
+
+    private static List<String> drawSequence(int workerIndex)
+    {
+        RandomStreams.bindWorker(workerIndex);
+        List<String> sequence = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+        {
+            sequence.add(RandomStreams.nextInt(1000) + ":" + IdGenerator.FAST_RANDOM.newId());
+        }
+        return sequence;
+    }
+}